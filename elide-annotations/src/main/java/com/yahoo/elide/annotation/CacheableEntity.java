@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.annotation;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity whose records may be shared across requests.  When a data store is wrapped by an
+ * {@code EntityCachingDataStore}, records of the entity which are loaded by id are served from the cache until they
+ * expire or are written.
+ * <p>
+ * Cached records are copies of the entity without its relationships.  Elide runs read permission checks, computed
+ * attributes and read lifecycle hooks against the records a load returns, and those would find the relationships
+ * unset.  An entity with relationships is therefore only cached if its read permissions, on the entity and on each
+ * of its fields, consist of user checks only, and it has no computed attributes, computed relationships or read
+ * lifecycle hooks.  Otherwise the annotation has no effect.
+ * <p>
+ * Records are only cached when the data store returns instances of the entity class itself.  Instances of generated
+ * subclasses, such as lazy loading proxies, are not cached.
+ */
+@Target({TYPE})
+@Retention(RUNTIME)
+@Inherited
+public @interface CacheableEntity {
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.annotation;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link com.yahoo.elide.security.checks.UserCheck} whose result depends only on the user's identity.
+ * When a user check cache is configured, the result of the check is shared across requests made by the same user
+ * until it expires or is invalidated.
+ */
+@Target({TYPE})
+@Retention(RUNTIME)
+@Inherited
+public @interface CacheableUserCheck {
+}
@@ -55,6 +55,7 @@ import org.owasp.encoder.Encode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Set;
@@ -282,7 +283,10 @@ public class Elide {
 
             requestScope.runQueuedPreCommitTriggers();
 
-            ElideResponse response = buildResponse(responder.get());
+            //The body is serialized while the transaction is open, since the data store may load attributes lazily.
+            Pair<Integer, JsonNode> body = responder.get();
+            boolean asBytes = isReadOnly && elideSettings.isSerializeResponsesToBytes() && body.getRight() != null;
+            ElideResponse response = asBytes ? buildByteResponse(body) : buildResponse(body);
 
             auditLogger.commit(requestScope);
             tx.commit(requestScope);
@@ -368,6 +372,19 @@ public class Elide {
         }
     }
 
+    /**
+     * Builds a response whose body is serialized to UTF-8 bytes rather than to a string.
+     *
+     * @param response the response code and body
+     * @return the response
+     * @throws IOException if the body cannot be serialized
+     */
+    protected ElideResponse buildByteResponse(Pair<Integer, JsonNode> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writeJsonApiDocument(response.getRight(), out);
+        return new ElideResponse(response.getLeft(), null, out.toByteArray());
+    }
+
     /**
      * A function that sets up the request handling objects.
      *
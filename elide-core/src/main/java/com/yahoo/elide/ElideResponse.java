@@ -8,13 +8,17 @@ package com.yahoo.elide;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Elide response object.
  */
-@Builder
 public class ElideResponse {
     @Getter private final int responseCode;
-    @Getter private final String body;
+    private final String body;
+    private final byte[] bodyBytes;
 
     /**
      * Constructor.
@@ -23,7 +27,53 @@ public class ElideResponse {
      * @param body returned body string
      */
     public ElideResponse(int responseCode, String body) {
+        this(responseCode, body, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param responseCode HTTP response code
+     * @param body returned body string
+     * @param bodyBytes returned body serialized as UTF-8 (used when body is null)
+     */
+    @Builder
+    public ElideResponse(int responseCode, String body, byte[] bodyBytes) {
         this.responseCode = responseCode;
         this.body = body;
+        this.bodyBytes = bodyBytes;
+    }
+
+    /**
+     * Whether the body of this response is held as UTF-8 bytes rather than as a string.
+     *
+     * @return true if the body is held as bytes
+     */
+    public boolean hasBodyBytes() {
+        return body == null && bodyBytes != null;
+    }
+
+    /**
+     * Returns the response body as a string.  Bodies held as bytes are decoded by every call, so endpoints
+     * which can write to an output stream should prefer {@link #writeBody(OutputStream)}.
+     *
+     * @return the response body
+     */
+    public String getBody() {
+        return hasBodyBytes() ? new String(bodyBytes, StandardCharsets.UTF_8) : body;
+    }
+
+    /**
+     * Writes the response body to the given stream as UTF-8.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the body cannot be written
+     */
+    public void writeBody(OutputStream out) throws IOException {
+        if (hasBodyBytes()) {
+            out.write(bodyBytes);
+        } else if (body != null) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
     }
 }
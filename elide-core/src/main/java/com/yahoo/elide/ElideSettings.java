@@ -13,6 +13,7 @@ import com.yahoo.elide.core.filter.dialect.JoinFilterDialect;
 import com.yahoo.elide.core.filter.dialect.SubqueryFilterDialect;
 import com.yahoo.elide.jsonapi.JsonApiMapper;
 import com.yahoo.elide.security.PermissionExecutor;
+import com.yahoo.elide.security.permissions.UserCheckCache;
 import com.yahoo.elide.utils.coerce.converters.Serde;
 
 import lombok.AllArgsConstructor;
@@ -20,6 +21,7 @@ import lombok.Getter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 /**
@@ -41,4 +43,8 @@ public class ElideSettings {
     @Getter private final boolean returnErrorObjects;
     @Getter private final Map<Class, Serde> serdes;
     @Getter private final boolean encodeErrorResponses;
+    @Getter private final boolean serializeResponsesToBytes;
+    @Getter private final UserCheckCache userCheckCache;
+    @Getter private final ForkJoinPool inMemoryFilterPool;
+    @Getter private final int parallelFilterThreshold;
 }
@@ -19,6 +19,7 @@ import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.jsonapi.JsonApiMapper;
 import com.yahoo.elide.security.PermissionExecutor;
 import com.yahoo.elide.security.executors.ActivePermissionExecutor;
+import com.yahoo.elide.security.permissions.UserCheckCache;
 import com.yahoo.elide.utils.coerce.converters.EpochToDateConverter;
 import com.yahoo.elide.utils.coerce.converters.ISO8601DateSerde;
 import com.yahoo.elide.utils.coerce.converters.Serde;
@@ -31,6 +32,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 /**
@@ -51,6 +53,10 @@ public class ElideSettingsBuilder {
     private int updateStatusCode;
     private boolean returnErrorObjects;
     private boolean encodeErrorResponses;
+    private boolean serializeResponsesToBytes;
+    private UserCheckCache userCheckCache;
+    private ForkJoinPool inMemoryFilterPool;
+    private int parallelFilterThreshold = Integer.MAX_VALUE;
 
     /**
      * A new builder used to generate Elide instances. Instantiates an {@link EntityDictionary} without
@@ -96,7 +102,11 @@ public class ElideSettingsBuilder {
                 updateStatusCode,
                 returnErrorObjects,
                 serdes,
-                encodeErrorResponses);
+                encodeErrorResponses,
+                serializeResponsesToBytes,
+                userCheckCache,
+                inMemoryFilterPool,
+                parallelFilterThreshold);
     }
 
     public ElideSettingsBuilder withAuditLogger(AuditLogger auditLogger) {
@@ -201,4 +211,35 @@ public class ElideSettingsBuilder {
         this.encodeErrorResponses = encodeErrorResponses;
         return this;
     }
+
+    /**
+     * Serializes the bodies of read responses to UTF-8 bytes rather than to strings, which endpoints write to
+     * the client as they are.
+     *
+     * @param serializeResponsesToBytes whether read responses are serialized to bytes
+     * @return the builder
+     */
+    public ElideSettingsBuilder withSerializeResponsesToBytes(boolean serializeResponsesToBytes) {
+        this.serializeResponsesToBytes = serializeResponsesToBytes;
+        return this;
+    }
+
+    public ElideSettingsBuilder withUserCheckCache(UserCheckCache userCheckCache) {
+        this.userCheckCache = userCheckCache;
+        return this;
+    }
+
+    /**
+     * Filters large in-memory collections in parallel.  The pool is owned by the caller, which must shut it down
+     * once Elide is no longer used.
+     *
+     * @param pool the pool which filters collections
+     * @param rowThreshold the number of rows above which a collection is filtered in parallel
+     * @return the builder
+     */
+    public ElideSettingsBuilder withParallelInMemoryFiltering(ForkJoinPool pool, int rowThreshold) {
+        this.inMemoryFilterPool = pool;
+        this.parallelFilterThreshold = rowThreshold;
+        return this;
+    }
 }
@@ -14,7 +14,12 @@ import com.yahoo.elide.security.User;
 
 import java.io.Closeable;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -189,6 +194,89 @@ public interface DataStoreTransaction extends Closeable {
         return PersistentResource.getValue(entity, relationName, scope);
     }
 
+    /**
+     * Retrieve the same relation from several objects.  Data stores can override this to load the relation of all
+     * the objects at once rather than one object at a time.
+     *
+     * @param relationTx - The datastore that governs objects of the relationhip's type.
+     * @param entities - The objects which own the relationship.
+     * @param relationName - name of the relationship.
+     * @param filterExpression - filtering which can be pushed down to the data store.
+     * It is optional for the data store to attempt evaluation.
+     * @param sorting - sorting which can be pushed down to the data store.
+     * @param scope - contains request level metadata.
+     * @return the object in the relation of each entity, keyed by entity identity
+     */
+    default Map<Object, Object> getRelations(
+            DataStoreTransaction relationTx,
+            Collection<?> entities,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            Optional<Sorting> sorting,
+            RequestScope scope) {
+        Map<Object, Object> relations = new IdentityHashMap<>();
+        for (Object entity : entities) {
+            relations.put(entity,
+                    getRelation(relationTx, entity, relationName, filterExpression, sorting, Optional.empty(), scope));
+        }
+        return relations;
+    }
+
+    /**
+     * Retrieve the identifiers of the objects in a relation.  Used to render resource linkage, which only needs the
+     * identifiers.  Data stores can override this to avoid loading the related objects.
+     *
+     * @param relationTx - The datastore that governs objects of the relationhip's type.
+     * @param entity - The object which owns the relationship.
+     * @param relationName - name of the relationship.
+     * @param filterExpression - filtering which must be applied by the data store.
+     * @param scope - contains request level metadata.
+     * @return the identifiers of the objects in the relation
+     */
+    default Collection<String> getRelationIdentifiers(
+            DataStoreTransaction relationTx,
+            Object entity,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            RequestScope scope) {
+        Object val = getRelation(relationTx, entity, relationName, filterExpression, Optional.empty(),
+                Optional.empty(), scope);
+
+        List<String> identifiers = new ArrayList<>();
+        if (val instanceof Iterable) {
+            for (Object related : (Iterable<?>) val) {
+                identifiers.add(scope.getDictionary().getId(related));
+            }
+        } else if (val != null) {
+            identifiers.add(scope.getDictionary().getId(val));
+        }
+        return identifiers;
+    }
+
+    /**
+     * Retrieve the identifiers of the objects in the same relation of several objects.  Data stores can override
+     * this to read the identifiers of every object's relation at once rather than one object at a time.
+     *
+     * @param relationTx - The datastore that governs objects of the relationhip's type.
+     * @param entities - The objects which own the relationship.
+     * @param relationName - name of the relationship.
+     * @param filterExpression - filtering which must be applied by the data store.
+     * @param scope - contains request level metadata.
+     * @return the identifiers of the objects in the relation of each entity, keyed by entity identity
+     */
+    default Map<Object, Collection<String>> getRelationsIdentifiers(
+            DataStoreTransaction relationTx,
+            Collection<?> entities,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            RequestScope scope) {
+        Map<Object, Collection<String>> identifiers = new IdentityHashMap<>();
+        for (Object entity : entities) {
+            identifiers.put(entity,
+                    getRelationIdentifiers(relationTx, entity, relationName, filterExpression, scope));
+        }
+        return identifiers;
+    }
 
     /**
      * Elide core will update the in memory representation of the objects to the requested state.
@@ -285,4 +373,13 @@ public interface DataStoreTransaction extends Closeable {
     default boolean supportsPagination(Class<?> entityClass) {
         return true;
     }
+
+    /**
+     * Whether or not the transaction can start a page after a keyset cursor.
+     * @param entityClass
+     * @return true if keyset pagination is possible
+     */
+    default boolean supportsKeysetPagination(Class<?> entityClass) {
+        return false;
+    }
 }
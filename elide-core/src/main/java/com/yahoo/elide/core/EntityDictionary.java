@@ -19,15 +19,19 @@ import com.yahoo.elide.annotation.SharePermission;
 import com.yahoo.elide.core.exceptions.HttpStatusException;
 import com.yahoo.elide.core.exceptions.InternalServerErrorException;
 import com.yahoo.elide.core.exceptions.InvalidAttributeException;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.functions.LifeCycleHook;
 import com.yahoo.elide.security.checks.Check;
 import com.yahoo.elide.security.checks.prefab.Collections.AppendOnly;
 import com.yahoo.elide.security.checks.prefab.Collections.RemoveOnly;
 import com.yahoo.elide.security.checks.prefab.Common;
 import com.yahoo.elide.security.checks.prefab.Role;
+import com.yahoo.elide.security.permissions.PermissionPlan;
 import com.yahoo.elide.utils.ClassScanner;
 import com.yahoo.elide.utils.coerce.CoerceUtil;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
@@ -58,6 +62,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -82,9 +87,12 @@ public class EntityDictionary {
     protected final ConcurrentHashMap<Class<?>, List<Class<?>>> subclassingEntities = new ConcurrentHashMap<>();
     protected final BiMap<String, Class<? extends Check>> checkNames;
     protected final Injector injector;
+    protected final Cache<FilterExpression, BiPredicate<Object, RequestScope>> compiledFilters =
+            CacheBuilder.newBuilder().maximumSize(COMPILED_FILTER_CACHE_SIZE).build();
 
     public final static String REGULAR_ID_NAME = "id";
     private final static ConcurrentHashMap<Class, String> SIMPLE_NAMES = new ConcurrentHashMap<>();
+    private final static int COMPILED_FILTER_CACHE_SIZE = 1024;
 
     /**
      * Instantiate a new EntityDictionary with the provided set of checks. In addition all of the checks
@@ -273,6 +281,53 @@ public class EntityDictionary {
         return binding.entityPermissions.getFieldChecksForPermission(field, annotationClass);
     }
 
+    /**
+     * Gets the compiled permission definition (if any) at the class level.
+     *
+     * @param resourceClass the entity to check
+     * @param annotationClass the permission to look for
+     * @return the compiled permission or null if none
+     */
+    public PermissionPlan getPermissionPlanForClass(Class<?> resourceClass,
+            Class<? extends Annotation> annotationClass) {
+        EntityBinding binding = getEntityBinding(resourceClass);
+        return binding.entityPermissions.getClassPlanForPermission(annotationClass);
+    }
+
+    /**
+     * Gets the compiled permission definition (if any) for a field.
+     *
+     * @param resourceClass the entity to check
+     * @param field the field to inspect
+     * @param annotationClass the permission to look for
+     * @return the compiled permission or null if none
+     */
+    public PermissionPlan getPermissionPlanForField(Class<?> resourceClass,
+            String field,
+            Class<? extends Annotation> annotationClass) {
+        EntityBinding binding = getEntityBinding(resourceClass);
+        return binding.entityPermissions.getFieldPlanForPermission(field, annotationClass);
+    }
+
+    /**
+     * Returns the in-memory predicate compiled for a filter expression, compiling it on first use.  Compiled
+     * predicates are shared by every request with an equal filter expression.
+     *
+     * @param expression the filter expression
+     * @param compiler compiles the filter expression
+     * @return the compiled predicate
+     */
+    public BiPredicate<Object, RequestScope> getCompiledFilter(
+            FilterExpression expression,
+            Function<FilterExpression, BiPredicate<Object, RequestScope>> compiler) {
+        BiPredicate<Object, RequestScope> compiled = compiledFilters.getIfPresent(expression);
+        if (compiled == null) {
+            compiled = compiler.apply(expression);
+            compiledFilters.put(expression, compiled);
+        }
+        return compiled;
+    }
+
     /**
      * Returns the check mapped to a particular identifier.
      *
@@ -1327,7 +1382,17 @@ public class EntityDictionary {
      * @return the value
      */
     public Object getValue(Object target, String fieldName, RequestScope scope) {
-        AccessibleObject accessor = getAccessibleObject(target, fieldName);
+        EntityBinding binding = getEntityBinding(target.getClass());
+        FieldAccessor compiled = binding.fieldsToAccessors.get(fieldName);
+        if (compiled != null && compiled.canGet()) {
+            try {
+                return compiled.get(target, scope);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw handleTargetException(e, e);
+            }
+        }
+
+        AccessibleObject accessor = binding.fieldsToValues.get(fieldName);
         try {
             if (accessor instanceof Method) {
                 // Pass RequestScope into @Computed fields if requested
@@ -1347,12 +1412,40 @@ public class EntityDictionary {
         throw new InvalidAttributeException(fieldName, getJsonAliasFor(target.getClass()));
     }
 
+    /**
+     * Whether a field can be read without using the request scope.  Such fields can be read concurrently from
+     * several threads on behalf of one request.
+     *
+     * @param entityClass the entity class
+     * @param fieldName the field name
+     * @return true if the field is read through a compiled accessor which is not passed the request scope
+     */
+    public boolean isReadableWithoutScope(Class<?> entityClass, String fieldName) {
+        FieldAccessor compiled = getEntityBinding(entityClass).fieldsToAccessors.get(fieldName);
+        return compiled != null && compiled.canGetWithoutScope();
+    }
+
     /**
      * Invoke the set[fieldName] method on the target object OR set the field with the corresponding name.
      * @param fieldName the field name to set or invoke equivalent set method
      * @param value the value to set
      */
     public void setValue(Object target, String fieldName, Object value) {
+        setValue(target, fieldName, value, true);
+    }
+
+    /**
+     * Sets a field like {@link #setValue(Object, String, Object)}, but without coercing the value, which must already
+     * be of the field type.  Collections are not iterated to check their members, so collections which load their
+     * members when they are first accessed stay unloaded.
+     * @param fieldName the field name to set or invoke equivalent set method
+     * @param value the value to set
+     */
+    public void setUncoercedValue(Object target, String fieldName, Object value) {
+        setValue(target, fieldName, value, false);
+    }
+
+    private void setValue(Object target, String fieldName, Object value, boolean coerce) {
         Class<?> targetClass = target.getClass();
         String targetType = getJsonAliasFor(targetClass);
 
@@ -1361,9 +1454,23 @@ public class EntityDictionary {
             Class<?> fieldClass = getType(targetClass, fieldName);
             String realName = getNameFromAlias(target, fieldName);
             fieldAlias = (realName != null) ? realName : fieldName;
+
+            FieldAccessor compiled = getEntityBinding(targetClass).fieldsToAccessors.get(fieldAlias);
+            if (compiled != null && compiled.getSetterType() != null) {
+                Object coerced = coerce ? coerce(target, value, fieldAlias, compiled.getSetterType()) : value;
+                if (compiled.canSet(coerced)) {
+                    try {
+                        compiled.set(target, coerced);
+                    } catch (ReflectiveOperationException | RuntimeException e) {
+                        throw handleTargetException(e, e);
+                    }
+                    return;
+                }
+            }
+
             String setMethod = "set" + StringUtils.capitalize(fieldAlias);
             Method method = EntityDictionary.findMethod(targetClass, setMethod, fieldClass);
-            method.invoke(target, coerce(target, value, fieldAlias, fieldClass));
+            method.invoke(target, coerce ? coerce(target, value, fieldAlias, fieldClass) : value);
         } catch (IllegalAccessException e) {
             throw new InvalidAttributeException(fieldAlias, targetType, e);
         } catch (InvocationTargetException e) {
@@ -1373,7 +1480,7 @@ public class EntityDictionary {
             if (accessor != null && accessor instanceof Field) {
                 Field field = (Field) accessor;
                 try {
-                    field.set(target, coerce(target, value, fieldAlias, field.getType()));
+                    field.set(target, coerce ? coerce(target, value, fieldAlias, field.getType()) : value);
                 } catch (IllegalAccessException noField) {
                     throw new InvalidAttributeException(fieldAlias, targetType, noField);
                 }
@@ -1390,12 +1497,22 @@ public class EntityDictionary {
      * @return Equivalent runtime exception
      */
     private static RuntimeException handleInvocationTargetException(InvocationTargetException e) {
-        Throwable exception = e.getTargetException();
+        return handleTargetException(e.getTargetException(), e);
+    }
+
+    /**
+     * Handle an exception thrown by an entity's getter or setter.
+     *
+     * @param exception the exception thrown by the entity
+     * @param cause the exception to report as the cause of an internal server error
+     * @return Equivalent runtime exception
+     */
+    private static RuntimeException handleTargetException(Throwable exception, Throwable cause) {
         if (exception instanceof HttpStatusException || exception instanceof WebApplicationException) {
             return (RuntimeException) exception;
         }
-        log.error("Caught an unexpected exception (rethrowing as internal server error)", e);
-        return new InternalServerErrorException("Unexpected exception caught", e);
+        log.error("Caught an unexpected exception (rethrowing as internal server error)", cause);
+        return new InternalServerErrorException("Unexpected exception caught", cause);
     }
 
     /**
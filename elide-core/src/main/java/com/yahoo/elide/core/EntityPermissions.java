@@ -12,6 +12,7 @@ import com.yahoo.elide.annotation.SharePermission;
 import com.yahoo.elide.annotation.UpdatePermission;
 import com.yahoo.elide.generated.parsers.ExpressionLexer;
 import com.yahoo.elide.generated.parsers.ExpressionParser;
+import com.yahoo.elide.security.permissions.PermissionPlan;
 
 import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
@@ -33,6 +34,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Extract permissions related annotation data for a model.
@@ -51,11 +53,16 @@ public class EntityPermissions implements CheckInstantiator {
 
     private static final AnnotationBinding EMPTY_BINDING = new AnnotationBinding(null, Collections.emptyMap());
     private final HashMap<Class<? extends Annotation>, AnnotationBinding> bindings = new HashMap<>();
+    private final EntityDictionary dictionary;
 
     private static class AnnotationBinding {
         final ParseTree classPermission;
         final Map<String, ParseTree> fieldPermissions;
 
+        /* Plans are compiled on first use since checks may be bound to the dictionary after the entity. */
+        volatile PermissionPlan classPlan;
+        final ConcurrentHashMap<String, PermissionPlan> fieldPlans = new ConcurrentHashMap<>();
+
         public AnnotationBinding(ParseTree classPermission, Map<String, ParseTree> fieldPermissions) {
             this.classPermission = classPermission;
             this.fieldPermissions = fieldPermissions.isEmpty() ? Collections.emptyMap() : fieldPermissions;
@@ -64,6 +71,7 @@ public class EntityPermissions implements CheckInstantiator {
 
 
     private EntityPermissions() {
+        dictionary = null;
     }
 
     /**
@@ -75,6 +83,7 @@ public class EntityPermissions implements CheckInstantiator {
     public EntityPermissions(EntityDictionary dictionary,
                              Class<?> cls,
                              Collection<AccessibleObject> fieldOrMethodList)  {
+        this.dictionary = dictionary;
         for (Class<? extends Annotation> annotationClass : PERMISSION_ANNOTATIONS) {
             final Map<String, ParseTree> fieldPermissions = new HashMap<>();
             fieldOrMethodList.stream()
@@ -164,4 +173,38 @@ public class EntityPermissions implements CheckInstantiator {
     public ParseTree getFieldChecksForPermission(String field, Class<? extends Annotation> annotationClass) {
         return bindings.getOrDefault(annotationClass, EMPTY_BINDING).fieldPermissions.get(field);
     }
+
+    /**
+     * Get the compiled entity permission for the provided permission class.
+     * @param annotationClass permission class
+     * @return compiled entity permission or null if none
+     */
+    public PermissionPlan getClassPlanForPermission(Class<? extends Annotation> annotationClass) {
+        AnnotationBinding binding = bindings.getOrDefault(annotationClass, EMPTY_BINDING);
+        if (binding.classPermission == null) {
+            return null;
+        }
+
+        PermissionPlan plan = binding.classPlan;
+        if (plan == null) {
+            plan = PermissionPlan.compile(dictionary, binding.classPermission);
+            binding.classPlan = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * Get the compiled field permission for the provided field name and permission class.
+     * @param field provided field name
+     * @param annotationClass permission class
+     * @return compiled field permission or null if none
+     */
+    public PermissionPlan getFieldPlanForPermission(String field, Class<? extends Annotation> annotationClass) {
+        AnnotationBinding binding = bindings.getOrDefault(annotationClass, EMPTY_BINDING);
+        ParseTree permissions = binding.fieldPermissions.get(field);
+        if (permissions == null) {
+            return null;
+        }
+        return binding.fieldPlans.computeIfAbsent(field, key -> PermissionPlan.compile(dictionary, permissions));
+    }
 }
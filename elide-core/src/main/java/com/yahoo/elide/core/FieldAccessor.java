@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Getter and setter for a single entity field, compiled to method handles when the entity is bound so that
+ * reads and writes do not go through reflective invocation.
+ */
+class FieldAccessor {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class, RequestScope.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /* (Object target, RequestScope scope) -> Object.  Null if the field cannot be read through a handle. */
+    private final MethodHandle getter;
+
+    /* (Object target, Object value) -> void.  Null if the field cannot be written through a handle. */
+    private final MethodHandle setter;
+
+    /* The type values must be coerced to before they are passed to the setter. */
+    @Getter
+    private final Class<?> setterType;
+
+    /* Whether the getter is passed the request scope. */
+    private final boolean scopedGetter;
+
+    private FieldAccessor(MethodHandle getter, MethodHandle setter, Class<?> setterType, boolean scopedGetter) {
+        this.getter = getter;
+        this.setter = setter;
+        this.setterType = setterType;
+        this.scopedGetter = scopedGetter;
+    }
+
+    /**
+     * Compiles the accessor for a bound field.
+     *
+     * @param cls the entity class
+     * @param fieldOrMethod the bound field or getter
+     * @param fieldName the field name
+     * @param fieldType the field type
+     * @return the compiled accessor
+     */
+    static FieldAccessor compile(Class<?> cls, AccessibleObject fieldOrMethod, String fieldName, Class<?> fieldType) {
+        MethodHandle getter = compileGetter(fieldOrMethod);
+
+        MethodHandle setter = null;
+        Class<?> setterType = null;
+        try {
+            Method method = EntityDictionary.findMethod(cls, "set" + StringUtils.capitalize(fieldName), fieldType);
+            setter = LOOKUP.unreflect(method).asType(SETTER_TYPE);
+            setterType = fieldType;
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) {
+            if (fieldOrMethod instanceof Field) {
+                try {
+                    Field field = (Field) fieldOrMethod;
+                    setter = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+                    setterType = field.getType();
+                } catch (IllegalAccessException | SecurityException e2) {
+                    setter = null;
+                }
+            }
+        }
+
+        boolean scopedGetter = fieldOrMethod instanceof Method
+                && EntityBinding.isRequestScopeableMethod((Method) fieldOrMethod);
+
+        return new FieldAccessor(getter, setter, setterType, scopedGetter);
+    }
+
+    private static MethodHandle compileGetter(AccessibleObject fieldOrMethod) {
+        try {
+            if (fieldOrMethod instanceof Field) {
+                MethodHandle handle = LOOKUP.unreflectGetter((Field) fieldOrMethod)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                return MethodHandles.dropArguments(handle, 1, RequestScope.class);
+            }
+
+            Method method = (Method) fieldOrMethod;
+            MethodHandle handle = LOOKUP.unreflect(method);
+            if (EntityBinding.isRequestScopeableMethod(method)) {
+                return handle.asType(GETTER_TYPE);
+            }
+            if (method.getParameterCount() != 0) {
+                return null;
+            }
+            handle = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return MethodHandles.dropArguments(handle, 1, RequestScope.class);
+        } catch (IllegalAccessException | SecurityException e) {
+            return null;
+        }
+    }
+
+    boolean canGet() {
+        return getter != null;
+    }
+
+    /**
+     * Whether the field can be read through the compiled getter without touching the request scope, which is not
+     * thread-safe.
+     *
+     * @return true if the field can be read without the request scope
+     */
+    boolean canGetWithoutScope() {
+        return getter != null && !scopedGetter;
+    }
+
+    /**
+     * Whether the value can be passed to the compiled setter without a conversion failure.
+     *
+     * @param value the coerced value
+     * @return true if the value can be set through the compiled setter
+     */
+    boolean canSet(Object value) {
+        if (setter == null) {
+            return false;
+        }
+        if (value == null) {
+            return !setterType.isPrimitive();
+        }
+        return ClassUtils.primitiveToWrapper(setterType).isInstance(value);
+    }
+
+    /**
+     * Reads the field through the compiled getter.
+     *
+     * @param target the entity
+     * @param scope the request scope
+     * @return the value of the field
+     * @throws InvocationTargetException if the getter throws a checked exception
+     */
+    Object get(Object target, RequestScope scope) throws InvocationTargetException {
+        try {
+            return (Object) getter.invokeExact(target, scope);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Writes the field through the compiled setter.
+     *
+     * @param target the entity
+     * @param value the coerced value
+     * @throws InvocationTargetException if the setter throws a checked exception
+     */
+    void set(Object target, Object value) throws InvocationTargetException {
+        try {
+            setter.invokeExact(target, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.InPredicate;
 import com.yahoo.elide.core.filter.expression.AndFilterExpression;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.pagination.KeysetCursor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
 import com.yahoo.elide.jsonapi.models.Data;
@@ -38,6 +39,7 @@ import com.yahoo.elide.utils.coerce.CoerceUtil;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IterableUtils;
@@ -52,6 +54,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -305,9 +308,12 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
             }
         }
 
+        Optional<Pagination> computedPagination = pagination.map(p -> p.evaluate(loadClass));
+        Iterable<Object> loaded = tx.loadObjects(loadClass, Optional.ofNullable(filterExpression), sorting,
+                computedPagination, requestScope);
         Set<PersistentResource> existingResources = filter(ReadPermission.class, filter,
-                new PersistentResourceSet(tx.loadObjects(loadClass, Optional.ofNullable(filterExpression), sorting,
-                pagination.map(p -> p.evaluate(loadClass)), requestScope), requestScope));
+                new PersistentResourceSet(trackKeysetPage(loaded, computedPagination, sorting, requestScope),
+                        requestScope));
 
         Set<PersistentResource> allResources = Sets.union(newResources, existingResources);
 
@@ -1007,18 +1013,17 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
         Optional<Pagination> computedPagination = pagination.map(p -> p.evaluate(relationClass));
 
         //Invoke filterExpressionCheck and then merge with filterExpression.
-        Optional<FilterExpression> permissionFilter = getPermissionFilterExpression(relationClass, requestScope);
-        Optional<FilterExpression> computedFilters = filterExpression;
+        Optional<FilterExpression> computedFilters = mergePermissionFilter(relationClass, filterExpression,
+                requestScope);
 
-        if (permissionFilter.isPresent() && filterExpression.isPresent()) {
-            FilterExpression mergedExpression =
-                    new AndFilterExpression(filterExpression.get(), permissionFilter.get());
-            computedFilters = Optional.of(mergedExpression);
-        } else if (permissionFilter.isPresent()) {
-            computedFilters = permissionFilter;
-        }
+        //Relationships loaded ahead of time for several resources are neither sorted nor paginated.
+        Optional<Object> loaded = sorting.isPresent() || computedPagination.isPresent()
+                ? Optional.empty()
+                : requestScope.getLoadedRelation(obj, relationName, computedFilters);
 
-        Object val = transaction.getRelation(transaction, obj, relationName,
+        Object val = loaded.isPresent()
+                ? loaded.get()
+                : transaction.getRelation(transaction, obj, relationName,
                     computedFilters, sorting, computedPagination, requestScope);
 
         if (val == null) {
@@ -1027,7 +1032,7 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
 
         Set<PersistentResource> resources = Sets.newLinkedHashSet();
         if (val instanceof Iterable) {
-            Iterable filteredVal = (Iterable) val;
+            Iterable filteredVal = trackKeysetPage((Iterable) val, computedPagination, sorting, requestScope);
             resources = new PersistentResourceSet(this, filteredVal, requestScope);
         } else if (type.isToOne()) {
             resources = new SingleElementSet<>(
@@ -1039,6 +1044,223 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
         return resources;
     }
 
+    /**
+     * Records the cursor of the next keyset page when the store returns a full page.  The cursor follows the last
+     * record the store returned rather than the last record which passes the read permission checks, so that
+     * records the user cannot read neither end the traversal early nor are returned again.
+     *
+     * @param records The records loaded by the store
+     * @param pagination The pagination of the records
+     * @param sorting The sorting of the records
+     * @param requestScope The request scope
+     * @param <T> The type of the records
+     * @return The records, which record the cursor as they are iterated
+     */
+    private static <T> Iterable<T> trackKeysetPage(Iterable<T> records, Optional<Pagination> pagination,
+            Optional<Sorting> sorting, RequestScope requestScope) {
+        if (!pagination.isPresent() || !pagination.get().isKeyset()) {
+            return records;
+        }
+
+        Pagination page = pagination.get();
+        return () -> {
+            Iterator<T> iterator = records.iterator();
+            page.setNextAfter(null);
+            return new UnmodifiableIterator<T>() {
+                private int count;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    T record = iterator.next();
+                    if (++count == page.getLimit()) {
+                        PersistentResource<T> last = new PersistentResource<>(record, null,
+                                requestScope.getUUIDFor(record), requestScope);
+                        page.setNextAfter(KeysetCursor.of(last, sorting));
+                    }
+                    return record;
+                }
+            };
+        };
+    }
+
+    /**
+     * Merges the filter of a relationship with the read permission filter of the relationship's type.
+     *
+     * @param relationClass The type of the relationship
+     * @param filterExpression An optional filter expression
+     * @param requestScope The request scope
+     * @return The merged filter expression
+     */
+    private static Optional<FilterExpression> mergePermissionFilter(Class<?> relationClass,
+            Optional<FilterExpression> filterExpression,
+            RequestScope requestScope) {
+        Optional<FilterExpression> permissionFilter = getPermissionFilterExpression(relationClass, requestScope);
+
+        if (permissionFilter.isPresent() && filterExpression.isPresent()) {
+            return Optional.of(new AndFilterExpression(filterExpression.get(), permissionFilter.get()));
+        } else if (permissionFilter.isPresent()) {
+            return permissionFilter;
+        }
+        return filterExpression;
+    }
+
+    /**
+     * Loads the to-many relationships of several resources ahead of their serialization.  Each relationship is
+     * read with a single call to the data store for the resources which may read it, rather than once per resource.
+     * The included relationships, and those whose linkage needs the related objects, are loaded whole.  Only the
+     * identifiers of the others are read.
+     *
+     * @param resources The resources
+     * @param includedRelations The names of the relationships of the resources which the request includes
+     */
+    public static void loadRelations(Collection<PersistentResource> resources, Set<String> includedRelations) {
+        groupByResourceClass(resources).forEach((resourceClass, group) -> {
+            PersistentResource<?> first = group.get(0);
+            first.dictionary.getRelationships(resourceClass).stream()
+                    .filter(relationName -> checkIncludeSparseField(first.requestScope.getSparseFields(),
+                            first.type, relationName))
+                    .forEach(relationName -> {
+                        if (includedRelations.contains(relationName) || !first.hasIdentifierLinkage(relationName)) {
+                            loadRelation(group, relationName);
+                        } else {
+                            loadRelationIdentifiers(group, relationName);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Loads a to-many relationship of several resources with a single call to the data store.
+     *
+     * @param resources The resources
+     * @param relationName The name of the relationship
+     */
+    public static void loadRelation(Collection<PersistentResource> resources, String relationName) {
+        groupByResourceClass(resources).forEach((resourceClass, group) -> loadRelation(group, relationName));
+    }
+
+    private static Map<Class<?>, List<PersistentResource>> groupByResourceClass(
+            Collection<PersistentResource> resources) {
+        return resources.stream()
+                .filter(resource -> resource.getObject() != null)
+                .collect(Collectors.groupingBy(PersistentResource::getResourceClass, LinkedHashMap::new,
+                        Collectors.toList()));
+    }
+
+    private static void loadRelation(List<PersistentResource> resources, String relationName) {
+        if (!isBatchLoadable(resources, relationName)) {
+            return;
+        }
+
+        PersistentResource<?> first = resources.get(0);
+        RequestScope requestScope = first.requestScope;
+        Class<?> relationClass = first.dictionary.getParameterizedType(first.getResourceClass(), relationName);
+
+        Optional<FilterExpression> filterExpression = mergePermissionFilter(relationClass,
+                requestScope.getExpressionForRelation(first, relationName), requestScope);
+
+        //Relationships which were already loaded, for example to serialize their linkage, are not loaded again.
+        List<Object> entities = getReadableObjects(resources, relationName).stream()
+                .filter(entity -> !requestScope.getLoadedRelation(entity, relationName, filterExpression).isPresent())
+                .collect(Collectors.toList());
+        if (entities.size() < 2) {
+            return;
+        }
+
+        DataStoreTransaction transaction = requestScope.getTransaction();
+
+        transaction.getRelations(transaction, entities, relationName, filterExpression, Optional.empty(),
+                requestScope).forEach((entity, value) -> {
+                    //Only collections can be read again when the relationship is serialized.
+                    if (value instanceof Collection) {
+                        requestScope.setLoadedRelation(entity, relationName, filterExpression, value);
+                    }
+                });
+    }
+
+    /**
+     * Reads the identifiers of the objects in a to-many relationship of several resources with a single call to the
+     * data store, to serialize the relationship's linkage without loading its objects.
+     *
+     * @param resources The resources, whose linkage of the relationship can be read as identifiers
+     * @param relationName The name of the relationship
+     */
+    private static void loadRelationIdentifiers(List<PersistentResource> resources, String relationName) {
+        if (!isBatchLoadable(resources, relationName)) {
+            return;
+        }
+
+        PersistentResource<?> first = resources.get(0);
+        RequestScope requestScope = first.requestScope;
+        Class<?> relationClass = first.dictionary.getParameterizedType(first.getResourceClass(), relationName);
+
+        Optional<FilterExpression> filterExpression = mergePermissionFilter(relationClass, Optional.empty(),
+                requestScope);
+
+        List<Object> entities = getReadableObjects(resources, relationName);
+        if (entities.size() < 2) {
+            return;
+        }
+
+        DataStoreTransaction transaction = requestScope.getTransaction();
+        transaction.getRelationsIdentifiers(transaction, entities, relationName, filterExpression, requestScope)
+                .forEach((entity, identifiers) -> requestScope.setLoadedRelationIdentifiers(entity, relationName,
+                        filterExpression, identifiers));
+    }
+
+    /**
+     * Whether a relationship of several resources of the same type can be read with a single call to the data store.
+     *
+     * @param resources The resources
+     * @param relationName The name of the relationship
+     * @return true if it is a to-many relationship which the user may read the objects of
+     */
+    private static boolean isBatchLoadable(List<PersistentResource> resources, String relationName) {
+        if (resources.size() < 2) {
+            return false;
+        }
+
+        PersistentResource<?> first = resources.get(0);
+        EntityDictionary dictionary = first.dictionary;
+        Class<?> resourceClass = first.getResourceClass();
+
+        if (!dictionary.getRelationships(resourceClass).contains(relationName)
+                || !dictionary.getRelationshipType(resourceClass, relationName).isToMany()
+                || dictionary.isComputed(resourceClass, relationName)) {
+            return false;
+        }
+
+        Class<?> relationClass = dictionary.getParameterizedType(resourceClass, relationName);
+        return relationClass != null && !dictionary.isMappedInterface(relationClass)
+                && !shouldSkipCollection(relationClass, ReadPermission.class, first.requestScope);
+    }
+
+    /**
+     * Returns the objects of the resources which may read a relationship, as they would when it is serialized.
+     *
+     * @param resources The resources
+     * @param relationName The name of the relationship
+     * @return The objects of the resources which pass the read permission of the relationship
+     */
+    private static List<Object> getReadableObjects(List<PersistentResource> resources, String relationName) {
+        List<Object> entities = new ArrayList<>();
+        for (PersistentResource<?> resource : resources) {
+            try {
+                if (resource.checkRelation(relationName)) {
+                    entities.add(resource.getObject());
+                }
+            } catch (ForbiddenAccessException e) {
+                // Not loaded, since the relationship is not serialized for this resource.
+            }
+        }
+        return entities;
+    }
+
     /**
      * Determine whether or not to skip loading a collection.
      *
@@ -1216,10 +1438,14 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
      * @return Relationship mapping
      */
     protected Map<String, Relationship> getRelationships() {
-        return getRelationshipsWithRelationshipFunction((relationName) -> {
-            Optional<FilterExpression> filterExpression = requestScope.getExpressionForRelation(this, relationName);
-            return getRelationCheckedFiltered(relationName, filterExpression, Optional.empty(), Optional.empty());
-        });
+        return getRelationshipsWithIdentifierFunction((relationName) ->
+            getRelationIdentifiers(relationName).orElseGet(() -> {
+                Optional<FilterExpression> filterExpression =
+                        requestScope.getExpressionForRelation(this, relationName);
+                return toIdentifiers(getRelationCheckedFiltered(relationName, filterExpression,
+                        Optional.empty(), Optional.empty()));
+            })
+        );
     }
 
     /**
@@ -1246,15 +1472,26 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
      */
     protected Map<String, Relationship> getRelationshipsWithRelationshipFunction(
             final Function<String, Set<PersistentResource>> relationshipFunction) {
+        return getRelationshipsWithIdentifierFunction(
+                (relationName) -> toIdentifiers(relationshipFunction.apply(relationName)));
+    }
+
+    /**
+     * Get relationship mappings.
+     *
+     * @param identifierFunction a function to load the resource linkage of a relationship. Takes a string of the
+     * relationship name and returns the identifiers of the relationship's value.
+     * @return Relationship mapping
+     */
+    private Map<String, Relationship> getRelationshipsWithIdentifierFunction(
+            final Function<String, Collection<ResourceIdentifier>> identifierFunction) {
         final Map<String, Relationship> relationshipMap = new LinkedHashMap<>();
         final Set<String> relationshipFields = filterFields(dictionary.getRelationships(obj));
 
         for (String field : relationshipFields) {
             TreeMap<String, Resource> orderedById = new TreeMap<>(lengthFirstComparator);
-            for (PersistentResource relationship : relationshipFunction.apply(field)) {
-                orderedById.put(relationship.getId(),
-                        new ResourceIdentifier(relationship.getType(), relationship.getId()).castToResource());
-
+            for (ResourceIdentifier identifier : identifierFunction.apply(field)) {
+                orderedById.put(identifier.getId(), identifier.castToResource());
             }
             Collection<Resource> resources = orderedById.values();
 
@@ -1272,6 +1509,77 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
         return relationshipMap;
     }
 
+    private static Collection<ResourceIdentifier> toIdentifiers(Set<PersistentResource> resources) {
+        return resources.stream()
+                .map(resource -> new ResourceIdentifier(resource.getType(), resource.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Whether the linkage of a relationship can be built from the identifiers of its objects alone.  This is only
+     * possible when the user checks alone grant read access to every object of the relationship's type and the
+     * relationship is not filtered by the request.  The read permission filter is still applied by the data store.
+     *
+     * @param relationName The name of the relationship
+     * @return true if the objects of the relationship need not be loaded to build its linkage
+     */
+    private boolean hasIdentifierLinkage(String relationName) {
+        Class<?> relationClass = dictionary.getParameterizedType(obj, relationName);
+
+        //The type of a polymorphic relationship's objects is only known once they are loaded.
+        if (relationClass == null
+                || dictionary.isComputed(getResourceClass(), relationName)
+                || dictionary.isMappedInterface(relationClass)
+                || !dictionary.getSubclassingEntities(relationClass).isEmpty()
+                || !requestScope.getNewPersistentResources().isEmpty()
+                || requestScope.getExpressionForRelation(this, relationName).isPresent()) {
+            return false;
+        }
+
+        try {
+            return requestScope.getPermissionExecutor().checkUserPermissions(relationClass, ReadPermission.class)
+                    == ExpressionResult.PASS;
+        } catch (ForbiddenAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads only the identifiers of the objects in a relationship, without loading the objects themselves, when
+     * the relationship has identifier linkage.  Identifiers read ahead of time for several resources are used as
+     * they are.
+     *
+     * @param relationName The name of the relationship
+     * @return The resource linkage, or empty if the objects must be loaded to build it
+     */
+    private Optional<Collection<ResourceIdentifier>> getRelationIdentifiers(String relationName) {
+        if (!hasIdentifierLinkage(relationName)) {
+            return Optional.empty();
+        }
+
+        Class<?> relationClass = dictionary.getParameterizedType(obj, relationName);
+        Optional<FilterExpression> filterExpression = mergePermissionFilter(relationClass, Optional.empty(),
+                requestScope);
+
+        //Objects which were already loaded are used as they are.
+        if (requestScope.getLoadedRelation(obj, relationName, filterExpression).isPresent()) {
+            return Optional.empty();
+        }
+
+        if (!checkRelation(relationName)) {
+            return Optional.of(Collections.emptyList());
+        }
+
+        String relationType = dictionary.getJsonAliasFor(relationClass);
+        Collection<String> identifiers = requestScope.getLoadedRelationIdentifiers(obj, relationName,
+                filterExpression).orElseGet(() -> transaction.getRelationIdentifiers(transaction, obj, relationName,
+                filterExpression, requestScope));
+        return Optional.of(identifiers.stream()
+                .filter(Objects::nonNull)
+                .map(id -> new ResourceIdentifier(relationType, id))
+                .collect(Collectors.toList()));
+    }
+
     /**
      * Get attributes mapping from entity.
      *
@@ -1736,6 +2044,7 @@ public class PersistentResource<T> implements com.yahoo.elide.security.Persisten
      */
     private void markDirty() {
         requestScope.getDirtyResources().add(this);
+        requestScope.evictLoadedRelations(obj);
     }
 
     /**
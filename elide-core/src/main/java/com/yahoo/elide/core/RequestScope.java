@@ -34,13 +34,18 @@ import com.yahoo.elide.security.PermissionExecutor;
 import com.yahoo.elide.security.User;
 import com.yahoo.elide.security.executors.ActivePermissionExecutor;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import io.reactivex.Observable;
 import io.reactivex.subjects.PublishSubject;
 import io.reactivex.subjects.ReplaySubject;
 import lombok.Getter;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -79,6 +84,13 @@ public class RequestScope implements com.yahoo.elide.security.RequestScope {
     @Getter private final MultipleFilterDialect filterDialect;
     private final Map<String, FilterExpression> expressionsByType;
 
+    /* Relationships loaded for several resources at once, by entity and relationship name */
+    private final Map<Object, Map<String, Pair<Optional<FilterExpression>, Object>>> loadedRelations;
+
+    /* Relationship linkage read for several resources at once, by entity and relationship name */
+    private final Map<Object, Map<String, Pair<Optional<FilterExpression>, Collection<String>>>>
+            loadedRelationIdentifiers;
+
     private PublishSubject<CRUDEvent> lifecycleEvents;
     private Observable<CRUDEvent> distinctLifecycleEvents;
     private ReplaySubject<CRUDEvent> queuedLifecycleEvents;
@@ -122,6 +134,8 @@ public class RequestScope implements com.yahoo.elide.security.RequestScope {
 
         this.globalFilterExpression = null;
         this.expressionsByType = new HashMap<>();
+        this.loadedRelations = new IdentityHashMap<>();
+        this.loadedRelationIdentifiers = new IdentityHashMap<>();
         this.objectEntityCache = new ObjectEntityCache();
         this.newPersistentResources = new LinkedHashSet<>();
         this.dirtyResources = new LinkedHashSet<>();
@@ -210,6 +224,8 @@ public class RequestScope implements com.yahoo.elide.security.RequestScope {
         this.deletedResources = outerRequestScope.deletedResources;
         this.filterDialect = outerRequestScope.filterDialect;
         this.expressionsByType = outerRequestScope.expressionsByType;
+        this.loadedRelations = outerRequestScope.loadedRelations;
+        this.loadedRelationIdentifiers = outerRequestScope.loadedRelationIdentifiers;
         this.elideSettings = outerRequestScope.elideSettings;
         this.useFilterExpressions = outerRequestScope.useFilterExpressions;
         this.updateStatusCode = outerRequestScope.updateStatusCode;
@@ -254,6 +270,25 @@ public class RequestScope implements com.yahoo.elide.security.RequestScope {
         return result;
     }
 
+    /**
+     * Get the fields of a type which the client requested through a sparse fieldset, together with every
+     * relationship named in the include parameter.  Data stores may use it as a hint to avoid loading other fields.
+     * @param entityClass The entity type
+     * @return The requested fields, or empty if the client did not restrict the fields of the type
+     */
+    public Optional<Set<String>> getSparseFields(Class<?> entityClass) {
+        Set<String> fields = sparseFields.get(dictionary.getJsonAliasFor(entityClass));
+        if (fields == null) {
+            return Optional.empty();
+        }
+
+        Set<String> result = new LinkedHashSet<>(fields);
+        queryParams.map(params -> params.get("include")).ifPresent(includes -> includes.stream()
+                .flatMap(include -> Arrays.stream(include.split("[,.]")))
+                .forEach(result::add));
+        return Optional.of(result);
+    }
+
     /**
      * Get filter expression for a specific collection type.
      * @param type The name of the type
@@ -457,6 +492,80 @@ public class RequestScope implements com.yahoo.elide.security.RequestScope {
                 .forEach((newType) -> objectEntityCache.put(newType, id, object));
     }
 
+    /**
+     * Remembers the value of a relationship which was loaded ahead of time.
+     *
+     * @param entity The entity which owns the relationship
+     * @param relationName The name of the relationship
+     * @param filterExpression The filter the relationship was loaded with
+     * @param value The loaded value
+     */
+    void setLoadedRelation(Object entity, String relationName, Optional<FilterExpression> filterExpression,
+                           Object value) {
+        loadedRelations.computeIfAbsent(entity, key -> new HashMap<>())
+                .put(relationName, Pair.of(filterExpression, value));
+    }
+
+    /**
+     * Returns the value of a relationship which was loaded ahead of time with the same filter.
+     *
+     * @param entity The entity which owns the relationship
+     * @param relationName The name of the relationship
+     * @param filterExpression The filter the relationship is read with
+     * @return The loaded value, or empty if the relationship must be read from the data store
+     */
+    Optional<Object> getLoadedRelation(Object entity, String relationName,
+                                       Optional<FilterExpression> filterExpression) {
+        Pair<Optional<FilterExpression>, Object> loaded =
+                loadedRelations.getOrDefault(entity, Collections.emptyMap()).get(relationName);
+        if (loaded == null || !loaded.getLeft().equals(filterExpression)) {
+            return Optional.empty();
+        }
+        return Optional.of(loaded.getRight());
+    }
+
+    /**
+     * Remembers the identifiers of the objects in a relationship which were read ahead of time.
+     *
+     * @param entity The entity which owns the relationship
+     * @param relationName The name of the relationship
+     * @param filterExpression The filter the identifiers were read with
+     * @param identifiers The identifiers
+     */
+    void setLoadedRelationIdentifiers(Object entity, String relationName, Optional<FilterExpression> filterExpression,
+                                      Collection<String> identifiers) {
+        loadedRelationIdentifiers.computeIfAbsent(entity, key -> new HashMap<>())
+                .put(relationName, Pair.of(filterExpression, identifiers));
+    }
+
+    /**
+     * Returns the identifiers of the objects in a relationship which were read ahead of time with the same filter.
+     *
+     * @param entity The entity which owns the relationship
+     * @param relationName The name of the relationship
+     * @param filterExpression The filter the identifiers are read with
+     * @return The identifiers, or empty if they must be read from the data store
+     */
+    Optional<Collection<String>> getLoadedRelationIdentifiers(Object entity, String relationName,
+                                                              Optional<FilterExpression> filterExpression) {
+        Pair<Optional<FilterExpression>, Collection<String>> loaded =
+                loadedRelationIdentifiers.getOrDefault(entity, Collections.emptyMap()).get(relationName);
+        if (loaded == null || !loaded.getLeft().equals(filterExpression)) {
+            return Optional.empty();
+        }
+        return Optional.of(loaded.getRight());
+    }
+
+    /**
+     * Forgets the relationships loaded ahead of time for an entity which has been modified.
+     *
+     * @param entity The modified entity
+     */
+    void evictLoadedRelations(Object entity) {
+        loadedRelations.remove(entity);
+        loadedRelationIdentifiers.remove(entity);
+    }
+
     private String getInheritanceKey(String subClass, String superClass) {
         return subClass + "!" + superClass;
     }
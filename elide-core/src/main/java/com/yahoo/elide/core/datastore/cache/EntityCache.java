@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.cache;
+
+import com.yahoo.elide.core.EntityDictionary;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang3.tuple.Pair;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches entities by type and id across requests.  The cache holds copies of the entities and hands out copies of
+ * them, so that no request sees the changes another request makes to its entities.
+ * <p>
+ * Copies only hold the id and the attributes which the entity dictionary binds.  Relationships, excluded and
+ * transient fields, and the fields which persistence providers add to enhanced classes are left unset, so a copy
+ * never shares entities managed by a persistence context.  Attribute collections, maps and dates are copied, and
+ * entities whose attribute collections are managed by a persistence provider are not cached, as copying them could
+ * load them.  Other mutable attribute values are shared, so cached entities should only have immutable attribute
+ * types such as strings, numbers, enums and {@code java.time} values.
+ * <p>
+ * Every invalidation is stamped with the next value of a clock, which is recorded against the invalidated types.
+ * An entity is only cached if its type was not invalidated since the transaction which loaded it began, as that
+ * transaction may read a snapshot which predates the invalidating write.
+ */
+@Slf4j
+public class EntityCache {
+    private final Cache<Pair<Class<?>, String>, Object> entities;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    /* The clock value of the latest invalidation of each type. */
+    private final Map<Class<?>, Long> invalidated = new ConcurrentHashMap<>();
+
+    /* The clock value of the latest invalidation of every type. */
+    private volatile long allInvalidated;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of entities held
+     * @param ttl how long an entity is held after it is loaded
+     * @param unit the unit of the ttl
+     */
+    public EntityCache(long maximumSize, long ttl, TimeUnit unit) {
+        this(maximumSize, ttl, unit, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of entities held
+     * @param ttl how long an entity is held after it is loaded
+     * @param unit the unit of the ttl
+     * @param ticker the time source used to expire entities
+     */
+    public EntityCache(long maximumSize, long ttl, TimeUnit unit, Ticker ticker) {
+        this.entities = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl, unit)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a copy of a cached entity.
+     *
+     * @param type the bound entity type
+     * @param id the id of the entity
+     * @param dictionary the entity dictionary
+     * @return a copy of the entity, or null if it is not cached
+     */
+    Object get(Class<?> type, String id, EntityDictionary dictionary) {
+        Object entity = entities.getIfPresent(Pair.of(type, id));
+        return entity == null ? null : copy(entity, dictionary);
+    }
+
+    /**
+     * The current value of the invalidation clock, to be read when a transaction begins and passed to {@link #put}
+     * for every entity the transaction loads.
+     *
+     * @return the version
+     */
+    long getVersion() {
+        return clock.get();
+    }
+
+    /**
+     * Caches a copy of an entity, unless its type was invalidated since the transaction which loaded it began.
+     *
+     * @param type the bound entity type
+     * @param id the id of the entity
+     * @param entity the entity
+     * @param beginVersion the version of the cache when the loading transaction began
+     * @param dictionary the entity dictionary
+     */
+    void put(Class<?> type, String id, Object entity, long beginVersion, EntityDictionary dictionary) {
+        if (isInvalidatedSince(type, beginVersion)) {
+            return;
+        }
+
+        Object copy = copy(entity, dictionary);
+        if (copy == null) {
+            return;
+        }
+
+        Pair<Class<?>, String> key = Pair.of(type, id);
+        entities.put(key, copy);
+
+        //An invalidation which ran while the entity was copied may have missed it.
+        if (isInvalidatedSince(type, beginVersion)) {
+            entities.invalidate(key);
+        }
+    }
+
+    private boolean isInvalidatedSince(Class<?> type, long version) {
+        return allInvalidated > version || invalidated.getOrDefault(type, 0L) > version;
+    }
+
+    /**
+     * Evicts an entity from the cache, including where it is cached under a super or sub type.
+     *
+     * @param type the type of the entity
+     * @param id the id of the entity
+     * @param dictionary the entity dictionary
+     */
+    public void invalidate(Class<?> type, String id, EntityDictionary dictionary) {
+        Class<?> boundType = dictionary.lookupBoundClass(type);
+        if (boundType == null) {
+            return;
+        }
+
+        List<Class<?>> types = new ArrayList<>();
+        types.add(boundType);
+        types.addAll(dictionary.getSuperClassEntities(boundType));
+        types.addAll(dictionary.getSubclassingEntities(boundType));
+
+        long version = clock.incrementAndGet();
+        for (Class<?> cached : types) {
+            invalidated.merge(cached, version, Math::max);
+            entities.invalidate(Pair.of(cached, id));
+        }
+    }
+
+    /**
+     * Evicts every cached entity.
+     */
+    public void invalidateAll() {
+        allInvalidated = clock.incrementAndGet();
+        entities.invalidateAll();
+    }
+
+    /**
+     * Hit, miss and eviction counts since the cache was created.  Each hit is an entity which was not loaded from
+     * the data store.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return entities.stats();
+    }
+
+    /**
+     * Copies the id and attributes of an entity.
+     *
+     * @param entity the entity
+     * @param dictionary the entity dictionary
+     * @return the copy, or null if the entity cannot be copied
+     */
+    static Object copy(Object entity, EntityDictionary dictionary) {
+        Class<?> entityClass = entity.getClass();
+
+        //Proxies generated by persistence providers subclass the bound type and do not hold the state of the entity.
+        Class<?> boundClass = dictionary.lookupBoundClass(entityClass);
+        if (boundClass != entityClass) {
+            return null;
+        }
+
+        Set<String> copied = new HashSet<>(dictionary.getAttributes(boundClass));
+        copied.add(dictionary.getIdFieldName(boundClass));
+        try {
+            Constructor<?> constructor = entityClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            Object copy = constructor.newInstance();
+
+            for (Class<?> cls = entityClass; cls != Object.class; cls = cls.getSuperclass()) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()
+                            || !copied.contains(field.getName())) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    Object value = field.get(entity);
+                    if (isProviderCollection(value)) {
+                        return null;
+                    }
+                    field.set(copy, copyValue(value));
+                }
+            }
+            return copy;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Unable to copy entity of type {}", entityClass, e);
+            return null;
+        }
+    }
+
+    /**
+     * Whether a value is a collection or map implemented by a persistence provider rather than by the JDK, such as
+     * the lazily loaded element collections of Hibernate.
+     */
+    private static boolean isProviderCollection(Object value) {
+        return (value instanceof Collection || value instanceof Map)
+                && !value.getClass().getName().startsWith("java.");
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof Set) {
+            return new LinkedHashSet<>((Set<?>) value);
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value instanceof Map) {
+            return new LinkedHashMap<>((Map<?, ?>) value);
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.cache;
+
+import com.yahoo.elide.annotation.CacheableEntity;
+import com.yahoo.elide.annotation.OnReadPostCommit;
+import com.yahoo.elide.annotation.OnReadPreCommit;
+import com.yahoo.elide.annotation.OnReadPreSecurity;
+import com.yahoo.elide.annotation.ReadPermission;
+import com.yahoo.elide.core.DataStore;
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.datastore.wrapped.TransactionWrapper;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
+import com.yahoo.elide.security.checks.UserCheck;
+import com.yahoo.elide.security.permissions.PermissionPlan;
+import com.yahoo.elide.utils.coerce.CoerceUtil;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves entities of types annotated with {@link CacheableEntity} from an {@link EntityCache} when read
+ * transactions load them by id, and evicts them when write transactions save or delete them.
+ * <p>
+ * Loads with a filter expression, which may carry security checks, are always passed to the wrapped store.
+ * Cached entities have no relationships: the first relationship fetched from one loads the entity from the
+ * wrapped store.  Since Elide runs permission checks, computed attributes and lifecycle hooks against the entity a
+ * load returns, types with relationships are only served from the cache when none of those may read a relationship
+ * (see {@link CacheableEntity}).  Writes made to the database other than through this store are only seen once the
+ * cache expires.
+ */
+@Slf4j
+public class EntityCachingDataStore implements DataStore {
+    private static final List<Class<? extends Annotation>> READ_HOOKS = Arrays.asList(
+            OnReadPreSecurity.class,
+            OnReadPreCommit.class,
+            OnReadPostCommit.class
+    );
+
+    private final DataStore wrapped;
+    private final EntityCache cache;
+    private final Map<Class<?>, Boolean> servable = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param wrapped the store which loads entities missing from the cache
+     * @param cache the cache, which may be shared with other stores of the same models
+     */
+    public EntityCachingDataStore(DataStore wrapped, EntityCache cache) {
+        this.wrapped = Preconditions.checkNotNull(wrapped);
+        this.cache = Preconditions.checkNotNull(cache);
+    }
+
+    @Override
+    public void populateEntityDictionary(EntityDictionary dictionary) {
+        wrapped.populateEntityDictionary(dictionary);
+    }
+
+    @Override
+    public DataStoreTransaction beginTransaction() {
+        return new CachingTransaction(wrapped.beginTransaction(), false, cache.getVersion());
+    }
+
+    @Override
+    public DataStoreTransaction beginReadTransaction() {
+        //The version is read before the wrapped transaction begins, since its snapshot may be taken at any point after.
+        long version = cache.getVersion();
+        return new CachingTransaction(wrapped.beginReadTransaction(), true, version);
+    }
+
+    /**
+     * Whether copies of a type may be handed to Elide in place of the entities they were copied from.  The copies
+     * have no relationships, so a type with relationships is only served if its read permissions only have user
+     * checks, and it has neither computed fields nor read lifecycle hooks.
+     */
+    private boolean isServable(Class<?> type, EntityDictionary dictionary) {
+        return servable.computeIfAbsent(type, key -> {
+            if (dictionary.getAnnotation(type, CacheableEntity.class) == null) {
+                return false;
+            }
+            if (dictionary.getRelationships(type).isEmpty() || isReadWithoutRelationships(type, dictionary)) {
+                return true;
+            }
+            log.warn("{} is not cached since its reads may depend on its relationships", type.getName());
+            return false;
+        });
+    }
+
+    private static boolean isReadWithoutRelationships(Class<?> type, EntityDictionary dictionary) {
+        if (!isUserOnly(dictionary.getPermissionPlanForClass(type, ReadPermission.class))
+                || READ_HOOKS.stream().anyMatch(hook -> !dictionary.getTriggers(type, hook).isEmpty())) {
+            return false;
+        }
+
+        for (String field : dictionary.getAllFields(type)) {
+            if (dictionary.isComputed(type, field)
+                    || !isUserOnly(dictionary.getPermissionPlanForField(type, field, ReadPermission.class))
+                    || READ_HOOKS.stream().anyMatch(hook -> !dictionary.getTriggers(type, hook, field).isEmpty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUserOnly(PermissionPlan plan) {
+        return plan == null || plan.allChecksMatch(UserCheck.class::isAssignableFrom);
+    }
+
+    /**
+     * Reads through the cache, or evicts what it writes.
+     */
+    private class CachingTransaction extends TransactionWrapper {
+        private final boolean readOnly;
+        private final long beginVersion;
+
+        /* Cached copies served by this transaction, and the entities loaded for them once their relationships
+           are fetched */
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+        private final List<Pair<Class<?>, String>> written = new ArrayList<>();
+
+        private CachingTransaction(DataStoreTransaction tx, boolean readOnly, long beginVersion) {
+            super(tx);
+            this.readOnly = readOnly;
+            this.beginVersion = beginVersion;
+        }
+
+        @Override
+        public Object loadObject(Class<?> entityClass, Serializable id, Optional<FilterExpression> filterExpression,
+                                 RequestScope scope) {
+            EntityDictionary dictionary = scope.getDictionary();
+            Class<?> type = dictionary.lookupBoundClass(entityClass);
+            if (!readOnly || filterExpression.isPresent() || type == null || !isServable(type, dictionary)) {
+                return tx.loadObject(entityClass, id, filterExpression, scope);
+            }
+
+            String key = String.valueOf(id);
+            Object copy = cache.get(type, key, dictionary);
+            if (copy != null) {
+                copies.put(copy, null);
+                return copy;
+            }
+
+            Object entity = tx.loadObject(entityClass, id, filterExpression, scope);
+            if (entity != null) {
+                cache.put(type, key, entity, beginVersion, dictionary);
+            }
+            return entity;
+        }
+
+        @Override
+        public Object getRelation(DataStoreTransaction relationTx, Object entity, String relationName,
+                                  Optional<FilterExpression> filterExpression, Optional<Sorting> sorting,
+                                  Optional<Pagination> pagination, RequestScope scope) {
+            return tx.getRelation(relationTx, resolve(entity, scope), relationName, filterExpression, sorting,
+                    pagination, scope);
+        }
+
+        @Override
+        public Map<Object, Object> getRelations(DataStoreTransaction relationTx, Collection<?> entities,
+                                                String relationName, Optional<FilterExpression> filterExpression,
+                                                Optional<Sorting> sorting, RequestScope scope) {
+            if (entities.stream().noneMatch(copies::containsKey)) {
+                return tx.getRelations(relationTx, entities, relationName, filterExpression, sorting, scope);
+            }
+
+            Map<Object, Object> resolved = new IdentityHashMap<>();
+            entities.forEach(entity -> resolved.put(resolve(entity, scope), entity));
+
+            Map<Object, Object> relations = tx.getRelations(relationTx, new ArrayList<>(resolved.keySet()),
+                    relationName, filterExpression, sorting, scope);
+
+            Map<Object, Object> results = new IdentityHashMap<>();
+            relations.forEach((entity, relation) -> results.put(resolved.getOrDefault(entity, entity), relation));
+            return results;
+        }
+
+        @Override
+        public Collection<String> getRelationIdentifiers(DataStoreTransaction relationTx, Object entity,
+                                                         String relationName,
+                                                         Optional<FilterExpression> filterExpression,
+                                                         RequestScope scope) {
+            return tx.getRelationIdentifiers(relationTx, resolve(entity, scope), relationName, filterExpression,
+                    scope);
+        }
+
+        @Override
+        public Map<Object, Collection<String>> getRelationsIdentifiers(DataStoreTransaction relationTx,
+                                                                       Collection<?> entities, String relationName,
+                                                                       Optional<FilterExpression> filterExpression,
+                                                                       RequestScope scope) {
+            if (entities.stream().noneMatch(copies::containsKey)) {
+                return tx.getRelationsIdentifiers(relationTx, entities, relationName, filterExpression, scope);
+            }
+
+            Map<Object, Object> resolved = new IdentityHashMap<>();
+            entities.forEach(entity -> resolved.put(resolve(entity, scope), entity));
+
+            Map<Object, Collection<String>> identifiers = tx.getRelationsIdentifiers(relationTx,
+                    new ArrayList<>(resolved.keySet()), relationName, filterExpression, scope);
+
+            Map<Object, Collection<String>> results = new IdentityHashMap<>();
+            identifiers.forEach((entity, ids) -> results.put(resolved.getOrDefault(entity, entity), ids));
+            return results;
+        }
+
+        @Override
+        public void save(Object entity, RequestScope scope) {
+            tx.save(entity, scope);
+            evict(entity, scope);
+        }
+
+        @Override
+        public void delete(Object entity, RequestScope scope) {
+            tx.delete(entity, scope);
+            evict(entity, scope);
+        }
+
+        @Override
+        public void commit(RequestScope scope) {
+            tx.commit(scope);
+
+            //Reads which began before the commit may have cached what this transaction overwrote.
+            Set<Pair<Class<?>, String>> keys = new LinkedHashSet<>(written);
+            keys.forEach(key -> cache.invalidate(key.getLeft(), key.getRight(), scope.getDictionary()));
+            written.clear();
+        }
+
+        private void evict(Object entity, RequestScope scope) {
+            EntityDictionary dictionary = scope.getDictionary();
+            Class<?> type = dictionary.lookupBoundClass(entity.getClass());
+            String id = dictionary.getId(entity);
+            written.add(Pair.of(type, id));
+            cache.invalidate(type, id, dictionary);
+        }
+
+        /**
+         * Replaces a cached copy with the entity loaded from the wrapped store, once per transaction.
+         */
+        private Object resolve(Object entity, RequestScope scope) {
+            if (!copies.containsKey(entity)) {
+                return entity;
+            }
+
+            Object loaded = copies.get(entity);
+            if (loaded == null) {
+                EntityDictionary dictionary = scope.getDictionary();
+                Class<?> type = dictionary.lookupBoundClass(entity.getClass());
+                Serializable id = (Serializable) CoerceUtil.coerce(dictionary.getId(entity),
+                        dictionary.getIdType(type));
+                loaded = tx.loadObject(type, id, Optional.empty(), scope);
+                copies.put(entity, loaded == null ? entity : loaded);
+            }
+            return copies.get(entity);
+        }
+    }
+}
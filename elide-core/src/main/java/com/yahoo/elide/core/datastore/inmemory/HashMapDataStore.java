@@ -10,63 +10,226 @@ import com.yahoo.elide.core.DataStore;
 import com.yahoo.elide.core.DataStoreTransaction;
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.datastore.test.DataStoreTestHarness;
+import com.yahoo.elide.core.exceptions.TransactionException;
 import com.yahoo.elide.utils.ClassScanner;
 
 import com.google.common.collect.Sets;
+import org.apache.commons.lang3.ClassUtils;
 import lombok.Getter;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import javax.persistence.Index;
+import javax.persistence.Table;
+
 /**
  * Simple in-memory only database.
+ * <p>
+ * The tables of the store are held in immutable, versioned snapshots.  Readers never lock: each transaction reads
+ * the snapshot that was current when it began.  Commits are serialized and publish a new snapshot atomically, so a
+ * reader either sees all of the rows a commit creates and deletes or none of them.
+ * <p>
+ * Only table membership is versioned.  Rows are the entity instances themselves, shared by every snapshot and
+ * transaction, so an attribute or relationship modified in place is visible to concurrent readers before it is
+ * committed, and is not undone when its transaction fails or does not commit.
+ * <p>
+ * Secondary indexes are declared with {@link Table#indexes()}.  The leading column of each index names an attribute
+ * or a to-one relationship of the entity.  Indexed fields must be readable without a request scope.
+ * <p>
+ * The store is optionally persisted with a {@link HashMapJournal}, in which case its contents are recovered when
+ * the entity dictionary is populated.  A commit is only published to readers once it is durable, and the store
+ * rejects every commit after the journal fails to write or sync one.
  */
 public class HashMapDataStore implements DataStore, DataStoreTestHarness {
-    private final Map<Class<?>, Map<String, Object>> dataStore = Collections.synchronizedMap(new HashMap<>());
+    private final Object commitLock = new Object();
+
+    /* The latest durable version, which transactions read. */
+    private volatile HashMapSnapshot snapshot;
+
+    /* The latest applied version, which may not be durable yet.  Guarded by commitLock. */
+    private HashMapSnapshot applied;
     @Getter private EntityDictionary dictionary;
     @Getter private final Set<Package> beanPackages;
     @Getter private final ConcurrentHashMap<Class<?>, AtomicLong> typeIds = new ConcurrentHashMap<>();
+    @Getter private final HashMapJournal journal;
 
     public HashMapDataStore(Package beanPackage) {
         this(Sets.newHashSet(beanPackage));
     }
 
     public HashMapDataStore(Set<Package> beanPackages) {
+        this(beanPackages, null);
+    }
+
+    public HashMapDataStore(Set<Package> beanPackages, HashMapJournal journal) {
         this.beanPackages = beanPackages;
+        this.journal = journal;
 
+        Set<Class<?>> types = new HashSet<>();
         for (Package beanPackage : beanPackages) {
             ClassScanner.getAnnotatedClasses(beanPackage, Include.class).stream()
                 .filter(modelClass -> modelClass.getName().startsWith(beanPackage.getName()))
-                .forEach(modelClass -> dataStore.put(modelClass, Collections.synchronizedMap(new LinkedHashMap<>())));
+                .forEach(types::add);
         }
+        this.snapshot = HashMapSnapshot.empty(types);
+        this.applied = snapshot;
     }
 
     @Override
     public void populateEntityDictionary(EntityDictionary dictionary) {
-        for (Class<?> clazz : dataStore.keySet()) {
+        for (Class<?> clazz : snapshot.getTypes()) {
             dictionary.bindEntity(clazz);
         }
 
+        Map<Class<?>, List<HashMapIndex>> indexes = new HashMap<>();
+        for (Class<?> clazz : snapshot.getTypes()) {
+            Table table = dictionary.getAnnotation(clazz, Table.class);
+            if (table == null || table.indexes().length == 0) {
+                continue;
+            }
+
+            List<HashMapIndex> typeIndexes = new ArrayList<>();
+            for (Index index : table.indexes()) {
+                String field = index.columnList().split(",")[0].trim();
+                typeIndexes.add(createIndex(dictionary, clazz, field));
+            }
+            indexes.put(clazz, typeIndexes);
+        }
+
+        synchronized (commitLock) {
+            snapshot = snapshot.withIndexes(indexes);
+            if (journal != null) {
+                try {
+                    snapshot = journal.recover(snapshot, dictionary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            applied = snapshot;
+        }
+
         this.dictionary = dictionary;
     }
 
+    private static HashMapIndex createIndex(EntityDictionary dictionary, Class<?> entityClass, String field) {
+        if (dictionary.isAttribute(entityClass, field) && dictionary.isReadableWithoutScope(entityClass, field)) {
+            Class<?> keyType = ClassUtils.primitiveToWrapper(dictionary.getType(entityClass, field));
+            return new HashMapIndex(field, keyType, Comparable.class.isAssignableFrom(keyType),
+                    row -> dictionary.getValue(row, field, null));
+        }
+
+        if (dictionary.isRelation(entityClass, field)
+                && dictionary.getRelationshipType(entityClass, field).isToOne()) {
+            Class<?> relationClass = dictionary.getParameterizedType(entityClass, field);
+            String idField = dictionary.getIdFieldName(relationClass);
+            if (dictionary.isReadableWithoutScope(relationClass, idField)) {
+                Class<?> keyType = ClassUtils.primitiveToWrapper(dictionary.getIdType(relationClass));
+                return new HashMapIndex(field + "." + idField, keyType, false, row -> {
+                    Object relation = dictionary.getValue(row, field, null);
+                    return relation == null ? null : dictionary.getValue(relation, idField, null);
+                });
+            }
+        }
+
+        throw new IllegalArgumentException("Cannot index field " + field + " of "
+                + dictionary.getJsonAliasFor(entityClass));
+    }
+
     @Override
     public DataStoreTransaction beginTransaction() {
-        return new HashMapStoreTransaction(dataStore, dictionary, typeIds);
+        return new HashMapStoreTransaction(this, dictionary, typeIds);
+    }
+
+    /**
+     * Returns the most recently committed version of the store.
+     *
+     * @return The current snapshot
+     */
+    HashMapSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Atomically applies a transaction's operations and publishes the result once it is durable.
+     *
+     * @param operations The operations to apply
+     * @return The snapshot containing the operations
+     */
+    HashMapSnapshot commit(List<Operation> operations) {
+        HashMapSnapshot committed;
+        long position = 0;
+        synchronized (commitLock) {
+            committed = applied.apply(operations);
+            if (committed == applied) {
+                return snapshot;
+            }
+            if (journal != null) {
+                try {
+                    position = journal.append(operations);
+                } catch (IOException e) {
+                    throw new TransactionException(e);
+                }
+            }
+            applied = committed;
+        }
+
+        if (journal != null) {
+            //The commit lock is released while syncing so that concurrent commits share syncs.
+            try {
+                journal.sync(position);
+            } catch (IOException e) {
+                throw new TransactionException(e);
+            }
+        }
+        publish(committed);
+
+        //Ids assigned by clients must never be generated later.
+        for (Operation operation : operations) {
+            AtomicLong nextId = typeIds.get(operation.getType());
+            if (nextId != null) {
+                nextId.accumulateAndGet(committed.getMaxNumericId(operation.getType()) + 1, Math::max);
+            }
+        }
+
+        if (journal != null) {
+            try {
+                journal.compactIfNeeded();
+            } catch (IOException e) {
+                throw new TransactionException(e);
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * Publishes a durable version unless a later one has been published.  A version is durable once its log entry
+     * is synced, and syncing an entry syncs every entry before it.
+     */
+    private void publish(HashMapSnapshot committed) {
+        synchronized (commitLock) {
+            if (committed.getVersion() > snapshot.getVersion()) {
+                snapshot = committed;
+            }
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("Data store contents ");
-        for (Class<?> cls : dataStore.keySet()) {
+        HashMapSnapshot current = snapshot;
+        for (Class<?> cls : current.getTypes()) {
             sb.append("\n Table ").append(cls).append(" contents \n");
-            Map<String, Object> data = dataStore.get(cls);
+            Map<String, Object> data = current.getTable(cls);
             for (Map.Entry<String, Object> e : data.entrySet()) {
                 sb.append(" Id: ").append(e.getKey()).append(" Value: ").append(e.getValue());
             }
@@ -81,9 +244,28 @@ public class HashMapDataStore implements DataStore, DataStoreTestHarness {
 
     @Override
     public void cleanseTestData() {
-        for (Map<String, Object> objects : dataStore.values()) {
-            objects.clear();
+        HashMapSnapshot cleared;
+        long position = 0;
+        synchronized (commitLock) {
+            cleared = applied.clear();
+            if (journal != null) {
+                try {
+                    position = journal.appendClear();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            applied = cleared;
+            typeIds.clear();
+        }
+
+        if (journal != null) {
+            try {
+                journal.sync(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
-        typeIds.clear();
+        publish(cleared);
     }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A secondary index over one field of a {@link HashMapDataStore} table.  Rows are indexed by the value of an
+ * attribute or by the id of a to-one relationship.
+ * <p>
+ * Every index keeps a hash map from key to row ids which serves equality and null lookups.  Indexes over comparable
+ * fields also keep their keys in sorted order, which serves range and prefix lookups and ordering.  An index is only
+ * modified while it is private to a commit, and is never modified once it has been published in a snapshot.  The
+ * copy a commit modifies shares its structure with the published index, so a commit copies only the entries it
+ * touches.
+ * <p>
+ * Keys are taken from the rows when they are committed.  Rows are shared with the transactions which load them,
+ * so a row modified in place keeps its previous key until the transaction which modified it ends, when the row is
+ * written back.
+ */
+class HashMapIndex {
+    @Getter private final String field;
+
+    /* The class of the keys, with primitives boxed. */
+    @Getter private final Class<?> keyType;
+
+    private final Function<Object, Object> keyFunction;
+
+    private final PersistentHashMap<String, Object> keysById;
+    private final PersistentHashMap<Object, PersistentHashMap<String, Boolean>> idsByKey;
+    private final PersistentTreeMap<Object, Boolean> sortedKeys;
+    private final PersistentHashMap<String, Boolean> nullIds;
+
+    /* The number of rows whose key is not of the key type.  Such rows make lookups inexact. */
+    private int foreignKeys;
+
+    /* The number of entries copied from the sets of ids of each key since the index was copied. */
+    private long copiedIds;
+
+    /**
+     * Constructor.
+     *
+     * @param field The indexed field
+     * @param keyType The class of the keys, with primitives boxed
+     * @param sorted Whether the index keeps its keys in sorted order.  The key type must be comparable.
+     * @param keyFunction Extracts the key of a row
+     */
+    HashMapIndex(String field, Class<?> keyType, boolean sorted, Function<Object, Object> keyFunction) {
+        this.field = field;
+        this.keyType = keyType;
+        this.keyFunction = keyFunction;
+        this.keysById = new PersistentHashMap<>();
+        this.idsByKey = new PersistentHashMap<>();
+        this.sortedKeys = sorted ? new PersistentTreeMap<>() : null;
+        this.nullIds = new PersistentHashMap<>();
+    }
+
+    private HashMapIndex(HashMapIndex source) {
+        this.field = source.field;
+        this.keyType = source.keyType;
+        this.keyFunction = source.keyFunction;
+        this.keysById = source.keysById.fork();
+        this.idsByKey = source.idsByKey.fork();
+        this.sortedKeys = source.isSorted() ? source.sortedKeys.fork() : null;
+        this.nullIds = source.nullIds.fork();
+        this.foreignKeys = source.foreignKeys;
+    }
+
+    /**
+     * Copies the index so that the copy can be modified by a commit.  The copy shares its structure with this index
+     * until it is modified, so this index must not be modified afterwards.
+     *
+     * @return The copy
+     */
+    HashMapIndex copy() {
+        return new HashMapIndex(this);
+    }
+
+    /**
+     * Creates an index over the same field without any rows.
+     *
+     * @return The empty index
+     */
+    HashMapIndex emptyCopy() {
+        return new HashMapIndex(field, keyType, isSorted(), keyFunction);
+    }
+
+    /**
+     * The number of entries the index has copied from the index it was copied from.
+     *
+     * @return The number of copied entries
+     */
+    long getCopied() {
+        return keysById.getCopied() + idsByKey.getCopied() + nullIds.getCopied() + copiedIds
+                + (isSorted() ? sortedKeys.getCopied() : 0);
+    }
+
+    boolean isSorted() {
+        return sortedKeys != null;
+    }
+
+    /**
+     * Whether lookups return exactly the rows that match.  Lookups are inexact if any row has a key whose class
+     * differs from the key type, since such keys are compared differently by in memory filters.
+     *
+     * @return true if lookups are exact
+     */
+    boolean isExact() {
+        return foreignKeys == 0;
+    }
+
+    void add(String id, Object row) {
+        Object key = keyFunction.apply(row);
+        keysById.put(id, key);
+        if (key == null) {
+            nullIds.put(id, Boolean.TRUE);
+            return;
+        }
+
+        PersistentHashMap<String, Boolean> ids = idsByKey.get(key);
+        if (ids == null) {
+            ids = new PersistentHashMap<>();
+            if (key.getClass() == keyType && sortedKeys != null) {
+                sortedKeys.put(key, Boolean.TRUE);
+            }
+        } else {
+            ids = ids.fork();
+        }
+        ids.put(id, Boolean.TRUE);
+        copiedIds += ids.getCopied();
+        idsByKey.put(key, ids);
+
+        if (key.getClass() != keyType) {
+            foreignKeys++;
+        }
+    }
+
+    void remove(String id) {
+        if (!keysById.containsKey(id)) {
+            return;
+        }
+
+        Object key = keysById.remove(id);
+        if (key == null) {
+            nullIds.remove(id);
+            return;
+        }
+
+        PersistentHashMap<String, Boolean> ids = idsByKey.get(key).fork();
+        ids.remove(id);
+        copiedIds += ids.getCopied();
+        if (ids.isEmpty()) {
+            idsByKey.remove(key);
+            if (key.getClass() == keyType && sortedKeys != null) {
+                sortedKeys.remove(key);
+            }
+        } else {
+            idsByKey.put(key, ids);
+        }
+
+        if (key.getClass() != keyType) {
+            foreignKeys--;
+        }
+    }
+
+    /**
+     * Returns the key a row was indexed under.
+     *
+     * @param id The row id
+     * @return The key, which is null if the field is null
+     */
+    Object getKey(String id) {
+        return keysById.get(id);
+    }
+
+    /**
+     * Returns the key of a row as it is now, rather than as it was when the row was committed.
+     *
+     * @param row The row
+     * @return The key, which is null if the field is null
+     */
+    Object keyOf(Object row) {
+        return keyFunction.apply(row);
+    }
+
+    /**
+     * Whether a row still has the key it was indexed under.
+     *
+     * @param id The row id
+     * @param row The row
+     * @return true if the key of the row has not been modified in place since it was committed
+     */
+    boolean isCurrent(String id, Object row) {
+        return Objects.equals(keysById.get(id), keyFunction.apply(row));
+    }
+
+    /**
+     * Returns the rows whose key equals one of the given keys.
+     *
+     * @param keys The keys
+     * @return The row ids
+     */
+    Set<String> in(Collection<Object> keys) {
+        Set<String> ids = new HashSet<>();
+        for (Object key : keys) {
+            PersistentHashMap<String, Boolean> keyIds = key == null ? null : idsByKey.get(key);
+            if (keyIds != null) {
+                ids.addAll(keyIds.keySet());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the rows whose key is null.
+     *
+     * @return The row ids
+     */
+    Set<String> isNull() {
+        return new HashSet<>(nullIds.keySet());
+    }
+
+    /**
+     * Returns the rows whose key is less than (or greater than) the given key.
+     *
+     * @param key The key to compare against
+     * @param less Whether to return keys less than the key
+     * @param inclusive Whether to return keys equal to the key
+     * @return The row ids
+     */
+    Set<String> range(Object key, boolean less, boolean inclusive) {
+        Set<String> ids = new HashSet<>();
+        for (Map.Entry<Object, Boolean> entry : sortedKeys.entries(key, inclusive, less)) {
+            ids.addAll(idsByKey.get(entry.getKey()).keySet());
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the rows whose key starts with the given prefix.  The key type must be a string.
+     *
+     * @param prefix The prefix
+     * @return The row ids
+     */
+    Set<String> prefix(String prefix) {
+        Set<String> ids = new HashSet<>();
+        for (Map.Entry<Object, Boolean> entry : sortedKeys.entries(prefix, true, false)) {
+            if (!((String) entry.getKey()).startsWith(prefix)) {
+                break;
+            }
+            ids.addAll(idsByKey.get(entry.getKey()).keySet());
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the groups of rows that share a key, in key order.  Rows with a null key sort before all other rows.
+     *
+     * @param descending Whether to return the keys in descending order
+     * @return The row ids grouped by key
+     */
+    Collection<Set<String>> sortedGroups(boolean descending) {
+        Collection<Set<String>> groups = new ArrayList<>(sortedKeys.size() + 1);
+        if (!descending && !nullIds.isEmpty()) {
+            groups.add(nullIds.keySet());
+        }
+        for (Map.Entry<Object, Boolean> entry : sortedKeys.entries(null, true, descending)) {
+            groups.add(idsByKey.get(entry.getKey()).keySet());
+        }
+        if (descending && !nullIds.isEmpty()) {
+            groups.add(nullIds.keySet());
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,704 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import com.yahoo.elide.core.EntityDictionary;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Persists the contents of a {@link HashMapDataStore} to a directory so that they survive restarts.
+ * <p>
+ * Every commit appends its operations to a write-ahead log.  Commits wait until their log entry is synced to disk,
+ * and concurrent commits share a single sync (group commit).  If the log cannot be written or synced, the journal
+ * fails every later commit, since it can no longer tell which entries are durable.
+ * <p>
+ * Once the log grows past the compaction threshold, a new log is started and a background thread writes a
+ * compacted snapshot from the previous snapshot and the logs written after it, then discards them.  Compaction
+ * reads what was logged rather than the rows of the store, which transactions may be modifying.  On startup, the
+ * latest snapshot is read and the log written after it is replayed.  A torn entry at the end of a log, left by a
+ * crash during a write, is ignored.
+ * <p>
+ * Rows are stored as JSON.  Attributes are written with Jackson, and relationships are written as the ids of the
+ * related rows.  Computed attributes and relationships are not stored.
+ */
+@Slf4j
+public class HashMapJournal implements Closeable {
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 64L * 1024 * 1024;
+
+    private static final Pattern LOG_FILE = Pattern.compile("log-(\\d+)\\.json");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.json");
+
+    private final Path directory;
+    private final long compactionThreshold;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Object syncLock = new Object();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hashmap-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private EntityDictionary dictionary;
+    private Map<String, Class<?>> types;
+
+    /* Guarded by this. */
+    private FileChannel logChannel;
+    private long sequence;
+    private long written;
+    private long logSize;
+    private long commits;
+    private IOException failure;
+
+    /* Guarded by syncLock. */
+    private volatile long synced;
+    private volatile long syncs;
+
+    /* The sequence at which the latest log starts, and the sequence of the latest compacted snapshot. */
+    private volatile long rotated;
+    private volatile long compacted;
+
+    private volatile Duration recoveryTime = Duration.ZERO;
+    private volatile long recoveredOperations;
+
+    /**
+     * Constructor.
+     *
+     * @param directory The directory holding the snapshots and logs, which is created if it does not exist
+     */
+    public HashMapJournal(Path directory) {
+        this(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory The directory holding the snapshots and logs, which is created if it does not exist
+     * @param compactionThreshold The size in bytes the log may reach before a compacted snapshot is written
+     */
+    public HashMapJournal(Path directory, long compactionThreshold) {
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * How long the last recovery took.
+     *
+     * @return The recovery time
+     */
+    public Duration getRecoveryTime() {
+        return recoveryTime;
+    }
+
+    /**
+     * The number of logged operations replayed by the last recovery.
+     *
+     * @return The operation count
+     */
+    public long getRecoveredOperations() {
+        return recoveredOperations;
+    }
+
+    /**
+     * The size in bytes of the log written since the last compacted snapshot.
+     *
+     * @return The log size
+     */
+    public synchronized long getLogSize() {
+        return logSize;
+    }
+
+    /**
+     * The number of commits logged since the journal was opened.
+     *
+     * @return The commit count
+     */
+    public synchronized long getCommitCount() {
+        return commits;
+    }
+
+    /**
+     * The number of times the log was synced to disk since the journal was opened.  With group commit, this is
+     * lower than the number of commits under concurrent load.
+     *
+     * @return The sync count
+     */
+    public long getSyncCount() {
+        return syncs;
+    }
+
+    /**
+     * Restores the tables from the latest snapshot and the log written after it, and opens a new log.
+     *
+     * @param empty The empty tables of the store
+     * @param dictionary The dictionary of the stored entities
+     * @return The recovered tables
+     * @throws IOException if the snapshot or log cannot be read
+     */
+    synchronized HashMapSnapshot recover(HashMapSnapshot empty, EntityDictionary dictionary) throws IOException {
+        long start = System.nanoTime();
+
+        this.dictionary = dictionary;
+        this.types = new HashMap<>();
+        empty.getTypes().forEach(type -> types.put(type.getName(), type));
+
+        Files.createDirectories(directory);
+
+        Map<Class<?>, Map<String, ObjectNode>> state = newState();
+        Replayed replayed = load(state, Long.MAX_VALUE);
+
+        this.sequence = replayed.sequence;
+        this.logSize = replayed.size;
+        this.logChannel = openLog(sequence);
+        this.rotated = sequence;
+        this.compacted = replayed.snapshotSequence;
+
+        HashMapSnapshot recovered = empty.apply(materialize(state));
+
+        recoveredOperations = replayed.operations;
+        recoveryTime = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Recovered {} operations from {} in {} ms", replayed.operations, directory,
+                recoveryTime.toMillis());
+        return recovered;
+    }
+
+    /**
+     * What {@link #load} read.
+     */
+    private static final class Replayed {
+        private long snapshotSequence;
+        private long sequence;
+        private long size;
+        private long operations;
+    }
+
+    private Map<Class<?>, Map<String, ObjectNode>> newState() {
+        Map<Class<?>, Map<String, ObjectNode>> state = new HashMap<>();
+        types.values().forEach(type -> state.put(type, new LinkedHashMap<>()));
+        return state;
+    }
+
+    /**
+     * Reads the latest snapshot and replays the logs written after it, up to a sequence.
+     *
+     * @param state The rows of each table, which are updated
+     * @param upTo The sequence of the last entry to replay
+     * @return The sequences read, and the size and number of operations of the replayed entries
+     * @throws IOException if the snapshot or a log cannot be read
+     */
+    private Replayed load(Map<Class<?>, Map<String, ObjectNode>> state, long upTo) throws IOException {
+        Replayed replayed = new Replayed();
+
+        NavigableMap<Long, Path> snapshots = listFiles(SNAPSHOT_FILE).headMap(upTo, true);
+        if (!snapshots.isEmpty()) {
+            replayed.snapshotSequence = snapshots.lastKey();
+            readSnapshot(snapshots.lastEntry().getValue(), state);
+        }
+
+        replayed.sequence = replayed.snapshotSequence;
+        for (Map.Entry<Long, Path> segment : listFiles(LOG_FILE).headMap(upTo).entrySet()) {
+            try (BufferedReader reader = Files.newBufferedReader(segment.getValue(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JsonNode entry = readEntry(line);
+                    if (entry == null) {
+                        log.warn("Ignoring torn entry at the end of {}", segment.getValue());
+                        break;
+                    }
+
+                    long entrySequence = entry.get("sequence").asLong();
+                    if (entrySequence <= replayed.sequence) {
+                        continue;
+                    }
+                    if (entrySequence > upTo) {
+                        break;
+                    }
+                    for (JsonNode operation : entry.get("operations")) {
+                        replay(operation, state);
+                        replayed.operations++;
+                    }
+                    replayed.sequence = entrySequence;
+                    replayed.size += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Appends the operations of a commit to the log.  Commits must be appended in the order they are applied.
+     *
+     * @param operations The committed operations
+     * @return The log position which must be synced for the commit to be durable
+     * @throws IOException if the log cannot be written
+     */
+    synchronized long append(List<Operation> operations) throws IOException {
+        ArrayNode entries = mapper.createArrayNode();
+        for (Operation operation : operations) {
+            if (operation.getInstance() == null) {
+                continue;
+            }
+
+            ObjectNode entry = entries.addObject();
+            if (operation.getOpType() == Operation.OpType.DELETE) {
+                entry.put("op", "delete");
+                entry.put("type", operation.getType().getName());
+                entry.put("id", operation.getId());
+            } else {
+                entry.put("op", "put");
+                entry.setAll(toJson(operation.getType(), operation.getId(), operation.getInstance()));
+            }
+        }
+        return write(entries);
+    }
+
+    /**
+     * Appends the removal of every row to the log.
+     *
+     * @return The log position which must be synced for the removal to be durable
+     * @throws IOException if the log cannot be written
+     */
+    synchronized long appendClear() throws IOException {
+        ArrayNode entries = mapper.createArrayNode();
+        entries.addObject().put("op", "clear");
+        return write(entries);
+    }
+
+    private long write(ArrayNode operations) throws IOException {
+        checkFailure();
+
+        ObjectNode entry = mapper.createObjectNode();
+        entry.put("sequence", sequence + 1);
+        entry.set("operations", operations);
+        byte[] bytes = (mapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                logChannel.write(buffer);
+            }
+        } catch (IOException e) {
+            //A partially written entry would corrupt the entries after it.
+            failure = e;
+            throw e;
+        }
+
+        sequence++;
+        commits++;
+        written += bytes.length;
+        logSize += bytes.length;
+        return written;
+    }
+
+    /**
+     * Waits until the log is synced to disk up to a position.  A commit which finds a sync in progress waits for it
+     * and then syncs every commit appended in the meantime, so concurrent commits share syncs.
+     *
+     * @param position The log position returned by append
+     * @throws IOException if the log cannot be synced
+     */
+    void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+
+            long target;
+            FileChannel channel;
+            synchronized (this) {
+                checkFailure();
+                target = written;
+                channel = logChannel;
+            }
+            force(channel);
+            synced = target;
+            syncs++;
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The journal failed to write an earlier commit", failure);
+        }
+    }
+
+    /**
+     * Syncs the log.  Whether entries written before a failed sync are durable is unknown, so a failure fails
+     * every later commit.
+     */
+    private void force(FileChannel channel) throws IOException {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a new log once the log has grown past the compaction threshold, and compacts the previous logs in the
+     * background.
+     *
+     * @throws IOException if the log cannot be synced or the new log cannot be created
+     */
+    void compactIfNeeded() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (logSize < compactionThreshold) {
+                    return;
+                }
+                checkFailure();
+                force(logChannel);
+                logChannel.close();
+                synced = written;
+                logChannel = openLog(sequence);
+                logSize = 0;
+                rotated = sequence;
+            }
+        }
+        compactor.execute(this::compact);
+    }
+
+    /**
+     * Writes a compacted snapshot of every log before the latest one, and removes the snapshots and logs it
+     * replaces.  Compactions run one at a time, and one which starts after several rotations covers all of them.
+     */
+    private void compact() {
+        long snapshotSequence = rotated;
+        if (snapshotSequence <= compacted) {
+            return;
+        }
+
+        try {
+            Map<Class<?>, Map<String, ObjectNode>> state = newState();
+            load(state, snapshotSequence);
+            writeSnapshot(state, snapshotSequence);
+
+            for (Map.Entry<Long, Path> file : listFiles(SNAPSHOT_FILE).headMap(snapshotSequence).entrySet()) {
+                Files.deleteIfExists(file.getValue());
+            }
+            for (Map.Entry<Long, Path> file : listFiles(LOG_FILE).headMap(snapshotSequence).entrySet()) {
+                Files.deleteIfExists(file.getValue());
+            }
+            compacted = snapshotSequence;
+        } catch (IOException | RuntimeException e) {
+            //The logs are kept, so nothing is lost and the next rotation retries.
+            log.error("Unable to compact {}", directory, e);
+        }
+    }
+
+    /**
+     * Streams a snapshot to a temporary file, which is renamed once it is synced.
+     */
+    private void writeSnapshot(Map<Class<?>, Map<String, ObjectNode>> state, long snapshotSequence)
+            throws IOException {
+        Path target = directory.resolve("snapshot-" + snapshotSequence + ".json");
+        Path temporary = directory.resolve("snapshot-" + snapshotSequence + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeNumberField("sequence", snapshotSequence);
+                generator.writeArrayFieldStart("rows");
+                for (Map<String, ObjectNode> rows : state.values()) {
+                    for (ObjectNode row : rows.values()) {
+                        generator.writeTree(row);
+                    }
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Syncs the directory, so that files created or renamed in it survive a crash.
+     */
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            //Directories cannot be opened on some platforms, such as Windows, which sync renames themselves.
+            log.debug("Unable to open {} to sync it", directory, e);
+            return;
+        }
+        try (FileChannel directoryChannel = channel) {
+            directoryChannel.force(true);
+        }
+    }
+
+    /**
+     * Waits for running compactions, and closes the log.
+     *
+     * @throws IOException if the log cannot be synced
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compaction");
+        }
+
+        synchronized (this) {
+            if (logChannel != null) {
+                logChannel.force(false);
+                logChannel.close();
+                logChannel = null;
+            }
+        }
+    }
+
+    private FileChannel openLog(long startSequence) throws IOException {
+        //A log starting at the last recovered sequence contains no complete entries, only a torn one.
+        FileChannel channel = FileChannel.open(directory.resolve("log-" + startSequence + ".json"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        syncDirectory();
+        return channel;
+    }
+
+    private TreeMap<Long, Path> listFiles(Pattern pattern) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                Matcher matcher = pattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Long.parseLong(matcher.group(1)), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private JsonNode readEntry(String line) {
+        try {
+            JsonNode entry = mapper.readTree(line);
+            return entry != null && entry.has("sequence") && entry.has("operations") ? entry : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Streams the rows of a snapshot, so that snapshots need not fit in a single buffer.
+     */
+    private void readSnapshot(Path path, Map<Class<?>, Map<String, ObjectNode>> state) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path));
+             JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Malformed snapshot " + path);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("rows".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        put(mapper.readTree(parser), state);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void replay(JsonNode operation, Map<Class<?>, Map<String, ObjectNode>> state) {
+        switch (operation.get("op").asText()) {
+            case "put":
+                put((ObjectNode) operation, state);
+                break;
+            case "delete":
+                Map<String, ObjectNode> rows = state.get(types.get(operation.get("type").asText()));
+                if (rows != null) {
+                    rows.remove(operation.get("id").asText());
+                }
+                break;
+            default:
+                state.values().forEach(Map::clear);
+                break;
+        }
+    }
+
+    private void put(ObjectNode row, Map<Class<?>, Map<String, ObjectNode>> state) {
+        Class<?> type = types.get(row.get("type").asText());
+        if (type == null) {
+            log.warn("Ignoring row of unknown type {}", row.get("type").asText());
+            return;
+        }
+        state.get(type).put(row.get("id").asText(), row);
+    }
+
+    private ObjectNode toJson(Class<?> type, String id, Object row) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("type", type.getName());
+        node.put("id", id);
+
+        ObjectNode attributes = node.putObject("attributes");
+        for (String attribute : dictionary.getAttributes(type)) {
+            if (!dictionary.isComputed(type, attribute)) {
+                attributes.set(attribute, mapper.valueToTree(dictionary.getValue(row, attribute, null)));
+            }
+        }
+
+        ObjectNode relationships = node.putObject("relationships");
+        for (String relationship : dictionary.getRelationships(type)) {
+            if (dictionary.isComputed(type, relationship)) {
+                continue;
+            }
+
+            ArrayNode ids = relationships.putArray(relationship);
+            Object value = dictionary.getValue(row, relationship, null);
+            Collection<?> related = value instanceof Collection ? (Collection<?>) value
+                    : value == null ? Collections.emptyList() : Collections.singletonList(value);
+            related.forEach(relation -> ids.add(dictionary.getId(relation)));
+        }
+        return node;
+    }
+
+    /**
+     * Creates the entities of the recovered rows and links their relationships.
+     */
+    private List<Operation> materialize(Map<Class<?>, Map<String, ObjectNode>> state) throws IOException {
+        Map<Class<?>, Map<String, Object>> entities = new HashMap<>();
+        List<Operation> operations = new ArrayList<>();
+
+        for (Map.Entry<Class<?>, Map<String, ObjectNode>> table : state.entrySet()) {
+            Class<?> type = table.getKey();
+            Map<String, Object> rows = new HashMap<>();
+            for (Map.Entry<String, ObjectNode> row : table.getValue().entrySet()) {
+                Object entity = newEntity(type, row.getValue());
+                rows.put(row.getKey(), entity);
+                operations.add(new Operation(row.getKey(), entity, type, Operation.OpType.CREATE));
+            }
+            entities.put(type, rows);
+        }
+
+        for (Map.Entry<Class<?>, Map<String, ObjectNode>> table : state.entrySet()) {
+            Class<?> type = table.getKey();
+            for (Map.Entry<String, ObjectNode> row : table.getValue().entrySet()) {
+                Object entity = entities.get(type).get(row.getKey());
+                Iterator<Map.Entry<String, JsonNode>> fields = row.getValue().get("relationships").fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (!dictionary.isRelation(type, field.getKey())) {
+                        continue;
+                    }
+
+                    Class<?> relationType = dictionary.getParameterizedType(type, field.getKey());
+                    List<Object> related = new ArrayList<>();
+                    field.getValue().forEach(id -> related.add(findEntity(entities, relationType, id.asText())));
+                    related.removeIf(relation -> relation == null);
+
+                    if (dictionary.getRelationshipType(type, field.getKey()).isToOne()) {
+                        dictionary.setValue(entity, field.getKey(), related.isEmpty() ? null : related.get(0));
+                    } else {
+                        dictionary.setValue(entity, field.getKey(), related);
+                    }
+                }
+            }
+        }
+        return operations;
+    }
+
+    private Object newEntity(Class<?> type, ObjectNode row) throws IOException {
+        Object entity;
+        try {
+            entity = type.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IOException("Cannot instantiate " + type.getName(), e);
+        }
+
+        dictionary.setValue(entity, dictionary.getIdFieldName(type), row.get("id").asText());
+
+        Iterator<Map.Entry<String, JsonNode>> fields = row.get("attributes").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!dictionary.isAttribute(type, field.getKey())) {
+                continue;
+            }
+
+            Class<?> fieldType = dictionary.getType(type, field.getKey());
+            if (field.getValue().isNull() && fieldType.isPrimitive()) {
+                continue;
+            }
+            dictionary.setValue(entity, field.getKey(), mapper.treeToValue(field.getValue(), fieldType));
+        }
+        return entity;
+    }
+
+    private static Object findEntity(Map<Class<?>, Map<String, Object>> entities, Class<?> type, String id) {
+        Map<String, Object> rows = entities.get(type);
+        if (rows != null && rows.containsKey(id)) {
+            return rows.get(id);
+        }
+
+        //The related entity may be stored in the table of a subclass.
+        for (Map.Entry<Class<?>, Map<String, Object>> table : entities.entrySet()) {
+            if (type.isAssignableFrom(table.getKey()) && table.getValue().containsKey(id)) {
+                return table.getValue().get(id);
+            }
+        }
+        return null;
+    }
+}
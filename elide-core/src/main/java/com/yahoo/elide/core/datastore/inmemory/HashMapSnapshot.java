@@ -0,0 +1,386 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import com.yahoo.elide.core.exceptions.TransactionException;
+
+import lombok.Getter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable version of every table in a {@link HashMapDataStore}.  Commits never modify a snapshot.  They
+ * publish a new snapshot in which only the tables they touch are copied, so readers can iterate a consistent set of
+ * rows of each table without locking.  The rows themselves are not copied, so their contents are not versioned.
+ * A copied table shares its structure with the table it was copied from, so a commit copies a number of entries
+ * which grows with the rows it writes and only logarithmically with the size of the table.
+ */
+class HashMapSnapshot {
+    @Getter private final long version;
+
+    /* The number of entries the tables of this version copied from the tables of the previous version. */
+    @Getter private final long copied;
+    private final Map<Class<?>, Table> tables;
+
+    /**
+     * The rows of one type, the position of each row in insertion order and the secondary indexes over the rows.
+     * The copy of a table which a commit modifies shares its structure with the published table.
+     */
+    private static class Table {
+        private final PersistentHashMap<String, Object> rows;
+        private final PersistentHashMap<String, Long> sequences;
+        private final PersistentTreeMap<Long, String> idsBySequence;
+        private final Map<String, HashMapIndex> indexes;
+
+        /* The id of every row, keyed by the row itself. */
+        private final PersistentHashMap<Object, String> identities;
+
+        private long nextSequence;
+
+        /* The largest numeric id ever stored in the table. */
+        private long maxNumericId;
+
+        private Table(PersistentHashMap<String, Object> rows, PersistentHashMap<String, Long> sequences,
+                      PersistentTreeMap<Long, String> idsBySequence, Map<String, HashMapIndex> indexes,
+                      PersistentHashMap<Object, String> identities, long nextSequence, long maxNumericId) {
+            this.rows = rows;
+            this.sequences = sequences;
+            this.idsBySequence = idsBySequence;
+            this.indexes = indexes;
+            this.identities = identities;
+            this.nextSequence = nextSequence;
+            this.maxNumericId = maxNumericId;
+        }
+
+        private static Table empty(Collection<HashMapIndex> indexes) {
+            Map<String, HashMapIndex> emptyIndexes = new HashMap<>();
+            indexes.forEach(index -> emptyIndexes.put(index.getField(), index.emptyCopy()));
+            return new Table(new PersistentHashMap<>(), new PersistentHashMap<>(), new PersistentTreeMap<>(),
+                    emptyIndexes, new PersistentHashMap<>(true), 0, 0);
+        }
+
+        private Table copy() {
+            Map<String, HashMapIndex> copiedIndexes = new HashMap<>();
+            indexes.forEach((field, index) -> copiedIndexes.put(field, index.copy()));
+            return new Table(rows.fork(), sequences.fork(), idsBySequence.fork(), copiedIndexes, identities.fork(),
+                    nextSequence, maxNumericId);
+        }
+
+        /**
+         * The number of entries copied from the table this table was copied from.
+         */
+        private long getCopied() {
+            return rows.getCopied() + sequences.getCopied() + idsBySequence.getCopied() + identities.getCopied()
+                    + indexes.values().stream().mapToLong(HashMapIndex::getCopied).sum();
+        }
+
+        /**
+         * Returns the rows keyed by id in insertion order.
+         */
+        private Map<String, Object> getRows() {
+            return new AbstractMap<String, Object>() {
+                @Override
+                public Object get(Object id) {
+                    return rows.get(id);
+                }
+
+                @Override
+                public boolean containsKey(Object id) {
+                    return rows.containsKey(id);
+                }
+
+                @Override
+                public int size() {
+                    return rows.size();
+                }
+
+                @Override
+                public Set<Entry<String, Object>> entrySet() {
+                    return new AbstractSet<Entry<String, Object>>() {
+                        @Override
+                        public Iterator<Entry<String, Object>> iterator() {
+                            Iterator<String> ids = idsBySequence.values().iterator();
+                            return new Iterator<Entry<String, Object>>() {
+                                @Override
+                                public boolean hasNext() {
+                                    return ids.hasNext();
+                                }
+
+                                @Override
+                                public Entry<String, Object> next() {
+                                    String id = ids.next();
+                                    return new SimpleImmutableEntry<>(id, rows.get(id));
+                                }
+                            };
+                        }
+
+                        @Override
+                        public int size() {
+                            return rows.size();
+                        }
+                    };
+                }
+            };
+        }
+
+        private void put(String id, Object row) {
+            Object previous = rows.put(id, row);
+            if (previous == null) {
+                sequences.put(id, nextSequence);
+                idsBySequence.put(nextSequence, id);
+                nextSequence++;
+            } else if (previous != row) {
+                identities.remove(previous);
+            }
+            identities.put(row, id);
+            maxNumericId = Math.max(maxNumericId, parseNumericId(id));
+
+            for (HashMapIndex index : indexes.values()) {
+                index.remove(id);
+                index.add(id, row);
+            }
+        }
+
+        private void remove(String id) {
+            Object previous = rows.remove(id);
+            if (previous != null) {
+                identities.remove(previous);
+            }
+            Long sequence = sequences.remove(id);
+            if (sequence != null) {
+                idsBySequence.remove(sequence);
+            }
+            indexes.values().forEach(index -> index.remove(id));
+        }
+
+        private boolean contains(String id, Object row) {
+            if (identities.containsKey(row)) {
+                return true;
+            }
+            Object existing = id == null ? null : rows.get(id);
+            return existing != null && existing.equals(row);
+        }
+    }
+
+    /**
+     * Parses an id made only of decimal digits.
+     *
+     * @param id The id
+     * @return The numeric id, or 0 if the id is not a positive long
+     */
+    private static long parseNumericId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 18) {
+            return 0;
+        }
+        for (int idx = 0; idx < id.length(); idx++) {
+            if (id.charAt(idx) < '0' || id.charAt(idx) > '9') {
+                return 0;
+            }
+        }
+        return Long.parseLong(id);
+    }
+
+    private HashMapSnapshot(long version, Map<Class<?>, Table> tables, long copied) {
+        this.version = version;
+        this.copied = copied;
+        this.tables = tables;
+    }
+
+    /**
+     * Creates the first version of a set of empty tables.
+     *
+     * @param types The table types
+     * @return The snapshot
+     */
+    static HashMapSnapshot empty(Collection<Class<?>> types) {
+        Map<Class<?>, Table> tables = new HashMap<>();
+        for (Class<?> type : types) {
+            tables.put(type, Table.empty(Collections.emptyList()));
+        }
+        return new HashMapSnapshot(0, Collections.unmodifiableMap(tables), 0);
+    }
+
+    /**
+     * Returns the rows of a table keyed by id, in insertion order.
+     *
+     * @param type The table type
+     * @return The unmodifiable table or null if the type is not stored
+     */
+    Map<String, Object> getTable(Class<?> type) {
+        Table table = tables.get(type);
+        return table == null ? null : table.getRows();
+    }
+
+    Set<Class<?>> getTypes() {
+        return tables.keySet();
+    }
+
+    /**
+     * Returns a secondary index of a table.
+     *
+     * @param type The table type
+     * @param field The indexed field
+     * @return The index or null if the field is not indexed
+     */
+    HashMapIndex getIndex(Class<?> type, String field) {
+        Table table = tables.get(type);
+        return table == null ? null : table.indexes.get(field);
+    }
+
+    /**
+     * Whether a table has secondary indexes.
+     *
+     * @param type The table type
+     * @return true if the table is indexed
+     */
+    boolean isIndexed(Class<?> type) {
+        Table table = tables.get(type);
+        return table != null && !table.indexes.isEmpty();
+    }
+
+    /**
+     * Whether a stored row no longer has a key it is indexed under, since it was modified in place.
+     *
+     * @param type The table type
+     * @param id The id of the row
+     * @param row The row
+     * @return true if the row is stored and one of its keys changed
+     */
+    boolean hasStaleKeys(Class<?> type, String id, Object row) {
+        Table table = tables.get(type);
+        if (table == null || id == null || table.rows.get(id) != row) {
+            return false;
+        }
+        return table.indexes.values().stream().anyMatch(index -> !index.isCurrent(id, row));
+    }
+
+    /**
+     * Whether a table holds a row, either the row itself or an equal row with the same id.
+     *
+     * @param type The table type
+     * @param id The id of the row
+     * @param row The row
+     * @return true if the row is stored
+     */
+    boolean contains(Class<?> type, String id, Object row) {
+        return tables.get(type).contains(id, row);
+    }
+
+    /**
+     * Returns the largest numeric id ever stored in a table.  Ids which are not decimal numbers are ignored.
+     *
+     * @param type The table type
+     * @return The largest numeric id, or 0 if there is none
+     */
+    long getMaxNumericId(Class<?> type) {
+        return tables.get(type).maxNumericId;
+    }
+
+    /**
+     * Orders the ids of a table in insertion order.
+     *
+     * @param type The table type
+     * @return The id comparator
+     */
+    Comparator<String> insertionOrder(Class<?> type) {
+        Map<String, Long> sequences = tables.get(type).sequences;
+        return Comparator.comparing(sequences::get);
+    }
+
+    /**
+     * Returns the rows with the given ids in insertion order.
+     *
+     * @param type The table type
+     * @param ids The row ids
+     * @return The rows
+     */
+    List<Object> getRows(Class<?> type, Collection<String> ids) {
+        List<String> sortedIds = new ArrayList<>(ids);
+        sortedIds.sort(insertionOrder(type));
+
+        Map<String, Object> rows = tables.get(type).rows;
+        List<Object> result = new ArrayList<>(sortedIds.size());
+        sortedIds.forEach(id -> result.add(rows.get(id)));
+        return result;
+    }
+
+    /**
+     * Adds secondary indexes to tables.  Existing rows are indexed.
+     *
+     * @param indexes The indexes to add, which must be empty
+     * @return The next version of the tables
+     */
+    HashMapSnapshot withIndexes(Map<Class<?>, List<HashMapIndex>> indexes) {
+        Map<Class<?>, Table> nextTables = new HashMap<>(tables);
+        indexes.forEach((type, typeIndexes) -> {
+            Table table = tables.get(type).copy();
+            for (HashMapIndex index : typeIndexes) {
+                table.rows.forEach(index::add);
+                table.indexes.put(index.getField(), index);
+            }
+            nextTables.put(type, table);
+        });
+        return new HashMapSnapshot(version + 1, Collections.unmodifiableMap(nextTables), 0);
+    }
+
+    /**
+     * Removes every row while keeping the secondary indexes of each table.
+     *
+     * @return The next version of the tables
+     */
+    HashMapSnapshot clear() {
+        Map<Class<?>, Table> nextTables = new HashMap<>();
+        tables.forEach((type, table) -> nextTables.put(type, Table.empty(table.indexes.values())));
+        return new HashMapSnapshot(version + 1, Collections.unmodifiableMap(nextTables), 0);
+    }
+
+    /**
+     * Applies committed operations to a copy of the tables they touch.
+     *
+     * @param operations The operations in the order they were performed
+     * @return The next version of the tables
+     * @throws TransactionException if an operation creates a row whose id already exists
+     */
+    HashMapSnapshot apply(List<Operation> operations) {
+        Map<Class<?>, Table> copies = new HashMap<>();
+
+        for (Operation op : operations) {
+            if (op.getInstance() == null) {
+                continue;
+            }
+
+            Table table = copies.computeIfAbsent(op.getType(), type -> tables.get(type).copy());
+            String id = op.getId();
+            if (op.getOpType() == Operation.OpType.DELETE) {
+                table.remove(id);
+            } else {
+                if (op.getOpType() == Operation.OpType.CREATE && table.rows.get(id) != null) {
+                    throw new TransactionException(new IllegalStateException("Duplicate key"));
+                }
+                table.put(id, op.getInstance());
+            }
+        }
+
+        if (copies.isEmpty()) {
+            return this;
+        }
+
+        Map<Class<?>, Table> nextTables = new HashMap<>(tables);
+        nextTables.putAll(copies);
+        long copied = copies.values().stream().mapToLong(Table::getCopied).sum();
+        return new HashMapSnapshot(version + 1, Collections.unmodifiableMap(nextTables), copied);
+    }
+}
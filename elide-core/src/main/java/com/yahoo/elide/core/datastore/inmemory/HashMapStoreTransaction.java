@@ -7,37 +7,63 @@ package com.yahoo.elide.core.datastore.inmemory;
 
 import com.yahoo.elide.core.DataStoreTransaction;
 import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
 import com.yahoo.elide.core.RequestScope;
 import com.yahoo.elide.core.exceptions.TransactionException;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.InMemoryFilterExecutor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.persistence.GeneratedValue;
 
 /**
  * HashMapDataStore transaction handler.
+ * <p>
+ * Reads are served without locking from the snapshot of the store taken when the transaction began (and refreshed
+ * when the transaction commits).  Creates and deletes are buffered and published atomically on commit, while
+ * changes to the rows it loads are made in place and seen by other transactions at once.
+ * <p>
+ * Filters and sorts are served by the secondary indexes of the store where possible.  The indexes hold the keys rows
+ * had when they were last committed, so the transaction keeps the indexed rows it changes, matches them by their
+ * current keys in its own lookups and writes them back when it commits.  Rows changed in place by other
+ * transactions which have not committed are still listed under their committed keys, so filters served by an index
+ * are only partially supported and the rows it selects are filtered again in memory.
  */
 public class HashMapStoreTransaction implements DataStoreTransaction {
-    private final Map<Class<?>, Map<String, Object>> dataStore;
+    private final HashMapDataStore dataStore;
     private final List<Operation> operations;
     private final EntityDictionary dictionary;
     private final Map<Class<?>, AtomicLong> typeIds;
+    private HashMapSnapshot snapshot;
 
-    public HashMapStoreTransaction(Map<Class<?>, Map<String, Object>> dataStore,
+    /* The rows of indexed tables this transaction has changed, with their types. */
+    private final Map<Object, Class<?>> changed = new IdentityHashMap<>();
+
+    public HashMapStoreTransaction(HashMapDataStore dataStore,
                                    EntityDictionary dictionary, Map<Class<?>, AtomicLong> typeIds) {
         this.dataStore = dataStore;
         this.dictionary = dictionary;
         this.operations = new ArrayList<>();
         this.typeIds = typeIds;
+        this.snapshot = dataStore.getSnapshot();
     }
 
     @Override
@@ -56,6 +82,7 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
         }
         id = dictionary.getId(object);
         operations.add(new Operation(id, object, object.getClass(), Operation.OpType.UPDATE));
+        track(object);
     }
 
     @Override
@@ -70,24 +97,12 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
 
     @Override
     public void commit(RequestScope scope) {
-        synchronized (dataStore) {
-            operations.stream()
-                    .filter(op -> op.getInstance() != null)
-                    .forEach(op -> {
-                        Object instance = op.getInstance();
-                        String id = op.getId();
-                        Map<String, Object> data = dataStore.get(op.getType());
-                        if (op.getOpType() == Operation.OpType.DELETE) {
-                            data.remove(id);
-                        } else {
-                            if (op.getOpType() == Operation.OpType.CREATE && data.get(id) != null) {
-                                throw new TransactionException(new IllegalStateException("Duplicate key"));
-                            }
-                            data.put(id, instance);
-                        }
-                    });
-            operations.clear();
-        }
+        //Rows modified in place are written back first, so that the operations of the transaction apply over them.
+        List<Operation> committed = writeBacks();
+        committed.addAll(operations);
+        snapshot = dataStore.commit(committed);
+        operations.clear();
+        changed.clear();
     }
 
     @Override
@@ -103,19 +118,7 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
 
         //GeneratedValue means the DB needs to assign the ID.
         if (dictionary.getAttributeOrRelationAnnotation(entityClass, GeneratedValue.class, idFieldName) != null) {
-            // TODO: Id's are not necessarily numeric.
-            AtomicLong nextId;
-            synchronized (dataStore) {
-                nextId = typeIds.computeIfAbsent(entityClass,
-                        (key) -> {
-                            long maxId = dataStore.get(key).keySet().stream()
-                                    .mapToLong(Long::parseLong)
-                                    .max()
-                                    .orElse(0);
-                            return new AtomicLong(maxId + 1);
-                        });
-            }
-            id = String.valueOf(nextId.getAndIncrement());
+            id = generateId(entityClass);
             setId(entity, id);
         } else {
             id = dictionary.getId(entity);
@@ -124,6 +127,20 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
         operations.add(new Operation(id, entity, entity.getClass(), Operation.OpType.CREATE));
     }
 
+    /**
+     * Generates an id without locking.  UUID ids are random.  Other ids are drawn from a per type sequence which
+     * starts after the largest numeric id in the table and is advanced past ids assigned by clients on commit.
+     */
+    private String generateId(Class<?> entityClass) {
+        if (dictionary.getIdType(entityClass) == UUID.class) {
+            return UUID.randomUUID().toString();
+        }
+
+        AtomicLong nextId = typeIds.computeIfAbsent(entityClass,
+                (key) -> new AtomicLong(dataStore.getSnapshot().getMaxNumericId(key) + 1));
+        return String.valueOf(nextId.getAndIncrement());
+    }
+
     public void setId(Object value, String id) {
         dictionary.setValue(value, dictionary.getIdFieldName(value.getClass()), id);
     }
@@ -136,17 +153,87 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
                               Optional<Sorting> sorting,
                               Optional<Pagination> pagination,
                               RequestScope scope) {
-        return dictionary.getValue(entity, relationName, scope);
+        Object values = dictionary.getValue(entity, relationName, scope);
+        if (!(values instanceof Collection) || (!filterExpression.isPresent() && !sorting.isPresent())) {
+            return values;
+        }
+
+        //Relationships are not indexed, so filters and sorts pushed to this store are evaluated in memory.
+        Class<?> relationClass = dictionary.getParameterizedType(entity, relationName);
+        List<Object> records = new ArrayList<>((Collection<?>) values);
+        if (filterExpression.isPresent()) {
+            Predicate predicate = filterExpression.get().accept(new InMemoryFilterExecutor(scope));
+            records = (List<Object>) records.stream().filter(predicate).collect(Collectors.toList());
+        }
+
+        Map<Path, Sorting.SortOrder> sortRules = getSortRules(relationClass, sorting);
+        if (!sortRules.isEmpty()) {
+            SortKeys sortKeys = new SortKeys(sortRules, scope);
+            List<SortKeys.Row> rows = new ArrayList<>(records.size());
+            for (Object record : records) {
+                rows.add(sortKeys.decorate(record, rows.size()));
+            }
+            rows.sort(sortKeys.comparator());
+            records = rows.stream().map(row -> row.record).collect(Collectors.toList());
+        }
+        return records;
     }
 
     @Override
     public Iterable<Object> loadObjects(Class<?> entityClass, Optional<FilterExpression> filterExpression,
                                         Optional<Sorting> sorting, Optional<Pagination> pagination,
                                         RequestScope scope) {
-        synchronized (dataStore) {
-            Map<String, Object> data = dataStore.get(entityClass);
-            return data.values();
+        Map<Path, Sorting.SortOrder> sortRules = getSortRules(entityClass, sorting);
+        HashMapIndex sortIndex = getSortIndex(entityClass, sortRules);
+        Map<String, Object> modified = filterExpression.isPresent() || sortIndex != null
+                ? modifiedRows(entityClass)
+                : Collections.emptyMap();
+
+        Set<String> ids = null;
+        if (filterExpression.isPresent()) {
+            IndexFilterVisitor.Match match = filterExpression.get()
+                    .accept(new IndexFilterVisitor(snapshot, entityClass, modified));
+            if (match != null) {
+                ids = match.ids;
+            }
+        }
+
+        if (sortIndex != null) {
+            boolean descending = sortRules.values().iterator().next() == Sorting.SortOrder.desc;
+            return loadSorted(entityClass, sortIndex, descending, ids, modified);
+        }
+
+        if (ids != null) {
+            return snapshot.getRows(entityClass, ids);
+        }
+        return snapshot.getTable(entityClass).values();
+    }
+
+    /**
+     * Returns rows in the order of a sorted index.  Rows with equal keys are returned in insertion order.  Rows
+     * this transaction modified in place are ordered by their current keys.
+     */
+    private List<Object> loadSorted(Class<?> entityClass, HashMapIndex index, boolean descending, Set<String> ids,
+                                    Map<String, Object> modified) {
+        Map<String, Object> table = snapshot.getTable(entityClass);
+        Comparator<String> insertionOrder = snapshot.insertionOrder(entityClass);
+
+        List<String> sortedIds;
+        if (ids == null && modified.isEmpty()) {
+            sortedIds = new ArrayList<>(table.size());
+            for (Set<String> group : index.sortedGroups(descending)) {
+                group.stream().sorted(insertionOrder).forEach(sortedIds::add);
+            }
+        } else {
+            Comparator<Object> keyOrder = Comparator.nullsFirst((Comparator) Comparator.naturalOrder());
+            Comparator<String> byKey = Comparator.comparing(
+                    id -> modified.containsKey(id) ? index.keyOf(modified.get(id)) : index.getKey(id),
+                    descending ? keyOrder.reversed() : keyOrder);
+            sortedIds = new ArrayList<>(ids == null ? table.keySet() : ids);
+            sortedIds.sort(byKey.thenComparing(insertionOrder));
         }
+
+        return sortedIds.stream().map(table::get).collect(Collectors.toList());
     }
 
     @Override
@@ -154,28 +241,48 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
                              Optional<FilterExpression> filterExpression,
                              RequestScope scope) {
 
-        synchronized (dataStore) {
-            Map<String, Object> data = dataStore.get(entityClass);
-            if (data == null) {
-                return null;
-            }
-            return data.get(id.toString());
+        Map<String, Object> data = snapshot.getTable(entityClass);
+        if (data == null) {
+            return null;
         }
+
+        Object record = data.get(id.toString());
+        if (record == null || !filterExpression.isPresent()) {
+            return record;
+        }
+
+        //A single row is cheaper to filter in memory than through the indexes.
+        Predicate predicate = filterExpression.get().accept(new InMemoryFilterExecutor(scope));
+        return predicate.test(record) ? record : null;
+    }
+
+    @Override
+    public void setAttribute(Object entity, String attributeName, Object attributeValue, RequestScope scope) {
+        track(entity);
+    }
+
+    @Override
+    public void updateToOneRelation(DataStoreTransaction relationTx, Object entity, String relationName,
+                                    Object relationshipValue, RequestScope scope) {
+        track(entity);
     }
 
     @Override
     public void close() throws IOException {
         operations.clear();
+        changed.clear();
     }
 
     @Override
     public FeatureSupport supportsFiltering(Class<?> entityClass, FilterExpression expression) {
-        return FeatureSupport.NONE;
+        //Rows changed in place by other transactions may be indexed under stale keys, so they are filtered again.
+        IndexFilterVisitor.Match match = expression.accept(new IndexFilterVisitor(snapshot, entityClass));
+        return match == null ? FeatureSupport.NONE : FeatureSupport.PARTIAL;
     }
 
     @Override
     public boolean supportsSorting(Class<?> entityClass, Sorting sorting) {
-        return false;
+        return getSortIndex(entityClass, getSortRules(entityClass, Optional.of(sorting))) != null;
     }
 
     @Override
@@ -183,7 +290,74 @@ public class HashMapStoreTransaction implements DataStoreTransaction {
         return false;
     }
 
+    private Map<Path, Sorting.SortOrder> getSortRules(Class<?> entityClass, Optional<Sorting> sorting) {
+        return sorting
+                .map(s -> s.getValidSortingRules(entityClass, dictionary))
+                .orElse(Collections.emptyMap());
+    }
+
+    /**
+     * Returns the sorted index which orders rows by the given rules, if there is one.
+     */
+    private HashMapIndex getSortIndex(Class<?> entityClass, Map<Path, Sorting.SortOrder> sortRules) {
+        if (sortRules.size() != 1) {
+            return null;
+        }
+
+        Path path = sortRules.keySet().iterator().next();
+        if (path.getPathElements().size() != 1) {
+            return null;
+        }
+
+        HashMapIndex index = snapshot.getIndex(entityClass, path.getFieldPath());
+        return index != null && index.isSorted() && index.isExact() ? index : null;
+    }
+
+    /**
+     * Keeps a row which this transaction changes, if its table is indexed.
+     */
+    private void track(Object row) {
+        if (row != null && snapshot.isIndexed(row.getClass())) {
+            changed.put(row, row.getClass());
+        }
+    }
+
+    /**
+     * Returns the rows of a table this transaction changed in place since they were indexed.
+     */
+    private Map<String, Object> modifiedRows(Class<?> entityClass) {
+        Map<String, Object> modified = new HashMap<>();
+        changed.forEach((row, type) -> {
+            if (type == entityClass) {
+                String id = dictionary.getId(row);
+                if (snapshot.hasStaleKeys(type, id, row)) {
+                    modified.put(id, row);
+                }
+            }
+        });
+        return modified;
+    }
+
+    /**
+     * Returns the operations which write back the rows this transaction changed in place, other than those it
+     * writes itself.
+     */
+    private List<Operation> writeBacks() {
+        Set<Object> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        operations.forEach(operation -> written.add(operation.getInstance()));
+
+        HashMapSnapshot current = dataStore.getSnapshot();
+        List<Operation> writeBacks = new ArrayList<>();
+        changed.forEach((row, type) -> {
+            String id = dictionary.getId(row);
+            if (!written.contains(row) && current.hasStaleKeys(type, id, row)) {
+                writeBacks.add(new Operation(id, row, type, Operation.OpType.UPDATE));
+            }
+        });
+        return writeBacks;
+    }
+
     private boolean containsObject(Object obj) {
-        return dataStore.get(obj.getClass()).containsValue(obj);
+        return dataStore.getSnapshot().contains(obj.getClass(), dictionary.getId(obj), obj);
     }
 }
@@ -6,15 +6,17 @@
 
 package com.yahoo.elide.core.datastore.inmemory;
 
+import com.yahoo.elide.ElideSettings;
 import com.yahoo.elide.core.DataStoreTransaction;
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.Path;
-import com.yahoo.elide.core.PersistentResource;
 import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.filter.expression.FilterPredicatePushdownExtractor;
 import com.yahoo.elide.core.filter.expression.InMemoryExecutionVerifier;
 import com.yahoo.elide.core.filter.expression.InMemoryFilterExecutor;
+import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
 import com.yahoo.elide.security.User;
@@ -22,13 +24,21 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -39,19 +49,8 @@ import java.util.stream.StreamSupport;
  */
 public class InMemoryStoreTransaction implements DataStoreTransaction {
 
-    private static final Comparator<Object> NULL_SAFE_COMPARE = (a, b) -> {
-        if (a == null && b == null) {
-            return 0;
-        } else if (a == null) {
-            return -1;
-        } else if (b == null) {
-            return 1;
-        } else if (a instanceof Comparable) {
-            return ((Comparable) a).compareTo(b);
-        } else {
-            throw new IllegalStateException("Trying to comparing non-comparable types!");
-        }
-    };
+    /* Upper bound on the space reserved up front for top-K selection. */
+    private static final int TOP_K_INITIAL_CAPACITY = 1024;
 
     private DataStoreTransaction tx;
 
@@ -128,6 +127,78 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
         return fetchData(fetcher, relationClass, filterExpression, sorting, pagination, filterInMemory, scope);
     }
 
+    @Override
+    public Map<Object, Object> getRelations(DataStoreTransaction relationTx,
+                                            Collection<?> entities,
+                                            String relationName,
+                                            Optional<FilterExpression> filterExpression,
+                                            Optional<Sorting> sorting,
+                                            RequestScope scope) {
+        if (entities.isEmpty()) {
+            return new IdentityHashMap<>();
+        }
+
+        Class<?> relationClass = scope.getDictionary().getParameterizedType(entities.iterator().next(), relationName);
+        boolean filterInMemory = scope.getNewPersistentResources().size() > 0;
+
+        Pair<Optional<FilterExpression>, Optional<FilterExpression>> expressionSplit = splitFilterExpression(
+                relationClass, filterExpression, filterInMemory, scope);
+        Pair<Optional<Sorting>, Optional<Sorting>> sortSplit = splitSorting(relationClass,
+                sorting, expressionSplit.getRight().isPresent());
+
+        //The store can only load the relation of every entity at once if nothing is left to do in memory.
+        if (expressionSplit.getRight().isPresent() || sortSplit.getRight().isPresent()) {
+            return DataStoreTransaction.super.getRelations(relationTx, entities, relationName,
+                    filterExpression, sorting, scope);
+        }
+        return tx.getRelations(relationTx, entities, relationName, expressionSplit.getLeft(), sortSplit.getLeft(),
+                scope);
+    }
+
+    @Override
+    public Collection<String> getRelationIdentifiers(DataStoreTransaction relationTx,
+                                                     Object entity,
+                                                     String relationName,
+                                                     Optional<FilterExpression> filterExpression,
+                                                     RequestScope scope) {
+        Class<?> relationClass = scope.getDictionary().getParameterizedType(entity, relationName);
+        boolean filterInMemory = scope.getNewPersistentResources().size() > 0;
+
+        Pair<Optional<FilterExpression>, Optional<FilterExpression>> expressionSplit = splitFilterExpression(
+                relationClass, filterExpression, filterInMemory, scope);
+
+        //The related objects must be loaded if they are filtered in memory.
+        if (expressionSplit.getRight().isPresent()) {
+            return DataStoreTransaction.super.getRelationIdentifiers(relationTx, entity, relationName,
+                    filterExpression, scope);
+        }
+        return tx.getRelationIdentifiers(relationTx, entity, relationName, expressionSplit.getLeft(), scope);
+    }
+
+    @Override
+    public Map<Object, Collection<String>> getRelationsIdentifiers(DataStoreTransaction relationTx,
+                                                                   Collection<?> entities,
+                                                                   String relationName,
+                                                                   Optional<FilterExpression> filterExpression,
+                                                                   RequestScope scope) {
+        if (entities.isEmpty()) {
+            return new IdentityHashMap<>();
+        }
+
+        Class<?> relationClass = scope.getDictionary().getParameterizedType(entities.iterator().next(), relationName);
+        boolean filterInMemory = scope.getNewPersistentResources().size() > 0;
+
+        Pair<Optional<FilterExpression>, Optional<FilterExpression>> expressionSplit = splitFilterExpression(
+                relationClass, filterExpression, filterInMemory, scope);
+
+        //The related objects must be loaded if they are filtered in memory.
+        if (expressionSplit.getRight().isPresent()) {
+            return DataStoreTransaction.super.getRelationsIdentifiers(relationTx, entities, relationName,
+                    filterExpression, scope);
+        }
+        return tx.getRelationsIdentifiers(relationTx, entities, relationName, expressionSplit.getLeft(), scope);
+    }
+
     @Override
     public void updateToManyRelation(DataStoreTransaction relationTx,
                                      Object entity,
@@ -221,11 +292,64 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
 
         Predicate predicate = filterExpression.get().accept(new InMemoryFilterExecutor(scope));
 
+        if (shouldFilterInParallel(loadedRecords, filterExpression.get(), scope)) {
+            return filterInParallel((Collection<Object>) loadedRecords, predicate,
+                    scope.getElideSettings().getInMemoryFilterPool());
+        }
+
         return StreamSupport.stream(loadedRecords.spliterator(), false)
                             .filter(predicate::test)
                             .collect(Collectors.toList());
     }
 
+    /**
+     * Large collections are filtered in parallel when a filter pool is configured.  The request scope is not
+     * thread-safe, so every field along every filter path must be readable without it.
+     *
+     * @param loadedRecords The records to filter
+     * @param filterExpression The filter expression
+     * @param scope The request scope
+     * @return True if the records should be filtered in parallel
+     */
+    private boolean shouldFilterInParallel(Iterable<Object> loadedRecords,
+                                           FilterExpression filterExpression,
+                                           RequestScope scope) {
+        ElideSettings settings = scope.getElideSettings();
+        if (settings == null || settings.getInMemoryFilterPool() == null) {
+            return false;
+        }
+
+        if (! (loadedRecords instanceof Collection)
+                || ((Collection<Object>) loadedRecords).size() < settings.getParallelFilterThreshold()) {
+            return false;
+        }
+
+        EntityDictionary dictionary = scope.getDictionary();
+        return filterExpression.accept(new PredicateExtractionVisitor()).stream()
+                .flatMap(predicate -> predicate.getPath().getPathElements().stream())
+                .filter(element -> ! "this".equals(element.getFieldName()))
+                .allMatch(element -> dictionary.isReadableWithoutScope(element.getType(), element.getFieldName()));
+    }
+
+    private List<Object> filterInParallel(Collection<Object> loadedRecords, Predicate predicate, ForkJoinPool pool) {
+        //Parallel streams started from within a fork join pool run in that pool.
+        ForkJoinTask<List<Object>> task = pool.submit(() -> loadedRecords.parallelStream()
+                .filter(predicate::test)
+                .collect(Collectors.toList()));
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     private Object fetchData(DataFetcher fetcher,
                                Class<?> entityClass,
                                Optional<FilterExpression> filterExpression,
@@ -261,6 +385,20 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
 
         Iterable<Object> loadedRecords = (Iterable<Object>) result;
 
+        //Without sorting, the page is selected while filtering, so matching records are not buffered.
+        if (inMemoryPagination.isPresent()
+                && getSortRules(entityClass, inMemorySort, scope).isEmpty()
+                && ! (inMemoryFilter.isPresent()
+                    && inMemoryPagination.get().isGenerateTotals()
+                    && shouldFilterInParallel(loadedRecords, filterExpression.get(), scope))) {
+
+            Predicate predicate = inMemoryFilter.isPresent()
+                    ? filterExpression.get().accept(new InMemoryFilterExecutor(scope))
+                    : record -> true;
+
+            return filterAndPaginateLazily(loadedRecords, predicate, inMemoryPagination.get());
+        }
+
         if (inMemoryFilter.isPresent()) {
             loadedRecords = filterLoadedData(loadedRecords, filterExpression, scope);
         }
@@ -286,21 +424,24 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
             return loadedRecords;
         }
 
-        EntityDictionary dictionary = scope.getDictionary();
-
-        Map<Path, Sorting.SortOrder> sortRules = sorting
-                .map((s) -> s.getValidSortingRules(entityClass, dictionary))
-                .orElse(new HashMap<>());
+        Map<Path, Sorting.SortOrder> sortRules = getSortRules(entityClass, sorting, scope);
 
         // No sorting required for this type & no pagination.
         if (sortRules.isEmpty() && ! pagination.isPresent()) {
             return loadedRecords;
         }
+        //Only the records up to the end of the requested page need to be sorted.
+        if (! sortRules.isEmpty() && pagination.isPresent()) {
+            return sortAndPaginateTopK(loadedRecords, new SortKeys(sortRules, scope), pagination.get());
+        }
+
         //We need an in memory copy to sort or paginate.
-        List<Object> results = StreamSupport.stream(loadedRecords.spliterator(), false).collect(Collectors.toList());
+        List<Object> results;
 
         if (! sortRules.isEmpty()) {
-            results = sortInMemory(results, sortRules, scope);
+            results = sortInMemory(loadedRecords, new SortKeys(sortRules, scope));
+        } else {
+            results = StreamSupport.stream(loadedRecords.spliterator(), false).collect(Collectors.toList());
         }
 
         if (pagination.isPresent()) {
@@ -310,6 +451,65 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
         return results;
     }
 
+    private Map<Path, Sorting.SortOrder> getSortRules(Class<?> entityClass,
+                                                      Optional<Sorting> sorting,
+                                                      RequestScope scope) {
+        EntityDictionary dictionary = scope.getDictionary();
+
+        return sorting
+                .map((s) -> s.getValidSortingRules(entityClass, dictionary))
+                .orElse(new HashMap<>());
+    }
+
+    /**
+     * Filters and paginates records in a single pass which only keeps the records of the requested page.
+     * Iteration stops at the end of the page unless page totals are requested, in which case the remaining
+     * records are only tested and counted.
+     *
+     * @param records The records to filter and paginate
+     * @param predicate The filter
+     * @param pagination The requested page
+     * @return The records of the requested page
+     */
+    private List<Object> filterAndPaginateLazily(Iterable<Object> records,
+                                                 Predicate predicate,
+                                                 Pagination pagination) {
+        int offset = pagination.getOffset();
+        int limit = pagination.getLimit();
+        if (offset < 0) {
+            return Collections.emptyList();
+        }
+
+        long endIdx = (long) offset + limit;
+        boolean generateTotals = pagination.isGenerateTotals();
+
+        List<Object> page = new ArrayList<>();
+        long matched = 0;
+        for (Object record : records) {
+            if (! predicate.test(record)) {
+                continue;
+            }
+
+            if (matched >= offset && matched < endIdx) {
+                page.add(record);
+            }
+            matched++;
+
+            if (matched >= endIdx && ! generateTotals) {
+                break;
+            }
+        }
+
+        if (offset >= matched) {
+            return Collections.emptyList();
+        }
+
+        if (generateTotals) {
+            pagination.setPageTotals(matched);
+        }
+        return page;
+    }
+
     private List<Object> paginateInMemory(List<Object> records, Pagination pagination) {
         int offset = pagination.getOffset();
         int limit = pagination.getLimit();
@@ -328,44 +528,77 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
         return records.subList(offset, endIdx);
     }
 
-    private List<Object> sortInMemory(List<Object> records,
-                                        Map<Path, Sorting.SortOrder> sortRules,
-                                        RequestScope scope) {
-        //Build a comparator that handles multiple comparison rules.
-        Comparator<Object> noSort = (left, right) -> 0;
-
-        Comparator<Object> comp = sortRules.entrySet().stream()
-            .map(entry -> getComparator(entry.getKey(), entry.getValue(), scope))
-            .reduce(noSort, (comparator1, comparator2) -> (left, right) -> {
-                int comparison = comparator1.compare(left, right);
-                if (comparison == 0) {
-                    return comparator2.compare(left, right);
-                }
-                return comparison;
-            });
-
-        records.sort(comp);
-        return records;
-    }
-
-    private Comparator<Object> getComparator(Path path, Sorting.SortOrder order, RequestScope requestScope) {
-        return (left, right) -> {
-            Object leftCompare = left;
-            Object rightCompare = right;
-
-            // Drill down into path to find value for comparison
-            for (Path.PathElement pathElement : path.getPathElements()) {
-                leftCompare = (leftCompare == null ? null
-                        : PersistentResource.getValue(leftCompare, pathElement.getFieldName(), requestScope));
-                rightCompare = (rightCompare == null ? null
-                        : PersistentResource.getValue(rightCompare, pathElement.getFieldName(), requestScope));
+    private List<Object> sortInMemory(Iterable<Object> records, SortKeys sortKeys) {
+        //Extract the sort keys of each record once, sort on the keys, and then discard them.
+        List<SortKeys.Row> rows = new ArrayList<>();
+        long sequence = 0;
+        for (Object record : records) {
+            rows.add(sortKeys.decorate(record, sequence++));
+        }
+
+        rows.sort(sortKeys.comparator());
+
+        Object[] sorted = new Object[rows.size()];
+        for (int idx = 0; idx < sorted.length; idx++) {
+            sorted[idx] = rows.get(idx).record;
+        }
+        return Arrays.asList(sorted);
+    }
+
+    /**
+     * Sorts and paginates records while holding at most offset + limit of them.  The candidates are kept in a
+     * bounded max-heap: once it is full, each record either displaces the current greatest candidate or is
+     * discarded.  Ties are broken by arrival order so the result matches a stable sort of all records.
+     *
+     * @param records The records to sort and paginate
+     * @param sortKeys The sort order
+     * @param pagination The requested page
+     * @return The records of the requested page in sorted order
+     */
+    private List<Object> sortAndPaginateTopK(Iterable<Object> records,
+                                             SortKeys sortKeys,
+                                             Pagination pagination) {
+        int offset = pagination.getOffset();
+        int limit = pagination.getLimit();
+        if (offset < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        long bound = Math.min((long) offset + limit, Integer.MAX_VALUE);
+
+        Comparator<SortKeys.Row> rowOrder = sortKeys.comparator();
+
+        PriorityQueue<SortKeys.Row> heap = new PriorityQueue<>(
+                (int) Math.min(bound, TOP_K_INITIAL_CAPACITY), rowOrder.reversed());
+
+        long total = 0;
+        for (Object record : records) {
+            SortKeys.Row row = sortKeys.decorate(record, total++);
+            if (heap.size() < bound) {
+                heap.add(row);
+            } else if (rowOrder.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
             }
+        }
+
+        if (offset >= total) {
+            return Collections.emptyList();
+        }
+
+        if (pagination.isGenerateTotals()) {
+            pagination.setPageTotals(total);
+        }
 
-            if (order == Sorting.SortOrder.asc) {
-                return NULL_SAFE_COMPARE.compare(leftCompare, rightCompare);
+        //Drain greatest first, keeping only the candidates after the offset.
+        Object[] page = new Object[heap.size() - offset];
+        for (int idx = heap.size() - 1; idx >= 0; idx--) {
+            SortKeys.Row row = heap.poll();
+            if (idx >= offset) {
+                page[idx - offset] = row.record;
             }
-            return NULL_SAFE_COMPARE.compare(rightCompare, leftCompare);
-        };
+        }
+        return Arrays.asList(page);
     }
 
     /**
@@ -450,6 +683,15 @@ public class InMemoryStoreTransaction implements DataStoreTransaction {
             boolean filteredInMemory,
             boolean sortedInMemory
     ) {
+        //Records are only compared with a keyset cursor by the store, so the page cannot be selected in memory.
+        if (pagination.isPresent() && pagination.get().isKeyset()) {
+            if (!tx.supportsKeysetPagination(entityClass) || filteredInMemory || sortedInMemory) {
+                throw new InvalidValueException("Keyset pagination is not supported for "
+                        + EntityDictionary.getSimpleName(entityClass));
+            }
+            return Pair.of(pagination, Optional.empty());
+        }
+
         if (!tx.supportsPagination(entityClass)
                 || filteredInMemory
                 || sortedInMemory) {
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.expression.AndFilterExpression;
+import com.yahoo.elide.core.filter.expression.FilterExpressionVisitor;
+import com.yahoo.elide.core.filter.expression.NotFilterExpression;
+import com.yahoo.elide.core.filter.expression.OrFilterExpression;
+import com.yahoo.elide.utils.coerce.CoerceUtil;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates a filter expression against the secondary indexes of a {@link HashMapDataStore} table.
+ * <p>
+ * Predicates are served by an index when they filter an indexed field with IN, ISNULL, LT, LE, GT, GE or PREFIX.
+ * A conjunction can be served by any of its indexed operands.  Disjunctions can only be served when both operands
+ * are.  Negations are never served.  The visitor returns null for expressions the indexes cannot serve.
+ * <p>
+ * Rows which the evaluating transaction modified in place are matched by their current keys rather than looked up
+ * in the indexes, which still hold their previous keys.
+ */
+class IndexFilterVisitor implements FilterExpressionVisitor<IndexFilterVisitor.Match> {
+
+    /**
+     * The rows selected by the indexes.
+     */
+    static final class Match {
+        /* The ids of the selected rows, or null if the indexes were only planned. */
+        final Set<String> ids;
+
+        private Match(Set<String> ids) {
+            this.ids = ids;
+        }
+    }
+
+    private final HashMapSnapshot snapshot;
+    private final Class<?> entityClass;
+    private final Map<String, Object> modified;
+
+    /**
+     * Constructor for a visitor which only determines whether the indexes can serve an expression.
+     *
+     * @param snapshot The snapshot whose indexes are used
+     * @param entityClass The filtered table
+     */
+    IndexFilterVisitor(HashMapSnapshot snapshot, Class<?> entityClass) {
+        this(snapshot, entityClass, null);
+    }
+
+    /**
+     * Constructor for a visitor which looks up the selected rows.
+     *
+     * @param snapshot The snapshot whose indexes are used
+     * @param entityClass The filtered table
+     * @param modified The rows modified in place by the evaluating transaction by id, or null to only determine
+     *                 whether the indexes can be used
+     */
+    IndexFilterVisitor(HashMapSnapshot snapshot, Class<?> entityClass, Map<String, Object> modified) {
+        this.snapshot = snapshot;
+        this.entityClass = entityClass;
+        this.modified = modified;
+    }
+
+    @Override
+    public Match visitPredicate(FilterPredicate filterPredicate) {
+        HashMapIndex index = getIndex(filterPredicate.getPath());
+        if (index == null) {
+            return null;
+        }
+
+        List<Object> keys = new ArrayList<>();
+        try {
+            for (Object value : filterPredicate.getValues()) {
+                keys.add(CoerceUtil.coerce(value, index.getKeyType()));
+            }
+        } catch (RuntimeException e) {
+            //Invalid filter values are reported by the in memory filter.
+            return null;
+        }
+
+        switch (filterPredicate.getOperator()) {
+            case IN:
+                return match(index, () -> index.in(keys), key -> key != null && keys.contains(key));
+            case ISNULL:
+                return match(index, index::isNull, key -> key == null);
+            case LT:
+                return range(index, keys, true, false);
+            case LE:
+                return range(index, keys, true, true);
+            case GT:
+                return range(index, keys, false, false);
+            case GE:
+                return range(index, keys, false, true);
+            case PREFIX:
+                if (!index.isSorted() || index.getKeyType() != String.class || keys.size() != 1
+                        || keys.get(0) == null) {
+                    return null;
+                }
+                String prefix = (String) keys.get(0);
+                return match(index, () -> index.prefix(prefix),
+                        key -> key instanceof String && ((String) key).startsWith(prefix));
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Match visitAndExpression(AndFilterExpression expression) {
+        Match left = expression.getLeft().accept(this);
+        Match right = expression.getRight().accept(this);
+
+        if (left == null && right == null) {
+            return null;
+        }
+        if (left == null || right == null) {
+            return left == null ? right : left;
+        }
+
+        Set<String> ids = null;
+        if (modified != null) {
+            ids = left.ids;
+            ids.retainAll(right.ids);
+        }
+        return new Match(ids);
+    }
+
+    @Override
+    public Match visitOrExpression(OrFilterExpression expression) {
+        Match left = expression.getLeft().accept(this);
+        Match right = expression.getRight().accept(this);
+
+        if (left == null || right == null) {
+            return null;
+        }
+
+        Set<String> ids = null;
+        if (modified != null) {
+            ids = left.ids;
+            ids.addAll(right.ids);
+        }
+        return new Match(ids);
+    }
+
+    @Override
+    public Match visitNotExpression(NotFilterExpression expression) {
+        return null;
+    }
+
+    private HashMapIndex getIndex(Path path) {
+        List<Path.PathElement> elements = path.getPathElements();
+        if (elements.isEmpty() || elements.get(0).getType() != entityClass) {
+            return null;
+        }
+
+        HashMapIndex index = snapshot.getIndex(entityClass, path.getFieldPath());
+        if (index == null || !index.isExact()) {
+            return null;
+        }
+
+        Class<?> fieldType = ClassUtils.primitiveToWrapper(elements.get(elements.size() - 1).getFieldType());
+        if (fieldType != index.getKeyType()) {
+            return null;
+        }
+        return index;
+    }
+
+    private Match range(HashMapIndex index, List<Object> keys, boolean less, boolean inclusive) {
+        if (!index.isSorted() || keys.isEmpty() || keys.contains(null)) {
+            return null;
+        }
+
+        return match(index, () -> {
+            Set<String> ids = new HashSet<>();
+            for (Object key : keys) {
+                ids.addAll(index.range(key, less, inclusive));
+            }
+            return ids;
+        }, key -> key != null && keys.stream().anyMatch(bound -> {
+            int comparison = ((Comparable) key).compareTo(bound);
+            return (less ? comparison < 0 : comparison > 0) || (inclusive && comparison == 0);
+        }));
+    }
+
+    /**
+     * Looks up the rows selected by a predicate.  The rows modified by the transaction are selected by testing
+     * their current keys instead.
+     */
+    private Match match(HashMapIndex index, Supplier<Set<String>> lookup, Predicate<Object> test) {
+        if (modified == null) {
+            return new Match(null);
+        }
+
+        Set<String> ids = lookup.get();
+        modified.forEach((id, row) -> {
+            if (test.test(index.keyOf(row))) {
+                ids.add(id);
+            } else {
+                ids.remove(id);
+            }
+        });
+        return new Match(ids);
+    }
+}
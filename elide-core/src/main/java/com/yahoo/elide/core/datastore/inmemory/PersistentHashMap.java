@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A hash map which shares its structure with the map it was forked from.
+ * <p>
+ * Entries are held in a trie indexed by successive groups of bits of their hash, whose leaves are small arrays of
+ * entries.  {@link #fork} returns a map which shares every node with this map in constant time.  A fork copies the
+ * nodes on the path to an entry the first time it modifies them, and modifies the nodes it owns in place.  A map
+ * must not be modified once it has been forked, so that its forks never see its modifications.
+ * <p>
+ * Maps which compare keys by identity hash keys with {@link System#identityHashCode}.  Iteration order is
+ * unspecified.  The map does not accept null keys.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 4;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    /* The number of entries above which a leaf which is not at the bottom of the trie is split. */
+    private static final int LEAF_SIZE = 8;
+
+    /**
+     * A node of the trie, owned by the map which created it.
+     */
+    private static final class Node {
+        private final Object owner;
+
+        /* The children of the node, each a node, a leaf or null. */
+        private final Object[] children;
+
+        private Node(Object owner, Object[] children) {
+            this.owner = owner;
+            this.children = children;
+        }
+    }
+
+    /**
+     * The entries whose hashes share the bits of the path to the leaf, owned by the map which created it.
+     */
+    private static final class Leaf {
+        private final Object owner;
+        private int size;
+        private int[] hashes;
+        private Object[] keys;
+        private Object[] values;
+
+        private Leaf(Object owner, int[] hashes, Object[] keys, Object[] values, int size) {
+            this.owner = owner;
+            this.size = size;
+            this.hashes = hashes;
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+
+    private final boolean identity;
+    private final Object owner = new Object();
+    private Node root;
+    private int size;
+
+    /* The number of node children and leaf entries copied since the map was forked. */
+    private long copied;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param identity Whether keys are compared by identity rather than by equality
+     */
+    PersistentHashMap(boolean identity) {
+        this.identity = identity;
+        this.root = new Node(owner, new Object[WIDTH]);
+    }
+
+    /**
+     * Creates an empty map whose keys are compared by equality.
+     */
+    PersistentHashMap() {
+        this(false);
+    }
+
+    private PersistentHashMap(PersistentHashMap<K, V> source) {
+        this.identity = source.identity;
+        this.root = source.root;
+        this.size = source.size;
+    }
+
+    /**
+     * Returns a map with the same entries which shares the structure of this map.  This map must not be modified
+     * afterwards.
+     *
+     * @return The fork
+     */
+    PersistentHashMap<K, V> fork() {
+        return new PersistentHashMap<>(this);
+    }
+
+    /**
+     * The number of node children and leaf entries this map has copied since it was forked.
+     *
+     * @return The number of copied entries
+     */
+    long getCopied() {
+        return copied;
+    }
+
+    private int hash(Object key) {
+        int hash = identity ? System.identityHashCode(key) : key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean matches(Object key, Object candidate) {
+        return identity ? key == candidate : key.equals(candidate);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        Leaf leaf = findLeaf(key);
+        int idx = find(leaf, key);
+        return idx < 0 ? null : (V) leaf.values[idx];
+    }
+
+    private int find(Object key) {
+        return find(findLeaf(key), key);
+    }
+
+    private int find(Leaf leaf, Object key) {
+        if (leaf == null || key == null) {
+            return -1;
+        }
+        int hash = hash(key);
+        for (int idx = 0; idx < leaf.size; idx++) {
+            if (leaf.hashes[idx] == hash && matches(key, leaf.keys[idx])) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    private Leaf findLeaf(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = hash(key);
+        Object child = root;
+        for (int shift = 0; child instanceof Node; shift += BITS) {
+            child = ((Node) child).children[(hash >>> shift) & MASK];
+        }
+        return (Leaf) child;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        int hash = hash(key);
+
+        root = editable(root);
+        Node node = root;
+        int shift = 0;
+        while (true) {
+            int slot = (hash >>> shift) & MASK;
+            Object child = node.children[slot];
+            if (child instanceof Node) {
+                Node next = editable((Node) child);
+                node.children[slot] = next;
+                node = next;
+                shift += BITS;
+                continue;
+            }
+
+            Leaf leaf = child == null ? new Leaf(owner, new int[2], new Object[2], new Object[2], 0)
+                    : editable((Leaf) child);
+            node.children[slot] = leaf;
+
+            int idx = find(leaf, key);
+            if (idx >= 0) {
+                V previous = (V) leaf.values[idx];
+                leaf.values[idx] = value;
+                return previous;
+            }
+
+            if (leaf.size == LEAF_SIZE && shift + BITS < Integer.SIZE) {
+                node.children[slot] = split(leaf, shift + BITS);
+                continue;
+            }
+
+            append(leaf, hash, key, value);
+            size++;
+            return null;
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (find(key) < 0) {
+            return null;
+        }
+        int hash = hash(key);
+
+        root = editable(root);
+        Node node = root;
+        int shift = 0;
+        while (true) {
+            int slot = (hash >>> shift) & MASK;
+            Object child = node.children[slot];
+            if (child instanceof Node) {
+                Node next = editable((Node) child);
+                node.children[slot] = next;
+                node = next;
+                shift += BITS;
+                continue;
+            }
+
+            Leaf leaf = editable((Leaf) child);
+            int idx = find(leaf, key);
+            V previous = (V) leaf.values[idx];
+            int last = leaf.size - 1;
+            leaf.hashes[idx] = leaf.hashes[last];
+            leaf.keys[idx] = leaf.keys[last];
+            leaf.values[idx] = leaf.values[last];
+            leaf.keys[last] = null;
+            leaf.values[last] = null;
+            leaf.size = last;
+
+            node.children[slot] = last == 0 ? null : leaf;
+            size--;
+            return previous;
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = new Node(owner, new Object[WIDTH]);
+        size = 0;
+    }
+
+    private Node editable(Node node) {
+        if (node.owner == owner) {
+            return node;
+        }
+        copied += WIDTH;
+        return new Node(owner, node.children.clone());
+    }
+
+    private Leaf editable(Leaf leaf) {
+        if (leaf.owner == owner) {
+            return leaf;
+        }
+        copied += leaf.size;
+        return new Leaf(owner, leaf.hashes.clone(), leaf.keys.clone(), leaf.values.clone(), leaf.size);
+    }
+
+    private static void append(Leaf leaf, int hash, Object key, Object value) {
+        if (leaf.size == leaf.keys.length) {
+            int capacity = leaf.size * 2;
+            leaf.hashes = Arrays.copyOf(leaf.hashes, capacity);
+            leaf.keys = Arrays.copyOf(leaf.keys, capacity);
+            leaf.values = Arrays.copyOf(leaf.values, capacity);
+        }
+        leaf.hashes[leaf.size] = hash;
+        leaf.keys[leaf.size] = key;
+        leaf.values[leaf.size] = value;
+        leaf.size++;
+    }
+
+    /**
+     * Replaces a full leaf with a node which distributes its entries by the next bits of their hashes.
+     */
+    private Node split(Leaf leaf, int shift) {
+        Node node = new Node(owner, new Object[WIDTH]);
+        for (int idx = 0; idx < leaf.size; idx++) {
+            int slot = (leaf.hashes[idx] >>> shift) & MASK;
+            Leaf child = (Leaf) node.children[slot];
+            if (child == null) {
+                child = new Leaf(owner, new int[2], new Object[2], new Object[2], 0);
+                node.children[slot] = child;
+            }
+            append(child, leaf.hashes[idx], leaf.keys[idx], leaf.values[idx]);
+        }
+        return node;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterates the entries of the map, which must not be modified during iteration.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final Deque<Object> pending = new ArrayDeque<>();
+        private Leaf leaf;
+        private int next;
+
+        private EntryIterator() {
+            pending.push(root);
+            advance();
+        }
+
+        private void advance() {
+            while (leaf == null || next == leaf.size) {
+                if (pending.isEmpty()) {
+                    leaf = null;
+                    return;
+                }
+                Object child = pending.pop();
+                if (child instanceof Node) {
+                    for (Object grandchild : ((Node) child).children) {
+                        if (grandchild != null) {
+                            pending.push(grandchild);
+                        }
+                    }
+                } else {
+                    leaf = (Leaf) child;
+                    next = 0;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new SimpleImmutableEntry<>((K) leaf.keys[next], (V) leaf.values[next]);
+            next++;
+            advance();
+            return entry;
+        }
+    }
+}
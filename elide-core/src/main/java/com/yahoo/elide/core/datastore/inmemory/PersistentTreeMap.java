@@ -0,0 +1,339 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A sorted map which shares its structure with the map it was forked from.
+ * <p>
+ * Entries are held in an AVL tree.  {@link #fork} returns a map which shares every node with this map in constant
+ * time.  A fork copies the nodes on the path to an entry the first time it modifies them, and modifies the nodes it
+ * owns in place.  A map must not be modified once it has been forked, so that its forks never see its
+ * modifications.  The map does not accept null keys.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+class PersistentTreeMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * A node of the tree, owned by the map which created it.
+     */
+    private static final class Node {
+        private final Object owner;
+        private final Object key;
+        private Object value;
+        private Node left;
+        private Node right;
+        private int height;
+
+        private Node(Object owner, Object key, Object value, Node left, Node right, int height) {
+            this.owner = owner;
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = height;
+        }
+    }
+
+    private final Comparator<Object> comparator;
+    private final Object owner = new Object();
+    private Node root;
+    private int size;
+
+    /* The number of nodes copied since the map was forked. */
+    private long copied;
+
+    /* The value replaced or removed by the last modification. */
+    private Object previous;
+
+    /**
+     * Creates an empty map ordered by the natural order of its keys.
+     */
+    PersistentTreeMap() {
+        this.comparator = (Comparator) Comparator.naturalOrder();
+    }
+
+    private PersistentTreeMap(PersistentTreeMap<K, V> source) {
+        this.comparator = source.comparator;
+        this.root = source.root;
+        this.size = source.size;
+    }
+
+    /**
+     * Returns a map with the same entries which shares the structure of this map.  This map must not be modified
+     * afterwards.
+     *
+     * @return The fork
+     */
+    PersistentTreeMap<K, V> fork() {
+        return new PersistentTreeMap<>(this);
+    }
+
+    /**
+     * The number of entries this map has copied since it was forked.
+     *
+     * @return The number of copied entries
+     */
+    long getCopied() {
+        return copied;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findNode(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node node = findNode(key);
+        return node == null ? null : (V) node.value;
+    }
+
+    private Node findNode(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Node node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        previous = null;
+        root = insert(root, key, value);
+        V replaced = (V) previous;
+        previous = null;
+        return replaced;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (findNode(key) == null) {
+            return null;
+        }
+        root = delete(root, key);
+        V removed = (V) previous;
+        previous = null;
+        size--;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private Node insert(Node node, Object key, Object value) {
+        if (node == null) {
+            size++;
+            return new Node(owner, key, value, null, null, 1);
+        }
+
+        int cmp = comparator.compare(key, node.key);
+        Node edited = editable(node);
+        if (cmp == 0) {
+            previous = edited.value;
+            edited.value = value;
+            return edited;
+        }
+        if (cmp < 0) {
+            edited.left = insert(node.left, key, value);
+        } else {
+            edited.right = insert(node.right, key, value);
+        }
+        return balance(edited);
+    }
+
+    private Node delete(Node node, Object key) {
+        int cmp = comparator.compare(key, node.key);
+        Node edited = editable(node);
+        if (cmp < 0) {
+            edited.left = delete(node.left, key);
+            return balance(edited);
+        }
+        if (cmp > 0) {
+            edited.right = delete(node.right, key);
+            return balance(edited);
+        }
+
+        previous = node.value;
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+
+        //Replace the node with its successor.
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        Object removed = previous;
+        Node right = delete(node.right, successor.key);
+        previous = removed;
+
+        Node replacement = new Node(owner, successor.key, successor.value, node.left, right, 0);
+        copied++;
+        return balance(replacement);
+    }
+
+    private Node editable(Node node) {
+        if (node.owner == owner) {
+            return node;
+        }
+        copied++;
+        return new Node(owner, node.key, node.value, node.left, node.right, node.height);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+    }
+
+    /**
+     * Restores the balance of an owned node whose subtrees differ in height by at most two.
+     */
+    private Node balance(Node node) {
+        int difference = height(node.left) - height(node.right);
+        if (difference > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(editable(node.left));
+            }
+            return rotateRight(node);
+        }
+        if (difference < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(editable(node.right));
+            }
+            return rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = editable(node.right);
+        node.right = pivot.left;
+        update(node);
+        pivot.left = node;
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = editable(node.left);
+        node.left = pivot.right;
+        update(node);
+        pivot.right = node;
+        update(pivot);
+        return pivot;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator(null, true, false);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the entries on one side of a key, ordered from the key outwards.
+     *
+     * @param from The key to start from, or null to start from the first (or last) entry
+     * @param inclusive Whether to include the entry of the key
+     * @param descending Whether to return the entries whose keys are less than the key in descending order, rather
+     *                   than those whose keys are greater than the key in ascending order
+     * @return The entries
+     */
+    Iterable<Entry<K, V>> entries(K from, boolean inclusive, boolean descending) {
+        return () -> new EntryIterator(from, inclusive, descending);
+    }
+
+    /**
+     * Iterates the entries of the map in order, using a stack of the nodes whose entries are still to be returned.
+     * The map must not be modified during iteration.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final boolean descending;
+        private final Deque<Node> stack = new ArrayDeque<>();
+
+        private EntryIterator(Object from, boolean inclusive, boolean descending) {
+            this.descending = descending;
+
+            Node node = root;
+            while (node != null) {
+                int cmp = from == null ? (descending ? 1 : -1) : comparator.compare(from, node.key);
+                if (descending) {
+                    cmp = -cmp;
+                }
+                if (cmp < 0 || (cmp == 0 && inclusive)) {
+                    stack.push(node);
+                    if (cmp == 0) {
+                        break;
+                    }
+                    node = descending ? node.right : node.left;
+                } else {
+                    node = descending ? node.left : node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node node = stack.pop();
+            for (Node child = descending ? node.left : node.right; child != null;
+                    child = descending ? child.right : child.left) {
+                stack.push(child);
+            }
+            return new SimpleImmutableEntry<>((K) node.key, (V) node.value);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.PersistentResource;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.sort.Sorting;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the sort keys of a record once, so that sorting compares extracted keys rather than walking the sort
+ * paths of both records on every comparison.
+ * <p>
+ * The fields along all sort paths are resolved exactly once per record, including relationship hops shared by
+ * several sort rules (for example author.name and author.age).  Integral, floating point and date keys are held
+ * as primitive longs.
+ */
+class SortKeys {
+
+    /* Marks a primitive key which is not null. */
+    private static final Object PRESENT = new Object();
+
+    private static final Comparator<Object> NULL_SAFE_COMPARE = (a, b) -> {
+        if (a == null && b == null) {
+            return 0;
+        } else if (a == null) {
+            return -1;
+        } else if (b == null) {
+            return 1;
+        } else if (a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        } else {
+            throw new IllegalStateException("Trying to comparing non-comparable types!");
+        }
+    };
+
+    private enum KeyType { INTEGRAL, FLOATING, DATE, OBJECT }
+
+    /* For each resolved field (slot 0 is the record itself): the slot of the object it is read from. */
+    private final int[] parentSlots;
+
+    /* For each resolved field: its name. */
+    private final String[] fieldNames;
+
+    /* For each sort rule: the slot holding its value, how it is stored and whether it is descending. */
+    private final int[] keySlots;
+    private final KeyType[] keyTypes;
+    private final boolean[] descending;
+
+    private final RequestScope scope;
+
+    /**
+     * A record together with its extracted sort keys.
+     */
+    static final class Row {
+        final Object record;
+        final long sequence;
+
+        /* Object keys, or PRESENT/null for primitive keys. */
+        private final Object[] keys;
+
+        /* Primitive keys. */
+        private final long[] primitiveKeys;
+
+        private Row(Object record, long sequence, Object[] keys, long[] primitiveKeys) {
+            this.record = record;
+            this.sequence = sequence;
+            this.keys = keys;
+            this.primitiveKeys = primitiveKeys;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sortRules The sort paths in order of precedence
+     * @param scope The request scope used to read field values
+     */
+    SortKeys(Map<Path, Sorting.SortOrder> sortRules, RequestScope scope) {
+        this.scope = scope;
+
+        List<Integer> parents = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> slotsByPath = new HashMap<>();
+
+        parents.add(-1);
+        names.add(null);
+
+        keySlots = new int[sortRules.size()];
+        keyTypes = new KeyType[sortRules.size()];
+        descending = new boolean[sortRules.size()];
+
+        int rule = 0;
+        for (Map.Entry<Path, Sorting.SortOrder> entry : sortRules.entrySet()) {
+            int slot = 0;
+            StringBuilder prefix = new StringBuilder();
+            for (Path.PathElement element : entry.getKey().getPathElements()) {
+                prefix.append('.').append(element.getFieldName());
+                int parent = slot;
+                slot = slotsByPath.computeIfAbsent(prefix.toString(), unused -> {
+                    parents.add(parent);
+                    names.add(element.getFieldName());
+                    return parents.size() - 1;
+                });
+            }
+
+            keySlots[rule] = slot;
+            keyTypes[rule] = keyType(entry.getKey().lastElement().map(Path.PathElement::getFieldType).orElse(null));
+            descending[rule] = entry.getValue() == Sorting.SortOrder.desc;
+            rule++;
+        }
+
+        parentSlots = parents.stream().mapToInt(Integer::intValue).toArray();
+        fieldNames = names.toArray(new String[0]);
+    }
+
+    private static KeyType keyType(Class<?> fieldType) {
+        if (fieldType == null) {
+            return KeyType.OBJECT;
+        }
+
+        Class<?> type = ClassUtils.wrapperToPrimitive(fieldType);
+        if (type == long.class || type == int.class || type == short.class || type == byte.class) {
+            return KeyType.INTEGRAL;
+        }
+        if (type == double.class || type == float.class) {
+            return KeyType.FLOATING;
+        }
+        if (Date.class.isAssignableFrom(fieldType)) {
+            return KeyType.DATE;
+        }
+        return KeyType.OBJECT;
+    }
+
+    /**
+     * Extracts the sort keys of a record.
+     *
+     * @param record The record
+     * @param sequence The position of the record, used to break ties
+     * @return The decorated record
+     */
+    Row decorate(Object record, long sequence) {
+        Object[] values = new Object[parentSlots.length];
+        values[0] = record;
+        for (int slot = 1; slot < values.length; slot++) {
+            Object parent = values[parentSlots[slot]];
+            values[slot] = parent == null ? null : PersistentResource.getValue(parent, fieldNames[slot], scope);
+        }
+
+        Object[] keys = new Object[keySlots.length];
+        long[] primitiveKeys = new long[keySlots.length];
+        for (int idx = 0; idx < keySlots.length; idx++) {
+            Object value = values[keySlots[idx]];
+            if (value == null || keyTypes[idx] == KeyType.OBJECT) {
+                keys[idx] = value;
+            } else {
+                keys[idx] = PRESENT;
+                primitiveKeys[idx] = toPrimitive(value, keyTypes[idx]);
+            }
+        }
+        return new Row(record, sequence, keys, primitiveKeys);
+    }
+
+    private static long toPrimitive(Object value, KeyType type) {
+        switch (type) {
+            case INTEGRAL:
+                return ((Number) value).longValue();
+            case FLOATING:
+                //Order preserving encoding of a double as a long.
+                long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+                return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+            default:
+                return ((Date) value).getTime();
+        }
+    }
+
+    /**
+     * Orders rows by their sort keys, breaking ties by sequence.
+     *
+     * @return The row comparator
+     */
+    Comparator<Row> comparator() {
+        return (left, right) -> {
+            for (int idx = 0; idx < keySlots.length; idx++) {
+                int comparison = descending[idx] ? compareKey(right, left, idx) : compareKey(left, right, idx);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Long.compare(left.sequence, right.sequence);
+        };
+    }
+
+    private int compareKey(Row left, Row right, int idx) {
+        Object leftKey = left.keys[idx];
+        Object rightKey = right.keys[idx];
+        if (keyTypes[idx] == KeyType.OBJECT || leftKey == null || rightKey == null) {
+            return NULL_SAFE_COMPARE.compare(leftKey, rightKey);
+        }
+        return Long.compare(left.primitiveKeys[idx], right.primitiveKeys[idx]);
+    }
+}
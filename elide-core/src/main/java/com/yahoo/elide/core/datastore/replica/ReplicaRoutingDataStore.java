@@ -0,0 +1,265 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.replica;
+
+import com.yahoo.elide.core.DataStore;
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.datastore.wrapped.TransactionWrapper;
+import com.yahoo.elide.core.exceptions.TransactionException;
+import com.yahoo.elide.security.User;
+import com.yahoo.elide.security.permissions.UserCheckCache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.Value;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Routes write transactions to a primary store and read transactions to a pool of replica stores of the same
+ * models, such as {@code JpaDataStore}s over a primary database and its read replicas.  Every store populates the
+ * same entity dictionary, so that each store can set up the models it serves.
+ * <p>
+ * A user who commits a write reads from the primary for a while afterwards, so that they read their own writes
+ * despite replication lag.  Users are only known once a transaction accesses them, so such a read begins a replica
+ * transaction which is then closed and replaced by a read transaction of the primary.  Recent writers are only
+ * remembered by this store, so reads served by other processes, for example other instances behind a load
+ * balancer, may still miss a user's own writes.
+ * <p>
+ * The time each replica transaction is open is recorded per replica, see {@link #getReplicaMetrics()}.  It spans the
+ * whole request, including the time spent outside the replica, so it is not the latency of the replica itself.
+ */
+public class ReplicaRoutingDataStore implements DataStore {
+    /**
+     * How read transactions choose a replica.
+     */
+    public enum Routing {
+        /** Each replica in turn. */
+        ROUND_ROBIN,
+        /** The replica with the fewest open transactions. */
+        LEAST_LOADED
+    }
+
+    private final DataStore primary;
+    private final List<Replica> replicas;
+    private final Routing routing;
+    private final Cache<Object, Boolean> recentWriters;
+    private final Function<User, Object> identityFn;
+    private final Ticker ticker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param primary the store which writes, and which reads when there are no replicas
+     * @param replicas the stores which read
+     * @param routing how read transactions choose a replica
+     * @param stickiness how long a user reads from the primary after committing a write
+     * @param unit the unit of the stickiness
+     */
+    public ReplicaRoutingDataStore(DataStore primary, List<DataStore> replicas, Routing routing,
+                                   long stickiness, TimeUnit unit) {
+        this(primary, replicas, routing, stickiness, unit, UserCheckCache::defaultIdentity, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param primary the store which writes, and which reads when there are no replicas
+     * @param replicas the stores which read
+     * @param routing how read transactions choose a replica
+     * @param stickiness how long a user reads from the primary after committing a write
+     * @param unit the unit of the stickiness
+     * @param identityFn identifies the user of a transaction; a null identity disables stickiness for that user
+     * @param ticker the time source used to expire stickiness and measure how long transactions are open
+     */
+    public ReplicaRoutingDataStore(DataStore primary, List<DataStore> replicas, Routing routing,
+                                   long stickiness, TimeUnit unit, Function<User, Object> identityFn, Ticker ticker) {
+        this.primary = Preconditions.checkNotNull(primary);
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toList());
+        this.routing = routing;
+        this.recentWriters = CacheBuilder.newBuilder()
+                .expireAfterWrite(stickiness, unit)
+                .ticker(ticker)
+                .build();
+        this.identityFn = identityFn;
+        this.ticker = ticker;
+    }
+
+    @Override
+    public void populateEntityDictionary(EntityDictionary dictionary) {
+        primary.populateEntityDictionary(dictionary);
+        replicas.forEach(replica -> replica.store.populateEntityDictionary(dictionary));
+    }
+
+    @Override
+    public DataStoreTransaction beginTransaction() {
+        return new PrimaryTransaction(primary.beginTransaction());
+    }
+
+    @Override
+    public DataStoreTransaction beginReadTransaction() {
+        if (replicas.isEmpty()) {
+            return primary.beginReadTransaction();
+        }
+
+        Replica replica = selectReplica();
+        replica.active.incrementAndGet();
+        long start = ticker.read();
+        try {
+            return new ReplicaTransaction(replica.store.beginReadTransaction(), replica, start);
+        } catch (RuntimeException e) {
+            replica.active.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * The load and transaction open time of each replica since the store was created, in the order the replicas
+     * were given.
+     *
+     * @return the metrics of the replicas
+     */
+    public List<ReplicaMetrics> getReplicaMetrics() {
+        return replicas.stream()
+                .map(replica -> new ReplicaMetrics(replica.active.get(), replica.transactions.sum(),
+                        replica.openNanos.sum()))
+                .collect(Collectors.toList());
+    }
+
+    private Replica selectReplica() {
+        int size = replicas.size();
+        int first = Math.floorMod(next.getAndIncrement(), size);
+        if (routing == Routing.ROUND_ROBIN) {
+            return replicas.get(first);
+        }
+
+        //Ties are broken in turn so that idle replicas share the load.
+        return IntStream.range(0, size)
+                .mapToObj(offset -> replicas.get((first + offset) % size))
+                .min(Comparator.comparingInt(replica -> replica.active.get()))
+                .get();
+    }
+
+    private boolean isRecentWriter(User user) {
+        Object identity = user == null ? null : identityFn.apply(user);
+        return identity != null && recentWriters.getIfPresent(identity) != null;
+    }
+
+    /**
+     * The load and transaction open time of a replica.
+     */
+    @Value
+    public static class ReplicaMetrics {
+        /** The number of open transactions. */
+        private int activeTransactions;
+
+        /** The number of closed transactions. */
+        private long transactions;
+
+        /** The total time the closed transactions were open. */
+        private long totalOpenNanos;
+
+        /**
+         * The average time a transaction was open.
+         *
+         * @return the average open time in milliseconds, or 0 if no transaction has closed
+         */
+        public double getAverageOpenMillis() {
+            return transactions == 0 ? 0 : (double) totalOpenNanos / transactions / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    /**
+     * A replica store and its counters.
+     */
+    private static class Replica {
+        private final DataStore store;
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder transactions = new LongAdder();
+        private final LongAdder openNanos = new LongAdder();
+
+        private Replica(DataStore store) {
+            this.store = store;
+        }
+    }
+
+    /**
+     * A write transaction of the primary, which makes its user read from the primary once it commits.
+     */
+    private class PrimaryTransaction extends TransactionWrapper {
+        private PrimaryTransaction(DataStoreTransaction tx) {
+            super(tx);
+        }
+
+        @Override
+        public void commit(RequestScope scope) {
+            tx.commit(scope);
+
+            Object identity = scope == null || scope.getUser() == null ? null : identityFn.apply(scope.getUser());
+            if (identity != null) {
+                recentWriters.put(identity, true);
+            }
+        }
+    }
+
+    /**
+     * A read transaction of a replica, which moves to the primary if its user has written recently.
+     */
+    private class ReplicaTransaction extends TransactionWrapper {
+        private Replica replica;
+        private final long start;
+
+        private ReplicaTransaction(DataStoreTransaction tx, Replica replica, long start) {
+            super(tx);
+            this.replica = replica;
+            this.start = start;
+        }
+
+        @Override
+        public User accessUser(Object opaqueUser) {
+            User user = tx.accessUser(opaqueUser);
+            if (replica == null || !isRecentWriter(user)) {
+                return user;
+            }
+
+            try {
+                close();
+            } catch (IOException e) {
+                throw new TransactionException(e);
+            }
+            tx = primary.beginReadTransaction();
+            return tx.accessUser(opaqueUser);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                tx.close();
+            } finally {
+                if (replica != null) {
+                    replica.active.decrementAndGet();
+                    replica.transactions.increment();
+                    replica.openNanos.add(ticker.read() - start);
+                    replica = null;
+                }
+            }
+        }
+    }
+}
@@ -12,15 +12,24 @@ import com.yahoo.elide.core.exceptions.BadRequestException;
 import com.yahoo.elide.core.exceptions.InvalidOperatorNegationException;
 import com.yahoo.elide.utils.coerce.CoerceUtil;
 
+import org.apache.commons.lang3.ClassUtils;
+
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Operator enum for predicates.
@@ -29,156 +38,155 @@ import java.util.function.Predicate;
 public enum Operator {
     IN("in", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return in(fieldPath, values, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return in(fieldPath, values);
         }
     },
 
     IN_INSENSITIVE("ini", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return in(fieldPath, values, requestScope, FOLD_CASE);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return in(fieldPath, values, FOLD_CASE);
         }
     },
 
     NOT("not", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return (T entity) -> !in(fieldPath, values, requestScope).test(entity);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return Operator.<T>in(fieldPath, values).negate();
         }
     },
 
     NOT_INSENSITIVE("noti", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return (T entity) -> !in(fieldPath, values, requestScope, FOLD_CASE).test(entity);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return Operator.<T>in(fieldPath, values, FOLD_CASE).negate();
         }
     },
 
     PREFIX_CASE_INSENSITIVE("prefixi", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return prefix(fieldPath, values, requestScope, s -> s.toLowerCase(Locale.ENGLISH));
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return prefix(fieldPath, values, FOLD_CASE);
         }
     },
 
     PREFIX("prefix", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return prefix(fieldPath, values, requestScope, Function.identity());
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return prefix(fieldPath, values, Function.identity());
         }
     },
 
     POSTFIX("postfix", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return postfix(fieldPath, values, requestScope, Function.identity());
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return postfix(fieldPath, values, Function.identity());
         }
     },
 
     POSTFIX_CASE_INSENSITIVE("postfixi", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return postfix(fieldPath, values, requestScope, FOLD_CASE);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return postfix(fieldPath, values, FOLD_CASE);
         }
     },
 
     INFIX("infix", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return infix(fieldPath, values, requestScope, Function.identity());
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return infix(fieldPath, values, Function.identity());
         }
     },
 
     INFIX_CASE_INSENSITIVE("infixi", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return infix(fieldPath, values, requestScope, FOLD_CASE);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return infix(fieldPath, values, FOLD_CASE);
         }
     },
 
     ISNULL("isnull", false) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return isNull(fieldPath, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return isNull(fieldPath);
         }
     },
 
     NOTNULL("notnull", false) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return (val) -> !isNull(fieldPath, requestScope).test(val);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return Operator.<T>isNull(fieldPath).negate();
         }
     },
 
     LT("lt", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return lt(fieldPath, values, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return lt(fieldPath, values);
         }
     },
 
     LE("le", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return le(fieldPath, values, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return le(fieldPath, values);
         }
     },
 
     GT("gt", true) {
         @Override
-        public <T> Predicate<T> contextualize(
-                Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return gt(fieldPath, values, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return gt(fieldPath, values);
         }
     },
 
     GE("ge", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return ge(fieldPath, values, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return ge(fieldPath, values);
         }
     },
 
     TRUE("true", false) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
             return isTrue();
         }
     },
 
     FALSE("false", false) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
             return isFalse();
         }
     },
 
     ISEMPTY("isempty", false) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return isEmpty(fieldPath, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return isEmpty(fieldPath);
         }
     },
 
     NOTEMPTY("notempty", false) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return (entity) -> !isEmpty(fieldPath, requestScope).test(entity);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return Operator.<T>isEmpty(fieldPath).negate();
         }
     },
 
     HASMEMBER("hasmember", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return hasMember(fieldPath, values, requestScope);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return hasMember(fieldPath, values);
         }
     },
 
     HASNOMEMBER("hasnomember", true) {
         @Override
-        public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
-            return entiry -> !hasMember(fieldPath, values, requestScope).test(entiry);
+        public <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values) {
+            return Operator.<T>hasMember(fieldPath, values).negate();
         }
     }
     ;
@@ -224,7 +232,21 @@ public enum Operator {
         throw new BadRequestException("Unknown operator in filter: " + string);
     }
 
-    public abstract <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope);
+    /**
+     * Compiles this operator into a predicate which can be reused across entities and requests.  Filter values are
+     * coerced and case folded once, when the predicate is compiled, rather than for each entity tested.
+     *
+     * @param <T> the type of entity tested
+     * @param fieldPath the path of the field tested
+     * @param values the filter values
+     * @return a predicate over an entity and the request scope used to read its fields
+     */
+    public abstract <T> BiPredicate<T, RequestScope> compile(Path fieldPath, List<Object> values);
+
+    public <T> Predicate<T> contextualize(Path fieldPath, List<Object> values, RequestScope requestScope) {
+        BiPredicate<T, RequestScope> predicate = compile(fieldPath, values);
+        return (T entity) -> predicate.test(entity, requestScope);
+    }
 
     //
     // Predicate generation
@@ -232,11 +254,24 @@ public enum Operator {
 
     //
     // In with strict equality
-    private static <T> Predicate<T> in(Path fieldPath, List<Object> values, RequestScope requestScope) {
-        return (T entity) -> {
+    private static <T> BiPredicate<T, RequestScope> in(Path fieldPath, List<Object> values) {
+        Class<?> fieldType = getFieldType(fieldPath);
+        Set<Object> coercedValues = precompute(() -> values.stream()
+                .map(v -> CoerceUtil.coerce(v, fieldType))
+                .collect(Collectors.toCollection(HashSet::new)));
+
+        return (T entity, RequestScope requestScope) -> {
             Object val = getFieldValue(entity, fieldPath, requestScope);
 
-            return val != null && values.stream()
+            if (val == null) {
+                return false;
+            }
+
+            if (coercedValues != null && val.getClass() == fieldType) {
+                return coercedValues.contains(val);
+            }
+
+            return values.stream()
                     .map(v -> CoerceUtil.coerce(v, val.getClass()))
                     .anyMatch(val::equals);
         };
@@ -244,9 +279,13 @@ public enum Operator {
 
     //
     // String-like In with optional transformation
-    private static <T> Predicate<T> in(Path fieldPath, List<Object> values,
-                                       RequestScope requestScope, Function<String, String> transform) {
-        return (T entity) -> {
+    private static <T> BiPredicate<T, RequestScope> in(Path fieldPath, List<Object> values,
+                                                       Function<String, String> transform) {
+        Set<String> transformedValues = precompute(() -> values.stream()
+                .map(v -> transform.apply(CoerceUtil.coerce(v, String.class)))
+                .collect(Collectors.toCollection(HashSet::new)));
+
+        return (T entity, RequestScope requestScope) -> {
             Object fieldValue = getFieldValue(entity, fieldPath, requestScope);
 
             if (fieldValue == null) {
@@ -258,7 +297,15 @@ public enum Operator {
             }
 
             String val = transform.apply((String) fieldValue);
-            return val != null && values.stream()
+            if (val == null) {
+                return false;
+            }
+
+            if (transformedValues != null) {
+                return transformedValues.contains(val);
+            }
+
+            return values.stream()
                     .map(v -> transform.apply(CoerceUtil.coerce(v, String.class)))
                     .anyMatch(val::equals);
         };
@@ -266,93 +313,89 @@ public enum Operator {
 
     //
     // String-like prefix matching with optional transformation
-    private static <T> Predicate<T> prefix(Path fieldPath, List<Object> values,
-                                           RequestScope requestScope, Function<String, String> transform) {
-        return (T entity) -> {
-            if (values.size() != 1) {
-                throw new BadRequestException("PREFIX can only take one argument");
-            }
-
-            Object val = getFieldValue(entity, fieldPath, requestScope);
-            String valStr = CoerceUtil.coerce(val, String.class);
-            String filterStr = CoerceUtil.coerce(values.get(0), String.class);
-
-            return valStr != null
-                    && filterStr != null
-                    && transform.apply(valStr).startsWith(transform.apply(filterStr));
-        };
+    private static <T> BiPredicate<T, RequestScope> prefix(Path fieldPath, List<Object> values,
+                                                           Function<String, String> transform) {
+        return matchString(fieldPath, values, transform, "PREFIX", String::startsWith);
     }
 
     //
     // String-like postfix matching with optional transformation
-    private static <T> Predicate<T> postfix(Path fieldPath, List<Object> values,
-                                            RequestScope requestScope, Function<String, String> transform) {
-        return (T entity) -> {
-            if (values.size() != 1) {
-                throw new BadRequestException("POSTFIX can only take one argument");
-            }
-
-            Object val = getFieldValue(entity, fieldPath, requestScope);
-            String valStr = CoerceUtil.coerce(val, String.class);
-            String filterStr = CoerceUtil.coerce(values.get(0), String.class);
-
-            return valStr != null
-                    && filterStr != null
-                    && transform.apply(valStr).endsWith(transform.apply(filterStr));
-        };
+    private static <T> BiPredicate<T, RequestScope> postfix(Path fieldPath, List<Object> values,
+                                                            Function<String, String> transform) {
+        return matchString(fieldPath, values, transform, "POSTFIX", String::endsWith);
     }
 
     //
     // String-like infix matching with optional transformation
-    private static <T> Predicate<T> infix(Path fieldPath, List<Object> values,
-                                          RequestScope requestScope, Function<String, String> transform) {
-        return (T entity) -> {
-            if (values.size() != 1) {
-                throw new BadRequestException("INFIX can only take one argument");
-            }
+    private static <T> BiPredicate<T, RequestScope> infix(Path fieldPath, List<Object> values,
+                                                          Function<String, String> transform) {
+        return matchString(fieldPath, values, transform, "INFIX", String::contains);
+    }
 
+    private static <T> BiPredicate<T, RequestScope> matchString(Path fieldPath, List<Object> values,
+                                                                Function<String, String> transform,
+                                                                String operatorName,
+                                                                BiPredicate<String, String> matcher) {
+        if (values.size() != 1) {
+            return (T entity, RequestScope requestScope) -> {
+                throw new BadRequestException(operatorName + " can only take one argument");
+            };
+        }
+
+        String filterStr = precompute(() -> CoerceUtil.coerce(values.get(0), String.class));
+        if (filterStr == null) {
+            return (T entity, RequestScope requestScope) -> {
+                Object val = getFieldValue(entity, fieldPath, requestScope);
+                String valStr = CoerceUtil.coerce(val, String.class);
+                String rawFilterStr = CoerceUtil.coerce(values.get(0), String.class);
+
+                return valStr != null
+                        && rawFilterStr != null
+                        && matcher.test(transform.apply(valStr), transform.apply(rawFilterStr));
+            };
+        }
+
+        String transformedFilterStr = transform.apply(filterStr);
+        return (T entity, RequestScope requestScope) -> {
             Object val = getFieldValue(entity, fieldPath, requestScope);
             String valStr = CoerceUtil.coerce(val, String.class);
-            String filterStr = CoerceUtil.coerce(values.get(0), String.class);
 
-            return valStr != null
-                    && filterStr != null
-                    && transform.apply(valStr).contains(transform.apply(filterStr));
+            return valStr != null && matcher.test(transform.apply(valStr), transformedFilterStr);
         };
     }
 
     //
     // Null checking
-    private static <T> Predicate<T> isNull(Path fieldPath, RequestScope requestScope) {
-        return (T entity) -> getFieldValue(entity, fieldPath, requestScope) == null;
+    private static <T> BiPredicate<T, RequestScope> isNull(Path fieldPath) {
+        return (T entity, RequestScope requestScope) -> getFieldValue(entity, fieldPath, requestScope) == null;
     }
 
-    private static <T> Predicate<T> lt(Path fieldPath, List<Object> values, RequestScope requestScope) {
-        return getComparator(fieldPath, values, requestScope, compareResult -> compareResult < 0);
+    private static <T> BiPredicate<T, RequestScope> lt(Path fieldPath, List<Object> values) {
+        return getComparator(fieldPath, values, compareResult -> compareResult < 0);
     }
 
-    private static <T> Predicate<T> le(Path fieldPath, List<Object> values, RequestScope requestScope) {
-        return getComparator(fieldPath, values, requestScope, compareResult -> compareResult <= 0);
+    private static <T> BiPredicate<T, RequestScope> le(Path fieldPath, List<Object> values) {
+        return getComparator(fieldPath, values, compareResult -> compareResult <= 0);
     }
 
-    private static <T> Predicate<T> gt(Path fieldPath, List<Object> values, RequestScope requestScope) {
-        return getComparator(fieldPath, values, requestScope, compareResult -> compareResult > 0);
+    private static <T> BiPredicate<T, RequestScope> gt(Path fieldPath, List<Object> values) {
+        return getComparator(fieldPath, values, compareResult -> compareResult > 0);
     }
 
-    private static <T> Predicate<T> ge(Path fieldPath, List<Object> values, RequestScope requestScope) {
-        return getComparator(fieldPath, values, requestScope, compareResult -> compareResult >= 0);
+    private static <T> BiPredicate<T, RequestScope> ge(Path fieldPath, List<Object> values) {
+        return getComparator(fieldPath, values, compareResult -> compareResult >= 0);
     }
 
-    private static <T> Predicate<T> isTrue() {
-        return (T entity) -> true;
+    private static <T> BiPredicate<T, RequestScope> isTrue() {
+        return (T entity, RequestScope requestScope) -> true;
     }
 
-    private static <T> Predicate<T> isFalse() {
-        return (T entity) -> false;
+    private static <T> BiPredicate<T, RequestScope> isFalse() {
+        return (T entity, RequestScope requestScope) -> false;
     }
 
-    private static <T> Predicate<T> isEmpty(Path fieldPath, RequestScope requestScope) {
-        return (T entity) -> {
+    private static <T> BiPredicate<T, RequestScope> isEmpty(Path fieldPath) {
+        return (T entity, RequestScope requestScope) -> {
 
             Object val = getFieldValue(entity, fieldPath, requestScope);
             if (val == null) { return false; }
@@ -367,15 +410,20 @@ public enum Operator {
         };
     }
 
-    private static <T> Predicate<T> hasMember(Path fieldPath, List<Object> values, RequestScope requestScope) {
-        return (T entity) -> {
-            if (values.size() != 1) {
+    private static <T> BiPredicate<T, RequestScope> hasMember(Path fieldPath, List<Object> values) {
+        if (values.size() != 1) {
+            return (T entity, RequestScope requestScope) -> {
                 throw new BadRequestException("HasMember can only take one argument");
-            }
+            };
+        }
+
+        Optional<Object> coercedMember = precompute(() -> Optional.ofNullable(coerceMember(fieldPath, values)));
+
+        return (T entity, RequestScope requestScope) -> {
             Object val = getFieldValue(entity, fieldPath, requestScope);
-            Object filterStr = fieldPath.lastElement()
-                    .map(last -> CoerceUtil.coerce(values.get(0), last.getFieldType()))
-                    .orElse(CoerceUtil.coerce(values.get(0), String.class));
+            Object filterStr = coercedMember != null
+                    ? coercedMember.orElse(null)
+                    : coerceMember(fieldPath, values);
 
             if (val == null) { return false; }
             if (val instanceof Collection<?>) {
@@ -389,6 +437,13 @@ public enum Operator {
         };
     }
 
+    private static Object coerceMember(Path fieldPath, List<Object> values) {
+        Object member = CoerceUtil.coerce(values.get(0), String.class);
+        return fieldPath.lastElement()
+                .map(last -> CoerceUtil.coerce(values.get(0), last.getFieldType()))
+                .orElse(member);
+    }
+
     /**
      * Return value of field/path for given entity.  For example this.book.author
      *
@@ -412,18 +467,68 @@ public enum Operator {
         return val;
     }
 
-    private static <T> Predicate<T> getComparator(Path fieldPath, List<Object> values,
-                                                  RequestScope requestScope, Predicate<Integer> condition) {
-        return (T entity) -> {
-            if (values.size() == 0) {
+    /**
+     * Returns the class field values are expected to have at runtime (primitives are boxed), or null if unknown.
+     *
+     * @param fieldPath field value/path
+     * @return the class of the field values
+     */
+    private static Class<?> getFieldType(Path fieldPath) {
+        return fieldPath.lastElement()
+                .map(Path.PathElement::getFieldType)
+                .map(ClassUtils::primitiveToWrapper)
+                .orElse(null);
+    }
+
+    /**
+     * Computes a filter constant when the predicate is compiled.  Constants that cannot be computed ahead of time
+     * return null so that the predicate falls back to computing them per entity, which preserves when and how
+     * invalid filter values are reported.
+     *
+     * @param <R> the type of the constant
+     * @param supplier computes the constant
+     * @return the constant or null
+     */
+    private static <R> R precompute(Supplier<R> supplier) {
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static <T> BiPredicate<T, RequestScope> getComparator(Path fieldPath, List<Object> values,
+                                                                  IntPredicate condition) {
+        if (values.size() == 0) {
+            return (T entity, RequestScope requestScope) -> {
                 throw new BadRequestException("No value to compare");
-            }
+            };
+        }
+
+        Class<?> fieldType = getFieldType(fieldPath);
+        Comparable[] testComps = fieldType == null ? null : precompute(() -> values.stream()
+                .map(testVal -> CoerceUtil.coerce(CoerceUtil.coerce(testVal, fieldType), Comparable.class))
+                .toArray(Comparable[]::new));
+
+        return (T entity, RequestScope requestScope) -> {
             Object fieldVal = getFieldValue(entity, fieldPath, requestScope);
-            return fieldVal != null
-                    && values.stream()
+            if (fieldVal == null) {
+                return false;
+            }
+
+            if (testComps != null && fieldVal.getClass() == fieldType) {
+                Comparable fieldComp = CoerceUtil.coerce(fieldVal, Comparable.class);
+                for (Comparable testComp : testComps) {
+                    if (condition.test(fieldComp.compareTo(testComp))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            return values.stream()
                     .anyMatch(testVal -> condition.test(compare(fieldVal, testVal)));
         };
-
     }
 
     private static int compare(Object fieldValue, Object rawTestValue) {
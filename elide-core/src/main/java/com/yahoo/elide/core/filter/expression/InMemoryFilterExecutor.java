@@ -5,43 +5,94 @@
  */
 package com.yahoo.elide.core.filter.expression;
 
+import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.RequestScope;
 import com.yahoo.elide.core.filter.FilterPredicate;
 
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
 /**
  * Visitor for in memory filterExpressions.
+ * <p>
+ * Filter expressions are compiled into predicates whose filter values have already been coerced.  Compiled
+ * predicates are cached by the entity dictionary and reused by every request with an equal filter expression.
  */
 public class InMemoryFilterExecutor implements FilterExpressionVisitor<Predicate> {
+    private static final FilterExpressionVisitor<BiPredicate<Object, RequestScope>> COMPILER = new Compiler();
+
     private final RequestScope requestScope;
 
     public InMemoryFilterExecutor(RequestScope requestScope) {
         this.requestScope = requestScope;
     }
 
+    /**
+     * Compiles a filter expression into a predicate over an entity and the request scope used to read its fields.
+     *
+     * @param expression The filter expression
+     * @return The compiled predicate
+     */
+    public static BiPredicate<Object, RequestScope> compile(FilterExpression expression) {
+        return expression.accept(COMPILER);
+    }
+
     @Override
     public Predicate visitPredicate(FilterPredicate filterPredicate) {
-        return filterPredicate.apply(requestScope);
+        return bind(filterPredicate);
     }
 
     @Override
     public Predicate visitAndExpression(AndFilterExpression expression) {
-        Predicate leftPredicate = expression.getLeft().accept(this);
-        Predicate rightPredicate = expression.getRight().accept(this);
-        return t -> leftPredicate.and(rightPredicate).test(t);
+        return bind(expression);
     }
 
     @Override
     public Predicate visitOrExpression(OrFilterExpression expression) {
-        Predicate leftPredicate = expression.getLeft().accept(this);
-        Predicate rightPredicate = expression.getRight().accept(this);
-        return t -> leftPredicate.or(rightPredicate).test(t);
+        return bind(expression);
     }
 
     @Override
     public Predicate visitNotExpression(NotFilterExpression expression) {
-        Predicate predicate = expression.getNegated().accept(this);
-        return t -> predicate.negate().test(t);
+        return bind(expression);
+    }
+
+    private Predicate bind(FilterExpression expression) {
+        EntityDictionary dictionary = requestScope.getDictionary();
+        BiPredicate<Object, RequestScope> compiled = (dictionary == null)
+                ? compile(expression)
+                : dictionary.getCompiledFilter(expression, InMemoryFilterExecutor::compile);
+
+        return t -> compiled.test(t, requestScope);
+    }
+
+    /**
+     * Compiles filter expressions.
+     */
+    private static class Compiler implements FilterExpressionVisitor<BiPredicate<Object, RequestScope>> {
+        @Override
+        public BiPredicate<Object, RequestScope> visitPredicate(FilterPredicate filterPredicate) {
+            return filterPredicate.getOperator().compile(filterPredicate.getPath(), filterPredicate.getValues());
+        }
+
+        @Override
+        public BiPredicate<Object, RequestScope> visitAndExpression(AndFilterExpression expression) {
+            BiPredicate<Object, RequestScope> left = expression.getLeft().accept(this);
+            BiPredicate<Object, RequestScope> right = expression.getRight().accept(this);
+            return (t, scope) -> left.test(t, scope) && right.test(t, scope);
+        }
+
+        @Override
+        public BiPredicate<Object, RequestScope> visitOrExpression(OrFilterExpression expression) {
+            BiPredicate<Object, RequestScope> left = expression.getLeft().accept(this);
+            BiPredicate<Object, RequestScope> right = expression.getRight().accept(this);
+            return (t, scope) -> left.test(t, scope) || right.test(t, scope);
+        }
+
+        @Override
+        public BiPredicate<Object, RequestScope> visitNotExpression(NotFilterExpression expression) {
+            BiPredicate<Object, RequestScope> negated = expression.getNegated().accept(this);
+            return (t, scope) -> !negated.test(t, scope);
+        }
     }
 }
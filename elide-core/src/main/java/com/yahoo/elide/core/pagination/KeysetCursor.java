@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.pagination;
+
+import com.yahoo.elide.annotation.ReadPermission;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.PersistentResource;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.exceptions.ForbiddenAccessException;
+import com.yahoo.elide.core.exceptions.InvalidValueException;
+import com.yahoo.elide.core.sort.Sorting;
+import com.yahoo.elide.utils.coerce.CoerceUtil;
+import com.yahoo.elide.utils.coerce.converters.Serde;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Encodes and decodes the opaque cursors of keyset pagination.
+ * <p>
+ * A cursor holds the sort key values of the last record of a page followed by its id.  The next page contains the
+ * records which sort after that position, with the id breaking ties between records with equal sort keys.
+ */
+public final class KeysetCursor {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> VALUES = new TypeReference<List<String>>() { };
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Returns the cursor which resumes pagination after a record.  The cursor is only encoded, so every field on the
+     * sort paths must be readable by the user.
+     *
+     * @param resource The last record of a page
+     * @param sorting The sorting of the page
+     * @return An opaque cursor
+     * @throws InvalidValueException if a sort path goes through a field the user cannot read
+     */
+    public static String of(PersistentResource<?> resource, Optional<Sorting> sorting) {
+        RequestScope requestScope = resource.getRequestScope();
+        EntityDictionary dictionary = requestScope.getDictionary();
+        Class<?> entityClass = resource.getResourceClass();
+
+        List<String> values = new ArrayList<>();
+        if (sorting.isPresent() && !sorting.get().isDefaultInstance()) {
+            for (Path path : sorting.get().getValidSortingRules(entityClass, dictionary).keySet()) {
+                Object value = resource.getObject();
+                for (Path.PathElement element : path.getPathElements()) {
+                    if (value == null) {
+                        break;
+                    }
+                    checkReadable(new PersistentResource<>(value, null, requestScope.getUUIDFor(value),
+                            requestScope), element.getFieldName());
+                    value = PersistentResource.getValue(value, element.getFieldName(), requestScope);
+                }
+                values.add(serialize(value));
+            }
+        }
+        values.add(resource.getId());
+
+        return encode(values);
+    }
+
+    /**
+     * Encodes the serialized sort key values and id of a record into a cursor.
+     *
+     * @param values The sort key values followed by the id
+     * @return An opaque cursor
+     * @throws IllegalStateException if the values cannot be serialized
+     */
+    public static String encode(List<String> values) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(values));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into the sort key values followed by the id it resumes after.
+     *
+     * @param cursor The opaque cursor
+     * @return The serialized values
+     * @throws InvalidValueException if the cursor is malformed
+     */
+    public static List<String> decode(String cursor) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            return MAPPER.readValue(json, VALUES);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidValueException("Invalid pagination cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Converts a decoded cursor value back to the type of the field it was read from.
+     *
+     * @param value The decoded value
+     * @param type The field type
+     * @return The value to compare the field with
+     * @throws InvalidValueException if the value cannot be converted
+     */
+    public static Object coerce(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+
+        //Dates are kept to the millisecond, which the date serde would truncate.
+        if (Date.class.isAssignableFrom(type)) {
+            try {
+                return type.getConstructor(long.class).newInstance(Long.parseLong(value));
+            } catch (ReflectiveOperationException | NumberFormatException e) {
+                throw new InvalidValueException("Invalid pagination cursor value: " + value);
+            }
+        }
+        return CoerceUtil.coerce(value, type);
+    }
+
+    private static void checkReadable(PersistentResource<?> resource, String field) {
+        try {
+            resource.getRequestScope().getPermissionExecutor()
+                    .checkSpecificFieldPermissions(resource, null, ReadPermission.class, field);
+        } catch (ForbiddenAccessException e) {
+            throw new InvalidValueException("Cannot paginate by a cursor over unreadable field: " + field);
+        }
+    }
+
+    private static String serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+
+        Serde serde = CoerceUtil.lookup(value.getClass());
+        if (serde != null) {
+            return String.valueOf(serde.serialize(value));
+        }
+        return String.valueOf(value);
+    }
+}
@@ -12,11 +12,13 @@ import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.google.common.collect.ImmutableMap;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.core.MultivaluedMap;
@@ -30,7 +32,7 @@ public class Pagination {
     /**
      * Denotes the internal field names for paging.
      */
-    public enum PaginationKey { offset, number, size, limit, totals }
+    public enum PaginationKey { offset, number, size, limit, totals, after }
 
     public static final int DEFAULT_OFFSET = 0;
     public static final int DEFAULT_PAGE_LIMIT = 500;
@@ -51,6 +53,9 @@ public class Pagination {
     // For requesting total pages/records be included in the response page meta data
     public static final String PAGE_TOTALS_KEY = "page[totals]";
 
+    // For requesting the records after a keyset cursor rather than at an offset
+    public static final String PAGE_AFTER_KEY = "page[after]";
+
     public static final Map<String, PaginationKey> PAGE_KEYS = new HashMap<>();
     static {
         PAGE_KEYS.put(PAGE_NUMBER_KEY, PaginationKey.number);
@@ -58,8 +63,11 @@ public class Pagination {
         PAGE_KEYS.put(PAGE_OFFSET_KEY, PaginationKey.offset);
         PAGE_KEYS.put(PAGE_LIMIT_KEY, PaginationKey.limit);
         PAGE_KEYS.put(PAGE_TOTALS_KEY, PaginationKey.totals);
+        PAGE_KEYS.put(PAGE_AFTER_KEY, PaginationKey.after);
     }
 
+    private static final Pattern NUMERIC = Pattern.compile("-?\\d+");
+
     private long pageTotals = 0;
 
     private static final String PAGE_KEYS_CSV = PAGE_KEYS.keySet().stream().collect(Collectors.joining(", "));
@@ -76,6 +84,20 @@ public class Pagination {
     @Getter
     private boolean generateTotals;
 
+    /**
+     * The keyset cursor the page starts after, or null if the page is selected by offset.  An empty cursor
+     * requests the first page of a keyset traversal.
+     */
+    @Getter
+    private String after;
+
+    /**
+     * The keyset cursor of the next page, set once the store has returned a full page.
+     */
+    @Getter
+    @Setter
+    private String nextAfter;
+
     private final int defaultMaxPageSize;
     private final int defaultPageSize;
 
@@ -114,10 +136,11 @@ public class Pagination {
     }
 
     /**
-     * Given an offset and first parameter from GraphQL, generate page and pageSize values.
+     * Given an offset and first parameter from GraphQL, generate page and pageSize values.  An offset which is not
+     * numeric is a keyset cursor.
      *
      * @param firstOpt Provided first string
-     * @param offsetOpt Provided offset string
+     * @param offsetOpt Provided offset string or keyset cursor
      * @param generatePageTotals True if page totals should be generated, false otherwise
      * @param elideSettings Elide settings object containing default pagination values
      * @return The new Pagination object.
@@ -129,9 +152,14 @@ public class Pagination {
         return firstOpt.map(firstString -> {
             int offset;
             int first;
+            String cursor = offsetOpt.filter(value -> !NUMERIC.matcher(value).matches()).orElse(null);
+            if (cursor != null && !cursor.isEmpty()) {
+                //Rejects offsets which are neither numeric nor a cursor.
+                KeysetCursor.decode(cursor);
+            }
 
             try {
-                offset = offsetOpt.map(Integer::parseInt).orElse(0);
+                offset = cursor != null ? 0 : offsetOpt.map(Integer::parseInt).orElse(0);
                 first = Integer.parseInt(firstString);
             } catch (NumberFormatException e) {
                 throw new InvalidValueException("Offset and first must be numeric values.");
@@ -144,13 +172,15 @@ public class Pagination {
             }
 
             ImmutableMap.Builder<PaginationKey, Integer> pageData = ImmutableMap.<PaginationKey, Integer>builder()
-                    .put(PAGE_KEYS.get(PAGE_OFFSET_KEY), offset)
+                    .put(PAGE_KEYS.get(cursor != null ? PAGE_AFTER_KEY : PAGE_OFFSET_KEY), offset)
                     .put(PAGE_KEYS.get(PAGE_LIMIT_KEY), first);
             if (generatePageTotals) {
                 pageData.put(PAGE_KEYS.get(PAGE_TOTALS_KEY), 1);
             }
 
-            return Optional.of(getPagination(pageData.build(), elideSettings));
+            Pagination result = getPagination(pageData.build(), elideSettings);
+            result.after = cursor;
+            return Optional.of(result);
         }).orElseGet(() -> {
             if (generatePageTotals) {
                 Pagination pagination = getDefaultPagination(elideSettings);
@@ -182,6 +212,9 @@ public class Pagination {
                             // page[totals] is a valueless parameter, use value of 0 just so that its presence can
                             // be recorded in the map
                             pageData.put(paginationKey, 0);
+                        } else if (paginationKey.equals(PaginationKey.after)) {
+                            // page[after] holds an opaque cursor, record its presence in the map
+                            pageData.put(paginationKey, 0);
                         } else {
                             final String value = paramEntry.getValue().get(0);
                             try {
@@ -196,7 +229,12 @@ public class Pagination {
                                 + PAGE_KEYS_CSV);
                     }
                 });
-        return getPagination(pageData, elideSettings);
+        Pagination result = getPagination(pageData, elideSettings);
+        if (pageData.containsKey(PaginationKey.after)) {
+            String cursor = queryParams.getFirst(PAGE_AFTER_KEY);
+            result.after = cursor == null ? "" : cursor;
+        }
+        return result;
     }
 
     /**
@@ -258,7 +296,9 @@ public class Pagination {
 
     private boolean hasInvalidCombination(Map<PaginationKey, Integer> pageData) {
         return (pageData.containsKey(PaginationKey.size) || pageData.containsKey(PaginationKey.number))
-                && (pageData.containsKey(PaginationKey.limit) || pageData.containsKey(PaginationKey.offset));
+                && (pageData.containsKey(PaginationKey.limit) || pageData.containsKey(PaginationKey.offset))
+                || pageData.containsKey(PaginationKey.after)
+                && (pageData.containsKey(PaginationKey.number) || pageData.containsKey(PaginationKey.offset));
     }
 
     private void pageByOffset(int defaultLimit, int maxLimit) {
@@ -314,6 +354,14 @@ public class Pagination {
         return this;
     }
 
+    /**
+     * Whether the page is selected by a keyset cursor rather than an offset.
+     * @return true if page[after] was requested
+     */
+    public boolean isKeyset() {
+        return after != null;
+    }
+
     /**
      * Know if this is the default instance.
      * @return The default pagination values.
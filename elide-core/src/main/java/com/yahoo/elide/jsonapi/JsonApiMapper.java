@@ -11,6 +11,7 @@ import com.yahoo.elide.jsonapi.models.Patch;
 import com.yahoo.elide.utils.coerce.CoerceUtil;
 import com.yahoo.elide.utils.coerce.converters.Serde;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.Version;
@@ -22,6 +23,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.List;
 
@@ -119,6 +121,21 @@ public class JsonApiMapper {
         return mapper.writeValueAsString(node);
     }
 
+    /**
+     * Write json api document to an output stream.  Nodes which wrap a {@link JsonApiDocument} are serialized
+     * directly through the generator without first being converted to a tree.
+     *
+     * @param node the node
+     * @param out the output stream (left open)
+     * @throws IOException the iO exception
+     */
+    public void writeJsonApiDocument(JsonNode node, OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            mapper.writeValue(generator, node);
+        }
+    }
+
     /**
      * Read json api document.
      *
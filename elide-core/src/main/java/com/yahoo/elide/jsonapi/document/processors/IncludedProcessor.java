@@ -14,7 +14,13 @@ import com.google.common.collect.Lists;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -36,7 +42,9 @@ public class IncludedProcessor implements DocumentProcessor {
     public void execute(JsonApiDocument jsonApiDocument, PersistentResource resource,
                         Optional<MultivaluedMap<String, String>> queryParams) {
         if (isPresent(queryParams, INCLUDE)) {
-            addIncludedResources(jsonApiDocument, resource, queryParams.get().get(INCLUDE));
+            Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> included =
+                    loadIncludedRelations(Collections.singleton(resource), queryParams.get().get(INCLUDE));
+            addIncludedResources(jsonApiDocument, resource, queryParams.get().get(INCLUDE), included);
         }
     }
 
@@ -48,25 +56,79 @@ public class IncludedProcessor implements DocumentProcessor {
     public void execute(JsonApiDocument jsonApiDocument, Set<PersistentResource> resources,
                         Optional<MultivaluedMap<String, String>> queryParams) {
         if (isPresent(queryParams, INCLUDE)) {
+            Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> included =
+                    loadIncludedRelations(resources, queryParams.get().get(INCLUDE));
 
             // Process include for each resource
             resources.forEach(resource ->
-                    addIncludedResources(jsonApiDocument, resource, queryParams.get().get(INCLUDE)));
+                    addIncludedResources(jsonApiDocument, resource, queryParams.get().get(INCLUDE), included));
         }
     }
 
+    /**
+     * Loads the requested relations one level at a time, so that each relation is read for all the resources of
+     * a level at once rather than for each resource separately.
+     *
+     * @return The related resources read, by resource and relation, or empty if the relation is forbidden
+     */
+    private Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> loadIncludedRelations(
+            Set<PersistentResource> resources, List<String> requestedRelationPaths) {
+        Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> included = new IdentityHashMap<>();
+        requestedRelationPaths.forEach(pathParam -> {
+            for (String requestedRelationPath : pathParam.split(RELATION_PATH_SEPARATOR)) {
+                Collection<PersistentResource> level = resources;
+                List<String> relationPath = new ArrayList<>();
+                for (String relation : requestedRelationPath.split(RELATION_PATH_DELIMITER)) {
+                    PersistentResource.loadRelation(level, relation);
+                    relationPath.add(relation);
+
+                    Set<PersistentResource> nextLevel = new LinkedHashSet<>();
+                    for (PersistentResource<?> rec : level) {
+                        getIncludedRelation(included, rec, relation).ifPresent(nextLevel::addAll);
+                    }
+
+                    // The included resources are serialized with their own relationships.
+                    PersistentResource.loadRelations(nextLevel,
+                            getIncludedRelations(requestedRelationPaths, relationPath));
+                    level = nextLevel;
+                }
+            }
+        });
+        return included;
+    }
+
+    /**
+     * Returns the related resources of a relation which are included, reading them only once per resource.
+     *
+     * @return The related resources, or empty if the relation is forbidden
+     */
+    private static Optional<Set<PersistentResource>> getIncludedRelation(
+            Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> included,
+            PersistentResource<?> rec, String relation) {
+        return included.computeIfAbsent(rec, key -> new HashMap<>()).computeIfAbsent(relation, key -> {
+            Optional<FilterExpression> filterExpression = rec.getRequestScope().getExpressionForRelation(rec, relation);
+            try {
+                return Optional.of(
+                        rec.getRelationCheckedFiltered(relation, filterExpression, Optional.empty(), Optional.empty()));
+            } catch (ForbiddenAccessException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
     /**
      * Adds the requested relation resources to the included block of the JsonApiDocument.
      */
     private void addIncludedResources(JsonApiDocument jsonApiDocument, PersistentResource rec,
-            List<String> requestedRelationPaths) {
+            List<String> requestedRelationPaths,
+            Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> included) {
         // Process each include relation path
         requestedRelationPaths.forEach(pathParam -> {
             List<String> pathList = Arrays.asList(pathParam.split(RELATION_PATH_SEPARATOR));
 
             pathList.forEach(requestedRelationPath -> {
                 List<String> relationPath = Lists.newArrayList(requestedRelationPath.split(RELATION_PATH_DELIMITER));
-                addResourcesForPath(jsonApiDocument, rec, relationPath);
+                addResourcesForPath(jsonApiDocument, rec, relationPath, included);
             });
         });
     }
@@ -76,28 +138,54 @@ public class IncludedProcessor implements DocumentProcessor {
      * JsonApiDocument.
      */
     private void addResourcesForPath(JsonApiDocument jsonApiDocument, PersistentResource<?> rec,
-                                     List<String> relationPath) {
+                                     List<String> relationPath,
+                                     Map<PersistentResource, Map<String, Optional<Set<PersistentResource>>>> included) {
 
         //Pop off a relation of relation path
         String relation = relationPath.remove(0);
 
-        Optional<FilterExpression> filterExpression = rec.getRequestScope().getExpressionForRelation(rec, relation);
-        Set<PersistentResource> collection;
-        try {
-            collection = rec.getRelationCheckedFiltered(relation, filterExpression, Optional.empty(), Optional.empty());
-        } catch (ForbiddenAccessException e) {
+        Optional<Set<PersistentResource>> collection = getIncludedRelation(included, rec, relation);
+        if (!collection.isPresent()) {
             return;
         }
 
-        collection.forEach(resource -> {
+        collection.get().forEach(resource -> {
             jsonApiDocument.addIncluded(resource.toResource());
 
             //If more relations left in the path, process a level deeper
             if (!relationPath.isEmpty()) {
                 //Use a copy of the relationPath to preserve the path for remaining branches of the relationship tree
-                addResourcesForPath(jsonApiDocument, resource, new ArrayList<>(relationPath));
+                addResourcesForPath(jsonApiDocument, resource, new ArrayList<>(relationPath), included);
+            }
+        });
+    }
+
+    /**
+     * Returns the relations which the include query param requests of the resources reached by a relation path.
+     *
+     * @param queryParams The query params of the request
+     * @param relationPath The relations leading to the resources, or an empty list for the primary data
+     * @return The names of the requested relations
+     */
+    public static Set<String> getIncludedRelations(Optional<MultivaluedMap<String, String>> queryParams,
+                                                   List<String> relationPath) {
+        return isPresent(queryParams, INCLUDE)
+                ? getIncludedRelations(queryParams.get().get(INCLUDE), relationPath)
+                : Collections.emptySet();
+    }
+
+    private static Set<String> getIncludedRelations(List<String> requestedRelationPaths, List<String> relationPath) {
+        Set<String> relations = new LinkedHashSet<>();
+        requestedRelationPaths.forEach(pathParam -> {
+            for (String requestedRelationPath : pathParam.split(RELATION_PATH_SEPARATOR)) {
+                List<String> path = Arrays.asList(requestedRelationPath.split(RELATION_PATH_DELIMITER));
+                if (path.size() > relationPath.size()
+                        && path.subList(0, relationPath.size()).equals(relationPath)) {
+                    relations.add(path.get(relationPath.size()));
+                }
             }
         });
+        return relations;
     }
 
     private static boolean isPresent(Optional<MultivaluedMap<String, String>> queryParams, String key) {
@@ -28,6 +28,7 @@ import com.yahoo.elide.jsonapi.models.Resource;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.common.base.Preconditions;
 
 import org.apache.commons.collections4.IterableUtils;
@@ -37,6 +38,7 @@ import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -71,6 +73,11 @@ public class CollectionTerminalState extends BaseState {
         Optional<MultivaluedMap<String, String>> queryParams = requestScope.getQueryParams();
 
         Set<PersistentResource> collection = getResourceCollection(requestScope);
+
+        // Load the relationships of the whole page at once rather than while each resource is serialized
+        PersistentResource.loadRelations(collection,
+                IncludedProcessor.getIncludedRelations(queryParams, Collections.emptyList()));
+
         // Set data
         jsonApiDocument.setData(getData(collection));
 
@@ -82,8 +89,15 @@ public class CollectionTerminalState extends BaseState {
         Pagination pagination = requestScope.getPagination();
         if (!pagination.isEmpty()) {
 
-            Map<String, Number> pageMetaData = new HashMap<>();
-            pageMetaData.put("number", (pagination.getOffset() / pagination.getLimit()) + 1);
+            Map<String, Object> pageMetaData = new HashMap<>();
+            if (pagination.isKeyset()) {
+                // A full page from the store may be followed by more records, even if some were not readable
+                if (pagination.getNextAfter() != null) {
+                    pageMetaData.put("after", pagination.getNextAfter());
+                }
+            } else {
+                pageMetaData.put("number", (pagination.getOffset() / pagination.getLimit()) + 1);
+            }
             pageMetaData.put("limit", pagination.getLimit());
 
             // Get total records if it has been requested and add to the page meta data
@@ -101,7 +115,8 @@ public class CollectionTerminalState extends BaseState {
             jsonApiDocument.setMeta(meta);
         }
 
-        JsonNode responseBody = requestScope.getMapper().toJsonObject(jsonApiDocument);
+        // Wrap the document rather than converting it to a tree so it is serialized only once, when written.
+        JsonNode responseBody = JsonNodeFactory.instance.pojoNode(jsonApiDocument);
 
         return () -> Pair.of(HttpStatus.SC_OK, responseBody);
     }
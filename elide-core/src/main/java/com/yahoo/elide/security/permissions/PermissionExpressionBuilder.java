@@ -17,13 +17,10 @@ import com.yahoo.elide.core.RequestScope;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.filter.expression.OrFilterExpression;
 import com.yahoo.elide.parsers.expression.FilterExpressionNormalizationVisitor;
-import com.yahoo.elide.parsers.expression.PermissionExpressionVisitor;
 import com.yahoo.elide.parsers.expression.PermissionToFilterExpressionVisitor;
 import com.yahoo.elide.security.ChangeSpec;
 import com.yahoo.elide.security.PersistentResource;
-import com.yahoo.elide.security.checks.Check;
 import com.yahoo.elide.security.permissions.expressions.AnyFieldExpression;
-import com.yahoo.elide.security.permissions.expressions.CheckExpression;
 import com.yahoo.elide.security.permissions.expressions.Expression;
 import com.yahoo.elide.security.permissions.expressions.OrExpression;
 import com.yahoo.elide.security.permissions.expressions.SpecificFieldExpression;
@@ -77,15 +74,9 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
             return SUCCESSFUL_EXPRESSION;
         }
 
-        final Function<Check, Expression> leafBuilderFn = leafBuilder(resource, changeSpec);
-
-        final Function<Function<Check, Expression>, Expression> buildExpressionFn =
-                (checkFn) -> buildSpecificFieldExpression(
-                        PermissionCondition.create(annotationClass, resource, field, changeSpec),
-                        checkFn
-                );
-
-        return buildExpressionFn.apply(leafBuilderFn);
+        return buildSpecificFieldExpression(
+                PermissionCondition.create(annotationClass, resource, field, changeSpec),
+                binder(resource, resource.getRequestScope(), changeSpec));
     }
 
     /**
@@ -107,16 +98,10 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
             return SUCCESSFUL_EXPRESSION;
         }
 
-        final Function<Check, Expression> leafBuilderFn = leafBuilder(resource, changeSpec);
-
-        final Function<Function<Check, Expression>, Expression> expressionFunction =
-                (checkFn) -> buildAnyFieldExpression(
-                        PermissionCondition.create(annotationClass, resource, (String) null, changeSpec),
-                        checkFn,
-                        (RequestScope) resource.getRequestScope()
-                );
-
-        return expressionFunction.apply(leafBuilderFn);
+        return buildAnyFieldExpression(
+                PermissionCondition.create(annotationClass, resource, (String) null, changeSpec),
+                binder(resource, resource.getRequestScope(), changeSpec),
+                (RequestScope) resource.getRequestScope());
     }
 
     /**
@@ -139,11 +124,8 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
             return SUCCESSFUL_EXPRESSION;
         }
 
-        final Function<Check, Expression> leafBuilderFn = (check) ->
-                new CheckExpression(check, null, scope, null, cache);
-
         return buildSpecificFieldExpression(new PermissionCondition(annotationClass, resourceClass, field),
-                leafBuilderFn);
+                binder(null, scope, null));
     }
 
     /**
@@ -161,32 +143,31 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
                                                                          final Class<A> annotationClass,
                                                                          final RequestScope requestScope) {
 
-        final Function<Check, Expression> leafBuilderFn = (check) ->
-                new CheckExpression(check, null, requestScope, null, cache);
-
         return buildAnyFieldExpression(
-                        new PermissionCondition(annotationClass, resourceClass), leafBuilderFn, requestScope);
+                        new PermissionCondition(annotationClass, resourceClass), binder(null, requestScope, null),
+                        requestScope);
     }
 
     /**
      * Builder for specific field expressions.
      *
      * @param condition       The condition which triggered this permission expression check
-     * @param checkFn         Operation check function
+     * @param binder          Binds a permission plan to the request
      * @return Expressions representing specific field
      */
     private Expression buildSpecificFieldExpression(final PermissionCondition condition,
-            final Function<Check, Expression> checkFn) {
+            final Function<PermissionPlan, Expression> binder) {
         Class<?> resourceClass = condition.getEntityClass();
         Class<? extends Annotation> annotationClass = condition.getPermission();
         String field = condition.getField().isPresent() ? condition.getField().get() : null;
 
-        ParseTree classPermissions = entityDictionary.getPermissionsForClass(resourceClass, annotationClass);
-        ParseTree fieldPermissions = entityDictionary.getPermissionsForField(resourceClass, field, annotationClass);
+        PermissionPlan classPermissions = entityDictionary.getPermissionPlanForClass(resourceClass, annotationClass);
+        PermissionPlan fieldPermissions =
+                entityDictionary.getPermissionPlanForField(resourceClass, field, annotationClass);
 
         return new SpecificFieldExpression(condition,
-                expressionFromParseTree(classPermissions, checkFn),
-                expressionFromParseTree(fieldPermissions, checkFn)
+                expressionFromPlan(classPermissions, binder),
+                expressionFromPlan(fieldPermissions, binder)
         );
     }
 
@@ -194,19 +175,19 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
      * Build an expression representing any field on an entity.
      *
      * @param condition       The condition which triggered this permission expression check
-     * @param checkFn         check function
+     * @param binder          Binds a permission plan to the request
      * @param scope           RequestScope
      * @return Expressions
      */
     private Expression buildAnyFieldExpression(final PermissionCondition condition,
-            final Function<Check, Expression> checkFn,
+            final Function<PermissionPlan, Expression> binder,
             final RequestScope scope) {
 
         Class<?> resourceClass = condition.getEntityClass();
         Class<? extends Annotation> annotationClass = condition.getPermission();
 
-        ParseTree classPermissions = entityDictionary.getPermissionsForClass(resourceClass, annotationClass);
-        Expression entityExpression = expressionFromParseTree(classPermissions, checkFn);
+        PermissionPlan classPermissions = entityDictionary.getPermissionPlanForClass(resourceClass, annotationClass);
+        Expression entityExpression = expressionFromPlan(classPermissions, binder);
 
         OrExpression allFieldsExpression = new OrExpression(FAILURE, null);
         List<String> fields = entityDictionary.getAllFields(resourceClass);
@@ -218,10 +199,15 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
                 continue;
             }
 
-            ParseTree fieldPermissions = entityDictionary.getPermissionsForField(resourceClass, field, annotationClass);
-            Expression fieldExpression = expressionFromParseTree(fieldPermissions, checkFn);
+            PermissionPlan fieldPermissions =
+                    entityDictionary.getPermissionPlanForField(resourceClass, field, annotationClass);
 
-            allFieldsExpression = new OrExpression(allFieldsExpression, fieldExpression);
+            // Fields without permissions evaluate to their neighbours' result, so they need no expression.
+            if (fieldPermissions == null) {
+                continue;
+            }
+
+            allFieldsExpression = new OrExpression(allFieldsExpression, binder.apply(fieldPermissions));
         }
 
         return new AnyFieldExpression(condition, entityExpression, allFieldsExpression);
@@ -286,12 +272,12 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
         return allFieldsFilterExpression;
     }
 
-    private Expression expressionFromParseTree(ParseTree permissions, Function<Check, Expression> checkFn) {
+    private Expression expressionFromPlan(PermissionPlan permissions, Function<PermissionPlan, Expression> binder) {
         if (permissions == null) {
             return null;
         }
 
-        return new PermissionExpressionVisitor(entityDictionary, checkFn).visit(permissions);
+        return binder.apply(permissions);
     }
 
     private FilterExpression filterExpressionFromParseTree(ParseTree permissions, Class type, RequestScope scope) {
@@ -304,14 +290,9 @@ public class PermissionExpressionBuilder implements CheckInstantiator {
         return expression.accept(new FilterExpressionNormalizationVisitor());
     }
 
-    private Function<Check, Expression> leafBuilder(PersistentResource resource, ChangeSpec changeSpec) {
-        final Function<Check, Expression> leafBuilderFn = (check) -> new CheckExpression(
-                check,
-                resource,
-                resource.getRequestScope(),
-                changeSpec,
-                cache
-        );
-        return leafBuilderFn;
+    private Function<PermissionPlan, Expression> binder(PersistentResource resource,
+                                                        com.yahoo.elide.security.RequestScope requestScope,
+                                                        ChangeSpec changeSpec) {
+        return (plan) -> plan.bind(resource, requestScope, changeSpec, cache);
     }
 }
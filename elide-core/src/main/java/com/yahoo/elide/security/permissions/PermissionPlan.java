@@ -0,0 +1,323 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.security.permissions;
+
+import static com.yahoo.elide.security.permissions.ExpressionResult.DEFERRED;
+import static com.yahoo.elide.security.permissions.ExpressionResult.FAIL;
+import static com.yahoo.elide.security.permissions.ExpressionResult.PASS;
+import static com.yahoo.elide.security.permissions.ExpressionResult.UNEVALUATED;
+
+import com.yahoo.elide.core.CheckInstantiator;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.generated.parsers.ExpressionBaseVisitor;
+import com.yahoo.elide.generated.parsers.ExpressionParser;
+import com.yahoo.elide.security.ChangeSpec;
+import com.yahoo.elide.security.PersistentResource;
+import com.yahoo.elide.security.RequestScope;
+import com.yahoo.elide.security.checks.Check;
+import com.yahoo.elide.security.permissions.expressions.CheckExpression;
+import com.yahoo.elide.security.permissions.expressions.Expression;
+import com.yahoo.elide.security.permissions.expressions.Expression.EvaluationMode;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * An immutable permission expression compiled from its parse tree.  Check identifiers are resolved to their check
+ * classes once, when the plan is compiled.  Binding a plan to a request allocates arrays which hold the result of
+ * each check and its instance, so checks are instantiated for each bound expression, as they were when expressions
+ * were built from the parse tree, and are never shared between requests.
+ */
+public abstract class PermissionPlan {
+
+    /**
+     * Compiles a permission parse tree.
+     *
+     * @param dictionary the dictionary used to resolve check identifiers
+     * @param permissions the parse tree of the permission expression
+     * @return the compiled plan
+     */
+    public static PermissionPlan compile(EntityDictionary dictionary, ParseTree permissions) {
+        return new Compiler(dictionary).visit(permissions);
+    }
+
+    /**
+     * Creates the expression which evaluates this plan for a single request.
+     *
+     * @param resource the resource to pass to the checks, or null for user checks only
+     * @param requestScope the request scope to pass to the checks
+     * @param changeSpec the change spec to pass to the checks, or null
+     * @param cache the cache of previous expression results
+     * @return the bound expression
+     */
+    public Expression bind(PersistentResource resource, RequestScope requestScope, ChangeSpec changeSpec,
+                           ExpressionResultCache cache) {
+        return new Bound(this, resource, requestScope, Optional.ofNullable(changeSpec), cache);
+    }
+
+    /**
+     * Tests whether every check of this plan is of a kind, for instance checks which only inspect the user.
+     *
+     * @param test tests a check class
+     * @return true if the test passes for every check of the plan
+     */
+    public abstract boolean allChecksMatch(Predicate<Class<? extends Check>> test);
+
+    /**
+     * The number of checks of this plan, which are numbered in the order they appear in the expression.
+     *
+     * @return the number of checks
+     */
+    protected abstract int size();
+
+    protected abstract ExpressionResult evaluate(Bound bound, EvaluationMode mode);
+
+    protected abstract String describe(Bound bound);
+
+    /**
+     * A plan bound to a request, which holds the result of every check of the plan.
+     */
+    protected static class Bound implements Expression {
+        private final PermissionPlan plan;
+        private final PersistentResource resource;
+        private final RequestScope requestScope;
+        private final Optional<ChangeSpec> changeSpec;
+        private final ExpressionResultCache cache;
+        private final ExpressionResult[] results;
+        private final Check[] checks;
+
+        private Bound(PermissionPlan plan, PersistentResource resource, RequestScope requestScope,
+                      Optional<ChangeSpec> changeSpec, ExpressionResultCache cache) {
+            this.plan = plan;
+            this.resource = resource;
+            this.requestScope = requestScope;
+            this.changeSpec = changeSpec;
+            this.cache = cache;
+            this.results = new ExpressionResult[plan.size()];
+            Arrays.fill(results, UNEVALUATED);
+            this.checks = new Check[plan.size()];
+        }
+
+        @Override
+        public ExpressionResult evaluate(EvaluationMode mode) {
+            return plan.evaluate(this, mode);
+        }
+
+        @Override
+        public String toString() {
+            return plan.describe(this);
+        }
+    }
+
+    private static class Leaf extends PermissionPlan implements CheckInstantiator {
+        private final Class<? extends Check> checkClass;
+        private final int index;
+
+        private Leaf(Class<? extends Check> checkClass, int index) {
+            this.checkClass = checkClass;
+            this.index = index;
+        }
+
+        @Override
+        public boolean allChecksMatch(Predicate<Class<? extends Check>> test) {
+            return test.test(checkClass);
+        }
+
+        @Override
+        protected int size() {
+            return index + 1;
+        }
+
+        @Override
+        protected ExpressionResult evaluate(Bound bound, EvaluationMode mode) {
+            if (bound.checks[index] == null) {
+                bound.checks[index] = instantiateCheck(checkClass);
+            }
+            bound.results[index] = CheckExpression.evaluate(bound.checks[index], bound.resource, bound.requestScope,
+                    bound.changeSpec, bound.cache, bound.results[index], mode);
+            return bound.results[index];
+        }
+
+        @Override
+        protected String describe(Bound bound) {
+            EntityDictionary dictionary = ((com.yahoo.elide.core.RequestScope) bound.requestScope).getDictionary();
+            return String.format("(%s %s)", dictionary.getCheckIdentifier(checkClass), bound.results[index]);
+        }
+    }
+
+    private static class Not extends PermissionPlan {
+        private final PermissionPlan operand;
+
+        private Not(PermissionPlan operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean allChecksMatch(Predicate<Class<? extends Check>> test) {
+            return operand.allChecksMatch(test);
+        }
+
+        @Override
+        protected int size() {
+            return operand.size();
+        }
+
+        @Override
+        protected ExpressionResult evaluate(Bound bound, EvaluationMode mode) {
+            ExpressionResult result = operand.evaluate(bound, mode);
+
+            if (result == FAIL) {
+                return PASS;
+            }
+
+            if (result == PASS) {
+                return FAIL;
+            }
+
+            return DEFERRED;
+        }
+
+        @Override
+        protected String describe(Bound bound) {
+            return String.format("NOT (%s)", operand.describe(bound));
+        }
+    }
+
+    private static class And extends PermissionPlan {
+        private final PermissionPlan left;
+        private final PermissionPlan right;
+
+        private And(PermissionPlan left, PermissionPlan right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean allChecksMatch(Predicate<Class<? extends Check>> test) {
+            return left.allChecksMatch(test) && right.allChecksMatch(test);
+        }
+
+        @Override
+        protected int size() {
+            return right.size();
+        }
+
+        @Override
+        protected ExpressionResult evaluate(Bound bound, EvaluationMode mode) {
+            ExpressionResult leftStatus = left.evaluate(bound, mode);
+
+            // Short-circuit
+            if (leftStatus == FAIL) {
+                return leftStatus;
+            }
+
+            ExpressionResult rightStatus = right.evaluate(bound, mode);
+
+            if (rightStatus == FAIL) {
+                return rightStatus;
+            }
+
+            if (leftStatus == PASS && rightStatus == PASS) {
+                return PASS;
+            }
+
+            return DEFERRED;
+        }
+
+        @Override
+        protected String describe(Bound bound) {
+            return String.format("(%s) AND (%s)", left.describe(bound), right.describe(bound));
+        }
+    }
+
+    private static class Or extends PermissionPlan {
+        private final PermissionPlan left;
+        private final PermissionPlan right;
+
+        private Or(PermissionPlan left, PermissionPlan right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean allChecksMatch(Predicate<Class<? extends Check>> test) {
+            return left.allChecksMatch(test) && right.allChecksMatch(test);
+        }
+
+        @Override
+        protected int size() {
+            return right.size();
+        }
+
+        @Override
+        protected ExpressionResult evaluate(Bound bound, EvaluationMode mode) {
+            ExpressionResult leftResult = left.evaluate(bound, mode);
+
+            // Short-circuit
+            if (leftResult == PASS) {
+                return PASS;
+            }
+
+            ExpressionResult rightResult = right.evaluate(bound, mode);
+
+            if (leftResult == FAIL && rightResult == FAIL) {
+                return leftResult;
+            }
+
+            if (rightResult == PASS) {
+                return PASS;
+            }
+
+            return DEFERRED;
+        }
+
+        @Override
+        protected String describe(Bound bound) {
+            return String.format("(%s) OR (%s)", left.describe(bound), right.describe(bound));
+        }
+    }
+
+    /**
+     * Compiles a permission parse tree into a plan.  Checks are numbered from left to right, so the last check
+     * of a plan has the highest number.
+     */
+    private static class Compiler extends ExpressionBaseVisitor<PermissionPlan> {
+        private final EntityDictionary dictionary;
+        private int checks;
+
+        private Compiler(EntityDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public PermissionPlan visitNOT(ExpressionParser.NOTContext ctx) {
+            return new Not(visit(ctx.expression()));
+        }
+
+        @Override
+        public PermissionPlan visitOR(ExpressionParser.ORContext ctx) {
+            return new Or(visit(ctx.left), visit(ctx.right));
+        }
+
+        @Override
+        public PermissionPlan visitAND(ExpressionParser.ANDContext ctx) {
+            return new And(visit(ctx.left), visit(ctx.right));
+        }
+
+        @Override
+        public PermissionPlan visitPAREN(ExpressionParser.PARENContext ctx) {
+            return visit(ctx.expression());
+        }
+
+        @Override
+        public PermissionPlan visitPermissionClass(ExpressionParser.PermissionClassContext ctx) {
+            return new Leaf(dictionary.getCheck(ctx.getText()), checks++);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.security.permissions;
+
+import com.yahoo.elide.annotation.CacheableUserCheck;
+import com.yahoo.elide.security.User;
+import com.yahoo.elide.security.checks.Check;
+import com.yahoo.elide.security.checks.UserCheck;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.security.Principal;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.SecurityContext;
+
+/**
+ * Caches the results of {@link CacheableUserCheck} user checks across requests.  Results are keyed by the identity
+ * of the user and the check class, expire a fixed time after they are computed, and are bounded in number.
+ * <p>
+ * Results for users without an identity (for example, anonymous users) are never cached.
+ */
+public class UserCheckCache {
+    private final Cache<Pair<Object, Class<? extends Check>>, ExpressionResult> results;
+    private final Function<User, Object> identityFn;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of results held
+     * @param ttl how long a result is held after it is computed
+     * @param unit the unit of the ttl
+     */
+    public UserCheckCache(long maximumSize, long ttl, TimeUnit unit) {
+        this(maximumSize, ttl, unit, UserCheckCache::defaultIdentity, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of results held
+     * @param ttl how long a result is held after it is computed
+     * @param unit the unit of the ttl
+     * @param identityFn extracts the cache key for a user; a null key disables caching for that user
+     * @param ticker the time source used to expire results
+     */
+    public UserCheckCache(long maximumSize, long ttl, TimeUnit unit,
+                          Function<User, Object> identityFn, Ticker ticker) {
+        this.results = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl, unit)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.identityFn = identityFn;
+    }
+
+    /**
+     * Whether the results of the given check may be shared across requests.
+     *
+     * @param checkClass the check class
+     * @return true if the check is a user check annotated with {@link CacheableUserCheck}
+     */
+    public static boolean isCacheable(Class<? extends Check> checkClass) {
+        return UserCheck.class.isAssignableFrom(checkClass) && checkClass.isAnnotationPresent(CacheableUserCheck.class);
+    }
+
+    /**
+     * Returns the cached result of a check for a user, computing and caching it if absent.
+     *
+     * @param user the user
+     * @param checkClass the check class
+     * @param compute evaluates the check
+     * @return the result of the check
+     */
+    public ExpressionResult getResult(User user, Class<? extends Check> checkClass,
+                                      Supplier<ExpressionResult> compute) {
+        Object identity = user == null ? null : identityFn.apply(user);
+        if (identity == null) {
+            return compute.get();
+        }
+
+        /* Checks are not computed through the cache loader so that exceptions they throw propagate unwrapped */
+        Pair<Object, Class<? extends Check>> key = Pair.of(identity, checkClass);
+        ExpressionResult result = results.getIfPresent(key);
+        if (result == null) {
+            result = compute.get();
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Evicts every result cached for a user, for example after the user's roles change.
+     *
+     * @param identity the identity of the user, as returned by the identity function
+     */
+    public void invalidateUser(Object identity) {
+        results.asMap().keySet().removeIf(key -> Objects.equals(key.getLeft(), identity));
+    }
+
+    /**
+     * Evicts every result cached for a check.
+     *
+     * @param checkClass the check class
+     */
+    public void invalidateCheck(Class<? extends Check> checkClass) {
+        results.asMap().keySet().removeIf(key -> key.getRight().equals(checkClass));
+    }
+
+    /**
+     * Evicts every cached result.
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+
+    /**
+     * Hit, miss and eviction counts since the cache was created.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return results.stats();
+    }
+
+    /**
+     * Identifies a user by principal name when the opaque user is a principal or security context, and by the
+     * opaque user itself otherwise.
+     *
+     * @param user the user
+     * @return the identity of the user, or null if the user is anonymous
+     */
+    public static Object defaultIdentity(User user) {
+        Object opaqueUser = user.getOpaqueUser();
+        if (opaqueUser instanceof SecurityContext) {
+            opaqueUser = ((SecurityContext) opaqueUser).getUserPrincipal();
+        }
+        if (opaqueUser instanceof Principal) {
+            return ((Principal) opaqueUser).getName();
+        }
+        return opaqueUser;
+    }
+}
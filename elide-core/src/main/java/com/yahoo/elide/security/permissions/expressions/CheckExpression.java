@@ -10,6 +10,7 @@ import static com.yahoo.elide.security.permissions.ExpressionResult.FAIL;
 import static com.yahoo.elide.security.permissions.ExpressionResult.PASS;
 import static com.yahoo.elide.security.permissions.ExpressionResult.UNEVALUATED;
 
+import com.yahoo.elide.ElideSettings;
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.security.ChangeSpec;
 import com.yahoo.elide.security.PersistentResource;
@@ -19,6 +20,7 @@ import com.yahoo.elide.security.checks.InlineCheck;
 import com.yahoo.elide.security.checks.UserCheck;
 import com.yahoo.elide.security.permissions.ExpressionResult;
 import com.yahoo.elide.security.permissions.ExpressionResultCache;
+import com.yahoo.elide.security.permissions.UserCheckCache;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -64,27 +66,52 @@ public class CheckExpression implements Expression {
 
     @Override
     public ExpressionResult evaluate(EvaluationMode mode) {
+        result = evaluate(check, resource, requestScope, changeSpec, cache, result, mode);
+        return result;
+    }
+
+    /**
+     * Evaluates a check for a resource.  The result of the previous evaluation is kept by the caller, so that
+     * plans can hold the results of all their checks without an expression node per check.
+     *
+     * @param check The check to evaluate
+     * @param resource The resource to pass to the check
+     * @param requestScope The requestScope to pass to the check
+     * @param changeSpec The changeSpec to pass to the check
+     * @param cache The cache of previous expression results
+     * @param previous The result of the previous evaluation
+     * @param mode The evaluation mode
+     * @return The result of the check
+     */
+    public static ExpressionResult evaluate(Check check,
+                                            PersistentResource resource,
+                                            RequestScope requestScope,
+                                            Optional<ChangeSpec> changeSpec,
+                                            ExpressionResultCache cache,
+                                            ExpressionResult previous,
+                                            EvaluationMode mode) {
         log.trace("Evaluating check: {} in mode {}", check, mode);
 
         /* Result evaluation is sticky once evaluated to PASS or FAIL */
-        if (result == PASS || result == FAIL) {
-            return result;
+        if (previous == PASS || previous == FAIL) {
+            return previous;
         }
 
         if (mode == EvaluationMode.USER_CHECKS_ONLY && ! (check instanceof UserCheck)) {
-            result = DEFERRED;
-            return result;
+            return DEFERRED;
         }
 
         if (mode == EvaluationMode.INLINE_CHECKS_ONLY && ! (check instanceof InlineCheck)) {
-            result = DEFERRED;
-            return result;
+            return DEFERRED;
         }
 
+        // UserCheck does not use resource
+        PersistentResource checked = (check instanceof UserCheck) ? null : resource;
+
         // If we have a valid change spec, do not cache the result or look for a cached result.
         if (changeSpec.isPresent()) {
             log.trace("-- Check has changespec: {}", changeSpec);
-            result = computeCheck();
+            ExpressionResult result = computeCheck(check, checked, requestScope, changeSpec);
             log.trace("-- Check returned with result: {}", result);
             return result;
         }
@@ -93,11 +120,12 @@ public class CheckExpression implements Expression {
         log.trace("-- Check does NOT have changespec");
         Class<? extends Check> checkClass = check.getClass();
 
-        if (cache.hasStoredResultFor(checkClass, resource)) {
-            result = cache.getResultFor(checkClass, resource);
+        ExpressionResult result;
+        if (cache.hasStoredResultFor(checkClass, checked)) {
+            result = cache.getResultFor(checkClass, checked);
         } else {
-            result = computeCheck();
-            cache.putResultFor(checkClass, resource, result);
+            result = computeCheck(check, checked, requestScope, changeSpec);
+            cache.putResultFor(checkClass, checked, result);
             log.trace("-- Check computed result: {}", result);
         }
 
@@ -106,14 +134,34 @@ public class CheckExpression implements Expression {
     }
 
     /**
-     * Actually compute the result of the check without caching concerns.
+     * Actually compute the result of the check without per-request caching concerns.  Cacheable user checks are
+     * shared across requests when a user check cache is configured.
      *
      * @return Expression result from the check.
      */
-    private ExpressionResult computeCheck() {
+    private static ExpressionResult computeCheck(Check check, PersistentResource resource,
+                                                 RequestScope requestScope, Optional<ChangeSpec> changeSpec) {
+        UserCheckCache userCheckCache = getUserCheckCache(requestScope);
+        if (userCheckCache != null && UserCheckCache.isCacheable(check.getClass())) {
+            return userCheckCache.getResult(requestScope.getUser(), check.getClass(),
+                    () -> evaluateCheck(check, resource, requestScope, changeSpec));
+        }
+
+        return evaluateCheck(check, resource, requestScope, changeSpec);
+    }
+
+    private static UserCheckCache getUserCheckCache(RequestScope requestScope) {
+        if (!(requestScope instanceof com.yahoo.elide.core.RequestScope)) {
+            return null;
+        }
+        ElideSettings settings = ((com.yahoo.elide.core.RequestScope) requestScope).getElideSettings();
+        return settings == null ? null : settings.getUserCheckCache();
+    }
+
+    private static ExpressionResult evaluateCheck(Check check, PersistentResource resource,
+                                                  RequestScope requestScope, Optional<ChangeSpec> changeSpec) {
         Object entity = (resource == null) ? null : resource.getObject();
-        result = check.ok(entity, requestScope, changeSpec) ? PASS : FAIL;
-        return result;
+        return check.ok(entity, requestScope, changeSpec) ? PASS : FAIL;
     }
 
     @Override
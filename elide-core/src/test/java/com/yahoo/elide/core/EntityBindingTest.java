@@ -70,6 +70,34 @@ public class EntityBindingTest {
         assertFalse(eb.isIdGenerated());
     }
 
+    @Test
+    public void testCompiledFieldAccessor() throws Throwable {
+        ChildClass child = new ChildClass();
+        FieldAccessor accessor = entityBinding.fieldsToAccessors.get("childField");
+
+        assertTrue(accessor.canGet());
+        assertTrue(accessor.canSet("value"));
+        assertTrue(accessor.canSet(null));
+        assertFalse(accessor.canSet(1L));
+
+        accessor.set(child, "value");
+        assertEquals("value", child.childField);
+        assertEquals("value", accessor.get(child, null));
+    }
+
+    @Test
+    public void testCompiledSetterPrefersMethod() throws Throwable {
+        final EntityBinding eb = new EntityBinding(entityDictionary, SetterClass.class, "test", "testBinding");
+        SetterClass instance = new SetterClass();
+        FieldAccessor accessor = eb.fieldsToAccessors.get("count");
+
+        assertEquals(long.class, accessor.getSetterType());
+        assertFalse(accessor.canSet(null));
+
+        accessor.set(instance, 1L);
+        assertEquals(2L, accessor.get(instance, null));
+    }
+
     private class ParentClass {
         @Id
         String parentField;
@@ -97,4 +125,15 @@ public class EntityBindingTest {
         @MapsId
         public ParentClass parent;
     }
+
+    private class SetterClass {
+        @Id
+        String id;
+
+        long count;
+
+        public void setCount(long count) {
+            this.count = count + 1;
+        }
+    }
 }
@@ -248,6 +248,36 @@ public class LifeCycleTest {
         verify(tx).close();
     }
 
+    @Test
+    public void testElideGetSerializesBytesBeforeCommitting() throws Exception {
+        DataStore store = mock(DataStore.class);
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        Book book = mock(Book.class);
+        when(book.getId()).thenReturn(1L);
+
+        Elide elide = new Elide(new ElideSettingsBuilder(store)
+                .withEntityDictionary(dictionary)
+                .withAuditLogger(MOCK_AUDIT_LOGGER)
+                .withSerializeResponsesToBytes(true)
+                .build());
+
+        when(store.beginReadTransaction()).thenCallRealMethod();
+        when(store.beginTransaction()).thenReturn(tx);
+        when(tx.loadObject(eq(Book.class), any(), any(), isA(RequestScope.class))).thenReturn(book);
+
+        ElideResponse response = elide.get("/book/1", new MultivaluedHashMap<>(), null);
+        assertEquals(HttpStatus.SC_OK, response.getResponseCode());
+        assertTrue(response.hasBodyBytes());
+        verify(callback, times(3)).execute(eq(book), isA(RequestScope.class), any());
+
+        verify(tx).commit(any());
+        verify(tx).close();
+
+        String body = response.getBody();
+        assertTrue(body.contains("\"book\""));
+        assertEquals(body, response.getBody());
+    }
+
     @Test
     public void testElideGetRelationship() throws Exception {
         DataStore store = mock(DataStore.class);
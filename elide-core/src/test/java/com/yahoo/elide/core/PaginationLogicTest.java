@@ -14,10 +14,12 @@ import com.yahoo.elide.ElideSettings;
 import com.yahoo.elide.ElideSettingsBuilder;
 import com.yahoo.elide.annotation.Paginate;
 import com.yahoo.elide.core.exceptions.InvalidValueException;
+import com.yahoo.elide.core.pagination.KeysetCursor;
 import com.yahoo.elide.core.pagination.Pagination;
 import org.glassfish.jersey.internal.util.collection.MultivaluedStringMap;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import javax.ws.rs.core.MultivaluedMap;
@@ -235,4 +237,48 @@ public class PaginationLogicTest {
         assertEquals(0, pageData.getOffset());
         assertEquals(10, result.getLimit());
     }
+
+    @Test
+    public void shouldParseQueryParamsForKeysetCursorAndLimit() {
+        String cursor = KeysetCursor.encode(Arrays.asList("Foo", null, "7"));
+        MultivaluedMap<String, String> queryParams = new MultivaluedStringMap();
+        queryParams.add("page[limit]", "10");
+        queryParams.add("page[after]", cursor);
+
+        Pagination pageData = Pagination.parseQueryParams(queryParams, elideSettings);
+        pageData = pageData.evaluate(PaginationLogicTest.class);
+        assertTrue(pageData.isKeyset());
+        assertEquals(cursor, pageData.getAfter());
+        assertEquals(0, pageData.getOffset());
+        assertEquals(10, pageData.getLimit());
+        assertEquals(Arrays.asList("Foo", null, "7"), KeysetCursor.decode(cursor));
+
+        assertThrows(InvalidValueException.class, () -> KeysetCursor.decode("not a cursor"));
+    }
+
+    @Test
+    public void shouldThrowExceptionForKeysetCursorWithOffset() {
+        MultivaluedMap<String, String> queryParams = new MultivaluedStringMap();
+        queryParams.add("page[after]", "");
+        queryParams.add("page[offset]", "10");
+
+        Pagination pageData = Pagination.parseQueryParams(queryParams, elideSettings);
+        assertTrue(pageData.isKeyset());
+        assertThrows(InvalidValueException.class, () -> pageData.evaluate(PaginationLogicTest.class));
+    }
+
+    @Test
+    public void shouldTreatNonNumericGraphQLOffsetAsKeysetCursor() {
+        Pagination offsetPage = Pagination.fromOffsetAndFirst(Optional.of("5"), Optional.of("10"), false,
+                elideSettings).get().evaluate(PaginationLogicTest.class);
+        assertFalse(offsetPage.isKeyset());
+        assertEquals(10, offsetPage.getOffset());
+
+        Pagination keysetPage = Pagination.fromOffsetAndFirst(Optional.of("5"), Optional.of("WyI3Il0"), false,
+                elideSettings).get().evaluate(PaginationLogicTest.class);
+        assertTrue(keysetPage.isKeyset());
+        assertEquals("WyI3Il0", keysetPage.getAfter());
+        assertEquals(0, keysetPage.getOffset());
+        assertEquals(5, keysetPage.getLimit());
+    }
 }
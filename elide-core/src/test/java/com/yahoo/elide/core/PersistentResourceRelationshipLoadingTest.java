@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yahoo.elide.jsonapi.models.Relationship;
+import com.yahoo.elide.jsonapi.models.Resource;
+import com.yahoo.elide.security.User;
+
+import com.google.common.collect.Sets;
+
+import example.Author;
+import example.Book;
+import example.Child;
+import example.FunWithPermissions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Test how PersistentResource reads relationships, alone and across several resources at once.
+ */
+public class PersistentResourceRelationshipLoadingTest extends PersistenceResourceTestSetup {
+
+    @Test
+    public void testGetRelationshipsReadsOnlyIdentifiers() {
+        Book book = new Book();
+        book.setId(1L);
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        RequestScope goodScope = buildRequestScope(tx, new User(1));
+        PersistentResource<Book> bookResource = new PersistentResource<>(book, null, "1", goodScope);
+
+        when(tx.getRelationIdentifiers(any(), eq(book), eq("authors"), any(), any()))
+                .thenReturn(Arrays.asList("10", "2"));
+
+        Map<String, Relationship> relationships = bookResource.getRelationships();
+
+        Collection<Resource> authors = relationships.get("authors").getData().get();
+        assertEquals(Arrays.asList("2", "10"), authors.stream().map(Resource::getId).collect(Collectors.toList()));
+        assertEquals("author", authors.iterator().next().getType());
+
+        //The authors are never loaded.
+        verify(tx, never()).getRelation(any(), eq(book), eq("authors"), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRelationshipsLoadsObjectsWithInlineChecks() {
+        Author author = new Author();
+        author.setId(1L);
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        RequestScope goodScope = buildRequestScope(tx, new User(1));
+        PersistentResource<Author> authorResource = new PersistentResource<>(author, null, "1", goodScope);
+
+        authorResource.getRelationships();
+
+        //Books have field checks which must be evaluated against each book.
+        verify(tx, never()).getRelationIdentifiers(any(), eq(author), eq("books"), any(), any());
+        verify(tx, times(1)).getRelation(any(), eq(author), eq("books"), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testLoadRelationsReadsIdentifiersForLinkage() {
+        Book book1 = new Book();
+        book1.setId(1L);
+        Book book2 = new Book();
+        book2.setId(2L);
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        RequestScope goodScope = buildRequestScope(tx, new User(1));
+        PersistentResource<Book> bookResource1 = new PersistentResource<>(book1, null, "1", goodScope);
+        PersistentResource<Book> bookResource2 = new PersistentResource<>(book2, null, "2", goodScope);
+
+        Map<Object, Collection<String>> identifiers = new IdentityHashMap<>();
+        identifiers.put(book1, Arrays.asList("10", "2"));
+        identifiers.put(book2, Collections.emptyList());
+        when(tx.getRelations(any(), any(), any(), any(), any(), any())).thenReturn(new IdentityHashMap<>());
+        when(tx.getRelationsIdentifiers(any(), any(), any(), any(), any())).thenReturn(new IdentityHashMap<>());
+        when(tx.getRelationsIdentifiers(any(), any(), eq("authors"), any(), any())).thenReturn(identifiers);
+
+        PersistentResource.loadRelations(Arrays.asList(bookResource1, bookResource2), Collections.emptySet());
+
+        Collection<Resource> authors = bookResource1.getRelationships().get("authors").getData().get();
+        assertEquals(Arrays.asList("2", "10"), authors.stream().map(Resource::getId).collect(Collectors.toList()));
+        assertTrue(bookResource2.getRelationships().get("authors").getData().get().isEmpty());
+
+        //The identifiers of both books were read at once, and the authors were never loaded.
+        verify(tx, times(1)).getRelationsIdentifiers(any(), any(), eq("authors"), any(), any());
+        verify(tx, never()).getRelationIdentifiers(any(), any(), eq("authors"), any(), any());
+        verify(tx, never()).getRelations(any(), any(), eq("authors"), any(), any(), any());
+        verify(tx, never()).getRelation(any(), any(), eq("authors"), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testLoadRelationsLoadsIncludedRelations() {
+        Book book1 = new Book();
+        book1.setId(1L);
+        Book book2 = new Book();
+        book2.setId(2L);
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        RequestScope goodScope = buildRequestScope(tx, new User(1));
+        PersistentResource<Book> bookResource1 = new PersistentResource<>(book1, null, "1", goodScope);
+        PersistentResource<Book> bookResource2 = new PersistentResource<>(book2, null, "2", goodScope);
+
+        when(tx.getRelations(any(), any(), any(), any(), any(), any())).thenReturn(new IdentityHashMap<>());
+        when(tx.getRelationsIdentifiers(any(), any(), any(), any(), any())).thenReturn(new IdentityHashMap<>());
+
+        PersistentResource.loadRelations(Arrays.asList(bookResource1, bookResource2),
+                Collections.singleton("authors"));
+
+        //The included authors are loaded whole, rather than their identifiers alone.
+        verify(tx, times(1)).getRelations(any(), any(), eq("authors"), any(), any(), any());
+        verify(tx, never()).getRelationsIdentifiers(any(), any(), eq("authors"), any(), any());
+    }
+
+    @Test
+    public void testLoadRelationForSeveralResources() {
+        FunWithPermissions fun1 = new FunWithPermissions();
+        FunWithPermissions fun2 = new FunWithPermissions();
+        Set<Child> children1 = Sets.newHashSet(newChild(1), newChild(2));
+        Set<Child> children2 = Sets.newHashSet(newChild(3));
+        fun1.setRelation2(children1);
+        fun2.setRelation2(children2);
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        RequestScope goodScope = buildRequestScope(tx, new User(1));
+        PersistentResource<FunWithPermissions> funResource1 = new PersistentResource<>(fun1, null, "1", goodScope);
+        PersistentResource<FunWithPermissions> funResource2 = new PersistentResource<>(fun2, null, "2", goodScope);
+
+        Map<Object, Object> relations = new IdentityHashMap<>();
+        relations.put(fun1, children1);
+        relations.put(fun2, children2);
+        when(tx.getRelations(any(), any(), eq("relation2"), any(), any(), any())).thenReturn(relations);
+
+        PersistentResource.loadRelation(Arrays.<PersistentResource>asList(funResource1, funResource2), "relation2");
+
+        assertEquals(2, getRelation(funResource1, "relation2").size());
+        assertEquals(1, getRelation(funResource2, "relation2").size());
+
+        //The relationship of each resource was read with the other's.
+        verify(tx, times(1)).getRelations(any(), any(), eq("relation2"), any(), any(), any());
+        verify(tx, never()).getRelation(any(), any(), eq("relation2"), any(), any(), any(), any());
+    }
+}
@@ -33,6 +33,9 @@ import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.FilterPredicate;
 import com.yahoo.elide.core.filter.Operator;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.pagination.KeysetCursor;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
 import com.yahoo.elide.extensions.PatchRequestScope;
 import com.yahoo.elide.jsonapi.models.Data;
 import com.yahoo.elide.jsonapi.models.Relationship;
@@ -47,6 +50,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import example.Author;
+import example.Book;
 import example.Child;
 import example.Color;
 import example.ComputedBean;
@@ -1619,6 +1623,56 @@ public class PersistentResourceTest extends PersistenceResourceTestSetup {
         );
     }
 
+    @Test
+    public void testLoadRecordsKeysetCursorFollowsFullPage() {
+        Book book1 = new Book();
+        book1.setId(1);
+        Book book2 = new Book();
+        book2.setId(2);
+        Book book3 = new Book();
+        book3.setId(3);
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        when(tx.loadObjects(eq(Book.class), any(), any(), any(), any(RequestScope.class)))
+                .thenReturn(Lists.newArrayList(book1, book2, book3))
+                .thenReturn(Lists.newArrayList(book1, book2));
+        RequestScope scope = buildRequestScope(tx, new User(1));
+
+        //The cursor is taken from the records the store returned, before they are filtered by permissions.
+        Pagination pagination = Pagination.fromOffsetAndFirst(Optional.of("3"), Optional.of(""), false,
+                elideSettings).get();
+        PersistentResource.loadRecords(Book.class, new ArrayList<>(), Optional.empty(), Optional.empty(),
+                Optional.of(pagination), scope);
+        assertEquals(Collections.singletonList("3"), KeysetCursor.decode(pagination.getNextAfter()));
+
+        PersistentResource.loadRecords(Book.class, new ArrayList<>(), Optional.empty(), Optional.empty(),
+                Optional.of(pagination), scope);
+        assertNull(pagination.getNextAfter());
+    }
+
+    @Test
+    public void testKeysetCursorRejectsUnreadableSortField() {
+        FunWithPermissions fun = new FunWithPermissions();
+        fun.setId(1);
+        fun.setField3("secret");
+
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        when(tx.loadObjects(eq(FunWithPermissions.class), any(), any(), any(), any(RequestScope.class)))
+                .thenReturn(Lists.newArrayList(fun));
+        Optional<Sorting> byField3 = Optional.of(new Sorting(ImmutableMap.of("field3", Sorting.SortOrder.asc)));
+
+        //The cursor would otherwise hand the value of a field the user cannot read back to the user.
+        Pagination pagination = Pagination.fromOffsetAndFirst(Optional.of("1"), Optional.of(""), false,
+                elideSettings).get();
+        assertThrows(InvalidValueException.class, () -> PersistentResource.loadRecords(FunWithPermissions.class,
+                new ArrayList<>(), Optional.empty(), byField3, Optional.of(pagination), buildRequestScope(tx,
+                        new User(-1))));
+
+        PersistentResource.loadRecords(FunWithPermissions.class, new ArrayList<>(), Optional.empty(), byField3,
+                Optional.of(pagination), buildRequestScope(tx, new User(1)));
+        assertEquals(Arrays.asList("secret", "1"), KeysetCursor.decode(pagination.getNextAfter()));
+    }
+
     @Test()
     public void testLoadRecordSuccess() {
         Child child1 = newChild(1);
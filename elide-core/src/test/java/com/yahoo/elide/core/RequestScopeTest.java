@@ -6,16 +6,23 @@
 package com.yahoo.elide.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.yahoo.elide.ElideSettingsBuilder;
 import com.yahoo.elide.annotation.Include;
+
+import example.Author;
+import example.Book;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Optional;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
@@ -75,4 +82,24 @@ public class RequestScopeTest {
         requestScope.setUUIDForObject(dictionary.getJsonAliasFor(MyInheritedClass.class), myId, new MyInheritedClass());
         assertNotNull(requestScope.getObjectById(dictionary.getJsonAliasFor(MyBaseClass.class), myId));
     }
+
+    @Test
+    public void testSparseFieldsOfType() {
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        dictionary.bindEntity(Book.class);
+        dictionary.bindEntity(Author.class);
+
+        MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+        queryParams.add("fields[book]", "title,genre");
+        queryParams.add("include", "authors.books,publisher");
+
+        RequestScope requestScope = new RequestScope("/book", null, null, null, queryParams,
+                new ElideSettingsBuilder(null)
+                        .withEntityDictionary(dictionary)
+                        .build());
+
+        assertEquals(Optional.of(new LinkedHashSet<>(Arrays.asList("title", "genre", "authors", "books", "publisher"))),
+                requestScope.getSparseFields(Book.class));
+        assertFalse(requestScope.getSparseFields(Author.class).isPresent());
+    }
 }
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yahoo.elide.annotation.CacheableEntity;
+import com.yahoo.elide.annotation.Exclude;
+import com.yahoo.elide.annotation.Include;
+import com.yahoo.elide.annotation.ReadPermission;
+import com.yahoo.elide.core.DataStore;
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.security.ChangeSpec;
+import com.yahoo.elide.security.checks.OperationCheck;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.Transient;
+
+public class EntityCachingDataStoreTest {
+    @Entity
+    @Include(rootLevel = true)
+    @CacheableEntity
+    @Getter
+    @Setter
+    public static class Book {
+        @Id
+        private long id;
+        private String title;
+        private Set<String> tags = new HashSet<>();
+        @ManyToOne
+        private Publisher publisher;
+    }
+
+    @Entity
+    @Include(rootLevel = true)
+    @Getter
+    @Setter
+    public static class Publisher {
+        @Id
+        private long id;
+        private String name;
+    }
+
+    @Entity
+    @Include(rootLevel = true)
+    @CacheableEntity
+    @Getter
+    @Setter
+    public static class Manuscript {
+        @Id
+        private long id;
+        @ReadPermission(expression = "Owner")
+        private String title;
+        @ManyToOne
+        private Publisher owner;
+    }
+
+    @Include(rootLevel = true)
+    @CacheableEntity
+    @Getter
+    @Setter
+    public static class Genre {
+        @Id
+        private long id;
+        @ReadPermission(expression = "Owner")
+        private String name;
+    }
+
+    @Entity
+    @Include(rootLevel = true)
+    @CacheableEntity
+    @Getter
+    @Setter
+    public static class Edition {
+        @Id
+        private long id;
+        private String isbn;
+        private Collection<String> formats = new ArrayList<>();
+        @Exclude
+        @ManyToOne
+        private Publisher printer;
+        @Transient
+        private Publisher reviewer;
+    }
+
+    public static class OwnerCheck extends OperationCheck<Object> {
+        @Override
+        public boolean ok(Object object, com.yahoo.elide.security.RequestScope requestScope,
+                          Optional<ChangeSpec> changeSpec) {
+            return true;
+        }
+    }
+
+    private DataStore wrapped;
+    private DataStoreTransaction wrappedTx;
+    private RequestScope scope;
+    private AtomicLong nanos;
+    private EntityCachingDataStore store;
+
+    @BeforeEach
+    public void setup() {
+        EntityDictionary dictionary = new EntityDictionary(Collections.singletonMap("Owner", OwnerCheck.class));
+        dictionary.bindEntity(Book.class);
+        dictionary.bindEntity(Publisher.class);
+        dictionary.bindEntity(Manuscript.class);
+        dictionary.bindEntity(Genre.class);
+        dictionary.bindEntity(Edition.class);
+
+        scope = mock(RequestScope.class);
+        when(scope.getDictionary()).thenReturn(dictionary);
+
+        wrappedTx = mock(DataStoreTransaction.class);
+        when(wrappedTx.loadObject(eq(Book.class), any(), any(), any())).thenAnswer(invocation -> {
+            Book book = new Book();
+            book.setId((Long) invocation.getArgument(1));
+            book.setTitle("Title");
+            book.getTags().add("fiction");
+            book.setPublisher(new Publisher());
+            return book;
+        });
+        when(wrappedTx.loadObject(eq(Publisher.class), any(), any(), any())).thenAnswer(invocation -> new Publisher());
+        when(wrappedTx.loadObject(eq(Manuscript.class), any(), any(), any())).thenAnswer(invocation -> {
+            Manuscript manuscript = new Manuscript();
+            manuscript.setId((Long) invocation.getArgument(1));
+            return manuscript;
+        });
+        when(wrappedTx.loadObject(eq(Genre.class), any(), any(), any())).thenAnswer(invocation -> {
+            Genre genre = new Genre();
+            genre.setId((Long) invocation.getArgument(1));
+            return genre;
+        });
+
+        wrapped = mock(DataStore.class);
+        when(wrapped.beginTransaction()).thenReturn(wrappedTx);
+        when(wrapped.beginReadTransaction()).thenReturn(wrappedTx);
+
+        nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        store = new EntityCachingDataStore(wrapped, new EntityCache(100, 1, TimeUnit.MINUTES, ticker));
+    }
+
+    @Test
+    public void testReadsAreCached() {
+        Book loaded = (Book) read(Book.class, 1L);
+        Book cached1 = (Book) read(Book.class, 1L);
+        Book cached2 = (Book) read(Book.class, 1L);
+
+        verify(wrappedTx, times(1)).loadObject(eq(Book.class), eq(1L), any(), any());
+        assertNotSame(loaded, cached1);
+        assertNotSame(cached1, cached2);
+        assertEquals(1L, cached1.getId());
+        assertEquals("Title", cached1.getTitle());
+        assertNull(cached1.getPublisher());
+
+        cached1.getTags().add("changed");
+        cached1.setTitle("Changed");
+        Book cached3 = (Book) read(Book.class, 1L);
+        assertEquals("Title", cached3.getTitle());
+        assertEquals(Collections.singleton("fiction"), cached3.getTags());
+    }
+
+    @Test
+    public void testCachedEntitiesExpire() {
+        read(Book.class, 1L);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        read(Book.class, 1L);
+
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(1L), any(), any());
+    }
+
+    @Test
+    public void testWritesEvictEntities() {
+        Book book = (Book) read(Book.class, 1L);
+
+        DataStoreTransaction tx = store.beginTransaction();
+        tx.save(book, scope);
+        tx.commit(scope);
+        read(Book.class, 1L);
+
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(1L), any(), any());
+    }
+
+    @Test
+    public void testWritesEvictOnlyWrittenEntities() {
+        read(Book.class, 1L);
+        Book book = (Book) read(Book.class, 2L);
+
+        DataStoreTransaction tx = store.beginTransaction();
+        tx.save(book, scope);
+        tx.commit(scope);
+        read(Book.class, 1L);
+        read(Book.class, 2L);
+
+        verify(wrappedTx, times(1)).loadObject(eq(Book.class), eq(1L), any(), any());
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(2L), any(), any());
+    }
+
+    @Test
+    public void testWritesAfterReadTransactionBeginsAreNotCached() {
+        DataStoreTransaction reader = store.beginReadTransaction();
+        reader.loadObject(Book.class, 1L, Optional.empty(), scope);
+
+        Book book = new Book();
+        book.setId(2L);
+        DataStoreTransaction writer = store.beginTransaction();
+        writer.save(book, scope);
+        writer.commit(scope);
+
+        //The reader may read a snapshot taken before the write.
+        reader.loadObject(Book.class, 2L, Optional.empty(), scope);
+        read(Book.class, 2L);
+        read(Book.class, 2L);
+
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(2L), any(), any());
+    }
+
+    @Test
+    public void testTypesWithObjectChecksAndRelationshipsAreNotCached() {
+        read(Manuscript.class, 1L);
+        read(Manuscript.class, 1L);
+        verify(wrappedTx, times(2)).loadObject(eq(Manuscript.class), eq(1L), any(), any());
+
+        //Copies of types without relationships are complete.
+        read(Genre.class, 1L);
+        Genre genre = (Genre) read(Genre.class, 1L);
+        assertEquals(1L, genre.getId());
+        verify(wrappedTx, times(1)).loadObject(eq(Genre.class), eq(1L), any(), any());
+    }
+
+    @Test
+    public void testUncachedLoads() {
+        DataStoreTransaction tx = store.beginTransaction();
+        tx.loadObject(Book.class, 1L, Optional.empty(), scope);
+        tx.loadObject(Book.class, 1L, Optional.empty(), scope);
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(1L), any(), any());
+
+        Optional<FilterExpression> filter = Optional.of(mock(FilterExpression.class));
+        tx = store.beginReadTransaction();
+        tx.loadObject(Book.class, 2L, filter, scope);
+        tx.loadObject(Book.class, 2L, filter, scope);
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(2L), any(), any());
+
+        read(Publisher.class, 1L);
+        read(Publisher.class, 1L);
+        verify(wrappedTx, times(2)).loadObject(eq(Publisher.class), eq(1L), any(), any());
+    }
+
+    @Test
+    public void testRelationshipsOfCachedEntitiesAreLoaded() {
+        read(Book.class, 1L);
+
+        DataStoreTransaction tx = store.beginReadTransaction();
+        Book cached = (Book) tx.loadObject(Book.class, 1L, Optional.empty(), scope);
+        Publisher publisher = new Publisher();
+        when(wrappedTx.getRelation(any(), any(), eq("publisher"), any(), any(), any(), any())).thenAnswer(
+                invocation -> {
+                    Book book = invocation.getArgument(1);
+                    assertNotSame(cached, book);
+                    return publisher;
+                });
+
+        assertSame(publisher, tx.getRelation(tx, cached, "publisher", Optional.empty(), Optional.empty(),
+                Optional.empty(), scope));
+        tx.getRelation(tx, cached, "publisher", Optional.empty(), Optional.empty(), Optional.empty(), scope);
+        verify(wrappedTx, times(2)).loadObject(eq(Book.class), eq(1L), any(), any());
+    }
+
+    @Test
+    public void testOnlyIdsAndAttributesAreCopied() {
+        Edition edition = new Edition();
+        edition.setId(1L);
+        edition.setIsbn("isbn");
+        edition.getFormats().add("paperback");
+        edition.setPrinter(new Publisher());
+        edition.setReviewer(new Publisher());
+
+        Edition copy = (Edition) EntityCache.copy(edition, scope.getDictionary());
+        assertNotNull(copy);
+        assertEquals(1L, copy.getId());
+        assertEquals("isbn", copy.getIsbn());
+        assertEquals(edition.getFormats(), copy.getFormats());
+        assertNotSame(edition.getFormats(), copy.getFormats());
+
+        //Excluded and transient fields may hold entities managed by the persistence context of the request.
+        assertNull(copy.getPrinter());
+        assertNull(copy.getReviewer());
+    }
+
+    @Test
+    public void testEntitiesWithProviderCollectionsAreNotCopied() {
+        Edition edition = new Edition();
+        edition.setId(1L);
+        edition.setFormats(new ArrayList<String>() { });
+
+        assertNull(EntityCache.copy(edition, scope.getDictionary()));
+    }
+
+    private Object read(Class<?> entityClass, long id) {
+        return store.beginReadTransaction().loadObject(entityClass, id, Optional.empty(), scope);
+    }
+}
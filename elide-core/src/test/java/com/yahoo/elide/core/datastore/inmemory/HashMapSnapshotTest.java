@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.inmemory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class HashMapSnapshotTest {
+    private static class Row {
+        private final Integer rank;
+
+        private Row(Integer rank) {
+            this.rank = rank;
+        }
+    }
+
+    private HashMapSnapshot snapshot;
+
+    @BeforeEach
+    public void setup() {
+        HashMapIndex index = new HashMapIndex("rank", Integer.class, true, row -> ((Row) row).rank);
+        snapshot = HashMapSnapshot.empty(Collections.singletonList(Row.class))
+                .withIndexes(Collections.singletonMap(Row.class, Collections.singletonList(index)));
+    }
+
+    @Test
+    public void testSequentialCommitsCopyFewEntries() {
+        int commits = 5000;
+        long copied = 0;
+        long maxCopied = 0;
+        HashMapSnapshot first = null;
+        for (int id = 1; id <= commits; id++) {
+            snapshot = commit(new Operation(String.valueOf(id), new Row(id), Row.class, Operation.OpType.CREATE));
+            copied += snapshot.getCopied();
+            maxCopied = Math.max(maxCopied, snapshot.getCopied());
+            first = first == null ? snapshot : first;
+        }
+
+        //Copying every row and index entry on each commit would copy more than commits * commits entries.
+        assertTrue(maxCopied < 1000, "A commit copied " + maxCopied + " entries");
+        assertTrue(copied < commits * 500L, "The commits copied " + copied + " entries");
+
+        assertEquals(commits, snapshot.getTable(Row.class).size());
+        assertEquals(1, first.getTable(Row.class).size());
+        assertEquals(Collections.singleton("1"), first.getIndex(Row.class, "rank").range(0, false, false));
+    }
+
+    @Test
+    public void testTablesAndIndexesFollowCommits() {
+        Random random = new Random(7);
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        List<HashMapSnapshot> versions = new ArrayList<>();
+        List<Map<String, Integer>> expectedVersions = new ArrayList<>();
+
+        for (int commit = 0; commit < 300; commit++) {
+            List<Operation> operations = new ArrayList<>();
+            for (int op = 0; op < 10; op++) {
+                String id = String.valueOf(random.nextInt(200));
+                if (random.nextInt(3) == 0) {
+                    expected.remove(id);
+                    operations.add(new Operation(id, new Row(null), Row.class, Operation.OpType.DELETE));
+                } else {
+                    Integer rank = random.nextInt(5) == 0 ? null : random.nextInt(50);
+                    expected.put(id, rank);
+                    operations.add(new Operation(id, new Row(rank), Row.class, Operation.OpType.UPDATE));
+                }
+            }
+            snapshot = snapshot.apply(operations);
+            versions.add(snapshot);
+            expectedVersions.add(new LinkedHashMap<>(expected));
+        }
+
+        //Earlier versions are unchanged by later commits.
+        for (int version = 0; version < versions.size(); version += 37) {
+            assertMatches(expectedVersions.get(version), versions.get(version));
+        }
+        assertMatches(expected, snapshot);
+    }
+
+    private static void assertMatches(Map<String, Integer> expected, HashMapSnapshot snapshot) {
+        Map<String, Object> table = snapshot.getTable(Row.class);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(table.keySet()));
+        expected.forEach((id, rank) -> assertEquals(rank, ((Row) table.get(id)).rank));
+
+        HashMapIndex index = snapshot.getIndex(Row.class, "rank");
+        assertEquals(ids(expected, rank -> rank == null), index.isNull());
+        assertEquals(ids(expected, rank -> rank != null && rank < 20), index.range(20, true, false));
+        assertEquals(ids(expected, rank -> rank != null && rank >= 20), index.range(20, false, true));
+        assertEquals(ids(expected, rank -> rank != null && (rank == 3 || rank == 4)), index.in(Arrays.asList(3, 4)));
+
+        List<Integer> ranks = new ArrayList<>();
+        for (Set<String> group : index.sortedGroups(true)) {
+            group.forEach(id -> ranks.add(expected.get(id)));
+        }
+        assertEquals(sortedDescending(expected), ranks);
+    }
+
+    private static List<Integer> sortedDescending(Map<String, Integer> expected) {
+        List<Integer> ranks = expected.values().stream().filter(rank -> rank != null)
+                .sorted(Collections.reverseOrder()).collect(Collectors.toList());
+        expected.values().stream().filter(rank -> rank == null).forEach(ranks::add);
+        return ranks;
+    }
+
+    private static Set<String> ids(Map<String, Integer> expected, Predicate<Integer> test) {
+        return expected.entrySet().stream()
+                .filter(entry -> test.test(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private HashMapSnapshot commit(Operation operation) {
+        return snapshot.apply(Collections.singletonList(operation));
+    }
+}
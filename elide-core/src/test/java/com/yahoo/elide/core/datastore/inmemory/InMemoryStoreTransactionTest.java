@@ -6,6 +6,7 @@
 package com.yahoo.elide.core.datastore.inmemory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -22,6 +23,7 @@ import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.Path;
 import com.yahoo.elide.core.PersistentResource;
 import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.InPredicate;
 import com.yahoo.elide.core.filter.expression.AndFilterExpression;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
@@ -40,12 +42,17 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class InMemoryStoreTransactionTest {
@@ -515,4 +522,291 @@ public class InMemoryStoreTransactionTest {
         assertTrue(loaded.contains(book2));
         assertTrue(loaded.contains(book3));
     }
+
+    @Test
+    public void testSortedPageMatchesFullSort() {
+        List<Book> manyBooks = new ArrayList<>();
+        for (int idx = 0; idx < 200; idx++) {
+            manyBooks.add(new Book(idx,
+                    "Book " + ((idx * 37) % 50),
+                    idx % 3 == 0 ? "Literary Fiction" : "Science Fiction",
+                    "English",
+                    0,
+                    Sets.newHashSet(author),
+                    null,
+                    Arrays.asList()));
+        }
+
+        Map<String, Sorting.SortOrder> sortOrder = new LinkedHashMap<>();
+        sortOrder.put("genre", Sorting.SortOrder.desc);
+        sortOrder.put("title", Sorting.SortOrder.asc);
+        Sorting sorting = new Sorting(sortOrder);
+
+        when(wrappedTransaction.supportsSorting(eq(Book.class), any())).thenReturn(false);
+        when(wrappedTransaction.supportsPagination(eq(Book.class))).thenReturn(false);
+        when(wrappedTransaction.loadObjects(eq(Book.class), eq(Optional.empty()),
+                eq(Optional.empty()), eq(Optional.empty()), eq(scope))).thenReturn((List) manyBooks);
+
+        List<Book> expected = manyBooks.stream()
+                .sorted(Comparator.comparing(Book::getGenre).reversed().thenComparing(Book::getTitle))
+                .collect(Collectors.toList());
+
+        Pagination pagination = Pagination.fromOffsetAndLimit(20, 130, true);
+        List<Object> loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.empty(),
+                Optional.of(sorting),
+                Optional.of(pagination),
+                scope));
+
+        assertEquals(expected.subList(130, 150), loaded);
+        assertEquals(200, pagination.getPageTotals());
+
+        pagination = Pagination.fromOffsetAndLimit(20, 190, false);
+        loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.empty(),
+                Optional.of(sorting),
+                Optional.of(pagination),
+                scope));
+
+        assertEquals(expected.subList(190, 200), loaded);
+
+        pagination = Pagination.fromOffsetAndLimit(20, 200, false);
+        loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.empty(),
+                Optional.of(sorting),
+                Optional.of(pagination),
+                scope));
+
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    public void testSortingAcrossRelationshipsAndPrimitiveKeys() {
+        Editor editor = new Editor();
+        editor.setFirstName("Ann");
+        editor.setLastName("Able");
+        Publisher publisher = new Publisher();
+        publisher.setEditor(editor);
+
+        Book noPublisher = new Book(4, "Book 4", "Fiction", "English", 5, Sets.newHashSet(author), null,
+                Arrays.asList());
+        Book early = new Book(5, "Book 5", "Fiction", "English", -10, Sets.newHashSet(author), publisher,
+                Arrays.asList());
+        Book late = new Book(6, "Book 6", "Fiction", "English", 20, Sets.newHashSet(author), publisher,
+                Arrays.asList());
+
+        List<Book> records = Arrays.asList(book1, late, book3, noPublisher, early, book2);
+
+        Map<String, Sorting.SortOrder> sortOrder = new LinkedHashMap<>();
+        sortOrder.put("publisher.editor.lastName", Sorting.SortOrder.asc);
+        sortOrder.put("publisher.editor.firstName", Sorting.SortOrder.desc);
+        sortOrder.put("publishDate", Sorting.SortOrder.desc);
+        Sorting sorting = new Sorting(sortOrder);
+
+        when(wrappedTransaction.supportsSorting(eq(Book.class), any())).thenReturn(false);
+        when(wrappedTransaction.loadObjects(eq(Book.class), eq(Optional.empty()),
+                eq(Optional.empty()), eq(Optional.empty()), eq(scope))).thenReturn((List) records);
+
+        List<Object> loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.empty(),
+                Optional.of(sorting),
+                Optional.empty(),
+                scope));
+
+        //Book 1 and 2 share an editor, so they are ordered by descending publish date and then by arrival order.
+        List<Book> expected = book2.getPublishDate() > book1.getPublishDate()
+                ? Arrays.asList(noPublisher, late, early, book2, book1, book3)
+                : Arrays.asList(noPublisher, late, early, book1, book2, book3);
+        assertEquals(expected, loaded);
+    }
+
+    @Test
+    public void testParallelInMemoryFiltering() {
+        List<Book> manyBooks = new ArrayList<>();
+        for (int idx = 0; idx < 1000; idx++) {
+            manyBooks.add(new Book(idx,
+                    "Book " + idx,
+                    idx % 3 == 0 ? "Literary Fiction" : "Science Fiction",
+                    "English",
+                    0,
+                    Sets.newHashSet(author),
+                    null,
+                    Arrays.asList()));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ElideSettings parallelSettings = new ElideSettingsBuilder(null)
+                .withEntityDictionary(dictionary)
+                .withParallelInMemoryFiltering(pool, 100)
+                .build();
+        when(scope.getElideSettings()).thenReturn(parallelSettings);
+
+        FilterExpression expression =
+                new InPredicate(new Path(Book.class, dictionary, "genre"), "Literary Fiction");
+
+        when(wrappedTransaction.supportsFiltering(eq(Book.class), any()))
+                .thenReturn(DataStoreTransaction.FeatureSupport.NONE);
+        when(wrappedTransaction.loadObjects(eq(Book.class), eq(Optional.empty()),
+                eq(Optional.empty()), eq(Optional.empty()), eq(scope))).thenReturn((List) manyBooks);
+
+        List<Object> loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.of(expression),
+                Optional.empty(),
+                Optional.empty(),
+                scope));
+
+        List<Book> expected = manyBooks.stream()
+                .filter(book -> book.getGenre().equals("Literary Fiction"))
+                .collect(Collectors.toList());
+
+        assertEquals(expected, loaded);
+        assertTrue(pool.getPoolSize() > 0);
+        pool.shutdown();
+    }
+
+    @Test
+    public void testFilteredPageStopsAtEndOfPage() {
+        List<Book> manyBooks = new ArrayList<>();
+        for (int idx = 0; idx < 1000; idx++) {
+            manyBooks.add(new Book(idx,
+                    "Book " + idx,
+                    idx % 3 == 0 ? "Literary Fiction" : "Science Fiction",
+                    "English",
+                    0,
+                    Sets.newHashSet(author),
+                    null,
+                    Arrays.asList()));
+        }
+
+        AtomicInteger visited = new AtomicInteger();
+        Iterable<Object> records = () -> manyBooks.stream()
+                .peek(book -> visited.incrementAndGet())
+                .map(Object.class::cast)
+                .iterator();
+
+        FilterExpression expression =
+                new InPredicate(new Path(Book.class, dictionary, "genre"), "Literary Fiction");
+
+        when(wrappedTransaction.supportsFiltering(eq(Book.class), any()))
+                .thenReturn(DataStoreTransaction.FeatureSupport.NONE);
+        when(wrappedTransaction.loadObjects(eq(Book.class), eq(Optional.empty()),
+                eq(Optional.empty()), eq(Optional.empty()), eq(scope))).thenReturn(records);
+
+        List<Book> expected = manyBooks.stream()
+                .filter(book -> book.getGenre().equals("Literary Fiction"))
+                .collect(Collectors.toList());
+
+        Pagination pagination = Pagination.fromOffsetAndLimit(3, 2, false);
+        List<Object> loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.of(expression),
+                Optional.empty(),
+                Optional.of(pagination),
+                scope));
+
+        assertEquals(expected.subList(2, 5), loaded);
+        assertEquals(13, visited.get());
+
+        visited.set(0);
+        pagination = Pagination.fromOffsetAndLimit(3, 2, true);
+        loaded = Lists.newArrayList(inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.of(expression),
+                Optional.empty(),
+                Optional.of(pagination),
+                scope));
+
+        assertEquals(expected.subList(2, 5), loaded);
+        assertEquals(1000, visited.get());
+        assertEquals(expected.size(), pagination.getPageTotals());
+    }
+
+    @Test
+    public void testKeysetPaginationPushDown() {
+        Pagination pagination = Pagination.fromOffsetAndFirst(Optional.of("2"), Optional.of(""), false,
+                elideSettings).get();
+
+        when(wrappedTransaction.supportsFiltering(eq(Book.class), any()))
+                .thenReturn(DataStoreTransaction.FeatureSupport.FULL);
+        when(wrappedTransaction.supportsKeysetPagination(eq(Book.class))).thenReturn(true);
+        when(wrappedTransaction.loadObjects(eq(Book.class), eq(Optional.empty()),
+                eq(Optional.empty()), eq(Optional.of(pagination)), eq(scope))).thenReturn((Set) books);
+
+        Collection<Object> loaded = (Collection<Object>) inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(pagination),
+                scope);
+
+        assertEquals(3, loaded.size());
+
+        //A keyset page cannot be selected after filtering in memory.
+        FilterExpression expression =
+                new InPredicate(new Path(Book.class, dictionary, "genre"), "Literary Fiction");
+        when(wrappedTransaction.supportsFiltering(eq(Book.class), any()))
+                .thenReturn(DataStoreTransaction.FeatureSupport.NONE);
+
+        assertThrows(InvalidValueException.class, () -> inMemoryStoreTransaction.loadObjects(
+                Book.class,
+                Optional.of(expression),
+                Optional.empty(),
+                Optional.of(pagination),
+                scope));
+    }
+
+    @Test
+    public void testRelationsPushDown() {
+        Author author2 = new Author();
+        author2.setBooks(Arrays.asList(book2));
+        List<Author> authors = Arrays.asList(author, author2);
+
+        FilterExpression expression =
+                new InPredicate(new Path(Book.class, dictionary, "genre"), "Literary Fiction");
+
+        Map<Object, Object> relations = new IdentityHashMap<>();
+        relations.put(author, Arrays.asList(book1, book3));
+        relations.put(author2, Arrays.asList());
+
+        when(wrappedTransaction.supportsFiltering(eq(Book.class), any()))
+                .thenReturn(DataStoreTransaction.FeatureSupport.FULL);
+        when(wrappedTransaction.getRelations(eq(inMemoryStoreTransaction), eq(authors), eq("books"),
+                eq(Optional.of(expression)), eq(Optional.empty()), eq(scope))).thenReturn(relations);
+
+        assertEquals(relations, inMemoryStoreTransaction.getRelations(inMemoryStoreTransaction, authors, "books",
+                Optional.of(expression), Optional.empty(), scope));
+    }
+
+    @Test
+    public void testDataStoreRequiresInMemoryFilterOfRelations() {
+        Author author2 = new Author();
+        author2.setBooks(Arrays.asList(book2));
+        List<Author> authors = Arrays.asList(author, author2);
+
+        FilterExpression expression =
+                new InPredicate(new Path(Book.class, dictionary, "genre"), "Literary Fiction");
+
+        when(wrappedTransaction.supportsFiltering(eq(Book.class), any()))
+                .thenReturn(DataStoreTransaction.FeatureSupport.NONE);
+        when(wrappedTransaction.getRelation(eq(inMemoryStoreTransaction), eq(author), eq("books"),
+                eq(Optional.empty()), eq(Optional.empty()), eq(Optional.empty()), eq(scope)))
+                .thenReturn(author.getBooks());
+        when(wrappedTransaction.getRelation(eq(inMemoryStoreTransaction), eq(author2), eq("books"),
+                eq(Optional.empty()), eq(Optional.empty()), eq(Optional.empty()), eq(scope)))
+                .thenReturn(author2.getBooks());
+
+        Map<Object, Object> relations = inMemoryStoreTransaction.getRelations(inMemoryStoreTransaction, authors,
+                "books", Optional.of(expression), Optional.empty(), scope);
+
+        //Each relationship is read and filtered on its own.
+        verify(wrappedTransaction, times(0)).getRelations(any(), any(), any(), any(), any(), any());
+        assertEquals(2, relations.size());
+        assertEquals(Sets.newHashSet(book1, book3), new HashSet<>((Collection<?>) relations.get(author)));
+        assertTrue(((Collection<?>) relations.get(author2)).isEmpty());
+    }
 }
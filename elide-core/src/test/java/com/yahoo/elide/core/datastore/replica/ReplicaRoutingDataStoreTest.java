@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.datastore.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yahoo.elide.core.DataStore;
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.datastore.replica.ReplicaRoutingDataStore.ReplicaMetrics;
+import com.yahoo.elide.core.datastore.replica.ReplicaRoutingDataStore.Routing;
+import com.yahoo.elide.security.User;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReplicaRoutingDataStoreTest {
+    private DataStore primary;
+    private DataStore replica1;
+    private DataStore replica2;
+    private AtomicLong nanos;
+    private Ticker ticker;
+
+    @BeforeEach
+    public void setup() {
+        primary = mockStore();
+        replica1 = mockStore();
+        replica2 = mockStore();
+        nanos = new AtomicLong();
+        ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        ReplicaRoutingDataStore store = newStore(Routing.ROUND_ROBIN);
+
+        store.beginReadTransaction().close();
+        store.beginReadTransaction().close();
+        store.beginReadTransaction().close();
+        store.beginTransaction().close();
+
+        verify(replica1, times(2)).beginReadTransaction();
+        verify(replica2, times(1)).beginReadTransaction();
+        verify(primary, never()).beginReadTransaction();
+        verify(primary, times(1)).beginTransaction();
+    }
+
+    @Test
+    public void testPopulatesEveryStore() {
+        ReplicaRoutingDataStore store = newStore(Routing.ROUND_ROBIN);
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+
+        store.populateEntityDictionary(dictionary);
+
+        verify(primary).populateEntityDictionary(dictionary);
+        verify(replica1).populateEntityDictionary(dictionary);
+        verify(replica2).populateEntityDictionary(dictionary);
+    }
+
+    @Test
+    public void testLeastLoaded() throws Exception {
+        ReplicaRoutingDataStore store = newStore(Routing.LEAST_LOADED);
+
+        DataStoreTransaction open = store.beginReadTransaction();
+        store.beginReadTransaction().close();
+        store.beginReadTransaction().close();
+        open.close();
+
+        verify(replica1, times(1)).beginReadTransaction();
+        verify(replica2, times(2)).beginReadTransaction();
+    }
+
+    @Test
+    public void testUsersReadTheirWritesFromThePrimary() throws Exception {
+        ReplicaRoutingDataStore store = newStore(Routing.ROUND_ROBIN);
+        Object writer = "writer";
+        RequestScope scope = mock(RequestScope.class);
+        when(scope.getUser()).thenReturn(new User(writer));
+
+        DataStoreTransaction write = store.beginTransaction();
+        write.accessUser(writer);
+        write.commit(scope);
+        write.close();
+
+        DataStoreTransaction read = store.beginReadTransaction();
+        read.accessUser(writer);
+        read.close();
+        store.beginReadTransaction().accessUser("reader");
+        verify(primary, times(1)).beginReadTransaction();
+        assertEquals(0, store.getReplicaMetrics().get(0).getActiveTransactions());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        store.beginReadTransaction().accessUser(writer);
+        verify(primary, times(1)).beginReadTransaction();
+    }
+
+    @Test
+    public void testReplicaOpenTimes() throws Exception {
+        ReplicaRoutingDataStore store = newStore(Routing.ROUND_ROBIN);
+
+        DataStoreTransaction tx1 = store.beginReadTransaction();
+        DataStoreTransaction tx2 = store.beginReadTransaction();
+        DataStoreTransaction tx3 = store.beginReadTransaction();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(4));
+        tx1.close();
+        tx2.close();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        tx1.close();
+
+        ReplicaMetrics metrics1 = store.getReplicaMetrics().get(0);
+        assertEquals(1, metrics1.getActiveTransactions());
+        assertEquals(1, metrics1.getTransactions());
+        assertEquals(4.0, metrics1.getAverageOpenMillis());
+
+        ReplicaMetrics metrics2 = store.getReplicaMetrics().get(1);
+        assertEquals(0, metrics2.getActiveTransactions());
+        assertEquals(4.0, metrics2.getAverageOpenMillis());
+
+        tx3.close();
+        assertEquals(5.0, store.getReplicaMetrics().get(0).getAverageOpenMillis());
+    }
+
+    private ReplicaRoutingDataStore newStore(Routing routing) {
+        return new ReplicaRoutingDataStore(primary, Arrays.asList(replica1, replica2), routing, 5, TimeUnit.SECONDS,
+                User::getOpaqueUser, ticker);
+    }
+
+    private static DataStore mockStore() {
+        DataStore store = mock(DataStore.class);
+        when(store.beginTransaction()).thenAnswer(invocation -> mockTransaction());
+        when(store.beginReadTransaction()).thenAnswer(invocation -> mockTransaction());
+        return store;
+    }
+
+    private static DataStoreTransaction mockTransaction() {
+        DataStoreTransaction tx = mock(DataStoreTransaction.class);
+        when(tx.accessUser(any())).thenAnswer(invocation -> new User(invocation.getArgument(0)));
+        return tx;
+    }
+}
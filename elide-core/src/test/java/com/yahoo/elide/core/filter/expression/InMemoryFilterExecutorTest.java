@@ -6,12 +6,15 @@
 package com.yahoo.elide.core.filter.expression;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.Path.PathElement;
 import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.FalsePredicate;
 import com.yahoo.elide.core.filter.FilterPredicate;
 import com.yahoo.elide.core.filter.GEPredicate;
@@ -47,6 +50,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 
 /**
@@ -82,8 +86,10 @@ public class InMemoryFilterExecutorTest {
 
     }
 
+    private final EntityDictionary dictionary;
+
     InMemoryFilterExecutorTest() {
-        EntityDictionary dictionary = new TestEntityDictionary(new HashMap<>());
+        dictionary = new TestEntityDictionary(new HashMap<>());
         dictionary.bindEntity(Author.class);
         RequestScope requestScope = Mockito.mock(RequestScope.class);
         when(requestScope.getDictionary()).thenReturn(dictionary);
@@ -458,4 +464,40 @@ public class InMemoryFilterExecutorTest {
         fn = expression.accept(visitor);
         assertFalse(fn.test(author));
     }
+
+    @Test
+    public void compiledPredicateIsSharedTest() throws Exception {
+        author = new Author();
+        author.setId(1L);
+        author.setName("AuthorForTest");
+
+        expression = new InPredicate(authorIdElement, "1", "2");
+        fn = expression.accept(visitor);
+        assertTrue(fn.test(author));
+
+        BiPredicate<Object, RequestScope> compiled =
+                dictionary.getCompiledFilter(expression, InMemoryFilterExecutor::compile);
+        assertSame(compiled, dictionary.getCompiledFilter(new InPredicate(authorIdElement, "1", "2"),
+                InMemoryFilterExecutor::compile));
+
+        RequestScope otherScope = Mockito.mock(RequestScope.class);
+        when(otherScope.getDictionary()).thenReturn(dictionary);
+        assertTrue(compiled.test(author, otherScope));
+        author.setId(3L);
+        assertFalse(compiled.test(author, otherScope));
+    }
+
+    @Test
+    public void invalidValueFailsWhenTestedTest() throws Exception {
+        author = new Author();
+        author.setId(1L);
+
+        expression = new InPredicate(authorIdElement, "notANumber");
+        fn = expression.accept(visitor);
+        assertThrows(InvalidValueException.class, () -> fn.test(author));
+
+        expression = new LTPredicate(authorIdElement, "notANumber");
+        fn = expression.accept(visitor);
+        assertThrows(InvalidValueException.class, () -> fn.test(author));
+    }
 }
@@ -8,15 +8,23 @@ package com.yahoo.elide.jsonapi;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import com.yahoo.elide.jsonapi.models.Data;
+import com.yahoo.elide.jsonapi.models.JsonApiDocument;
+import com.yahoo.elide.jsonapi.models.Resource;
 import com.yahoo.elide.utils.coerce.CoerceUtil;
 import com.yahoo.elide.utils.coerce.converters.ISO8601DateSerde;
 import com.yahoo.elide.utils.coerce.converters.Serde;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.TimeZone;
 
@@ -77,4 +85,20 @@ public class JsonApiMapperTest {
         String result = mapper.writeValueAsString(new java.sql.Time(0));
         assertEquals("\"1970-01-01T00:00Z\"", result);
     }
+
+    @Test
+    public void testStreamedDocumentMatchesTreeSerialization() throws Exception {
+        JsonApiMapper jsonApiMapper = new JsonApiMapper();
+
+        JsonApiDocument doc = new JsonApiDocument();
+        doc.setData(new Data<>(Arrays.asList(new Resource("book", "1"), new Resource("book", "2"))));
+
+        JsonNode wrapped = JsonNodeFactory.instance.pojoNode(doc);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        jsonApiMapper.writeJsonApiDocument(wrapped, out);
+
+        String expected = jsonApiMapper.writeJsonApiDocument(jsonApiMapper.toJsonObject(doc));
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(expected, jsonApiMapper.writeJsonApiDocument(wrapped));
+    }
 }
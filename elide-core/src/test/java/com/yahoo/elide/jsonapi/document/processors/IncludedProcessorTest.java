@@ -7,7 +7,12 @@ package com.yahoo.elide.jsonapi.document.processors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.yahoo.elide.ElideSettings;
 import com.yahoo.elide.ElideSettingsBuilder;
@@ -164,6 +169,20 @@ public class IncludedProcessorTest {
                 "Included Processor added single nested requested resources from 'include' query param");
     }
 
+    @Test
+    public void testIncludedRelationIsReadOnce() throws Exception {
+        JsonApiDocument jsonApiDocument = new JsonApiDocument();
+        PersistentResource<Parent> parentRecord = spy(parentRecord1);
+
+        MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+        queryParams.put(INCLUDE, Arrays.asList("children", "children.friends"));
+        includedProcessor.execute(jsonApiDocument, parentRecord, Optional.of(queryParams));
+
+        verify(parentRecord, times(1)).getRelationCheckedFiltered(eq("children"), any(), any(), any());
+        assertEquals(Arrays.asList(childRecord1.toResource(), childRecord2.toResource()),
+                jsonApiDocument.getIncluded());
+    }
+
     @Test
     public void testExecuteMultipleRelations() throws Exception {
         JsonApiDocument jsonApiDocument = new JsonApiDocument();
@@ -6,6 +6,10 @@
 package com.yahoo.elide.security.permissions;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.yahoo.elide.ElideSettings;
 import com.yahoo.elide.ElideSettingsBuilder;
@@ -16,13 +20,17 @@ import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.PersistentResource;
 import com.yahoo.elide.core.RequestScope;
 import com.yahoo.elide.security.ChangeSpec;
+import com.yahoo.elide.security.User;
 import com.yahoo.elide.security.checks.Check;
+import com.yahoo.elide.security.checks.UserCheck;
 import com.yahoo.elide.security.checks.prefab.Role;
 import com.yahoo.elide.security.permissions.expressions.Expression;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.persistence.Entity;
@@ -39,6 +47,7 @@ public class PermissionExpressionBuilderTest {
         Map<String, Class<? extends Check>> checks = new HashMap<>();
         checks.put("user has all access", Role.ALL.class);
         checks.put("user has no access", Role.NONE.class);
+        checks.put("user is counted", CountingCheck.class);
 
         dictionary = new EntityDictionary(checks);
 
@@ -126,6 +135,79 @@ public class PermissionExpressionBuilderTest {
 
      }
 
+    @Test
+    public void testPermissionPlanIsCompiledOnce() {
+        @Entity
+        @Include
+        @ReadPermission(expression = "user has all access AND user has no access")
+        class Model {
+            @Id
+            private long id;
+            @ReadPermission(expression = "user has no access")
+            private int foo;
+            private int bar;
+        }
+        @Entity
+        @Include
+        @ReadPermission(expression = "user has all access AND user has no access")
+        class OtherModel {
+            @Id
+            private long id;
+        }
+        dictionary.bindEntity(Model.class);
+        dictionary.bindEntity(OtherModel.class);
+
+        PermissionPlan classPlan = dictionary.getPermissionPlanForClass(Model.class, ReadPermission.class);
+        assertNotNull(classPlan);
+        assertSame(classPlan, dictionary.getPermissionPlanForClass(Model.class, ReadPermission.class));
+        assertNotSame(classPlan, dictionary.getPermissionPlanForClass(OtherModel.class, ReadPermission.class));
+
+        PermissionPlan fieldPlan = dictionary.getPermissionPlanForField(Model.class, "foo", ReadPermission.class);
+        assertNotNull(fieldPlan);
+        assertSame(fieldPlan, dictionary.getPermissionPlanForField(Model.class, "foo", ReadPermission.class));
+        assertNull(dictionary.getPermissionPlanForField(Model.class, "bar", ReadPermission.class));
+
+        PersistentResource resource = newResource(new Model(), Model.class);
+        Expression first = builder.buildSpecificFieldExpressions(resource, ReadPermission.class, "foo", null);
+        Expression second = builder.buildSpecificFieldExpressions(resource, ReadPermission.class, "foo", null);
+
+        //Each resource instantiates its own expression from the plan, so evaluating one does not affect another.
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testChecksAreNotSharedBetweenBoundPlans() {
+        @Entity
+        @Include
+        @ReadPermission(expression = "user is counted")
+        class Model { }
+        dictionary.bindEntity(Model.class);
+
+        PermissionPlan plan = dictionary.getPermissionPlanForClass(Model.class, ReadPermission.class);
+        PersistentResource resource = newResource(new Model(), Model.class);
+        RequestScope requestScope = resource.getRequestScope();
+
+        CountingCheck.INSTANCES.clear();
+        plan.bind(resource, requestScope, null, new ExpressionResultCache())
+                .evaluate(Expression.EvaluationMode.ALL_CHECKS);
+        plan.bind(resource, requestScope, null, new ExpressionResultCache())
+                .evaluate(Expression.EvaluationMode.ALL_CHECKS);
+
+        //Checks may hold state, so each bound plan instantiates its own.
+        assertEquals(2, CountingCheck.INSTANCES.size());
+        assertNotSame(CountingCheck.INSTANCES.get(0), CountingCheck.INSTANCES.get(1));
+    }
+
+    public static class CountingCheck extends UserCheck {
+        static final List<CountingCheck> INSTANCES = new ArrayList<>();
+
+        @Override
+        public boolean ok(User user) {
+            INSTANCES.add(this);
+            return true;
+        }
+    }
+
     public <T> PersistentResource newResource(T obj, Class<T> cls) {
         RequestScope requestScope = new RequestScope(null, null, null, null, null, elideSettings);
         return new PersistentResource<>(obj, null, requestScope.getUUIDFor(obj), requestScope);
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.security.permissions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.yahoo.elide.ElideSettings;
+import com.yahoo.elide.ElideSettingsBuilder;
+import com.yahoo.elide.annotation.CacheableUserCheck;
+import com.yahoo.elide.annotation.Include;
+import com.yahoo.elide.annotation.ReadPermission;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.PersistentResource;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.security.User;
+import com.yahoo.elide.security.checks.Check;
+import com.yahoo.elide.security.checks.UserCheck;
+import com.yahoo.elide.security.checks.prefab.Role;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+public class UserCheckCacheTest {
+
+    private static final AtomicInteger LOOKUPS = new AtomicInteger();
+
+    private AtomicLong nanos;
+    private UserCheckCache cache;
+
+    @BeforeEach
+    public void setup() {
+        LOOKUPS.set(0);
+        nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        cache = new UserCheckCache(100, 1, TimeUnit.MINUTES, UserCheckCache::defaultIdentity, ticker);
+    }
+
+    @Test
+    public void testResultsAreSharedAcrossRequests() {
+        @Entity
+        @Include
+        @ReadPermission(expression = "is admin")
+        class Model {
+            @Id
+            private long id;
+        }
+
+        Map<String, Class<? extends Check>> checks = new HashMap<>();
+        checks.put("is admin", AdminCheck.class);
+        EntityDictionary dictionary = new EntityDictionary(checks);
+        dictionary.bindEntity(Model.class);
+        ElideSettings settings = new ElideSettingsBuilder(null)
+                .withEntityDictionary(dictionary)
+                .withUserCheckCache(cache)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            RequestScope requestScope = new RequestScope(null, null, null, new User("admin"), null, settings);
+            PersistentResource<Model> resource =
+                    new PersistentResource<>(new Model(), null, requestScope.getUUIDFor(null), requestScope);
+            requestScope.getPermissionExecutor().checkPermission(ReadPermission.class, resource);
+        }
+
+        assertEquals(1, LOOKUPS.get());
+        assertEquals(1, cache.getStats().missCount());
+        assertEquals(2, cache.getStats().hitCount());
+    }
+
+    @Test
+    public void testResultsExpire() {
+        assertEquals(ExpressionResult.PASS, lookup("admin"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(ExpressionResult.PASS, lookup("admin"));
+        assertEquals(1, LOOKUPS.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        assertEquals(ExpressionResult.PASS, lookup("admin"));
+        assertEquals(2, LOOKUPS.get());
+    }
+
+    @Test
+    public void testResultsAreKeyedByUser() {
+        assertEquals(ExpressionResult.PASS, lookup("admin"));
+        assertEquals(ExpressionResult.FAIL, lookup("guest"));
+        assertEquals(ExpressionResult.PASS, lookup("admin"));
+        assertEquals(ExpressionResult.FAIL, lookup("guest"));
+        assertEquals(2, LOOKUPS.get());
+    }
+
+    @Test
+    public void testAnonymousUsersAreNotCached() {
+        cache.getResult(new User(null), AdminCheck.class, () -> {
+            LOOKUPS.incrementAndGet();
+            return ExpressionResult.FAIL;
+        });
+        cache.getResult(new User(null), AdminCheck.class, () -> {
+            LOOKUPS.incrementAndGet();
+            return ExpressionResult.FAIL;
+        });
+
+        assertEquals(2, LOOKUPS.get());
+        assertEquals(0, cache.getStats().requestCount());
+    }
+
+    @Test
+    public void testInvalidation() {
+        lookup("admin");
+        lookup("guest");
+
+        cache.invalidateUser("admin");
+        lookup("admin");
+        lookup("guest");
+        assertEquals(3, LOOKUPS.get());
+
+        cache.invalidateCheck(AdminCheck.class);
+        lookup("admin");
+        lookup("guest");
+        assertEquals(5, LOOKUPS.get());
+
+        cache.invalidateAll();
+        lookup("admin");
+        assertEquals(6, LOOKUPS.get());
+    }
+
+    @Test
+    public void testIsCacheable() {
+        assertTrue(UserCheckCache.isCacheable(AdminCheck.class));
+        assertFalse(UserCheckCache.isCacheable(Role.ALL.class));
+    }
+
+    private ExpressionResult lookup(String name) {
+        User user = new User(name);
+        return cache.getResult(user, AdminCheck.class,
+                () -> new AdminCheck().ok(user) ? ExpressionResult.PASS : ExpressionResult.FAIL);
+    }
+
+    @CacheableUserCheck
+    public static class AdminCheck extends UserCheck {
+        @Override
+        public boolean ok(User user) {
+            LOOKUPS.incrementAndGet();
+            return "admin".equals(user.getOpaqueUser());
+        }
+    }
+}
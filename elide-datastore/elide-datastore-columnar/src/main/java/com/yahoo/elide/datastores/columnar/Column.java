@@ -0,0 +1,374 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import org.apache.commons.lang3.ClassUtils;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * The values of one attribute of a {@link ColumnarTable}, stored off heap in a direct buffer with one fixed width
+ * slot per row.
+ * <p>
+ * Integral, boolean and date values are stored as longs and floating point values as the bits of a double.  Strings,
+ * characters and enums are dictionary encoded: each distinct value is stored once on heap and rows hold its int
+ * code.  Dictionary values are shared between rows, so attributes of other types, which may be mutable, are not
+ * supported.  Each code counts the rows holding it, and the code of a value which no row holds any more is reused by
+ * later values.  Null values are tracked in a bitmap.
+ */
+class Column {
+    private static final int INITIAL_ROWS = 64;
+
+    enum Encoding {
+        LONG(Long.BYTES),
+        DOUBLE(Double.BYTES),
+        DICTIONARY(Integer.BYTES);
+
+        private final int width;
+
+        Encoding(int width) {
+            this.width = width;
+        }
+    }
+
+    @Getter private final String field;
+
+    /* The class of the values, with primitives boxed. */
+    @Getter private final Class<?> type;
+
+    @Getter private final Encoding encoding;
+
+    private ByteBuffer data;
+    private final BitSet nulls = new BitSet();
+
+    private final List<Object> values = new ArrayList<>();
+    private final Map<Object, Integer> codes = new HashMap<>();
+    private int[] holders = new int[INITIAL_ROWS];
+    private final Deque<Integer> freeCodes = new ArrayDeque<>();
+
+    /* The rank of each dictionary code in value order, or null if the dictionary changed since it was computed. */
+    private volatile int[] ranks;
+
+    Column(String field, Class<?> type) {
+        this.field = field;
+        this.type = ClassUtils.primitiveToWrapper(type);
+        this.encoding = encodingOf(this.type);
+        this.data = ByteBuffer.allocateDirect(INITIAL_ROWS * encoding.width);
+    }
+
+    private static Encoding encodingOf(Class<?> type) {
+        if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class
+                || type == Boolean.class || type == Date.class) {
+            return Encoding.LONG;
+        }
+        if (type == Double.class || type == Float.class) {
+            return Encoding.DOUBLE;
+        }
+        if (type == String.class || type == Character.class || type.isEnum()) {
+            return Encoding.DICTIONARY;
+        }
+        throw new IllegalArgumentException("Unsupported attribute type " + type.getName());
+    }
+
+    /**
+     * Whether rows can be filtered and sorted by comparing stored slots.  Dictionary encoded columns qualify only
+     * when their values are strings or enums, which are compared the same way by in memory filters.
+     *
+     * @return true if scans are supported
+     */
+    boolean isScannable() {
+        return encoding != Encoding.DICTIONARY || type == String.class || type.isEnum();
+    }
+
+    /**
+     * Sets the value of a row which held no value before to null.
+     *
+     * @param row The row
+     */
+    void init(int row) {
+        ensureCapacity(row + 1);
+        nulls.set(row);
+        putSlot(row, 0);
+    }
+
+    /**
+     * Sets the value of a row, which must have been initialized.
+     *
+     * @param row The row
+     * @param value The value, of the column type
+     */
+    void set(int row, Object value) {
+        if (encoding == Encoding.DICTIONARY && !nulls.get(row)) {
+            release((int) getSlot(row));
+        }
+        if (value == null) {
+            nulls.set(row);
+            putSlot(row, 0);
+            return;
+        }
+
+        long slot = encode(value, true);
+        if (encoding == Encoding.DICTIONARY) {
+            holders[(int) slot]++;
+        }
+        nulls.clear(row);
+        putSlot(row, slot);
+    }
+
+    Object get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+        return decode(getSlot(row));
+    }
+
+    boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows * encoding.width <= data.capacity()) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(rows, data.capacity() / encoding.width * 2)
+                * encoding.width);
+        data.clear();
+        grown.put(data);
+        data = grown;
+    }
+
+    private long getSlot(int row) {
+        return encoding == Encoding.DICTIONARY ? data.getInt(row * encoding.width) : data.getLong(row * encoding.width);
+    }
+
+    private void putSlot(int row, long slot) {
+        if (encoding == Encoding.DICTIONARY) {
+            data.putInt(row * encoding.width, (int) slot);
+        } else {
+            data.putLong(row * encoding.width, slot);
+        }
+    }
+
+    /**
+     * Encodes a value into a slot.
+     *
+     * @param value The value, which must be of the column type
+     * @param add Whether to add the value to the dictionary if it is missing
+     * @return The slot, or -1 if the value is not in the dictionary
+     */
+    private long encode(Object value, boolean add) {
+        switch (encoding) {
+            case LONG:
+                if (value instanceof Boolean) {
+                    return ((Boolean) value) ? 1 : 0;
+                }
+                if (value instanceof Date) {
+                    return ((Date) value).getTime();
+                }
+                return ((Number) value).longValue();
+            case DOUBLE:
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            default:
+                Integer code = codes.get(value);
+                if (code == null) {
+                    if (!add) {
+                        return -1;
+                    }
+                    code = add(value);
+                }
+                return code;
+        }
+    }
+
+    private int add(Object value) {
+        int code;
+        if (freeCodes.isEmpty()) {
+            code = values.size();
+            values.add(value);
+            if (code == holders.length) {
+                holders = Arrays.copyOf(holders, code * 2);
+            }
+        } else {
+            code = freeCodes.pop();
+            values.set(code, value);
+        }
+        codes.put(value, code);
+        ranks = null;
+        return code;
+    }
+
+    private void release(int code) {
+        if (--holders[code] == 0) {
+            codes.remove(values.get(code));
+            values.set(code, null);
+            freeCodes.push(code);
+        }
+    }
+
+    private Object decode(long slot) {
+        switch (encoding) {
+            case LONG:
+                if (type == Long.class) {
+                    return slot;
+                } else if (type == Integer.class) {
+                    return (int) slot;
+                } else if (type == Short.class) {
+                    return (short) slot;
+                } else if (type == Byte.class) {
+                    return (byte) slot;
+                } else if (type == Boolean.class) {
+                    return slot != 0;
+                }
+                return new Date(slot);
+            case DOUBLE:
+                double value = Double.longBitsToDouble(slot);
+                return type == Float.class ? (Object) (float) value : (Object) value;
+            default:
+                return values.get((int) slot);
+        }
+    }
+
+    /**
+     * Selects the rows whose value is not null and whose slot passes a test.
+     *
+     * @param rows The candidate rows
+     * @param test Tests a slot
+     * @return The selected rows
+     */
+    private BitSet select(BitSet rows, LongPredicate test) {
+        BitSet selected = new BitSet();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (!nulls.get(row) && test.test(getSlot(row))) {
+                selected.set(row);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the rows whose value is null.
+     *
+     * @param rows The candidate rows
+     * @return The selected rows
+     */
+    BitSet isNull(BitSet rows) {
+        BitSet selected = (BitSet) rows.clone();
+        selected.and(nulls);
+        return selected;
+    }
+
+    /**
+     * Selects the rows whose value equals one of the given values.
+     *
+     * @param rows The candidate rows
+     * @param keys The values, of the column type
+     * @return The selected rows
+     */
+    BitSet in(BitSet rows, Collection<Object> keys) {
+        long[] slots = keys.stream()
+                .mapToLong(key -> encode(key, false))
+                .filter(slot -> encoding != Encoding.DICTIONARY || slot >= 0)
+                .sorted()
+                .toArray();
+        if (slots.length == 1) {
+            return select(rows, slot -> slot == slots[0]);
+        }
+        return select(rows, slot -> Arrays.binarySearch(slots, slot) >= 0);
+    }
+
+    /**
+     * Selects the rows whose value compares to a key with the given result.
+     *
+     * @param rows The candidate rows
+     * @param key The key, of the column type
+     * @param condition Tests the result of comparing a value to the key
+     * @return The selected rows
+     */
+    BitSet compare(BitSet rows, Object key, IntPredicate condition) {
+        switch (encoding) {
+            case LONG:
+                long longKey = encode(key, false);
+                return select(rows, slot -> condition.test(Long.compare(slot, longKey)));
+            case DOUBLE:
+                double doubleKey = ((Number) key).doubleValue();
+                return select(rows, slot -> condition.test(Double.compare(Double.longBitsToDouble(slot), doubleKey)));
+            default:
+                return match(rows, value -> condition.test(((Comparable) value).compareTo(key)));
+        }
+    }
+
+    /**
+     * Selects the rows of a dictionary encoded column whose value passes a test.  The test is evaluated once per
+     * distinct value rather than once per row.
+     *
+     * @param rows The candidate rows
+     * @param test Tests a value
+     * @return The selected rows
+     */
+    BitSet match(BitSet rows, Predicate<Object> test) {
+        BitSet matchingCodes = new BitSet(values.size());
+        for (int code = 0; code < values.size(); code++) {
+            if (values.get(code) != null && test.test(values.get(code))) {
+                matchingCodes.set(code);
+            }
+        }
+        return select(rows, slot -> matchingCodes.get((int) slot));
+    }
+
+    /**
+     * Returns a key whose natural order as a long matches the order of the value of a row.  Null values must be
+     * ordered separately.
+     *
+     * @param row The row
+     * @return The sort key
+     */
+    long sortKey(int row) {
+        long slot = getSlot(row);
+        switch (encoding) {
+            case LONG:
+                return slot;
+            case DOUBLE:
+                //Flips the magnitude bits of negative doubles, which orders the bits like Double.compare.
+                return slot ^ ((slot >> 63) & Long.MAX_VALUE);
+            default:
+                return ranks()[(int) slot];
+        }
+    }
+
+    private int[] ranks() {
+        if (ranks == null) {
+            Integer[] sorted = new Integer[values.size()];
+            for (int code = 0; code < sorted.length; code++) {
+                sorted[code] = code;
+            }
+            //Unused codes are ranked first, which does not matter as no row holds them.
+            Arrays.sort(sorted, Comparator.comparing(code -> (Comparable) values.get(code),
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            int[] computed = new int[sorted.length];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                computed[sorted[rank]] = rank;
+            }
+            ranks = computed;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.Operator;
+import com.yahoo.elide.core.filter.expression.AndFilterExpression;
+import com.yahoo.elide.core.filter.expression.FilterExpressionVisitor;
+import com.yahoo.elide.core.filter.expression.NotFilterExpression;
+import com.yahoo.elide.core.filter.expression.OrFilterExpression;
+import com.yahoo.elide.utils.coerce.CoerceUtil;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates a filter expression by scanning the columns of a {@link ColumnarTable}.
+ * <p>
+ * Predicates are served when they filter an attribute of the table whose column is scannable, or filter the id with
+ * IN.  A conjunction can be served by any of its served operands, in which case the rows returned must still be
+ * filtered in memory.  Disjunctions and negations can only be served when their operands are served exactly.  The
+ * visitor returns null for expressions the columns cannot serve.
+ */
+class ColumnFilterVisitor implements FilterExpressionVisitor<ColumnFilterVisitor.Scan> {
+
+    /**
+     * The rows selected by a scan.
+     */
+    static final class Scan {
+        /* The selected rows, or null if the scan was only planned. */
+        final BitSet rows;
+
+        /* Whether the selected rows are exactly those matching the expression rather than a superset of them. */
+        final boolean exact;
+
+        private Scan(BitSet rows, boolean exact) {
+            this.rows = rows;
+            this.exact = exact;
+        }
+    }
+
+    private static final Set<Operator> STRING_OPERATORS = EnumSet.of(Operator.IN_INSENSITIVE,
+            Operator.NOT_INSENSITIVE, Operator.PREFIX, Operator.PREFIX_CASE_INSENSITIVE, Operator.POSTFIX,
+            Operator.POSTFIX_CASE_INSENSITIVE, Operator.INFIX, Operator.INFIX_CASE_INSENSITIVE);
+
+    private final EntityDictionary dictionary;
+    private final ColumnarTable table;
+    private final BitSet candidates;
+
+    /**
+     * Constructor.
+     *
+     * @param dictionary The entity dictionary
+     * @param table The filtered table
+     * @param candidates The rows to filter, or null to only determine whether the columns can serve the filter
+     */
+    ColumnFilterVisitor(EntityDictionary dictionary, ColumnarTable table, BitSet candidates) {
+        this.dictionary = dictionary;
+        this.table = table;
+        this.candidates = candidates;
+    }
+
+    @Override
+    public Scan visitPredicate(FilterPredicate filterPredicate) {
+        String field = getField(filterPredicate.getPath());
+        if (field == null) {
+            return null;
+        }
+
+        Operator operator = filterPredicate.getOperator();
+        List<Object> values = filterPredicate.getValues();
+        if (field.equals(dictionary.getIdFieldName(table.getType()))) {
+            return operator == Operator.IN ? idIn(values) : null;
+        }
+
+        Column column = table.getColumn(field);
+        if (column == null || !column.isScannable()) {
+            return null;
+        }
+
+        List<Object> keys = new ArrayList<>();
+        try {
+            for (Object value : values) {
+                keys.add(CoerceUtil.coerce(value, column.getType()));
+            }
+        } catch (RuntimeException e) {
+            //Invalid filter values are reported by the in memory filter.
+            return null;
+        }
+
+        return STRING_OPERATORS.contains(operator)
+                ? matchStrings(column, keys, operator)
+                : scanValues(column, keys, operator);
+    }
+
+    /**
+     * Serves an operator which compares values.
+     */
+    private Scan scanValues(Column column, List<Object> keys, Operator operator) {
+        switch (operator) {
+            case IN:
+                return scan(() -> column.in(candidates, nonNull(keys)));
+            case NOT:
+                return scan(() -> difference(candidates, column.in(candidates, nonNull(keys))));
+            case ISNULL:
+                return scan(() -> column.isNull(candidates));
+            case NOTNULL:
+                return scan(() -> difference(candidates, column.isNull(candidates)));
+            case LT:
+                return compare(column, keys, result -> result < 0);
+            case LE:
+                return compare(column, keys, result -> result <= 0);
+            case GT:
+                return compare(column, keys, result -> result > 0);
+            case GE:
+                return compare(column, keys, result -> result >= 0);
+            case TRUE:
+                return scan(() -> (BitSet) candidates.clone());
+            case FALSE:
+                return scan(BitSet::new);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Serves an operator which matches strings.
+     */
+    private Scan matchStrings(Column column, List<Object> keys, Operator operator) {
+        switch (operator) {
+            case IN_INSENSITIVE:
+                return matchString(column, keys, false, Objects::equals);
+            case NOT_INSENSITIVE:
+                return matchString(column, keys, true, Objects::equals);
+            case PREFIX:
+            case PREFIX_CASE_INSENSITIVE:
+                return matchSingleString(column, keys, operator, String::startsWith);
+            case POSTFIX:
+            case POSTFIX_CASE_INSENSITIVE:
+                return matchSingleString(column, keys, operator, String::endsWith);
+            case INFIX:
+            case INFIX_CASE_INSENSITIVE:
+                return matchSingleString(column, keys, operator, String::contains);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Scan visitAndExpression(AndFilterExpression expression) {
+        Scan left = expression.getLeft().accept(this);
+        Scan right = expression.getRight().accept(this);
+
+        if (left == null && right == null) {
+            return null;
+        }
+        if (left == null || right == null) {
+            Scan served = left == null ? right : left;
+            return new Scan(served.rows, false);
+        }
+
+        BitSet rows = null;
+        if (candidates != null) {
+            rows = left.rows;
+            rows.and(right.rows);
+        }
+        return new Scan(rows, left.exact && right.exact);
+    }
+
+    @Override
+    public Scan visitOrExpression(OrFilterExpression expression) {
+        Scan left = expression.getLeft().accept(this);
+        Scan right = expression.getRight().accept(this);
+
+        if (left == null || right == null || !left.exact || !right.exact) {
+            return null;
+        }
+
+        BitSet rows = null;
+        if (candidates != null) {
+            rows = left.rows;
+            rows.or(right.rows);
+        }
+        return new Scan(rows, true);
+    }
+
+    @Override
+    public Scan visitNotExpression(NotFilterExpression expression) {
+        Scan negated = expression.getNegated().accept(this);
+        if (negated == null || !negated.exact) {
+            return null;
+        }
+        return new Scan(candidates == null ? null : difference(candidates, negated.rows), true);
+    }
+
+    /**
+     * Returns the attribute of the table a path filters, or null if the path crosses a relationship.
+     */
+    private String getField(Path path) {
+        List<Path.PathElement> elements = path.getPathElements();
+        if (elements.size() != 1 || elements.get(0).getType() != table.getType()) {
+            return null;
+        }
+        return elements.get(0).getFieldName();
+    }
+
+    private Scan idIn(List<Object> values) {
+        Class<?> idType = dictionary.getIdType(table.getType());
+        List<String> ids = new ArrayList<>();
+        try {
+            for (Object value : values) {
+                Object id = CoerceUtil.coerce(value, idType);
+                if (id != null) {
+                    ids.add(String.valueOf(id));
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        return scan(() -> {
+            BitSet rows = new BitSet();
+            for (String id : ids) {
+                int row = table.getRow(id);
+                if (row >= 0 && candidates.get(row)) {
+                    rows.set(row);
+                }
+            }
+            return rows;
+        });
+    }
+
+    private Scan compare(Column column, List<Object> keys, IntPredicate condition) {
+        if (keys.isEmpty() || keys.contains(null)) {
+            return null;
+        }
+
+        return scan(() -> {
+            BitSet rows = new BitSet();
+            for (Object key : keys) {
+                rows.or(column.compare(candidates, key, condition));
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Serves a case insensitive IN or NOT on a string column.
+     */
+    private Scan matchString(Column column, List<Object> keys, boolean negate, BiPredicate<String, String> matcher) {
+        if (column.getType() != String.class) {
+            return null;
+        }
+
+        List<String> folded = new ArrayList<>();
+        for (Object key : nonNull(keys)) {
+            folded.add(Operator.FOLD_CASE.apply((String) key));
+        }
+
+        return scan(() -> {
+            BitSet rows = column.match(candidates, value -> folded.stream()
+                    .anyMatch(key -> matcher.test(Operator.FOLD_CASE.apply((String) value), key)));
+            return negate ? difference(candidates, rows) : rows;
+        });
+    }
+
+    /**
+     * Serves a prefix, postfix or infix match on a string column.
+     */
+    private Scan matchSingleString(Column column, List<Object> keys, Operator operator,
+                                   BiPredicate<String, String> matcher) {
+        if (column.getType() != String.class || keys.size() != 1 || keys.get(0) == null) {
+            return null;
+        }
+
+        Function<String, String> transform = operator.name().endsWith("_CASE_INSENSITIVE")
+                ? Operator.FOLD_CASE
+                : Function.identity();
+        String key = transform.apply((String) keys.get(0));
+        return scan(() -> column.match(candidates, value -> matcher.test(transform.apply((String) value), key)));
+    }
+
+    private static List<Object> nonNull(List<Object> keys) {
+        List<Object> result = new ArrayList<>(keys);
+        result.removeIf(Objects::isNull);
+        return result;
+    }
+
+    private static BitSet difference(BitSet rows, BitSet removed) {
+        BitSet result = (BitSet) rows.clone();
+        result.andNot(removed);
+        return result;
+    }
+
+    private Scan scan(Supplier<BitSet> rows) {
+        return new Scan(candidates == null ? null : rows.get(), true);
+    }
+}
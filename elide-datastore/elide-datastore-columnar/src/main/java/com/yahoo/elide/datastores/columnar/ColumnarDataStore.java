@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import com.yahoo.elide.annotation.Include;
+import com.yahoo.elide.core.DataStore;
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.utils.ClassScanner;
+
+import com.google.common.collect.Sets;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory database which stores attributes column by column off heap.
+ * <p>
+ * The store is intended for large, read mostly reference tables.  Each attribute is held in a direct buffer (see
+ * {@link Column}), so rows cost a few bytes per attribute rather than an object per row.  Filters on attributes are
+ * evaluated by scanning columns, rows are sorted by comparing column values and pages are cut before any object is
+ * created.  Entity objects are only materialized for the rows a transaction returns, the rows they reference through
+ * to-one relationships and the to-many relationships which are accessed.
+ * <p>
+ * Transactions read the latest committed rows.  Reads share a lock and commits are applied under an exclusive lock,
+ * so a reader never observes part of a commit.
+ */
+public class ColumnarDataStore implements DataStore {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Class<?>> entityClasses;
+    private final Map<Class<?>, ColumnarTable> tables = new HashMap<>();
+    @Getter private final ConcurrentHashMap<Class<?>, AtomicLong> typeIds = new ConcurrentHashMap<>();
+    @Getter private EntityDictionary dictionary;
+
+    public ColumnarDataStore(Package beanPackage) {
+        this(Sets.newHashSet(beanPackage));
+    }
+
+    public ColumnarDataStore(Set<Package> beanPackages) {
+        this.entityClasses = new LinkedHashSet<>();
+        for (Package beanPackage : beanPackages) {
+            ClassScanner.getAnnotatedClasses(beanPackage, Include.class).stream()
+                .filter(modelClass -> modelClass.getName().startsWith(beanPackage.getName()))
+                .forEach(entityClasses::add);
+        }
+    }
+
+    /**
+     * Create a new columnar data store.
+     *
+     * @param entityClasses Entity classes controlled by this datastore.
+     */
+    public ColumnarDataStore(Collection<Class<?>> entityClasses) {
+        this.entityClasses = new LinkedHashSet<>(entityClasses);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if an attribute or to-many relationship is of a type the store cannot hold
+     */
+    @Override
+    public void populateEntityDictionary(EntityDictionary dictionary) {
+        entityClasses.forEach(dictionary::bindEntity);
+
+        for (Class<?> entityClass : entityClasses) {
+            Map<String, Class<?>> attributes = new LinkedHashMap<>();
+            for (String attribute : dictionary.getAttributes(entityClass)) {
+                if (!dictionary.isComputed(entityClass, attribute)) {
+                    attributes.put(attribute, dictionary.getType(entityClass, attribute));
+                }
+            }
+
+            List<String> relationships = new ArrayList<>();
+            for (String relationship : dictionary.getRelationships(entityClass)) {
+                if (dictionary.isComputed(entityClass, relationship)
+                        || !entityClasses.contains(dictionary.getParameterizedType(entityClass, relationship))) {
+                    continue;
+                }
+                relationships.add(relationship);
+            }
+
+            ColumnarTable table = new ColumnarTable(entityClass, attributes, relationships);
+            for (String relationship : relationships) {
+                if (dictionary.getRelationshipType(entityClass, relationship).isToMany()) {
+                    table.registerToMany(relationship, dictionary.getType(entityClass, relationship));
+                }
+            }
+            tables.put(entityClass, table);
+        }
+
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public DataStoreTransaction beginTransaction() {
+        return new ColumnarTransaction(this, dictionary);
+    }
+
+    /**
+     * Returns the table of a type.  The table must only be accessed within {@link #read} or {@link #write}.
+     *
+     * @param entityClass The entity class
+     * @return The table or null if the type is not stored
+     */
+    ColumnarTable getTable(Class<?> entityClass) {
+        return tables.get(entityClass);
+    }
+
+    <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void write(Runnable writer) {
+        lock.writeLock().lock();
+        try {
+            writer.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Data store contents ");
+        read(() -> {
+            tables.forEach((type, table) -> sb.append("\n Table ").append(type)
+                    .append(" contains ").append(table.getLiveRows().cardinality()).append(" records"));
+            return null;
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows of one type in a {@link ColumnarDataStore}.
+ * <p>
+ * Attributes are held in one {@link Column} per attribute.  Relationships are held on heap as references to the
+ * related rows in their own table.  A reference is the position of a row together with the generation of that
+ * position, which advances when its row is deleted.  Positions of deleted rows are reused by later rows, and
+ * references to deleted rows are ignored when they are read.
+ * <p>
+ * Every method which modifies the table takes an undo log, onto which it pushes the action which reverts the
+ * modification.  Running the actions of the log from the most recent one restores the table.
+ */
+class ColumnarTable {
+    @Getter private final Class<?> type;
+    @Getter private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final Map<String, List<long[]>> relations = new LinkedHashMap<>();
+
+    /* The declared collection type of each to-many relationship. */
+    private final Map<String, Class<?>> collectionTypes = new HashMap<>();
+
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private int[] generations = new int[64];
+
+    /* The positions of deleted rows, the most recently deleted first. */
+    private final Deque<Integer> free = new ArrayDeque<>();
+
+    /* The largest numeric id ever stored in the table. */
+    @Getter private long maxNumericId;
+
+    ColumnarTable(Class<?> type, Map<String, Class<?>> attributes, Collection<String> relationships) {
+        this.type = type;
+        attributes.forEach((field, fieldType) -> columns.put(field, new Column(field, fieldType)));
+        relationships.forEach(relationship -> relations.put(relationship, new ArrayList<>()));
+    }
+
+    Column getColumn(String field) {
+        return columns.get(field);
+    }
+
+    Collection<String> getRelationships() {
+        return relations.keySet();
+    }
+
+    /**
+     * Registers a relationship as to-many.
+     *
+     * @param relationship The relationship
+     * @param collectionType The declared type of the relationship
+     * @throws IllegalArgumentException if the store cannot create a collection of the declared type
+     */
+    void registerToMany(String relationship, Class<?> collectionType) {
+        if (!ColumnarTransaction.isSupportedCollection(collectionType)) {
+            throw new IllegalArgumentException("Unsupported relationship type " + collectionType.getName());
+        }
+        collectionTypes.put(relationship, collectionType);
+    }
+
+    /**
+     * Returns the declared type of a to-many relationship.
+     *
+     * @param relationship The relationship
+     * @return The collection type, or null if the relationship is to-one
+     */
+    Class<?> getCollectionType(String relationship) {
+        return collectionTypes.get(relationship);
+    }
+
+    /**
+     * Returns the live rows.
+     *
+     * @return A copy of the set of live row positions
+     */
+    BitSet getLiveRows() {
+        return (BitSet) live.clone();
+    }
+
+    boolean isLive(int row) {
+        return row >= 0 && live.get(row);
+    }
+
+    /**
+     * Returns the position of a live row.
+     *
+     * @param id The row id
+     * @return The row position or -1 if there is no such row
+     */
+    int getRow(String id) {
+        Integer row = id == null ? null : rowsById.get(id);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Returns the position of a referenced row.
+     *
+     * @param ref The reference
+     * @return The row position or -1 if the row has been deleted
+     */
+    int getRow(long ref) {
+        int row = (int) ref;
+        return isLive(row) && generations[row] == (int) (ref >>> 32) ? row : -1;
+    }
+
+    /**
+     * Returns a reference to a live row, which no longer resolves once the row is deleted.
+     *
+     * @param row The row position
+     * @return The reference
+     */
+    long getRef(int row) {
+        return ((long) generations[row] << 32) | row;
+    }
+
+    String getId(int row) {
+        return ids.get(row);
+    }
+
+    /**
+     * Adds a row whose attributes are null and which has no relationships.
+     *
+     * @param id The row id
+     * @param undo The undo log
+     * @return The position of the row
+     */
+    int addRow(String id, Deque<Runnable> undo) {
+        int row = free.isEmpty() ? ids.size() : free.pop();
+        if (row == ids.size()) {
+            ids.add(null);
+            relations.values().forEach(rows -> rows.add(null));
+            if (row == generations.length) {
+                generations = Arrays.copyOf(generations, row * 2);
+            }
+        }
+
+        ids.set(row, id);
+        rowsById.put(id, row);
+        live.set(row);
+        columns.values().forEach(column -> column.init(row));
+        maxNumericId = Math.max(maxNumericId, parseNumericId(id));
+
+        undo.push(() -> release(row));
+        return row;
+    }
+
+    /**
+     * Deletes a row.  Its attribute values and relationships are discarded and its position may be reused.
+     *
+     * @param row The row position
+     * @param undo The undo log
+     */
+    void deleteRow(int row, Deque<Runnable> undo) {
+        String id = ids.get(row);
+        Map<String, Object> values = new HashMap<>();
+        columns.forEach((field, column) -> values.put(field, column.get(row)));
+        Map<String, long[]> related = new HashMap<>();
+        relations.forEach((relationship, rows) -> related.put(relationship, rows.get(row)));
+
+        release(row);
+
+        undo.push(() -> {
+            if (free.pop() != row) {
+                throw new IllegalStateException("Undo log of " + type.getName() + " is out of order");
+            }
+            generations[row]--;
+            ids.set(row, id);
+            rowsById.put(id, row);
+            live.set(row);
+            values.forEach((field, value) -> columns.get(field).set(row, value));
+            related.forEach((relationship, refs) -> relations.get(relationship).set(row, refs));
+        });
+    }
+
+    private void release(int row) {
+        rowsById.remove(ids.get(row));
+        ids.set(row, null);
+        live.clear(row);
+        generations[row]++;
+        columns.values().forEach(column -> column.set(row, null));
+        relations.values().forEach(rows -> rows.set(row, null));
+        free.push(row);
+    }
+
+    /**
+     * Sets an attribute of a row.
+     *
+     * @param row The row position
+     * @param column The column of the attribute
+     * @param value The value, of the column type
+     * @param undo The undo log
+     */
+    void setValue(int row, Column column, Object value, Deque<Runnable> undo) {
+        Object previous = column.get(row);
+        column.set(row, value);
+        undo.push(() -> column.set(row, previous));
+    }
+
+    /**
+     * Returns the references to the rows a row is related to, including rows which have since been deleted.
+     *
+     * @param row The row
+     * @param relationship The relationship
+     * @return The references
+     */
+    long[] getRelated(int row, String relationship) {
+        long[] related = relations.get(relationship).get(row);
+        return related == null ? new long[0] : related;
+    }
+
+    void setRelated(int row, String relationship, long[] related, Deque<Runnable> undo) {
+        long[] previous = relations.get(relationship).set(row, related);
+        undo.push(() -> relations.get(relationship).set(row, previous));
+    }
+
+    /**
+     * Parses an id made only of decimal digits.
+     *
+     * @param id The id
+     * @return The numeric id, or 0 if the id is not a positive long
+     */
+    private static long parseNumericId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 18) {
+            return 0;
+        }
+        for (int idx = 0; idx < id.length(); idx++) {
+            if (id.charAt(idx) < '0' || id.charAt(idx) > '9') {
+                return 0;
+            }
+        }
+        return Long.parseLong(id);
+    }
+}
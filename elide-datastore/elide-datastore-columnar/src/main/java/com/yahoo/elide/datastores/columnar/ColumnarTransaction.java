@@ -0,0 +1,655 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.exceptions.TransactionException;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.InMemoryFilterExecutor;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.persistence.GeneratedValue;
+
+/**
+ * ColumnarDataStore transaction handler.
+ * <p>
+ * Filters, sorts and pagination over the attributes of a type are evaluated against the columns of its table, and
+ * objects are only created for the rows that are returned.  Every row is materialized at most once per transaction.
+ * To-one relationships are materialized with their row, while to-many relationships are materialized the first time
+ * they are accessed (see {@link LazyRelation}).
+ * <p>
+ * Writes are buffered and applied on commit.  If applying them fails, the modifications already made are undone
+ * before the commit lock is released, so that the commit has no effect.
+ */
+public class ColumnarTransaction implements DataStoreTransaction {
+    private enum OpType { CREATE, UPDATE, DELETE }
+
+    private static final class Operation {
+        private final OpType opType;
+        private final Object instance;
+
+        private Operation(OpType opType, Object instance) {
+            this.opType = opType;
+            this.instance = instance;
+        }
+    }
+
+    private final ColumnarDataStore dataStore;
+    private final EntityDictionary dictionary;
+    private final List<Operation> operations = new ArrayList<>();
+
+    /* The objects materialized by this transaction, by type and row reference. */
+    private final Map<Class<?>, Map<Long, Object>> materialized = new HashMap<>();
+
+    /* The row reference of every object materialized or written by this transaction. */
+    private final Map<Object, Long> refs = new IdentityHashMap<>();
+
+    public ColumnarTransaction(ColumnarDataStore dataStore, EntityDictionary dictionary) {
+        this.dataStore = dataStore;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void flush(RequestScope requestScope) {
+        // Do nothing
+    }
+
+    @Override
+    public void save(Object object, RequestScope requestScope) {
+        if (object == null) {
+            return;
+        }
+        String id = dictionary.getId(object);
+        if (id == null || "null".equals(id) || "0".equals(id)) {
+            createObject(object, requestScope);
+        }
+        operations.add(new Operation(OpType.UPDATE, object));
+    }
+
+    @Override
+    public void delete(Object object, RequestScope requestScope) {
+        if (object == null) {
+            return;
+        }
+        operations.add(new Operation(OpType.DELETE, object));
+    }
+
+    @Override
+    public void createObject(Object entity, RequestScope scope) {
+        Class<?> entityClass = entity.getClass();
+        String idFieldName = dictionary.getIdFieldName(entityClass);
+
+        //GeneratedValue means the DB needs to assign the ID.
+        if (dictionary.getAttributeOrRelationAnnotation(entityClass, GeneratedValue.class, idFieldName) != null) {
+            dictionary.setValue(entity, idFieldName, generateId(entityClass));
+        }
+
+        operations.add(new Operation(OpType.CREATE, entity));
+    }
+
+    /**
+     * Generates an id.  UUID ids are random.  Other ids are drawn from a per type sequence which starts after the
+     * largest numeric id in the table and is advanced past ids assigned by clients on commit.
+     */
+    private String generateId(Class<?> entityClass) {
+        if (dictionary.getIdType(entityClass) == UUID.class) {
+            return UUID.randomUUID().toString();
+        }
+
+        AtomicLong nextId = dataStore.getTypeIds().computeIfAbsent(entityClass, (key) -> new AtomicLong(
+                dataStore.read(() -> getTable(key).getMaxNumericId()) + 1));
+        return String.valueOf(nextId.getAndIncrement());
+    }
+
+    @Override
+    public void commit(RequestScope scope) {
+        dataStore.write(() -> apply(scope));
+        operations.clear();
+    }
+
+    /**
+     * Applies the buffered operations.  Creations are checked for duplicate ids before any row is modified.
+     * Relationships are written last, once every created row has a position.  Every modification is recorded in an
+     * undo log, which is replayed if a later one fails.
+     */
+    private void apply(RequestScope scope) {
+        checkKeys();
+
+        Deque<Runnable> undo = new ArrayDeque<>();
+        try {
+            Set<Object> written = writeRows(scope, undo);
+            writeRelations(written, scope, undo);
+        } catch (RuntimeException e) {
+            undo.forEach(Runnable::run);
+            throw e;
+        }
+
+        for (ColumnarTable table : getTables(operations)) {
+            long numericId = table.getMaxNumericId();
+            dataStore.getTypeIds().computeIfPresent(table.getType(), (type, nextId) -> {
+                nextId.accumulateAndGet(numericId + 1, Math::max);
+                return nextId;
+            });
+        }
+    }
+
+    /**
+     * Rejects creations of ids which are stored and not deleted first, or which are created twice.
+     */
+    private void checkKeys() {
+        Map<Class<?>, Set<String>> created = new HashMap<>();
+        Map<Class<?>, Set<String>> deleted = new HashMap<>();
+        for (Operation op : operations) {
+            Class<?> type = op.instance.getClass();
+            String id = dictionary.getId(op.instance);
+            Set<String> typeCreated = created.computeIfAbsent(type, key -> new HashSet<>());
+            Set<String> typeDeleted = deleted.computeIfAbsent(type, key -> new HashSet<>());
+            if (op.opType == OpType.DELETE) {
+                typeDeleted.add(id);
+                typeCreated.remove(id);
+            } else if (op.opType == OpType.CREATE
+                    && ((getTable(type).getRow(id) >= 0 && !typeDeleted.contains(id)) || !typeCreated.add(id))) {
+                throw new TransactionException(new IllegalStateException("Duplicate key"));
+            }
+        }
+    }
+
+    /**
+     * Writes the attributes of created and updated rows and deletes deleted rows.
+     *
+     * @return The objects whose rows were written and not deleted afterwards
+     */
+    private Set<Object> writeRows(RequestScope scope, Deque<Runnable> undo) {
+        Set<Object> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Operation op : operations) {
+            ColumnarTable table = getTable(op.instance.getClass());
+            int row = getRow(table, op.instance);
+            if (op.opType == OpType.DELETE) {
+                if (row >= 0) {
+                    table.deleteRow(row, undo);
+                }
+                setRef(op.instance, null, undo);
+                written.remove(op.instance);
+                continue;
+            }
+
+            if (row < 0) {
+                row = table.addRow(dictionary.getId(op.instance), undo);
+            }
+            setRef(op.instance, table.getRef(row), undo);
+            for (Column column : table.getColumns().values()) {
+                table.setValue(row, column, dictionary.getValue(op.instance, column.getField(), scope), undo);
+            }
+            written.add(op.instance);
+        }
+        return written;
+    }
+
+    /**
+     * Writes the relationships of written rows.  To-many relationships which were never accessed are unchanged.
+     */
+    private void writeRelations(Set<Object> written, RequestScope scope, Deque<Runnable> undo) {
+        for (Object object : written) {
+            ColumnarTable table = getTable(object.getClass());
+            int row = table.getRow(refs.get(object));
+            for (String relationship : table.getRelationships()) {
+                Object value = dictionary.getValue(object, relationship, scope);
+                if (value instanceof LazyRelation && !((LazyRelation) value).isLoaded()) {
+                    continue;
+                }
+
+                ColumnarTable targets = getTable(dictionary.getParameterizedType(table.getType(), relationship));
+                Collection<?> related = value instanceof Collection ? (Collection<?>) value
+                        : value == null ? Collections.emptyList() : Collections.singletonList(value);
+                table.setRelated(row, relationship, related.stream()
+                        .mapToInt(target -> getRow(targets, target))
+                        .filter(targetRow -> targetRow >= 0)
+                        .mapToLong(targets::getRef)
+                        .toArray(), undo);
+            }
+        }
+    }
+
+    private void setRef(Object object, Long ref, Deque<Runnable> undo) {
+        Long previous = ref == null ? refs.remove(object) : refs.put(object, ref);
+        undo.push(() -> {
+            if (previous == null) {
+                refs.remove(object);
+            } else {
+                refs.put(object, previous);
+            }
+        });
+    }
+
+    private Set<ColumnarTable> getTables(List<Operation> ops) {
+        Set<ColumnarTable> tables = Collections.newSetFromMap(new IdentityHashMap<>());
+        ops.forEach(op -> tables.add(getTable(op.instance.getClass())));
+        return tables;
+    }
+
+    /**
+     * Returns the row of an object: the row it was read from or written to, or else the live row with its id.
+     */
+    private int getRow(ColumnarTable table, Object object) {
+        Long ref = refs.get(object);
+        int row = ref == null ? -1 : table.getRow(ref);
+        return row >= 0 ? row : table.getRow(dictionary.getId(object));
+    }
+
+    private ColumnarTable getTable(Class<?> entityClass) {
+        ColumnarTable table = dataStore.getTable(entityClass);
+        if (table == null) {
+            throw new TransactionException(new IllegalStateException("Unknown type " + entityClass.getName()));
+        }
+        return table;
+    }
+
+    @Override
+    public Object loadObject(Class<?> entityClass, Serializable id,
+                             Optional<FilterExpression> filterExpression,
+                             RequestScope scope) {
+        ColumnarTable table = dataStore.getTable(entityClass);
+        if (table == null) {
+            return null;
+        }
+
+        Object record = dataStore.read(() -> {
+            int row = table.getRow(id.toString());
+            if (row < 0) {
+                return null;
+            }
+
+            if (filterExpression.isPresent()) {
+                BitSet candidates = new BitSet();
+                candidates.set(row);
+                ColumnFilterVisitor.Scan scan = filterExpression.get()
+                        .accept(new ColumnFilterVisitor(dictionary, table, candidates));
+                if (scan != null && !scan.rows.get(row)) {
+                    return null;
+                }
+            }
+            return materialize(table, row);
+        });
+
+        if (record == null || !filterExpression.isPresent()
+                || supportsFiltering(entityClass, filterExpression.get()) == FeatureSupport.FULL) {
+            return record;
+        }
+
+        Predicate predicate = filterExpression.get().accept(new InMemoryFilterExecutor(scope));
+        return predicate.test(record) ? record : null;
+    }
+
+    @Override
+    public Iterable<Object> loadObjects(Class<?> entityClass, Optional<FilterExpression> filterExpression,
+                                        Optional<Sorting> sorting, Optional<Pagination> pagination,
+                                        RequestScope scope) {
+        ColumnarTable table = getTable(entityClass);
+        return dataStore.read(() -> select(table, table.getLiveRows(), filterExpression, sorting, pagination));
+    }
+
+    /**
+     * Filters, sorts and paginates rows by scanning columns, then materializes the rows that remain.
+     */
+    private List<Object> select(ColumnarTable table, BitSet candidates, Optional<FilterExpression> filterExpression,
+                                Optional<Sorting> sorting, Optional<Pagination> pagination) {
+        BitSet selected = candidates;
+        if (filterExpression.isPresent()) {
+            ColumnFilterVisitor.Scan scan = filterExpression.get()
+                    .accept(new ColumnFilterVisitor(dictionary, table, candidates));
+            if (scan != null) {
+                selected = scan.rows;
+            }
+        }
+
+        int[] ordered = sort(table, selected, getSortColumns(table, sorting));
+
+        int from = 0;
+        int to = ordered.length;
+        if (pagination.isPresent()) {
+            Pagination page = pagination.get();
+            if (page.isGenerateTotals()) {
+                page.setPageTotals(ordered.length);
+            }
+            from = Math.min(page.getOffset(), ordered.length);
+            to = Math.min(from + page.getLimit(), ordered.length);
+        }
+
+        List<Object> records = new ArrayList<>(to - from);
+        for (int idx = from; idx < to; idx++) {
+            records.add(materialize(table, ordered[idx]));
+        }
+        return records;
+    }
+
+    /**
+     * Orders rows by the values of the given columns.  Null values sort first in ascending order, and rows with
+     * equal values are returned in insertion order.
+     */
+    private static int[] sort(ColumnarTable table, BitSet selected, Map<Column, Sorting.SortOrder> sortColumns) {
+        int[] positions = selected.stream().toArray();
+        if (sortColumns == null || sortColumns.isEmpty()) {
+            return positions;
+        }
+
+        int rules = sortColumns.size();
+        long[][] keys = new long[rules][positions.length];
+        boolean[][] nulls = new boolean[rules][positions.length];
+        boolean[] descending = new boolean[rules];
+
+        int rule = 0;
+        for (Map.Entry<Column, Sorting.SortOrder> entry : sortColumns.entrySet()) {
+            Column column = entry.getKey();
+            descending[rule] = entry.getValue() == Sorting.SortOrder.desc;
+            for (int idx = 0; idx < positions.length; idx++) {
+                nulls[rule][idx] = column.isNull(positions[idx]);
+                keys[rule][idx] = nulls[rule][idx] ? 0 : column.sortKey(positions[idx]);
+            }
+            rule++;
+        }
+
+        Integer[] order = new Integer[positions.length];
+        for (int idx = 0; idx < order.length; idx++) {
+            order[idx] = idx;
+        }
+        Arrays.sort(order, (left, right) -> {
+            for (int idx = 0; idx < rules; idx++) {
+                int comparison = nulls[idx][left] || nulls[idx][right]
+                        ? Boolean.compare(!nulls[idx][left], !nulls[idx][right])
+                        : Long.compare(keys[idx][left], keys[idx][right]);
+                if (comparison != 0) {
+                    return descending[idx] ? -comparison : comparison;
+                }
+            }
+            return Integer.compare(positions[left], positions[right]);
+        });
+
+        int[] sorted = new int[positions.length];
+        for (int idx = 0; idx < sorted.length; idx++) {
+            sorted[idx] = positions[order[idx]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the columns which order rows by the given sorting, or null if some rule is not over a scannable column.
+     */
+    private Map<Column, Sorting.SortOrder> getSortColumns(ColumnarTable table, Optional<Sorting> sorting) {
+        Map<Path, Sorting.SortOrder> sortRules = sorting
+                .map(s -> s.getValidSortingRules(table.getType(), dictionary))
+                .orElse(Collections.emptyMap());
+
+        Map<Column, Sorting.SortOrder> sortColumns = new LinkedHashMap<>();
+        for (Map.Entry<Path, Sorting.SortOrder> rule : sortRules.entrySet()) {
+            List<Path.PathElement> elements = rule.getKey().getPathElements();
+            Column column = elements.size() == 1 && elements.get(0).getType() == table.getType()
+                    ? table.getColumn(elements.get(0).getFieldName())
+                    : null;
+            if (column == null || !column.isScannable()) {
+                return null;
+            }
+            sortColumns.put(column, rule.getValue());
+        }
+        return sortColumns;
+    }
+
+    /**
+     * Materializes a row and the rows reachable from it through to-one relationships.  To-many relationships are set
+     * to lazy collections.  Rows already materialized by this transaction are returned as is.
+     */
+    private Object materialize(ColumnarTable table, int row) {
+        Object existing = getMaterialized(table, row);
+        if (existing != null) {
+            return existing;
+        }
+
+        Deque<Object> pending = new ArrayDeque<>();
+        Object record = instantiate(table, row, pending);
+        while (!pending.isEmpty()) {
+            Object object = pending.poll();
+            ColumnarTable objectTable = getTable(object.getClass());
+            int objectRow = objectTable.getRow(refs.get(object));
+
+            for (String relationship : objectTable.getRelationships()) {
+                ColumnarTable targets = getTable(dictionary.getParameterizedType(objectTable.getType(), relationship));
+                long[] related = objectTable.getRelated(objectRow, relationship);
+                Class<?> collectionType = objectTable.getCollectionType(relationship);
+                if (collectionType != null) {
+                    Collection<Object> collection = LazyRelation.of(collectionType, related,
+                            () -> dataStore.read(() -> materialize(targets, related, collectionType)));
+                    if (collection != null) {
+                        //Coercing would iterate the collection, which materializes the related rows.
+                        dictionary.setUncoercedValue(object, relationship, collection);
+                    } else {
+                        dictionary.setValue(object, relationship, materialize(targets, related, collectionType));
+                    }
+                    continue;
+                }
+
+                Object target = null;
+                int targetRow = related.length == 0 ? -1 : targets.getRow(related[0]);
+                if (targetRow >= 0) {
+                    target = getMaterialized(targets, targetRow);
+                    target = target != null ? target : instantiate(targets, targetRow, pending);
+                }
+                dictionary.setValue(object, relationship, target);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Materializes the live rows of a to-many relationship.
+     */
+    private Collection<Object> materialize(ColumnarTable targets, long[] related, Class<?> collectionType) {
+        Collection<Object> collection = newCollection(collectionType);
+        for (long ref : related) {
+            int targetRow = targets.getRow(ref);
+            if (targetRow >= 0) {
+                collection.add(materialize(targets, targetRow));
+            }
+        }
+        return collection;
+    }
+
+    private Object getMaterialized(ColumnarTable table, int row) {
+        return materialized.computeIfAbsent(table.getType(), type -> new HashMap<>()).get(table.getRef(row));
+    }
+
+    /**
+     * Creates the object of a row with its id and attributes set.  Its relationships are set once it is taken from
+     * the pending queue.
+     */
+    private Object instantiate(ColumnarTable table, int row, Deque<Object> pending) {
+        Object object;
+        try {
+            object = table.getType().newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot instantiate " + table.getType().getName(), e);
+        }
+
+        dictionary.setValue(object, dictionary.getIdFieldName(table.getType()), table.getId(row));
+        for (Column column : table.getColumns().values()) {
+            dictionary.setValue(object, column.getField(), column.get(row));
+        }
+
+        long ref = table.getRef(row);
+        materialized.get(table.getType()).put(ref, object);
+        refs.put(object, ref);
+        pending.add(object);
+        return object;
+    }
+
+    /**
+     * Whether the store can create a collection for a to-many relationship.
+     *
+     * @param collectionType The declared type of the relationship
+     * @return true if {@link #newCollection} supports the type
+     */
+    static boolean isSupportedCollection(Class<?> collectionType) {
+        return collectionType.isAssignableFrom(LinkedHashSet.class) || collectionType.isAssignableFrom(ArrayList.class);
+    }
+
+    /**
+     * Creates an empty collection for a to-many relationship.
+     *
+     * @param collectionType The declared type of the relationship, which must be supported
+     * @return The collection
+     */
+    private static Collection<Object> newCollection(Class<?> collectionType) {
+        return collectionType.isAssignableFrom(LinkedHashSet.class) ? new LinkedHashSet<>() : new ArrayList<>();
+    }
+
+    @Override
+    public Object getRelation(DataStoreTransaction relationTx,
+                              Object entity,
+                              String relationName,
+                              Optional<FilterExpression> filterExpression,
+                              Optional<Sorting> sorting,
+                              Optional<Pagination> pagination,
+                              RequestScope scope) {
+        Object values = dictionary.getValue(entity, relationName, scope);
+        if (!(values instanceof Collection)
+                || (!filterExpression.isPresent() && !sorting.isPresent() && !pagination.isPresent())) {
+            return values;
+        }
+
+        Collection<?> records = (Collection<?>) values;
+        ColumnarTable table = getTable(dictionary.getParameterizedType(entity, relationName));
+        return dataStore.read(() -> {
+            BitSet candidates = getCandidates(table, records);
+            return candidates == null
+                    ? selectInMemory(table, records, filterExpression, sorting, pagination, scope)
+                    : select(table, candidates, filterExpression, sorting, pagination);
+        });
+    }
+
+    /**
+     * Returns the rows of a to-many relationship, or null if some of its objects are not stored as they are.  The
+     * rows of a lazy relationship which was never accessed are read without materializing them.
+     */
+    private BitSet getCandidates(ColumnarTable table, Collection<?> records) {
+        BitSet candidates = new BitSet();
+        if (records instanceof LazyRelation && !((LazyRelation) records).isLoaded()) {
+            for (long ref : ((LazyRelation) records).getRefs()) {
+                int row = table.getRow(ref);
+                if (row >= 0) {
+                    candidates.set(row);
+                }
+            }
+            return candidates;
+        }
+
+        for (Object record : records) {
+            Long ref = refs.get(record);
+            int row = ref == null ? -1 : table.getRow(ref);
+            if (row < 0 || isModified(record)) {
+                return null;
+            }
+            candidates.set(row);
+        }
+        return candidates;
+    }
+
+    /**
+     * Whether an object has been written by this transaction, so that its columns may not hold its current values.
+     */
+    private boolean isModified(Object object) {
+        return operations.stream().anyMatch(op -> op.instance == object);
+    }
+
+    /**
+     * Filters, sorts and paginates objects which are not all stored as they are.
+     */
+    private List<Object> selectInMemory(ColumnarTable table, Collection<?> records,
+                                        Optional<FilterExpression> filterExpression, Optional<Sorting> sorting,
+                                        Optional<Pagination> pagination, RequestScope scope) {
+        List<Object> selected = new ArrayList<>(records);
+        if (filterExpression.isPresent()) {
+            Predicate predicate = filterExpression.get().accept(new InMemoryFilterExecutor(scope));
+            selected = (List<Object>) selected.stream().filter(predicate).collect(Collectors.toList());
+        }
+
+        Map<Column, Sorting.SortOrder> sortColumns = getSortColumns(table, sorting);
+        if (sortColumns != null) {
+            Comparator<Object> comparator = (left, right) -> 0;
+            for (Map.Entry<Column, Sorting.SortOrder> rule : sortColumns.entrySet()) {
+                String field = rule.getKey().getField();
+                Comparator<Object> byField = Comparator.comparing(
+                        record -> (Comparable) dictionary.getValue(record, field, scope),
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                comparator = comparator.thenComparing(
+                        rule.getValue() == Sorting.SortOrder.desc ? byField.reversed() : byField);
+            }
+            selected.sort(comparator);
+        }
+
+        if (pagination.isPresent()) {
+            Pagination page = pagination.get();
+            if (page.isGenerateTotals()) {
+                page.setPageTotals(selected.size());
+            }
+            int from = Math.min(page.getOffset(), selected.size());
+            selected = selected.subList(from, Math.min(from + page.getLimit(), selected.size()));
+        }
+        return selected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        operations.clear();
+    }
+
+    @Override
+    public FeatureSupport supportsFiltering(Class<?> entityClass, FilterExpression expression) {
+        ColumnarTable table = dataStore.getTable(entityClass);
+        ColumnFilterVisitor.Scan scan = table == null ? null
+                : expression.accept(new ColumnFilterVisitor(dictionary, table, null));
+        if (scan == null) {
+            return FeatureSupport.NONE;
+        }
+        return scan.exact ? FeatureSupport.FULL : FeatureSupport.PARTIAL;
+    }
+
+    @Override
+    public boolean supportsSorting(Class<?> entityClass, Sorting sorting) {
+        ColumnarTable table = dataStore.getTable(entityClass);
+        return table != null && getSortColumns(table, Optional.of(sorting)) != null;
+    }
+
+    @Override
+    public boolean supportsPagination(Class<?> entityClass) {
+        return dataStore.getTable(entityClass) != null;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import com.google.common.collect.ForwardingList;
+import com.google.common.collect.ForwardingSet;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A to-many relationship of a materialized row, whose related rows are only materialized the first time the
+ * collection is accessed.  Reading a row therefore does not materialize every row reachable from it.
+ */
+interface LazyRelation {
+
+    /**
+     * Whether the related rows have been materialized.
+     *
+     * @return true once the collection has been accessed
+     */
+    boolean isLoaded();
+
+    /**
+     * The references to the related rows, as they were when the row was materialized.
+     *
+     * @return The row references
+     */
+    long[] getRefs();
+
+    /**
+     * Creates a lazy collection for a to-many relationship.
+     *
+     * @param collectionType The declared type of the relationship
+     * @param refs The references to the related rows
+     * @param loader Materializes the related rows into a collection of the declared type
+     * @return The lazy collection, or null if the declared type is a class which a lazy collection cannot be
+     */
+    static Collection<Object> of(Class<?> collectionType, long[] refs, Supplier<Collection<Object>> loader) {
+        if (collectionType.isAssignableFrom(Set.class)) {
+            return new LazySet(refs, loader);
+        }
+        if (collectionType.isAssignableFrom(List.class)) {
+            return new LazyList(refs, loader);
+        }
+        return null;
+    }
+
+    /**
+     * A lazy to-many relationship declared as a set.
+     */
+    final class LazySet extends ForwardingSet<Object> implements LazyRelation {
+        private final long[] refs;
+        private Supplier<Collection<Object>> loader;
+        private Set<Object> loaded;
+
+        private LazySet(long[] refs, Supplier<Collection<Object>> loader) {
+            this.refs = refs;
+            this.loader = loader;
+        }
+
+        @Override
+        protected Set<Object> delegate() {
+            if (loaded == null) {
+                loaded = (Set<Object>) loader.get();
+                loader = null;
+            }
+            return loaded;
+        }
+
+        @Override
+        public boolean isLoaded() {
+            return loaded != null;
+        }
+
+        @Override
+        public long[] getRefs() {
+            return refs;
+        }
+    }
+
+    /**
+     * A lazy to-many relationship declared as a list.
+     */
+    final class LazyList extends ForwardingList<Object> implements LazyRelation {
+        private final long[] refs;
+        private Supplier<Collection<Object>> loader;
+        private List<Object> loaded;
+
+        private LazyList(long[] refs, Supplier<Collection<Object>> loader) {
+            this.refs = refs;
+            this.loader = loader;
+        }
+
+        @Override
+        protected List<Object> delegate() {
+            if (loaded == null) {
+                loaded = (List<Object>) loader.get();
+                loader = null;
+            }
+            return loaded;
+        }
+
+        @Override
+        public boolean isLoaded() {
+            return loaded != null;
+        }
+
+        @Override
+        public long[] getRefs() {
+            return refs;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.beans;
+
+import com.yahoo.elide.annotation.Include;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+
+/**
+ * Reference table related to {@link Country}.
+ */
+@Entity
+@Include
+public class City {
+    /* The number of cities created, which counts materialized rows. */
+    public static int instances;
+
+    @Id
+    @GeneratedValue
+    public Long id;
+
+    public String name;
+
+    @ManyToOne
+    public Country country;
+
+    public City() {
+        instances++;
+    }
+}
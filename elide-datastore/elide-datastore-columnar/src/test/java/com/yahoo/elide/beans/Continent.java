@@ -0,0 +1,17 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.beans;
+
+/**
+ * Enum attribute of {@link Country}.
+ */
+public enum Continent {
+    AFRICA,
+    AMERICA,
+    ASIA,
+    EUROPE,
+    OCEANIA
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.beans;
+
+import com.yahoo.elide.annotation.Include;
+
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.OneToMany;
+
+/**
+ * Reference table with one attribute of each column encoding.
+ */
+@Entity
+@Include
+public class Country {
+    /* The number of countries created, which counts materialized rows. */
+    public static int instances;
+
+    @Id
+    public String id;
+
+    public String name;
+
+    public long population;
+
+    public Double area;
+
+    public Date founded;
+
+    public Continent continent;
+
+    public boolean landlocked;
+
+    @OneToMany(mappedBy = "country")
+    public Set<City> cities = new LinkedHashSet<>();
+
+    public Country() {
+        instances++;
+    }
+
+    public Country(String id, String name, long population, Double area, Continent continent) {
+        this();
+        this.id = id;
+        this.name = name;
+        this.population = population;
+        this.area = area;
+        this.continent = continent;
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.yahoo.elide.annotation.Include;
+import com.yahoo.elide.beans.City;
+import com.yahoo.elide.beans.Continent;
+import com.yahoo.elide.beans.Country;
+import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.DataStoreTransaction.FeatureSupport;
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.exceptions.TransactionException;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.Operator;
+import com.yahoo.elide.core.filter.expression.AndFilterExpression;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.NotFilterExpression;
+import com.yahoo.elide.core.filter.expression.OrFilterExpression;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * ColumnarDataStore tests.
+ */
+public class ColumnarDataStoreTest {
+    private EntityDictionary dictionary;
+    private ColumnarDataStore store;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        dictionary = new EntityDictionary(new HashMap<>());
+        store = new ColumnarDataStore(Country.class.getPackage());
+        store.populateEntityDictionary(dictionary);
+
+        Country france = new Country("fr", "France", 67_000_000, 643_801.0, Continent.EUROPE);
+        france.founded = new Date(0);
+        Country swiss = new Country("ch", "Switzerland", 8_600_000, 41_285.0, Continent.EUROPE);
+        swiss.landlocked = true;
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.createObject(france, null);
+            t.createObject(swiss, null);
+            t.createObject(new Country("de", "Germany", 83_000_000, 357_022.0, Continent.EUROPE), null);
+            t.createObject(new Country("jp", "Japan", 125_000_000, 377_975.0, Continent.ASIA), null);
+            t.createObject(new Country("pe", "Peru", 33_000_000, null, Continent.AMERICA), null);
+            t.createObject(new Country("xx", null, 0, 1.0, null), null);
+            t.commit(null);
+        }
+    }
+
+    @Test
+    public void testRowsRoundTrip() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            assertEquals("France", france.name);
+            assertEquals(67_000_000, france.population);
+            assertEquals(643_801.0, france.area);
+            assertEquals(new Date(0), france.founded);
+            assertEquals(Continent.EUROPE, france.continent);
+            assertFalse(france.landlocked);
+            assertTrue(((Country) t.loadObject(Country.class, "ch", Optional.empty(), null)).landlocked);
+
+            Country unknown = (Country) t.loadObject(Country.class, "xx", Optional.empty(), null);
+            assertNull(unknown.name);
+            assertNull(unknown.continent);
+
+            assertSame(france, t.loadObject(Country.class, "fr", Optional.empty(), null));
+            assertNull(t.loadObject(Country.class, "zz", Optional.empty(), null));
+
+            FilterExpression asian = predicate(Country.class, "continent", Operator.IN, "ASIA");
+            assertNull(t.loadObject(Country.class, "fr", Optional.of(asian), null));
+        }
+    }
+
+    @Test
+    public void testFilterSortAndPaginate() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            FilterExpression european = predicate(Country.class, "continent", Operator.IN, "EUROPE");
+            FilterExpression large = predicate(Country.class, "population", Operator.GT, 10_000_000);
+            FilterExpression filter = new AndFilterExpression(european, large);
+            assertEquals(FeatureSupport.FULL, t.supportsFiltering(Country.class, filter));
+            assertEquals(Arrays.asList("fr", "de"), loadIds(t, filter, null, null));
+
+            FilterExpression named = predicate(Country.class, "name", Operator.PREFIX_CASE_INSENSITIVE, "ge");
+            assertEquals(Arrays.asList("de"), loadIds(t, named, null, null));
+            assertEquals(Arrays.asList("fr", "ch", "jp", "pe", "xx"),
+                    loadIds(t, new NotFilterExpression(named), null, null));
+            assertEquals(Arrays.asList("de", "pe"), loadIds(t, new OrFilterExpression(named,
+                    predicate(Country.class, "area", Operator.ISNULL)), null, null));
+            assertEquals(Arrays.asList("ch", "jp"), loadIds(t,
+                    predicate(Country.class, "id", Operator.IN, "jp", "ch", "zz"), null, null));
+
+            Sorting byArea = new Sorting(ImmutableMap.of("area", Sorting.SortOrder.desc));
+            assertTrue(t.supportsSorting(Country.class, byArea));
+            assertEquals(Arrays.asList("fr", "jp", "de", "ch", "xx", "pe"), loadIds(t, null, byArea, null));
+
+            Map<String, Sorting.SortOrder> rules = new LinkedHashMap<>();
+            rules.put("continent", Sorting.SortOrder.asc);
+            rules.put("name", Sorting.SortOrder.asc);
+            Pagination page = Pagination.fromOffsetAndLimit(2, 1, true);
+            assertEquals(Arrays.asList("pe", "jp"), loadIds(t, null, new Sorting(rules), page));
+            assertEquals(6, page.getPageTotals());
+        }
+    }
+
+    @Test
+    public void testUnservedFilters() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            FilterExpression city = predicate(Country.class, "cities.name", Operator.IN, "Paris");
+            FilterExpression european = predicate(Country.class, "continent", Operator.IN, "EUROPE");
+            assertEquals(FeatureSupport.NONE, t.supportsFiltering(Country.class, city));
+            assertEquals(FeatureSupport.NONE, t.supportsFiltering(Country.class, new NotFilterExpression(city)));
+            assertEquals(FeatureSupport.PARTIAL,
+                    t.supportsFiltering(Country.class, new AndFilterExpression(european, city)));
+            assertFalse(t.supportsSorting(City.class,
+                    new Sorting(ImmutableMap.of("country.name", Sorting.SortOrder.asc))));
+        }
+    }
+
+    @Test
+    public void testMaterializesOnlyReturnedRows() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            for (int idx = 0; idx < 1000; idx++) {
+                City city = new City();
+                city.name = "city" + idx;
+                t.createObject(city, null);
+            }
+            t.commit(null);
+        }
+
+        City.instances = 0;
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            FilterExpression filter = predicate(City.class, "name", Operator.INFIX, "9");
+            Sorting byName = new Sorting(ImmutableMap.of("name", Sorting.SortOrder.desc));
+            Pagination page = Pagination.fromOffsetAndLimit(3, 0, true);
+            List<Object> cities = new ArrayList<>();
+            t.loadObjects(City.class, Optional.of(filter), Optional.of(byName), Optional.of(page), null)
+                    .forEach(cities::add);
+
+            assertEquals(3, cities.size());
+            assertEquals("city999", ((City) cities.get(0)).name);
+            assertEquals(271, page.getPageTotals());
+            assertEquals(3, City.instances);
+        }
+    }
+
+    @Test
+    public void testMaterializesRelatedRowsOnAccess() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            for (int idx = 0; idx < 500; idx++) {
+                City city = new City();
+                city.name = "city" + idx;
+                city.country = france;
+                france.cities.add(city);
+                t.createObject(city, null);
+            }
+            t.save(france, null);
+            t.commit(null);
+        }
+
+        City.instances = 0;
+        Country.instances = 0;
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Pagination page = Pagination.fromOffsetAndLimit(3, 0, false);
+            List<Object> cities = new ArrayList<>();
+            t.loadObjects(City.class, Optional.empty(), Optional.empty(), Optional.of(page), null)
+                    .forEach(cities::add);
+
+            assertEquals(3, cities.size());
+            assertEquals(3, City.instances);
+            assertEquals(1, Country.instances);
+
+            Country france = ((City) cities.get(0)).country;
+            FilterExpression filter = predicate(City.class, "name", Operator.IN, "city7", "city42");
+            Collection<?> filtered = (Collection<?>) t.getRelation(t, france, "cities", Optional.of(filter),
+                    Optional.empty(), Optional.empty(), null);
+            assertEquals(Arrays.asList("city7", "city42"), names(filtered));
+            assertEquals(5, City.instances);
+
+            assertEquals(500, france.cities.size());
+            assertEquals(500, City.instances);
+            assertEquals(1, Country.instances);
+        }
+    }
+
+    @Test
+    public void testFailedCommitIsRolledBack() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            france.population = 1;
+            france.cities = new LinkedHashSet<City>() {
+                @Override
+                public Spliterator<City> spliterator() {
+                    throw new IllegalStateException("Unreadable relationship");
+                }
+            };
+            t.save(france, null);
+            t.delete(t.loadObject(Country.class, "jp", Optional.empty(), null), null);
+            t.createObject(new Country("it", "Italy", 60_000_000, 301_340.0, Continent.EUROPE), null);
+            assertThrows(IllegalStateException.class, () -> t.commit(null));
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertNull(t.loadObject(Country.class, "it", Optional.empty(), null));
+            assertEquals("Japan", ((Country) t.loadObject(Country.class, "jp", Optional.empty(), null)).name);
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            assertEquals(67_000_000, france.population);
+            assertTrue(france.cities.isEmpty());
+            assertEquals(Arrays.asList("fr", "ch", "de", "jp", "pe", "xx"), loadIds(t, null, null, null));
+
+            t.createObject(new Country("it", "Italy", 60_000_000, 301_340.0, Continent.EUROPE), null);
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertEquals("Italy", ((Country) t.loadObject(Country.class, "it", Optional.empty(), null)).name);
+        }
+    }
+
+    @Test
+    public void testDeletedRowsAreReused() throws Exception {
+        List<City> cities = new ArrayList<>();
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country peru = (Country) t.loadObject(Country.class, "pe", Optional.empty(), null);
+            for (int idx = 0; idx < 10; idx++) {
+                City city = new City();
+                city.name = "Lima";
+                city.country = peru;
+                peru.cities.add(city);
+                t.createObject(city, null);
+                cities.add(city);
+            }
+            t.save(peru, null);
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            cities.forEach(city -> t.delete(city, null));
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            for (int idx = 0; idx < 10; idx++) {
+                City city = new City();
+                city.name = "Cusco";
+                t.createObject(city, null);
+            }
+            t.commit(null);
+        }
+
+        ColumnarTable table = store.getTable(City.class);
+        assertEquals(10, table.getLiveRows().length());
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country peru = (Country) t.loadObject(Country.class, "pe", Optional.empty(), null);
+            assertTrue(peru.cities.isEmpty());
+            assertEquals(10, names(t.loadObjects(City.class, Optional.empty(), Optional.empty(), Optional.empty(),
+                    null)).stream().filter("Cusco"::equals).count());
+        }
+    }
+
+    @Test
+    public void testRelationshipsAndUpdates() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            for (String name : Arrays.asList("Paris", "Lyon", "Nice")) {
+                City city = new City();
+                city.name = name;
+                city.country = france;
+                france.cities.add(city);
+                t.createObject(city, null);
+            }
+            t.save(france, null);
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            assertEquals(3, france.cities.size());
+            france.cities.forEach(city -> assertSame(france, city.country));
+
+            FilterExpression filter = predicate(City.class, "name", Operator.NOT, "Lyon");
+            Sorting byName = new Sorting(ImmutableMap.of("name", Sorting.SortOrder.asc));
+            Collection<?> cities = (Collection<?>) t.getRelation(t, france, "cities",
+                    Optional.of(filter), Optional.of(byName), Optional.empty(), null);
+            assertEquals(Arrays.asList("Nice", "Paris"), names(cities));
+
+            City paris = france.cities.iterator().next();
+            paris.name = "Lutetia";
+            france.cities.remove(paris);
+            t.save(paris, null);
+            t.delete(paris, null);
+            t.save(france, null);
+            france.population = 68_000_000;
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Country france = (Country) t.loadObject(Country.class, "fr", Optional.empty(), null);
+            assertEquals(68_000_000, france.population);
+            assertEquals(Arrays.asList("Lyon", "Nice"), names(france.cities));
+            assertEquals(Arrays.asList("Lyon", "Nice"),
+                    names(t.loadObjects(City.class, Optional.empty(), Optional.empty(), Optional.empty(), null)));
+        }
+    }
+
+    @Test
+    public void testDuplicateKeyCommitsNothing() throws Exception {
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.createObject(new Country("it", "Italy", 60_000_000, 301_340.0, Continent.EUROPE), null);
+            t.createObject(new Country("fr", "France", 0, null, null), null);
+            assertThrows(TransactionException.class, () -> t.commit(null));
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertNull(t.loadObject(Country.class, "it", Optional.empty(), null));
+            assertEquals("France", ((Country) t.loadObject(Country.class, "fr", Optional.empty(), null)).name);
+        }
+    }
+
+    @Test
+    public void testMutableAttributeTypesAreRejected() {
+        ColumnarDataStore mutable = new ColumnarDataStore(Arrays.asList(Archive.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> mutable.populateEntityDictionary(new EntityDictionary(new HashMap<>())));
+    }
+
+    @Entity
+    @Include
+    public static class Archive {
+        @Id
+        public String id;
+
+        public StringBuilder contents;
+    }
+
+    private FilterExpression predicate(Class<?> type, String field, Operator operator, Object... values) {
+        return new FilterPredicate(new Path(type, dictionary, field), operator, Arrays.asList(values));
+    }
+
+    private static List<String> loadIds(DataStoreTransaction t, FilterExpression filter, Sorting sorting,
+                                        Pagination pagination) {
+        List<String> ids = new ArrayList<>();
+        for (Object country : t.loadObjects(Country.class, Optional.ofNullable(filter), Optional.ofNullable(sorting),
+                Optional.ofNullable(pagination), null)) {
+            ids.add(((Country) country).id);
+        }
+        return ids;
+    }
+
+    private static List<String> names(Iterable<?> cities) {
+        List<String> names = new ArrayList<>();
+        cities.forEach(city -> names.add(((City) city).name));
+        return names;
+    }
+}
@@ -41,8 +41,10 @@ import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.tuple.Triple;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -53,10 +55,13 @@ public class FilterTranslator implements FilterOperation<String> {
 
     private static Map<Operator, JPQLPredicateGenerator> operatorGenerators;
     private static Map<Triple<Operator, Class<?>, String>, JPQLPredicateGenerator> predicateOverrides;
+    private static Set<Operator> customOperators;
 
     static {
         predicateOverrides = new HashMap<>();
 
+        customOperators = new HashSet<>();
+
         operatorGenerators = new HashMap<>();
 
         operatorGenerators.put(IN, new CaseAwareJPQLGenerator(
@@ -196,6 +201,7 @@ public class FilterTranslator implements FilterOperation<String> {
     public static void registerJPQLGenerator(Operator op,
                                              JPQLPredicateGenerator generator) {
         operatorGenerators.put(op, generator);
+        customOperators.add(op);
     }
 
     /**
@@ -234,6 +240,18 @@ public class FilterTranslator implements FilterOperation<String> {
         return operatorGenerators.get(op);
     }
 
+    /**
+     * Returns whether the JPQL of a predicate is generated by a generator registered through
+     * {@link #registerJPQLGenerator} rather than by a built in generator.
+     * @param filterPredicate The predicate
+     * @return true if a registered generator translates the predicate
+     */
+    public static boolean hasCustomGenerator(FilterPredicate filterPredicate) {
+        Path.PathElement last = filterPredicate.getPath().lastElement().get();
+        Operator op = filterPredicate.getOperator();
+        return customOperators.contains(op) || lookupJPQLGenerator(op, last.getType(), last.getFieldName()) != null;
+    }
+
     /**
      * Translates the filterPredicate to JPQL.
      * @param filterPredicate The predicate to translate
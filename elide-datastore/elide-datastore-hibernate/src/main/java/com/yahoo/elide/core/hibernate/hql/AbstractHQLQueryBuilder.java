@@ -8,26 +8,38 @@ package com.yahoo.elide.core.hibernate.hql;
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.Path;
 import com.yahoo.elide.core.RelationshipType;
+import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.FilterPredicate;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
 import com.yahoo.elide.core.hibernate.Query;
 import com.yahoo.elide.core.hibernate.Session;
+import com.yahoo.elide.core.pagination.KeysetCursor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.persistence.Column;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.validation.constraints.NotNull;
+
 /**
  * Abstract class used to construct HQL queries.
  */
@@ -38,6 +50,8 @@ public abstract class AbstractHQLQueryBuilder {
     protected Optional<Sorting> sorting;
     protected Optional<Pagination> pagination;
     protected Optional<FilterExpression> filterExpression;
+    protected Optional<HQLQueryCache> queryCache;
+    protected Optional<Set<String>> sparseFields;
     protected static final String SPACE = " ";
     protected static final String UNDERSCORE = "_";
     protected static final String PERIOD = ".";
@@ -49,6 +63,7 @@ public abstract class AbstractHQLQueryBuilder {
     protected static final String SELECT = "SELECT ";
     protected static final String AS = " AS ";
     protected static final String DISTINCT = "DISTINCT ";
+    protected static final String KEYSET_PARAMETER = "keyset_";
 
     protected static final boolean USE_ALIAS = true;
     protected static final boolean NO_ALIAS = false;
@@ -75,6 +90,8 @@ public abstract class AbstractHQLQueryBuilder {
         sorting = Optional.empty();
         pagination = Optional.empty();
         filterExpression = Optional.empty();
+        queryCache = Optional.empty();
+        sparseFields = Optional.empty();
     }
 
     public abstract Query build();
@@ -94,6 +111,104 @@ public abstract class AbstractHQLQueryBuilder {
         return this;
     }
 
+    /**
+     * Restricts the fields of the queried entities which the client reads.  Lazy to-one relationships outside them
+     * are not fetch joined, so that the entities they reference are only loaded if they are accessed.
+     * @param sparseFields The fields the client reads, or empty if it reads all fields
+     * @return this builder
+     */
+    public AbstractHQLQueryBuilder withPossibleSparseFields(Optional<Set<String>> sparseFields) {
+        this.sparseFields = sparseFields;
+        return this;
+    }
+
+    /**
+     * Reuses the HQL generated for earlier requests of the same shape.  Only builders which generate their HQL
+     * through {@link #buildCachedQuery} use the cache.
+     * @param queryCache The cache
+     * @return this builder
+     */
+    public AbstractHQLQueryBuilder withQueryCache(HQLQueryCache queryCache) {
+        this.queryCache = Optional.of(queryCache);
+        return this;
+    }
+
+    /**
+     * Creates a query and populates its filter parameters.  If a cache is configured, the HQL and the names of the
+     * filter parameters are looked up by the shape of the query and the filter, and only generated on a miss.
+     * @param shape Everything besides the filter which determines the HQL, such as the entity and the sorting
+     * @param queryText Generates the HQL
+     * @return The query with its filter parameters populated
+     */
+    protected Query buildCachedQuery(String shape, Supplier<String> queryText) {
+        List<FilterPredicate> predicates = filterExpression
+                .map(fe -> (List<FilterPredicate>) fe.accept(new PredicateExtractionVisitor(new ArrayList<>())))
+                .orElse(Collections.emptyList());
+
+        Optional<String> key = queryCache.flatMap(unused -> filterExpression
+                .map(HQLQueryCache::getFilterShape)
+                .orElse(Optional.of(""))
+                .map(filterShape -> getClass().getName() + SPACE + shape + SPACE + filterShape));
+
+        HQLQueryCache.CachedQuery cached = key.map(k -> queryCache.get().get(dictionary, k)).orElse(null);
+        if (cached == null) {
+            List<String> parameterNames = predicates.stream()
+                    .filter(predicate -> predicate.getOperator().isParameterized())
+                    .flatMap(predicate -> predicate.getParameters().stream())
+                    .map(FilterPredicate.FilterParameter::getName)
+                    .collect(Collectors.toList());
+            cached = new HQLQueryCache.CachedQuery(queryText.get(), parameterNames);
+            if (key.isPresent()) {
+                queryCache.get().put(dictionary, key.get(), cached);
+            }
+        }
+
+        Query query = session.createQuery(cached.getQueryText());
+
+        //Parameters are bound by position since their names depend on the filter values.
+        int idx = 0;
+        for (FilterPredicate filterPredicate : predicates) {
+            if (filterPredicate.getOperator().isParameterized()) {
+                boolean shouldEscape = filterPredicate.isMatchingOperator();
+                for (FilterPredicate.FilterParameter param : filterPredicate.getParameters()) {
+                    query.setParameter(cached.getParameterNames().get(idx++),
+                            shouldEscape ? param.escapeMatching() : param.getValue());
+                }
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Describes the sorting and pagination of the query, which together with the entity and the filter determine
+     * the HQL.
+     * @param sortClass The class to sort
+     * @return The shape of the sorting and pagination
+     */
+    protected String getSortingAndPaginationShape(Class<?> sortClass) {
+        StringBuilder shape = new StringBuilder("order by");
+        if (sorting.isPresent() && !sorting.get().isDefaultInstance()) {
+            sorting.get().getValidSortingRules(sortClass, dictionary).forEach((path, order) ->
+                    shape.append(SPACE).append(path.getFieldPath()).append(SPACE).append(order));
+        }
+
+        shape.append(" page ").append(pagination
+                .map(page -> page.isKeyset() ? (page.getAfter().isEmpty() ? "first" : "after") : "offset")
+                .orElse("none"));
+        return shape.toString();
+    }
+
+    /**
+     * Describes which relationships are left out of the fetch joins because of the sparse fields.
+     * @param entityClass The queried entity
+     * @return The shape of the sparse fields
+     */
+    protected String getSparseFieldsShape(Class<?> entityClass) {
+        return dictionary.getRelationships(entityClass).stream()
+                .filter(relationshipName -> isUnrequestedLazyRelation(entityClass, relationshipName))
+                .collect(Collectors.joining(COMMA, " unfetched ", ""));
+    }
+
     /**
      * Given a collection of filter predicates and a Hibernate query, populates the named parameters in the
      * Hibernate query.
@@ -200,7 +315,7 @@ public abstract class AbstractHQLQueryBuilder {
         for (String relationshipName : relationshipNames) {
             RelationshipType type = dictionary.getRelationshipType(entityClass, relationshipName);
             if (type.isToOne() && !type.isComputed()) {
-                if (skipRelation.apply(relationshipName)) {
+                if (skipRelation.apply(relationshipName) || isUnrequestedLazyRelation(entityClass, relationshipName)) {
                     continue;
                 }
                 joinString.append(" LEFT JOIN FETCH ");
@@ -213,6 +328,27 @@ public abstract class AbstractHQLQueryBuilder {
         return joinString.toString();
     }
 
+    /**
+     * Whether a relationship is outside the sparse fields and need not be fetched with its entity.  Only lazy
+     * relationships which the entity owns qualify, since the persistence provider loads the others with a query per
+     * entity when they are not fetch joined.
+     */
+    private boolean isUnrequestedLazyRelation(Class<?> entityClass, String relationshipName) {
+        if (!sparseFields.isPresent() || sparseFields.get().contains(relationshipName)) {
+            return false;
+        }
+
+        ManyToOne manyToOne = dictionary.getAttributeOrRelationAnnotation(entityClass, ManyToOne.class,
+                relationshipName);
+        if (manyToOne != null) {
+            return manyToOne.fetch() == FetchType.LAZY;
+        }
+
+        OneToOne oneToOne = dictionary.getAttributeOrRelationAnnotation(entityClass, OneToOne.class,
+                relationshipName);
+        return oneToOne != null && oneToOne.fetch() == FetchType.LAZY && oneToOne.mappedBy().isEmpty();
+    }
+
     /**
      * Returns a sorting object into a HQL ORDER BY string.
      * @param sorting The sorting object passed from the client
@@ -222,28 +358,159 @@ public abstract class AbstractHQLQueryBuilder {
      */
     protected String getSortClause(final Optional<Sorting> sorting, Class<?> sortClass, boolean prefixWithAlias) {
         String sortingRules = "";
+        final List<String> ordering = new ArrayList<>();
+        String prefix = (prefixWithAlias) ? Path.getTypeAlias(sortClass) + PERIOD : "";
         if (sorting.isPresent() && !sorting.get().isDefaultInstance()) {
             final Map<Path, Sorting.SortOrder> validSortingRules = sorting.get().getValidSortingRules(
                     sortClass, dictionary
             );
-            if (!validSortingRules.isEmpty()) {
-                final List<String> ordering = new ArrayList<>();
-                // pass over the sorting rules
-                validSortingRules.entrySet().stream().forEachOrdered(entry -> {
-                        Path path = entry.getKey();
+            // pass over the sorting rules
+            validSortingRules.entrySet().stream().forEachOrdered(entry -> {
+                    Path path = entry.getKey();
+                    if (isKeyset() && isNullable(path)) {
+                        //Comparisons with NULL select nothing, so records with a null sort key would be skipped.
+                        throw new InvalidValueException("Keyset pagination cannot sort by nullable field "
+                                + path.getFieldPath());
+                    }
+
+                    ordering.add(prefix + path.getFieldPath() + SPACE
+                            + (entry.getValue().equals(Sorting.SortOrder.desc) ? "desc" : "asc"));
+                }
+            );
+        }
 
-                        String prefix = (prefixWithAlias) ? Path.getTypeAlias(sortClass) + PERIOD : "";
+        //Keyset pages must be in a total order, so ties are broken by id.
+        String idField = prefix + dictionary.getIdFieldName(sortClass);
+        if (isKeyset() && ordering.stream().noneMatch(rule -> rule.startsWith(idField + SPACE))) {
+            ordering.add(idField + SPACE + "asc");
+        }
 
-                        ordering.add(prefix + path.getFieldPath() + SPACE
-                                + (entry.getValue().equals(Sorting.SortOrder.desc) ? "desc" : "asc"));
-                    }
-                );
-                sortingRules = " order by " + StringUtils.join(ordering, COMMA);
-            }
+        if (!ordering.isEmpty()) {
+            sortingRules = " order by " + StringUtils.join(ordering, COMMA);
         }
         return sortingRules;
     }
 
+    /**
+     * Returns whether any field of a sort path may be null.  Fields are known not to be null when they are
+     * primitive, the id, or declared not null or not optional.
+     * @param path The sort path
+     * @return true if a field of the path may be null
+     */
+    private boolean isNullable(Path path) {
+        return path.getPathElements().stream().anyMatch(element -> {
+            Class<?> entityClass = element.getType();
+            String fieldName = element.getFieldName();
+            if (element.getFieldType().isPrimitive() || fieldName.equals(dictionary.getIdFieldName(entityClass))
+                    || dictionary.getAttributeOrRelationAnnotation(entityClass, NotNull.class, fieldName) != null) {
+                return false;
+            }
+
+            Column column = dictionary.getAttributeOrRelationAnnotation(entityClass, Column.class, fieldName);
+            JoinColumn joinColumn = dictionary.getAttributeOrRelationAnnotation(entityClass, JoinColumn.class,
+                    fieldName);
+            ManyToOne manyToOne = dictionary.getAttributeOrRelationAnnotation(entityClass, ManyToOne.class,
+                    fieldName);
+            OneToOne oneToOne = dictionary.getAttributeOrRelationAnnotation(entityClass, OneToOne.class, fieldName);
+            return (column == null || column.nullable())
+                    && (joinColumn == null || joinColumn.nullable())
+                    && (manyToOne == null || manyToOne.optional())
+                    && (oneToOne == null || oneToOne.optional());
+        });
+    }
+
+    /**
+     * Returns whether the requested page starts after a keyset cursor rather than at an offset.
+     * @return true for keyset pagination
+     */
+    protected boolean isKeyset() {
+        return pagination.isPresent() && pagination.get().isKeyset();
+    }
+
+    /**
+     * Builds the predicate which selects the records sorted after the keyset cursor of the requested page.  For sort
+     * keys (a, b) followed by the id, the predicate is {@code a > :a OR (a = :a AND b > :b) OR (a = :a AND b = :b
+     * AND id > :id)}, comparing descending keys with less than.
+     * @param sortClass The class to sort
+     * @param prefixWithAlias Whether the fields should be prefixed by an alias.
+     * @return The parenthesized predicate or an empty string if the page does not start after a cursor
+     */
+    protected String getKeysetPredicate(Class<?> sortClass, boolean prefixWithAlias) {
+        List<String> values = getKeysetValues();
+        if (values.isEmpty()) {
+            return "";
+        }
+
+        String prefix = (prefixWithAlias) ? Path.getTypeAlias(sortClass) + PERIOD : "";
+        List<Pair<String, Sorting.SortOrder>> keys = getKeysetKeys(sortClass).stream()
+                .map(key -> Pair.of(prefix + key.getLeft().getFieldPath(), key.getRight()))
+                .collect(Collectors.toList());
+
+        List<String> alternatives = new ArrayList<>();
+        for (int idx = 0; idx < keys.size(); idx++) {
+            List<String> terms = new ArrayList<>();
+            for (int equalIdx = 0; equalIdx < idx; equalIdx++) {
+                terms.add(keys.get(equalIdx).getLeft() + " = :" + KEYSET_PARAMETER + equalIdx);
+            }
+            String comparison = keys.get(idx).getRight() == Sorting.SortOrder.desc ? " < :" : " > :";
+            terms.add(keys.get(idx).getLeft() + comparison + KEYSET_PARAMETER + idx);
+            alternatives.add("(" + StringUtils.join(terms, " AND ") + ")");
+        }
+        return "(" + StringUtils.join(alternatives, " OR ") + ")";
+    }
+
+    /**
+     * Populates the named parameters of the keyset predicate with the values of the cursor.
+     * @param query The HQL query
+     * @param sortClass The class to sort
+     */
+    protected void supplyKeysetQueryParameters(Query query, Class<?> sortClass) {
+        List<String> values = getKeysetValues();
+        if (values.isEmpty()) {
+            return;
+        }
+
+        List<Pair<Path, Sorting.SortOrder>> keys = getKeysetKeys(sortClass);
+        for (int idx = 0; idx < keys.size(); idx++) {
+            Class<?> type = keys.get(idx).getLeft().lastElement().get().getFieldType();
+            query.setParameter(KEYSET_PARAMETER + idx, KeysetCursor.coerce(values.get(idx), type));
+        }
+    }
+
+    /**
+     * Returns the sort keys of a keyset page, which end with the id.
+     */
+    private List<Pair<Path, Sorting.SortOrder>> getKeysetKeys(Class<?> sortClass) {
+        List<Pair<Path, Sorting.SortOrder>> keys = new ArrayList<>();
+        if (sorting.isPresent() && !sorting.get().isDefaultInstance()) {
+            sorting.get().getValidSortingRules(sortClass, dictionary)
+                    .forEach((path, order) -> keys.add(Pair.of(path, order)));
+        }
+        keys.add(Pair.of(new Path(sortClass, dictionary, dictionary.getIdFieldName(sortClass)),
+                Sorting.SortOrder.asc));
+
+        if (keys.size() != getKeysetValues().size()) {
+            throw new InvalidValueException("Pagination cursor does not match the requested sort");
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the decoded values of the keyset cursor, or an empty list for the first page.
+     */
+    private List<String> getKeysetValues() {
+        if (!isKeyset() || pagination.get().getAfter().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> values = KeysetCursor.decode(pagination.get().getAfter());
+        if (values.contains(null)) {
+            //Comparisons with NULL select nothing, so a page cannot start after a null sort key.
+            throw new InvalidValueException("Cannot paginate after a null sort value");
+        }
+        return values;
+    }
+
     /**
      * Returns whether filter expression contains toMany relationship
      * @param filterExpression
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.hibernate.hql;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.FilterTranslator;
+import com.yahoo.elide.core.filter.expression.AndFilterExpression;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.FilterExpressionVisitor;
+import com.yahoo.elide.core.filter.expression.NotFilterExpression;
+import com.yahoo.elide.core.filter.expression.OrFilterExpression;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.commons.lang3.tuple.Pair;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caches the HQL generated by query builders by the shape of the request: the entity, the structure of the filter
+ * without its values, the sort rules and the kind of pagination.  Requests of the same shape differ only in the values
+ * bound to the query parameters, so they reuse the HQL and the names of its parameters rather than translating the
+ * filter again.
+ * <p>
+ * Filters translated by a generator registered through {@link FilterTranslator#registerJPQLGenerator} are never
+ * cached, since such generators may depend on the filter values.
+ */
+public class HQLQueryCache {
+    public static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static volatile HQLQueryCache sharedInstance = new HQLQueryCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final Cache<Pair<EntityDictionary, String>, CachedQuery> queries;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of queries held
+     */
+    public HQLQueryCache(long maximumSize) {
+        this.queries = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The cache shared by the transactions of the Hibernate and JPA data stores.
+     *
+     * @return the shared cache
+     */
+    public static HQLQueryCache getSharedInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * Replaces the cache shared by the transactions of the Hibernate and JPA data stores, for example to change its
+     * size.  A cache with a maximum size of 0 holds nothing.
+     *
+     * @param cache the shared cache
+     */
+    public static void setSharedInstance(HQLQueryCache cache) {
+        sharedInstance = cache;
+    }
+
+    /**
+     * Evicts every cached query.
+     */
+    public void invalidateAll() {
+        queries.invalidateAll();
+    }
+
+    /**
+     * Hit, miss and eviction counts since the cache was created.  The hit rate is the fraction of queries built
+     * without generating their HQL.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return queries.stats();
+    }
+
+    CachedQuery get(EntityDictionary dictionary, String shape) {
+        return queries.getIfPresent(Pair.of(dictionary, shape));
+    }
+
+    void put(EntityDictionary dictionary, String shape, CachedQuery query) {
+        queries.put(Pair.of(dictionary, shape), query);
+    }
+
+    /**
+     * Describes the structure of a filter without its values.  Predicates are described by their path, operator and
+     * number of values, and by which earlier predicate they are equal to, since equal predicates share parameters.
+     *
+     * @param filterExpression the filter
+     * @return the shape of the filter, or empty if the HQL of the filter cannot be cached
+     */
+    static Optional<String> getFilterShape(FilterExpression filterExpression) {
+        FilterShapeVisitor visitor = new FilterShapeVisitor();
+        String shape = filterExpression.accept(visitor);
+        return visitor.cacheable ? Optional.of(shape) : Optional.empty();
+    }
+
+    /**
+     * The HQL of a query and the names of its filter parameters, in the order the predicates appear in the filter.
+     */
+    @Value
+    static class CachedQuery {
+        private String queryText;
+        private List<String> parameterNames;
+    }
+
+    /**
+     * Builds the shape of a filter.
+     */
+    private static class FilterShapeVisitor implements FilterExpressionVisitor<String> {
+        private final List<FilterPredicate> predicates = new ArrayList<>();
+        private boolean cacheable = true;
+
+        @Override
+        public String visitPredicate(FilterPredicate filterPredicate) {
+            if (FilterTranslator.hasCustomGenerator(filterPredicate)) {
+                cacheable = false;
+            }
+
+            StringBuilder shape = new StringBuilder();
+            for (Path.PathElement element : filterPredicate.getPath().getPathElements()) {
+                shape.append(element.getType().getName()).append('.').append(element.getFieldName()).append('/');
+            }
+            shape.append(filterPredicate.getOperator()).append('[').append(filterPredicate.getValues().size())
+                    .append(']');
+
+            int equalTo = predicates.indexOf(filterPredicate);
+            if (equalTo >= 0) {
+                shape.append('=').append(equalTo);
+            }
+            predicates.add(filterPredicate);
+            return shape.toString();
+        }
+
+        @Override
+        public String visitAndExpression(AndFilterExpression expression) {
+            return "(" + expression.getLeft().accept(this) + " AND " + expression.getRight().accept(this) + ")";
+        }
+
+        @Override
+        public String visitOrExpression(OrFilterExpression expression) {
+            return "(" + expression.getLeft().accept(this) + " OR " + expression.getRight().accept(this) + ")";
+        }
+
+        @Override
+        public String visitNotExpression(NotFilterExpression expression) {
+            return "NOT (" + expression.getNegated().accept(this) + ")";
+        }
+    }
+}
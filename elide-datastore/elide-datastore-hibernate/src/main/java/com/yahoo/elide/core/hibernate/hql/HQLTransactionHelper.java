@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.hibernate.hql;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.PersistentResource;
+import com.yahoo.elide.core.RequestScope;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
+import com.yahoo.elide.core.hibernate.Query;
+import com.yahoo.elide.core.hibernate.Session;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
+
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Transaction logic shared by the data stores which read through the HQL query builders.
+ */
+public class HQLTransactionHelper {
+    /* The number of parents whose relationship is loaded by a single query. */
+    private static final int RELATION_BATCH_SIZE = 500;
+
+    private final Session session;
+    private final Function<Query, List<?>> list;
+    private final Predicate<Object> isPersistentCollection;
+
+    /**
+     * Constructor.
+     *
+     * @param session the session which creates queries
+     * @param list runs a query built by the session and returns its results
+     * @param isPersistentCollection whether a relationship value is a collection managed by the persistence provider
+     */
+    public HQLTransactionHelper(Session session, Function<Query, List<?>> list,
+                                Predicate<Object> isPersistentCollection) {
+        this.session = session;
+        this.list = list;
+        this.isPersistentCollection = isPersistentCollection;
+    }
+
+    /**
+     * Loads a relationship of several entities.  The relationships which are not loaded yet, or which must be
+     * filtered or sorted, are read with one query per batch of entities of the same type rather than one query per
+     * entity.
+     *
+     * @param entities the entities
+     * @param relationName the relationship
+     * @param filterExpression an optional filter of the relationship
+     * @param sorting an optional sorting of the relationship
+     * @param scope the request scope
+     * @param isLoaded whether the persistent collection of an entity, passed with the entity, is loaded
+     * @param getRelation loads the relationship of a single entity
+     * @return the relationship of every entity, by entity identity
+     */
+    public Map<Object, Object> getRelations(Collection<?> entities,
+                                            String relationName,
+                                            Optional<FilterExpression> filterExpression,
+                                            Optional<Sorting> sorting,
+                                            RequestScope scope,
+                                            BiPredicate<Object, Object> isLoaded,
+                                            Function<Object, Object> getRelation) {
+        EntityDictionary dictionary = scope.getDictionary();
+        Map<Object, Object> relations = new IdentityHashMap<>();
+
+        getBatches(entities, relationName, filterExpression.isPresent() || sorting.isPresent(), scope, isLoaded,
+                getRelation, relations).forEach((parentClass, parents) -> {
+            Class<?> relationClass = dictionary.getParameterizedType(parentClass, relationName);
+            for (List<Object> chunk : Lists.partition(parents, RELATION_BATCH_SIZE)) {
+                Query query = new SubCollectionBatchFetchQueryBuilder(parentClass, relationClass, relationName,
+                        chunk, dictionary, session)
+                        .withPossibleFilterExpression(filterExpression)
+                        .withPossibleSorting(sorting)
+                        .build();
+
+                Map<String, List<Object>> children = new HashMap<>();
+                for (Object row : list.apply(query)) {
+                    Object[] columns = (Object[]) row;
+                    children.computeIfAbsent(dictionary.getId(columns[0]), k -> new ArrayList<>()).add(columns[1]);
+                }
+
+                for (Object entity : chunk) {
+                    relations.put(entity, children.getOrDefault(dictionary.getId(entity), new ArrayList<>()));
+                }
+            }
+        });
+
+        return relations;
+    }
+
+    /**
+     * Reads the identifiers of the members of a relationship of several entities.  The relationships which are not
+     * loaded yet, or which must be filtered, are read with one query per batch of entities of the same type rather
+     * than one query per entity.
+     *
+     * @param entities the entities
+     * @param relationName the relationship
+     * @param filterExpression an optional filter of the relationship
+     * @param scope the request scope
+     * @param isLoaded whether the persistent collection of an entity, passed with the entity, is loaded
+     * @param getRelationIdentifiers reads the identifiers of the relationship of a single entity
+     * @return the identifiers of the relationship of every entity, by entity identity
+     */
+    public Map<Object, Collection<String>> getRelationsIdentifiers(Collection<?> entities,
+                                                                   String relationName,
+                                                                   Optional<FilterExpression> filterExpression,
+                                                                   RequestScope scope,
+                                                                   BiPredicate<Object, Object> isLoaded,
+                                                                   Function<Object, Collection<String>>
+                                                                           getRelationIdentifiers) {
+        EntityDictionary dictionary = scope.getDictionary();
+        Map<Object, Collection<String>> identifiers = new IdentityHashMap<>();
+
+        getBatches(entities, relationName, filterExpression.isPresent(), scope, isLoaded, getRelationIdentifiers,
+                identifiers).forEach((parentClass, parents) -> {
+            Class<?> relationClass = dictionary.getParameterizedType(parentClass, relationName);
+            for (List<Object> chunk : Lists.partition(parents, RELATION_BATCH_SIZE)) {
+                Query query = new SubCollectionBatchIdentifierQueryBuilder(parentClass, relationClass, relationName,
+                        chunk, dictionary, session)
+                        .withPossibleFilterExpression(filterExpression)
+                        .build();
+
+                Map<String, List<String>> children = new HashMap<>();
+                for (Object row : list.apply(query)) {
+                    Object[] columns = (Object[]) row;
+                    children.computeIfAbsent(String.valueOf(columns[0]), k -> new ArrayList<>())
+                            .add(String.valueOf(columns[1]));
+                }
+
+                for (Object entity : chunk) {
+                    identifiers.put(entity, children.getOrDefault(dictionary.getId(entity), new ArrayList<>()));
+                }
+            }
+        });
+
+        return identifiers;
+    }
+
+    /**
+     * Groups the entities whose relationship must be read with a query by type.  The relationship of the others,
+     * which are already loaded and need no filtering or sorting, and of types with a single entity, is read
+     * entity by entity.
+     *
+     * @param entities the entities
+     * @param relationName the relationship
+     * @param filtered whether the relationship is filtered or sorted
+     * @param scope the request scope
+     * @param isLoaded whether the persistent collection of an entity, passed with the entity, is loaded
+     * @param read reads the relationship of a single entity
+     * @param results the results of the entities whose relationship is read entity by entity
+     * @param <V> the type of the results
+     * @return the entities to read with a query, by type
+     */
+    private <V> Map<Class<?>, List<Object>> getBatches(Collection<?> entities,
+                                                       String relationName,
+                                                       boolean filtered,
+                                                       RequestScope scope,
+                                                       BiPredicate<Object, Object> isLoaded,
+                                                       Function<Object, V> read,
+                                                       Map<Object, V> results) {
+        EntityDictionary dictionary = scope.getDictionary();
+        Map<Class<?>, List<Object>> batches = new LinkedHashMap<>();
+
+        for (Object entity : entities) {
+            Object val = PersistentResource.getValue(entity, relationName, scope);
+
+            /*
+             * Collections which are already loaded and need no filtering or sorting are read as they are.
+             * The others would each require their own query.
+             */
+            if (isPersistentCollection.test(val) && (filtered || !isLoaded.test(entity, val))) {
+                batches.computeIfAbsent(dictionary.lookupEntityClass(entity.getClass()), k -> new ArrayList<>())
+                        .add(entity);
+            } else {
+                results.put(entity, read.apply(entity));
+            }
+        }
+
+        batches.values().removeIf(parents -> {
+            if (parents.size() == 1) {
+                Object entity = parents.get(0);
+                results.put(entity, read.apply(entity));
+                return true;
+            }
+            return false;
+        });
+        return batches;
+    }
+
+    /**
+     * Returns the number of records of a collection when a page of it shows where the collection ends: a page read
+     * into a list which is shorter than its limit is the last page.
+     *
+     * @param pagination the pagination of the page
+     * @param page the records of the page
+     * @return the total row count, or empty if it must be counted
+     */
+    public static Optional<Long> getTotalsFromPage(Pagination pagination, Iterable<?> page) {
+        if (pagination.isKeyset() || !(page instanceof Collection)) {
+            return Optional.empty();
+        }
+
+        int size = ((Collection<?>) page).size();
+
+        //An empty page past the end of the collection does not show where the collection ends.
+        if (size >= pagination.getLimit() || (size == 0 && pagination.getOffset() > 0)) {
+            return Optional.empty();
+        }
+        return Optional.of((long) pagination.getOffset() + size);
+    }
+
+    /**
+     * Whether a filter goes through a to-many relationship, whose joins may repeat the filtered records.
+     *
+     * @param dictionary the entity dictionary
+     * @param filterExpression an optional filter
+     * @return true if any predicate of the filter has a to-many relationship in its path
+     */
+    public static boolean joinsToMany(EntityDictionary dictionary, Optional<FilterExpression> filterExpression) {
+        return filterExpression
+                .map(fe -> fe.accept(new PredicateExtractionVisitor()).stream()
+                        .anyMatch(predicate -> FilterPredicate.toManyInPath(dictionary, predicate.getPath())))
+                .orElse(false);
+    }
+
+    /**
+     * Returns the sparse fieldset of a type, which limits the relationships fetched with its collections.
+     *
+     * @param sparseFieldsProjection whether relationships outside the sparse fieldsets are left out
+     * @param entityClass the entity type
+     * @param scope the request scope
+     * @return the sparse fieldset, or empty if every relationship is fetched
+     */
+    public static Optional<Set<String>> getSparseFields(boolean sparseFieldsProjection, Class<?> entityClass,
+                                                        RequestScope scope) {
+        return sparseFieldsProjection ? scope.getSparseFields(entityClass) : Optional.empty();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.hibernate.hql;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the page totals of collections for a short time, so that paging through a collection counts its records
+ * once rather than once per page.  Totals are keyed by the counted collection and the filter, which includes the
+ * security filters of the user.
+ * <p>
+ * Totals are evicted when a transaction using the cache commits a write to the type of the collection, to the type
+ * of its parent, or to any type on the paths of its filter.  Writes made elsewhere are only reflected once the
+ * totals expire.
+ * <p>
+ * Every invalidation is stamped with the next value of a clock, which is recorded against the written type.  A
+ * total is only cached if none of its types was written since the transaction which counted it began, as that
+ * transaction may read a snapshot which predates the write.
+ */
+public class PageTotalsCache {
+    private final Cache<Key, Long> totals;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    /* The clock value of the latest invalidation of each written type. */
+    private final Map<Class<?>, Long> invalidated = new ConcurrentHashMap<>();
+
+    /* The clock value of the latest invalidation of every type. */
+    private volatile long allInvalidated;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of totals held
+     * @param ttl how long totals are held after they are counted
+     * @param unit the unit of the ttl
+     */
+    public PageTotalsCache(long maximumSize, long ttl, TimeUnit unit) {
+        this(maximumSize, ttl, unit, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of totals held
+     * @param ttl how long totals are held after they are counted
+     * @param unit the unit of the ttl
+     * @param ticker the time source used to expire totals
+     */
+    public PageTotalsCache(long maximumSize, long ttl, TimeUnit unit, Ticker ticker) {
+        this.totals = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl, unit)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The current value of the invalidation clock, to be read when a transaction begins and passed to
+     * {@code getTotals} for every total the transaction counts.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return clock.get();
+    }
+
+    /**
+     * Returns the cached number of records of a root collection, counting and caching it if absent.
+     *
+     * @param entityClass the entity type
+     * @param filterExpression the filter of the collection
+     * @param beginVersion the version of the cache when the counting transaction began
+     * @param count counts the records
+     * @return the number of records
+     */
+    public Long getTotals(Class<?> entityClass, Optional<FilterExpression> filterExpression, long beginVersion,
+                          Supplier<Long> count) {
+        return getTotals(Key.of(entityClass, null, null, null, filterExpression.orElse(null)), beginVersion, count);
+    }
+
+    /**
+     * Returns the cached number of records of a relationship, counting and caching it if absent.
+     *
+     * @param relationship the relationship
+     * @param dictionary the entity dictionary
+     * @param filterExpression the filter of the relationship
+     * @param beginVersion the version of the cache when the counting transaction began
+     * @param count counts the records
+     * @return the number of records
+     */
+    public Long getTotals(AbstractHQLQueryBuilder.Relationship relationship, EntityDictionary dictionary,
+                          Optional<FilterExpression> filterExpression, long beginVersion, Supplier<Long> count) {
+        Key key = Key.of(relationship.getChildType(), relationship.getParentType(),
+                dictionary.getId(relationship.getParent()), relationship.getRelationshipName(),
+                filterExpression.orElse(null));
+        return getTotals(key, beginVersion, count);
+    }
+
+    private Long getTotals(Key key, long beginVersion, Supplier<Long> count) {
+        /* Totals are not counted through the cache loader so that exceptions propagate unwrapped */
+        Long result = totals.getIfPresent(key);
+        if (result != null) {
+            return result;
+        }
+
+        result = count.get();
+        if (isInvalidatedSince(key, beginVersion)) {
+            return result;
+        }
+        totals.put(key, result);
+
+        //An invalidation which ran while the total was put may have missed it.
+        if (isInvalidatedSince(key, beginVersion)) {
+            totals.invalidate(key);
+        }
+        return result;
+    }
+
+    private boolean isInvalidatedSince(Key key, long version) {
+        return allInvalidated > version || invalidated.entrySet().stream()
+                .anyMatch(written -> written.getValue() > version && key.isAffectedBy(written.getKey()));
+    }
+
+    /**
+     * Evicts the totals of every collection and relationship whose type, parent type or filter paths include a type.
+     *
+     * @param type the type which was written
+     */
+    public void invalidate(Class<?> type) {
+        long version = clock.incrementAndGet();
+        invalidated.merge(type, version, Math::max);
+        totals.asMap().keySet().removeIf(key -> key.isAffectedBy(type));
+    }
+
+    /**
+     * Evicts every cached total.
+     */
+    public void invalidateAll() {
+        allInvalidated = clock.incrementAndGet();
+        totals.invalidateAll();
+    }
+
+    /**
+     * Hit, miss and eviction counts since the cache was created.  Each hit is a count query which was not run.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return totals.stats();
+    }
+
+    /**
+     * Identifies a counted collection.  The parent fields are null for root collections.
+     */
+    @Value
+    private static class Key {
+        private Class<?> type;
+        private Class<?> parentType;
+        private String parentId;
+        private String relationshipName;
+        private FilterExpression filterExpression;
+
+        /* The types whose writes may change the total, which follow from the other fields. */
+        @EqualsAndHashCode.Exclude
+        private Set<Class<?>> types;
+
+        static Key of(Class<?> type, Class<?> parentType, String parentId, String relationshipName,
+                      FilterExpression filterExpression) {
+            Set<Class<?>> types = new HashSet<>();
+            types.add(type);
+            if (parentType != null) {
+                types.add(parentType);
+            }
+            if (filterExpression != null) {
+                for (FilterPredicate predicate : filterExpression.accept(new PredicateExtractionVisitor())) {
+                    for (Path.PathElement element : predicate.getPath().getPathElements()) {
+                        types.add(element.getType());
+                        types.add(element.getFieldType());
+                    }
+                }
+            }
+            return new Key(type, parentType, parentId, relationshipName, filterExpression, types);
+        }
+
+        boolean isAffectedBy(Class<?> written) {
+            return types.stream().anyMatch(affected -> affected.isAssignableFrom(written));
+        }
+    }
+}
@@ -9,12 +9,9 @@ import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.exceptions.InvalidValueException;
 import com.yahoo.elide.core.filter.FilterPredicate;
 import com.yahoo.elide.core.filter.FilterTranslator;
-import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
 import com.yahoo.elide.core.hibernate.Query;
 import com.yahoo.elide.core.hibernate.Session;
 
-import java.util.Collection;
-
 /**
  * Constructs a HQL query to fetch a root collection.
  */
@@ -36,14 +33,21 @@ public class RootCollectionFetchQueryBuilder extends AbstractHQLQueryBuilder {
      */
     @Override
     public Query build() {
+        Query query = buildCachedQuery(entityClass.getName() + SPACE + getSortingAndPaginationShape(entityClass)
+                + getSparseFieldsShape(entityClass), this::getQueryText);
+
+        supplyKeysetQueryParameters(query, entityClass);
+        addPaginationToQuery(query);
+        return query;
+    }
+
+    private String getQueryText() {
         String entityName = entityClass.getCanonicalName();
         String entityAlias = FilterPredicate.getTypeAlias(entityClass);
 
-        Query query;
-        if (filterExpression.isPresent()) {
-            PredicateExtractionVisitor extractor = new PredicateExtractionVisitor();
-            Collection<FilterPredicate> predicates = filterExpression.get().accept(extractor);
+        String keysetPredicate = getKeysetPredicate(entityClass, USE_ALIAS);
 
+        if (filterExpression.isPresent()) {
             //Build the WHERE clause
             String filterClause = new FilterTranslator().apply(filterExpression.get(), USE_ALIAS);
 
@@ -61,38 +65,31 @@ public class RootCollectionFetchQueryBuilder extends AbstractHQLQueryBuilder {
                 throw new InvalidValueException("Combination of pagination, sorting over relationship and"
                     + " filtering over toMany relationships unsupported");
             }
-            query = session.createQuery(
-                    SELECT
-                        + (requiresDistinct ? DISTINCT : "")
-                        + entityAlias
-                        + FROM
-                        + entityName
-                        + AS
-                        + entityAlias
-                        + SPACE
-                        + joinClause
-                        + SPACE
-                        + filterClause
-                        + SPACE
-                        + getSortClause(sorting, entityClass, USE_ALIAS)
-            );
-
-            //Fill in the query parameters
-            supplyFilterQueryParameters(query, predicates);
-        } else {
-            query = session.createQuery(SELECT
+            return SELECT
+                    + (requiresDistinct ? DISTINCT : "")
                     + entityAlias
                     + FROM
                     + entityName
                     + AS
                     + entityAlias
                     + SPACE
-                    + extractToOneMergeJoins(entityClass, entityAlias)
+                    + joinClause
+                    + SPACE
+                    + filterClause
+                    + (keysetPredicate.isEmpty() ? "" : " AND " + keysetPredicate)
                     + SPACE
-                    + getSortClause(sorting, entityClass, USE_ALIAS));
+                    + getSortClause(sorting, entityClass, USE_ALIAS);
         }
-
-        addPaginationToQuery(query);
-        return query;
+        return SELECT
+                + entityAlias
+                + FROM
+                + entityName
+                + AS
+                + entityAlias
+                + SPACE
+                + extractToOneMergeJoins(entityClass, entityAlias)
+                + SPACE
+                + (keysetPredicate.isEmpty() ? "" : "WHERE " + keysetPredicate)
+                + getSortClause(sorting, entityClass, USE_ALIAS);
     }
 }
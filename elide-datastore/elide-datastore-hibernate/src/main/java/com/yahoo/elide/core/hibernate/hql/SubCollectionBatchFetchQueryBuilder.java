@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.hibernate.hql;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.FilterTranslator;
+import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
+import com.yahoo.elide.core.hibernate.Query;
+import com.yahoo.elide.core.hibernate.Session;
+import com.yahoo.elide.core.pagination.Pagination;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Constructs a HQL query to fetch the members of a relationship of several parents at once.
+ * <p>
+ * The query returns rows pairing a parent with one of its children, so the members of the relationship of every
+ * parent are read with a single query rather than one query per parent.
+ */
+public class SubCollectionBatchFetchQueryBuilder extends AbstractHQLQueryBuilder {
+
+    private final Class<?> parentType;
+    private final Class<?> childType;
+    private final String relationshipName;
+    private final Collection<?> parents;
+
+    public SubCollectionBatchFetchQueryBuilder(Class<?> parentType,
+                                               Class<?> childType,
+                                               String relationshipName,
+                                               Collection<?> parents,
+                                               EntityDictionary dictionary,
+                                               Session session) {
+        super(dictionary, session);
+        this.parentType = parentType;
+        this.childType = childType;
+        this.relationshipName = relationshipName;
+        this.parents = parents;
+    }
+
+    @Override
+    public AbstractHQLQueryBuilder withPossiblePagination(Optional<Pagination> ignored) {
+        //A page of each parent's relationship cannot be selected by a single query.
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String extractToOneMergeJoins(Class<?> entityClass, String alias) {
+        Function<String, Boolean> shouldSkip = (relationshipName) -> {
+            String inverseRelationName = dictionary.getRelationInverse(entityClass, relationshipName);
+            if (inverseRelationName.isEmpty()) {
+                return false;
+            }
+
+            Class<?> relationshipClass = dictionary.getParameterizedType(entityClass, relationshipName);
+
+            //The parent is already selected.
+            return relationshipClass.equals(parentType) && inverseRelationName.equals(this.relationshipName);
+        };
+
+        return extractToOneMergeJoins(entityClass, alias, shouldSkip);
+    }
+
+    /**
+     * Constructs a query that returns the members of a relationship of several parents.
+     *
+     * For a relationship like author.books, constructs a query like:
+     *
+     * SELECT example_Author__fetch, example_Book
+     * FROM example.Author example_Author__fetch JOIN example_Author__fetch.books example_Book
+     * WHERE example_Author__fetch IN (:example_Author__fetch)
+     *
+     * @return the constructed query
+     */
+    @Override
+    public Query build() {
+        String childAlias = FilterPredicate.getTypeAlias(childType);
+        String parentAlias = FilterPredicate.getTypeAlias(parentType) + "__fetch";
+        String parentName = parentType.getCanonicalName();
+        String parentClause = parentAlias + " IN (:" + parentAlias + ")";
+
+        String selectClause = SELECT
+                + parentAlias + COMMA + SPACE + childAlias
+                + FROM
+                + parentName + SPACE + parentAlias
+                + JOIN
+                + parentAlias + PERIOD + relationshipName + SPACE + childAlias;
+
+        Query query = filterExpression.map(fe -> {
+            Collection<FilterPredicate> predicates = fe.accept(new PredicateExtractionVisitor());
+            String filterClause = new FilterTranslator().apply(fe, USE_ALIAS);
+
+            Query q = session.createQuery(selectClause
+                    + getJoinClauseFromFilters(fe)
+                    + extractToOneMergeJoins(childType, childAlias)
+                    + SPACE
+                    + filterClause
+                    + " AND " + parentClause
+                    + getSortClause(sorting, childType, USE_ALIAS));
+
+            supplyFilterQueryParameters(q, predicates);
+            return q;
+        }).orElseGet(() -> session.createQuery(selectClause
+                + extractToOneMergeJoins(childType, childAlias)
+                + " WHERE " + parentClause
+                + getSortClause(sorting, childType, USE_ALIAS)));
+
+        query.setParameterList(parentAlias, parents);
+        return query;
+    }
+}
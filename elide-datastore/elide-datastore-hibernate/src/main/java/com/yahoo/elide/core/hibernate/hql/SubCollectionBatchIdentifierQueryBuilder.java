@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.hibernate.hql;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.FilterTranslator;
+import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
+import com.yahoo.elide.core.hibernate.Query;
+import com.yahoo.elide.core.hibernate.Session;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Constructs a HQL query to fetch the identifiers of the members of a relationship of several parents at once,
+ * without loading the members themselves.
+ * <p>
+ * The query returns rows pairing the identifier of a parent with the identifier of one of its children.
+ */
+public class SubCollectionBatchIdentifierQueryBuilder extends AbstractHQLQueryBuilder {
+
+    private final Class<?> parentType;
+    private final Class<?> childType;
+    private final String relationshipName;
+    private final Collection<?> parents;
+
+    public SubCollectionBatchIdentifierQueryBuilder(Class<?> parentType,
+                                                    Class<?> childType,
+                                                    String relationshipName,
+                                                    Collection<?> parents,
+                                                    EntityDictionary dictionary,
+                                                    Session session) {
+        super(dictionary, session);
+        this.parentType = parentType;
+        this.childType = childType;
+        this.relationshipName = relationshipName;
+        this.parents = parents;
+    }
+
+    @Override
+    public AbstractHQLQueryBuilder withPossiblePagination(Optional<Pagination> ignored) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AbstractHQLQueryBuilder withPossibleSorting(Optional<Sorting> ignored) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Constructs a query that returns the identifiers of the members of a relationship of several parents.
+     *
+     * For a relationship like author.books, constructs a query like:
+     *
+     * SELECT DISTINCT example_Author__fetch.id, example_Book.id
+     * FROM example.Author example_Author__fetch JOIN example_Author__fetch.books example_Book
+     * WHERE example_Author__fetch IN (:example_Author__fetch)
+     *
+     * @return the constructed query
+     */
+    @Override
+    public Query build() {
+        String childAlias = FilterPredicate.getTypeAlias(childType);
+        String parentAlias = FilterPredicate.getTypeAlias(parentType) + "__fetch";
+        String parentName = parentType.getCanonicalName();
+        String parentClause = parentAlias + " IN (:" + parentAlias + ")";
+
+        String selectClause = SELECT + DISTINCT
+                + parentAlias + PERIOD + dictionary.getIdFieldName(parentType) + COMMA + SPACE
+                + childAlias + PERIOD + dictionary.getIdFieldName(childType)
+                + FROM
+                + parentName + SPACE + parentAlias
+                + JOIN
+                + parentAlias + PERIOD + relationshipName + SPACE + childAlias;
+
+        Query query = filterExpression.map(fe -> {
+            Collection<FilterPredicate> predicates = fe.accept(new PredicateExtractionVisitor());
+            String filterClause = new FilterTranslator().apply(fe, USE_ALIAS);
+
+            Query q = session.createQuery(selectClause
+                    + getJoinClauseFromFilters(fe)
+                    + SPACE
+                    + filterClause
+                    + " AND " + parentClause);
+
+            supplyFilterQueryParameters(q, predicates);
+            return q;
+        }).orElseGet(() -> session.createQuery(selectClause
+                + " WHERE " + parentClause));
+
+        query.setParameterList(parentAlias, parents);
+        return query;
+    }
+}
@@ -65,6 +65,8 @@ public class SubCollectionFetchQueryBuilder extends AbstractHQLQueryBuilder {
         String parentAlias = FilterPredicate.getTypeAlias(relationship.getParentType()) + "__fetch";
         String parentName = relationship.getParentType().getCanonicalName();
         String relationshipName = relationship.getRelationshipName();
+        String keysetPredicate = getKeysetPredicate(relationship.getChildType(), USE_ALIAS);
+        String keysetClause = keysetPredicate.isEmpty() ? "" : " AND " + keysetPredicate;
 
         Query query = filterExpression.map(fe -> {
             PredicateExtractionVisitor extractor = new PredicateExtractionVisitor();
@@ -85,6 +87,7 @@ public class SubCollectionFetchQueryBuilder extends AbstractHQLQueryBuilder {
                             + SPACE
                             + filterClause
                             + " AND " + parentAlias + "=:" + parentAlias
+                            + keysetClause
                             + SPACE
                             + getSortClause(sorting, relationship.getChildType(), USE_ALIAS)
             );
@@ -99,10 +102,12 @@ public class SubCollectionFetchQueryBuilder extends AbstractHQLQueryBuilder {
                             + parentAlias + PERIOD + relationshipName + SPACE + childAlias
                             + extractToOneMergeJoins(relationship.getChildType(), childAlias)
                             + " WHERE " + parentAlias + "=:" + parentAlias
+                            + keysetClause
                             + getSortClause(sorting, relationship.getChildType(), USE_ALIAS)
         ));
 
         query.setParameter(parentAlias, relationship.getParent());
+        supplyKeysetQueryParameters(query, relationship.getChildType());
 
         addPaginationToQuery(query);
         return query;
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.core.hibernate.hql;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path.PathElement;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.FilterTranslator;
+import com.yahoo.elide.core.filter.InPredicate;
+import com.yahoo.elide.core.filter.expression.AndFilterExpression;
+import com.yahoo.elide.core.filter.expression.ExpressionScopingVisitor;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.PredicateExtractionVisitor;
+import com.yahoo.elide.core.hibernate.Query;
+import com.yahoo.elide.core.hibernate.Session;
+import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
+import com.yahoo.elide.utils.coerce.CoerceUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Constructs a HQL query to fetch the identifiers of the members of a hibernate collection proxy without loading
+ * the members themselves.
+ */
+public class SubCollectionIdentifierQueryBuilder extends AbstractHQLQueryBuilder {
+
+    private final Relationship relationship;
+
+    public SubCollectionIdentifierQueryBuilder(Relationship relationship,
+                                               EntityDictionary dictionary,
+                                               Session session) {
+        super(dictionary, session);
+        this.relationship = relationship;
+    }
+
+    @Override
+    public AbstractHQLQueryBuilder withPossiblePagination(Optional<Pagination> ignored) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AbstractHQLQueryBuilder withPossibleSorting(Optional<Sorting> ignored) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Constructs a query that returns the identifiers of the members of a relationship.
+     *
+     * For a relationship like author#3.books, constructs a query like:
+     *
+     * SELECT DISTINCT Author_books.id
+     * FROM Author AS Author JOIN Author.books AS Author_books
+     * WHERE Author.id = :author_books_id;
+     *
+     * @return the constructed query
+     */
+    @Override
+    public Query build() {
+        Class<?> parentType = dictionary.lookupEntityClass(relationship.getParentType());
+        Class<?> idType = dictionary.getIdType(parentType);
+        Object idVal = CoerceUtil.coerce(dictionary.getId(relationship.getParent()), idType);
+        String idField = dictionary.getIdFieldName(parentType);
+        String childIdField = dictionary.getIdFieldName(relationship.getChildType());
+
+        //Construct a predicate that selects an individual element of the relationship's parent (Author.id = 3).
+        FilterPredicate idExpression = new InPredicate(new PathElement(parentType, idType, idField), idVal);
+
+        Collection<FilterPredicate> predicates = new ArrayList<>();
+        String joinClause = "";
+        String filterClause = "";
+
+        String relationshipName = relationship.getRelationshipName();
+
+        //Relationship alias is Author_books
+        String parentAlias = FilterPredicate.getTypeAlias(parentType);
+        String relationshipAlias = parentAlias + UNDERSCORE + relationshipName;
+
+        if (filterExpression.isPresent()) {
+            // Copy and scope the filter expression for the join clause
+            ExpressionScopingVisitor visitor = new ExpressionScopingVisitor(
+                    new PathElement(parentType, relationship.getChildType(), relationship.getRelationshipName()));
+            FilterExpression scoped = filterExpression
+                    .map(fe -> fe.accept(visitor))
+                    .orElseThrow(() -> new IllegalStateException("Filter expression cloned to null"));
+
+            //For each filter predicate, prepend the predicate with the parent:
+            //books.title = 'Foobar' becomes author.books.title = 'Foobar'
+            PredicateExtractionVisitor extractor = new PredicateExtractionVisitor(new ArrayList<>());
+
+            predicates = scoped.accept(extractor);
+            predicates.add(idExpression);
+
+            //Join together the provided filter expression with the expression which selects the collection owner.
+            FilterExpression joinedExpression = new AndFilterExpression(scoped, idExpression);
+
+            //Build the JOIN clause from the filter predicate
+            joinClause = getJoinClauseFromFilters(joinedExpression);
+
+            //Build the WHERE clause
+            filterClause = new FilterTranslator().apply(joinedExpression, USE_ALIAS);
+        } else {
+
+            //If there is no filter, we still need to explicitly JOIN book and authors.
+            joinClause = JOIN
+                    + parentAlias
+                    + PERIOD + relationshipName
+                    + SPACE
+                    + relationshipAlias
+                    + SPACE;
+
+            filterClause = new FilterTranslator().apply(idExpression, USE_ALIAS);
+            predicates.add(idExpression);
+        }
+
+        Query query = session.createQuery(
+                "SELECT DISTINCT "
+                        + relationshipAlias
+                        + PERIOD
+                        + childIdField
+                        + FROM
+                        + parentType.getCanonicalName()
+                        + AS
+                        + parentAlias
+                        + SPACE
+                        + joinClause
+                        + SPACE
+                        + filterClause);
+
+        //Fill in the query parameters
+        supplyFilterQueryParameters(query, predicates);
+        return query;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.hibernate.hql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.filter.InPredicate;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.hibernate.hql.PageTotalsCache;
+import com.yahoo.elide.core.hibernate.hql.RelationshipImpl;
+
+import com.google.common.base.Ticker;
+import example.Author;
+import example.Book;
+import example.Chapter;
+import example.Publisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class PageTotalsCacheTest {
+    private EntityDictionary dictionary;
+    private AtomicLong nanos;
+    private AtomicInteger counts;
+    private PageTotalsCache cache;
+
+    @BeforeEach
+    public void setup() {
+        dictionary = new EntityDictionary(new HashMap<>());
+        dictionary.bindEntity(Book.class);
+        dictionary.bindEntity(Author.class);
+        dictionary.bindEntity(Publisher.class);
+        dictionary.bindEntity(Chapter.class);
+
+        nanos = new AtomicLong();
+        counts = new AtomicInteger();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        cache = new PageTotalsCache(100, 1, TimeUnit.MINUTES, ticker);
+    }
+
+    @Test
+    public void testTotalsAreCountedOncePerFilter() {
+        FilterExpression genre = new InPredicate(new Path(Book.class, dictionary, "genre"), "Literary Fiction");
+        FilterExpression otherGenre = new InPredicate(new Path(Book.class, dictionary, "genre"), "Science Fiction");
+
+        assertEquals(5L, cache.getTotals(Book.class, Optional.of(genre), cache.getVersion(), count(5L)));
+        assertEquals(5L, cache.getTotals(Book.class, Optional.of(genre), cache.getVersion(), count(6L)));
+        assertEquals(7L, cache.getTotals(Book.class, Optional.of(otherGenre), cache.getVersion(), count(7L)));
+        assertEquals(8L, cache.getTotals(Book.class, Optional.empty(), cache.getVersion(), count(8L)));
+
+        assertEquals(3, counts.get());
+        assertEquals(1, cache.getStats().hitCount());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertEquals(6L, cache.getTotals(Book.class, Optional.of(genre), cache.getVersion(), count(6L)));
+        assertEquals(4, counts.get());
+    }
+
+    @Test
+    public void testWritesEvictTotals() {
+        Author author = new Author();
+        author.setId(1L);
+        RelationshipImpl books = new RelationshipImpl(Author.class, Book.class, "books", author,
+                Collections.emptyList());
+
+        cache.getTotals(Book.class, Optional.empty(), cache.getVersion(), count(1L));
+        cache.getTotals(Author.class, Optional.empty(), cache.getVersion(), count(1L));
+        cache.getTotals(books, dictionary, Optional.empty(), cache.getVersion(), count(1L));
+        assertEquals(3, counts.get());
+
+        cache.invalidate(Author.class);
+        cache.getTotals(Book.class, Optional.empty(), cache.getVersion(), count(1L));
+        assertEquals(3, counts.get());
+        cache.getTotals(Author.class, Optional.empty(), cache.getVersion(), count(1L));
+        cache.getTotals(books, dictionary, Optional.empty(), cache.getVersion(), count(1L));
+        assertEquals(5, counts.get());
+
+        cache.invalidate(Book.class);
+        cache.getTotals(books, dictionary, Optional.empty(), cache.getVersion(), count(1L));
+        cache.getTotals(Author.class, Optional.empty(), cache.getVersion(), count(1L));
+        assertEquals(6, counts.get());
+    }
+
+    @Test
+    public void testWritesToFilteredPathsEvictTotals() {
+        FilterExpression authorName = new InPredicate(new Path(Book.class, dictionary, "authors.name"), "Orwell");
+
+        cache.getTotals(Book.class, Optional.of(authorName), cache.getVersion(), count(1L));
+        cache.getTotals(Book.class, Optional.empty(), cache.getVersion(), count(1L));
+        assertEquals(2, counts.get());
+
+        cache.invalidate(Author.class);
+        cache.getTotals(Book.class, Optional.empty(), cache.getVersion(), count(1L));
+        assertEquals(2, counts.get());
+        cache.getTotals(Book.class, Optional.of(authorName), cache.getVersion(), count(1L));
+        assertEquals(3, counts.get());
+    }
+
+    @Test
+    public void testTotalsCountedAcrossAWriteAreNotCached() {
+        //The counting transaction began before the write committed, so its count may predate the write.
+        long beginVersion = cache.getVersion();
+        cache.invalidate(Book.class);
+        assertEquals(1L, cache.getTotals(Book.class, Optional.empty(), beginVersion, count(1L)));
+        assertEquals(2L, cache.getTotals(Book.class, Optional.empty(), cache.getVersion(), count(2L)));
+        assertEquals(2, counts.get());
+
+        //A write which commits while the total is counted.
+        Supplier<Long> racingCount = () -> {
+            counts.incrementAndGet();
+            cache.invalidate(Author.class);
+            return 3L;
+        };
+        long version = cache.getVersion();
+        assertEquals(3L, cache.getTotals(Author.class, Optional.empty(), version, racingCount));
+        assertEquals(4L, cache.getTotals(Author.class, Optional.empty(), cache.getVersion(), count(4L)));
+        assertEquals(4, counts.get());
+
+        //Writes to unrelated types do not prevent caching.
+        version = cache.getVersion();
+        cache.invalidate(Chapter.class);
+        cache.getTotals(Publisher.class, Optional.empty(), version, count(5L));
+        assertEquals(5L, cache.getTotals(Publisher.class, Optional.empty(), cache.getVersion(), count(6L)));
+        assertEquals(5, counts.get());
+    }
+
+    private Supplier<Long> count(long totals) {
+        return () -> {
+            counts.incrementAndGet();
+            return totals;
+        };
+    }
+}
@@ -6,8 +6,10 @@
 package com.yahoo.elide.datastores.hibernate.hql;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.yahoo.elide.ElideSettingsBuilder;
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.Path;
 import com.yahoo.elide.core.exceptions.InvalidValueException;
@@ -18,22 +20,28 @@ import com.yahoo.elide.core.filter.dialect.ParseException;
 import com.yahoo.elide.core.filter.dialect.RSQLFilterDialect;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.filter.expression.OrFilterExpression;
+import com.yahoo.elide.core.hibernate.hql.HQLQueryCache;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionFetchQueryBuilder;
+import com.yahoo.elide.core.pagination.KeysetCursor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
 
 import example.Author;
 import example.Book;
 import example.Chapter;
+import example.Left;
 import example.Publisher;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class RootCollectionFetchQueryBuilderTest {
@@ -49,6 +57,7 @@ public class RootCollectionFetchQueryBuilderTest {
         dictionary.bindEntity(Author.class);
         dictionary.bindEntity(Publisher.class);
         dictionary.bindEntity(Chapter.class);
+        dictionary.bindEntity(Left.class);
         filterParser = new RSQLFilterDialect(dictionary, new CaseSensitivityStrategy.UseColumnCollation());
     }
 
@@ -85,6 +94,73 @@ public class RootCollectionFetchQueryBuilderTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void testRootFetchWithKeysetPagination() {
+        Pagination pagination = keysetPagination(KeysetCursor.encode(Arrays.asList("1500", "7")));
+
+        RootCollectionFetchQueryBuilder builder = new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper());
+
+        TestQueryWrapper query = (TestQueryWrapper) builder
+                .withPossibleSorting(Optional.of(Sorting.parseSortRule("-publishDate")))
+                .withPossiblePagination(Optional.of(pagination))
+                .build();
+
+        String expected = "SELECT example_Book FROM example.Book AS example_Book  "
+                + "LEFT JOIN FETCH example_Book.publisher  WHERE ((example_Book.publishDate < :keyset_0) "
+                + "OR (example_Book.publishDate = :keyset_0 AND example_Book.id > :keyset_1))"
+                + " order by example_Book.publishDate desc,example_Book.id asc";
+
+        assertEquals(expected, query.getQueryText());
+        assertEquals(1500L, query.getParameters().get("keyset_0"));
+        assertEquals(7L, query.getParameters().get("keyset_1"));
+    }
+
+    @Test
+    public void testRootFetchWithFirstKeysetPage() throws ParseException {
+        FilterExpression expression = filterParser.parseFilterExpression("genre=in='Literary Fiction'",
+                Book.class, true);
+
+        RootCollectionFetchQueryBuilder builder = new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper());
+
+        TestQueryWrapper query = (TestQueryWrapper) builder
+                .withPossibleFilterExpression(Optional.of(expression))
+                .withPossiblePagination(Optional.of(keysetPagination("")))
+                .build();
+
+        String expected = "SELECT example_Book FROM example.Book AS example_Book  "
+                + "LEFT JOIN FETCH example_Book.publisher  WHERE example_Book.genre IN (:genre_XXX)  "
+                + "order by example_Book.id asc";
+
+        String actual = query.getQueryText();
+        actual = actual.replaceFirst(":genre_\\w+", ":genre_XXX");
+
+        assertEquals(expected, actual);
+        assertEquals(1, query.getParameters().size());
+    }
+
+    @Test
+    public void testRootFetchWithMismatchedKeysetCursor() {
+        RootCollectionFetchQueryBuilder builder = new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper());
+        builder.withPossiblePagination(Optional.of(keysetPagination(KeysetCursor.encode(Arrays.asList("Foo", "7")))));
+        assertThrows(InvalidValueException.class, builder::build);
+
+        assertThrows(InvalidValueException.class, () -> keysetPagination("not a cursor"));
+    }
+
+    @Test
+    public void testRootFetchWithKeysetPaginationOnNullableField() {
+        RootCollectionFetchQueryBuilder builder = new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper());
+        builder.withPossibleSorting(Optional.of(Sorting.parseSortRule("-title")))
+                .withPossiblePagination(Optional.of(keysetPagination("")));
+
+        //Records with a null title could never be selected after a cursor.
+        assertThrows(InvalidValueException.class, builder::build);
+    }
+
     @Test
     public void testRootFetchWithJoinFilter() throws ParseException {
 
@@ -197,4 +273,111 @@ public class RootCollectionFetchQueryBuilderTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testCachedRootFetchBindsValuesOfLaterRequests() throws ParseException {
+        HQLQueryCache cache = new HQLQueryCache(10);
+        Sorting sorting = Sorting.parseSortRule("title");
+
+        TestQueryWrapper first = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .withPossibleSorting(Optional.of(sorting))
+                .withPossibleFilterExpression(Optional.of(
+                        filterParser.parseFilterExpression("title=in=('ABC','DEF')", Book.class, true)))
+                .build();
+
+        TestQueryWrapper second = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .withPossibleSorting(Optional.of(sorting))
+                .withPossibleFilterExpression(Optional.of(
+                        filterParser.parseFilterExpression("title=in=('GHI','JKL')", Book.class, true)))
+                .build();
+
+        assertEquals(first.getQueryText(), second.getQueryText());
+        assertEquals(first.getParameters().keySet(), second.getParameters().keySet());
+        assertEquals(Arrays.asList("GHI", "JKL"), first.getParameters().keySet().stream()
+                .sorted()
+                .map(second.getParameters()::get)
+                .collect(Collectors.toList()));
+        assertEquals(1, cache.getStats().hitCount());
+        assertEquals(1, cache.getStats().missCount());
+
+        TestQueryWrapper descending = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .withPossibleSorting(Optional.of(Sorting.parseSortRule("-title")))
+                .withPossibleFilterExpression(Optional.of(
+                        filterParser.parseFilterExpression("title=in=('GHI','JKL')", Book.class, true)))
+                .build();
+
+        assertNotEquals(first.getQueryText(), descending.getQueryText());
+        assertEquals(2, cache.getStats().missCount());
+    }
+
+    @Test
+    public void testCachedRootFetchDistinguishesEqualPredicates() throws ParseException {
+        HQLQueryCache cache = new HQLQueryCache(10);
+
+        new RootCollectionFetchQueryBuilder(Book.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .withPossibleFilterExpression(Optional.of(
+                        filterParser.parseFilterExpression("title==ABC,title==ABC", Book.class, true)))
+                .build();
+
+        TestQueryWrapper query = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .withPossibleFilterExpression(Optional.of(
+                        filterParser.parseFilterExpression("title==ABC,title==DEF", Book.class, true)))
+                .build();
+
+        assertEquals(0, cache.getStats().hitCount());
+        assertEquals(2, query.getParameters().size());
+        assertEquals(Arrays.asList("ABC", "DEF"), query.getParameters().values().stream()
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRootFetchSkipsUnrequestedLazyRelationships() {
+        HQLQueryCache cache = new HQLQueryCache(10);
+
+        TestQueryWrapper all = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Left.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .build();
+
+        TestQueryWrapper sparse = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Left.class, dictionary, new TestSessionWrapper())
+                .withQueryCache(cache)
+                .withPossibleSparseFields(Optional.of(Collections.singleton("one2many")))
+                .build();
+
+        //Lazy relationships which are not owned by the entity are loaded anyway, so they are still fetch joined.
+        assertEquals("SELECT example_Left FROM example.Left AS example_Left  "
+                + "LEFT JOIN FETCH example_Left.noDeleteOne2One  LEFT JOIN FETCH example_Left.noUpdateOne2One  "
+                + "LEFT JOIN FETCH example_Left.one2one  ", all.getQueryText());
+        assertEquals("SELECT example_Left FROM example.Left AS example_Left  "
+                + "LEFT JOIN FETCH example_Left.noUpdateOne2One  LEFT JOIN FETCH example_Left.one2one  ",
+                sparse.getQueryText());
+        assertEquals(0, cache.getStats().hitCount());
+    }
+
+    @Test
+    public void testRootFetchKeepsEagerRelationships() {
+        TestQueryWrapper query = (TestQueryWrapper) new RootCollectionFetchQueryBuilder(
+                Book.class, dictionary, new TestSessionWrapper())
+                .withPossibleSparseFields(Optional.of(Collections.singleton(TITLE)))
+                .build();
+
+        assertEquals("SELECT example_Book FROM example.Book AS example_Book  LEFT JOIN FETCH example_Book.publisher  ",
+                query.getQueryText());
+    }
+
+    private static Pagination keysetPagination(String cursor) {
+        return Pagination.fromOffsetAndFirst(Optional.of("2"), Optional.of(cursor), false,
+                new ElideSettingsBuilder(null).build()).get();
+    }
 }
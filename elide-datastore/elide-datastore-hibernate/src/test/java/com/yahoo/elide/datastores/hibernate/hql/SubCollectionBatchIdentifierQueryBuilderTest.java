@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.hibernate.hql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.InPredicate;
+import com.yahoo.elide.core.hibernate.hql.SubCollectionBatchIdentifierQueryBuilder;
+import com.yahoo.elide.core.sort.Sorting;
+
+import example.Author;
+import example.Book;
+import example.Chapter;
+import example.Publisher;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SubCollectionBatchIdentifierQueryBuilderTest {
+
+    private EntityDictionary dictionary;
+
+    private static final String BOOKS = "books";
+    private static final String NAME = "name";
+    private static final String PUBLISHER = "publisher";
+    private static final String PUB1 = "Pub1";
+
+    @BeforeAll
+    public void initialize() {
+        dictionary = new EntityDictionary(new HashMap<>());
+        dictionary.bindEntity(Book.class);
+        dictionary.bindEntity(Author.class);
+        dictionary.bindEntity(Publisher.class);
+        dictionary.bindEntity(Chapter.class);
+    }
+
+    @Test
+    public void testBatchIdentifiers() {
+        List<Author> authors = getAuthors();
+
+        TestQueryWrapper query = (TestQueryWrapper) new SubCollectionBatchIdentifierQueryBuilder(Author.class,
+                Book.class, BOOKS, authors, dictionary, new TestSessionWrapper())
+                .build();
+
+        String expected = "SELECT DISTINCT example_Author__fetch.id, example_Book.id "
+                + "FROM example.Author example_Author__fetch JOIN example_Author__fetch.books example_Book "
+                + "WHERE example_Author__fetch IN (:example_Author__fetch)";
+
+        assertEquals(expected, query.getQueryText());
+        assertEquals(authors, query.getParameters().get("example_Author__fetch"));
+    }
+
+    @Test
+    public void testBatchIdentifiersWithJoinFilter() {
+        List<Path.PathElement>  publisherNamePath = Arrays.asList(
+                new Path.PathElement(Book.class, Publisher.class, PUBLISHER),
+                new Path.PathElement(Publisher.class, String.class, NAME)
+        );
+
+        FilterPredicate publisherNamePredicate = new InPredicate(
+                new Path(publisherNamePath),
+                PUB1);
+
+        TestQueryWrapper query = (TestQueryWrapper) new SubCollectionBatchIdentifierQueryBuilder(Author.class,
+                Book.class, BOOKS, getAuthors(), dictionary, new TestSessionWrapper())
+                .withPossibleFilterExpression(Optional.of(publisherNamePredicate))
+                .build();
+
+        String expected = "SELECT DISTINCT example_Author__fetch.id, example_Book.id "
+                + "FROM example.Author example_Author__fetch JOIN example_Author__fetch.books example_Book "
+                + "LEFT JOIN example_Book.publisher example_Book_publisher  "
+                + "WHERE example_Book_publisher.name IN (:books_publisher_name_XXX) "
+                + "AND example_Author__fetch IN (:example_Author__fetch)";
+        String actual = query.getQueryText();
+        actual = actual.replaceFirst(":publisher_name_\\w+_\\w+", ":books_publisher_name_XXX");
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testBatchIdentifiersCannotSort() {
+        SubCollectionBatchIdentifierQueryBuilder builder = new SubCollectionBatchIdentifierQueryBuilder(Author.class,
+                Book.class, BOOKS, getAuthors(), dictionary, new TestSessionWrapper());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> builder.withPossibleSorting(Optional.of(new Sorting(new HashMap<>()))));
+    }
+
+    private static List<Author> getAuthors() {
+        Author author1 = new Author();
+        author1.setId(1L);
+
+        Author author2 = new Author();
+        author2.setId(2L);
+
+        return Arrays.asList(author1, author2);
+    }
+}
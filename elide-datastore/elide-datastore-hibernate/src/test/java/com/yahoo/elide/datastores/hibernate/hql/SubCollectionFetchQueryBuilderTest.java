@@ -8,12 +8,14 @@ package com.yahoo.elide.datastores.hibernate.hql;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import com.yahoo.elide.ElideSettingsBuilder;
 import com.yahoo.elide.core.EntityDictionary;
 import com.yahoo.elide.core.Path;
 import com.yahoo.elide.core.filter.FilterPredicate;
 import com.yahoo.elide.core.filter.InPredicate;
 import com.yahoo.elide.core.hibernate.hql.RelationshipImpl;
 import com.yahoo.elide.core.hibernate.hql.SubCollectionFetchQueryBuilder;
+import com.yahoo.elide.core.pagination.KeysetCursor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
 
@@ -232,4 +234,43 @@ public class SubCollectionFetchQueryBuilderTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testSubCollectionFetchWithKeysetPagination() {
+        Author author = new Author();
+        author.setId(1L);
+
+        Book book = new Book();
+        book.setId(2);
+
+        RelationshipImpl relationship = new RelationshipImpl(
+                Author.class,
+                Book.class,
+                BOOKS,
+                author,
+                Arrays.asList(book)
+        );
+
+        Pagination pagination = Pagination.fromOffsetAndFirst(Optional.of("2"),
+                Optional.of(KeysetCursor.encode(Arrays.asList("1500", "2"))), false,
+                new ElideSettingsBuilder(null).build()).get();
+
+        SubCollectionFetchQueryBuilder builder = new SubCollectionFetchQueryBuilder(
+                relationship, dictionary, new TestSessionWrapper());
+
+        TestQueryWrapper query = (TestQueryWrapper) builder
+                .withPossibleSorting(Optional.of(Sorting.parseSortRule("publishDate")))
+                .withPossiblePagination(Optional.of(pagination))
+                .build();
+
+        String expected = "SELECT example_Book FROM example.Author example_Author__fetch "
+                + "JOIN example_Author__fetch.books example_Book LEFT JOIN FETCH example_Book.publisher  "
+                + "WHERE example_Author__fetch=:example_Author__fetch AND ((example_Book.publishDate > :keyset_0) "
+                + "OR (example_Book.publishDate = :keyset_0 AND example_Book.id > :keyset_1))"
+                + " order by example_Book.publishDate asc,example_Book.id asc";
+
+        assertEquals(expected, query.getQueryText());
+        assertEquals(1500L, query.getParameters().get("keyset_0"));
+        assertEquals(2L, query.getParameters().get("keyset_1"));
+    }
 }
@@ -10,12 +10,17 @@ import com.yahoo.elide.core.hibernate.Query;
 import lombok.Getter;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public class TestQueryWrapper implements Query {
 
     @Getter
     private String queryText;
 
+    @Getter
+    private Map<String, Object> parameters = new HashMap<>();
+
     public TestQueryWrapper(String queryText) {
         this.queryText = queryText;
     }
@@ -32,12 +37,13 @@ public class TestQueryWrapper implements Query {
 
     @Override
     public Query setParameter(String name, Object value) {
-
+        parameters.put(name, value);
         return this;
     }
 
     @Override
     public Query setParameterList(String name, Collection<?> values) {
+        parameters.put(name, values);
         return this;
     }
 }
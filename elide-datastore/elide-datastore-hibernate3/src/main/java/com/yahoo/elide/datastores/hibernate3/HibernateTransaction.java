@@ -16,6 +16,7 @@ import com.yahoo.elide.core.filter.InPredicate;
 import com.yahoo.elide.core.filter.expression.AndFilterExpression;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.hibernate.hql.AbstractHQLQueryBuilder;
+import com.yahoo.elide.core.hibernate.hql.HQLQueryCache;
 import com.yahoo.elide.core.hibernate.hql.RelationshipImpl;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionFetchQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionPageTotalsQueryBuilder;
@@ -145,6 +146,7 @@ public class HibernateTransaction implements DataStoreTransaction {
 
             QueryWrapper query =
                     (QueryWrapper) new RootCollectionFetchQueryBuilder(entityClass, dictionary, sessionWrapper)
+                    .withQueryCache(HQLQueryCache.getSharedInstance())
                     .withPossibleFilterExpression(Optional.of(joinedExpression))
                     .build();
 
@@ -154,6 +156,12 @@ public class HibernateTransaction implements DataStoreTransaction {
         }
     }
 
+    @Override
+    public boolean supportsKeysetPagination(Class<?> entityClass) {
+        //The query builders translate keyset cursors into predicates on the sort keys.
+        return true;
+    }
+
     @Override
     public Iterable<Object> loadObjects(
             Class<?> entityClass,
@@ -170,6 +178,7 @@ public class HibernateTransaction implements DataStoreTransaction {
 
         final QueryWrapper query =
                 (QueryWrapper) new RootCollectionFetchQueryBuilder(entityClass, scope.getDictionary(), sessionWrapper)
+                        .withQueryCache(HQLQueryCache.getSharedInstance())
                         .withPossibleFilterExpression(filterExpression)
                         .withPossibleSorting(sorting)
                         .withPossiblePagination(pagination)
@@ -249,6 +258,7 @@ public class HibernateTransaction implements DataStoreTransaction {
 
         QueryWrapper query =
                 (QueryWrapper) new RootCollectionPageTotalsQueryBuilder(entityClass, dictionary, sessionWrapper)
+                        .withQueryCache(HQLQueryCache.getSharedInstance())
                         .withPossibleFilterExpression(filterExpression)
                         .build();
 
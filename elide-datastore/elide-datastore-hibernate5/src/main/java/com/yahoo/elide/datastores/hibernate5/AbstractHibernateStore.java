@@ -9,11 +9,15 @@ import com.yahoo.elide.core.DataStoreTransaction;
 import com.yahoo.elide.core.EntityDictionary;
 
 import com.yahoo.elide.core.datastore.JPQLDataStore;
+import com.yahoo.elide.core.hibernate.hql.PageTotalsCache;
+import org.hibernate.FlushMode;
 import org.hibernate.ScrollMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.jpa.HibernateEntityManagerFactory;
 
+import java.util.Optional;
+
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.metamodel.EntityType;
 
@@ -25,6 +29,9 @@ public abstract class AbstractHibernateStore implements JPQLDataStore {
     protected final boolean isScrollEnabled;
     protected final ScrollMode scrollMode;
     protected final HibernateTransactionSupplier transactionSupplier;
+    protected Optional<PageTotalsCache> pageTotalsCache = Optional.empty();
+    protected boolean sparseFieldsProjection = false;
+    protected boolean readOnlyTransactions = false;
 
     /**
      * Constructor.
@@ -66,6 +73,9 @@ public abstract class AbstractHibernateStore implements JPQLDataStore {
         private boolean isScrollEnabled;
         private ScrollMode scrollMode;
         private EntityManagerFactory emf;
+        private PageTotalsCache pageTotalsCache;
+        private boolean sparseFieldsProjection;
+        private boolean readOnlyTransactions;
 
         public Builder(final SessionFactory sessionFactory) {
             this.sessionFactory = sessionFactory;
@@ -99,13 +109,51 @@ public abstract class AbstractHibernateStore implements JPQLDataStore {
             return this;
         }
 
+        /**
+         * Serves page totals from a cache rather than counting them for every page.
+         * @param pageTotalsCache The cache shared by the transactions of the store
+         * @return this builder
+         */
+        public Builder withPageTotalsCache(final PageTotalsCache pageTotalsCache) {
+            this.pageTotalsCache = pageTotalsCache;
+            return this;
+        }
+
+        /**
+         * Fetches lazy to-one relationships only when the sparse fieldsets or includes of a request read them.
+         * @param sparseFieldsProjection Whether relationships outside the requested fields are left unfetched
+         * @return this builder
+         * @see HibernateTransaction#withSparseFieldsProjection()
+         */
+        public Builder withSparseFieldsProjection(final boolean sparseFieldsProjection) {
+            this.sparseFieldsProjection = sparseFieldsProjection;
+            return this;
+        }
+
+        /**
+         * Begins read transactions over read-only sessions which are never flushed.  Entities changed while reading,
+         * for example by lifecycle hooks, are not written when it is enabled.
+         * @param readOnlyTransactions Whether read transactions are read-only
+         * @return this builder
+         */
+        public Builder withReadOnlyTransactions(final boolean readOnlyTransactions) {
+            this.readOnlyTransactions = readOnlyTransactions;
+            return this;
+        }
+
         public AbstractHibernateStore build() {
+            AbstractHibernateStore store;
             if (sessionFactory != null) {
-                return new HibernateSessionFactoryStore(sessionFactory, isScrollEnabled, scrollMode);
+                store = new HibernateSessionFactoryStore(sessionFactory, isScrollEnabled, scrollMode);
             } else if (emf != null) {
-                return new HibernateEntityManagerStore(emf, isScrollEnabled, scrollMode);
+                store = new HibernateEntityManagerStore(emf, isScrollEnabled, scrollMode);
+            } else {
+                throw new IllegalStateException("Either an EntityManager or SessionFactory is required!");
             }
-            throw new IllegalStateException("Either an EntityManager or SessionFactory is required!");
+            store.pageTotalsCache = Optional.ofNullable(pageTotalsCache);
+            store.sparseFieldsProjection = sparseFieldsProjection;
+            store.readOnlyTransactions = readOnlyTransactions;
+            return store;
         }
     }
 
@@ -131,6 +179,37 @@ public abstract class AbstractHibernateStore implements JPQLDataStore {
     @Override
     abstract public DataStoreTransaction beginTransaction();
 
+    /**
+     * Creates a transaction over a session.
+     *
+     * @param session The session, whose transaction has begun
+     * @return transaction
+     */
+    protected HibernateTransaction newTransaction(Session session) {
+        HibernateTransaction transaction = transactionSupplier.get(session, isScrollEnabled, scrollMode);
+        pageTotalsCache.ifPresent(transaction::withPageTotalsCache);
+        if (sparseFieldsProjection) {
+            transaction.withSparseFieldsProjection();
+        }
+        return transaction;
+    }
+
+    /**
+     * Creates a read transaction over a session.  When read-only transactions are enabled, entities loaded by the
+     * session are read-only, so Hibernate keeps no snapshots of them for dirty checking, and the session is never
+     * flushed.
+     *
+     * @param session The session, whose transaction has begun
+     * @return transaction
+     */
+    protected HibernateTransaction newReadTransaction(Session session) {
+        if (readOnlyTransactions) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+        return newTransaction(session);
+    }
+
     /**
      * Functional interface for describing a method to supply a custom Hibernate transaction.
      */
@@ -40,7 +40,17 @@ public class HibernateEntityManagerStore extends AbstractHibernateStore {
         Session session = manager.unwrap(Session.class);
         session.beginTransaction();
         session.clear();
-        return transactionSupplier.get(session, isScrollEnabled, scrollMode);
+        return newTransaction(session);
+    }
+
+    @Override
+    @SuppressWarnings("resource")
+    public DataStoreTransaction beginReadTransaction() {
+        EntityManager manager = entityManagerFactory.createEntityManager();
+        Session session = manager.unwrap(Session.class);
+        session.beginTransaction();
+        session.clear();
+        return newReadTransaction(session);
     }
 
     @Override
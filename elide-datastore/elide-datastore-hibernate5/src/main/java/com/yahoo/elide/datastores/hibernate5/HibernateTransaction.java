@@ -16,10 +16,14 @@ import com.yahoo.elide.core.filter.InPredicate;
 import com.yahoo.elide.core.filter.expression.AndFilterExpression;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.hibernate.hql.AbstractHQLQueryBuilder;
+import com.yahoo.elide.core.hibernate.hql.HQLQueryCache;
+import com.yahoo.elide.core.hibernate.hql.HQLTransactionHelper;
+import com.yahoo.elide.core.hibernate.hql.PageTotalsCache;
 import com.yahoo.elide.core.hibernate.hql.RelationshipImpl;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionFetchQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionPageTotalsQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.SubCollectionFetchQueryBuilder;
+import com.yahoo.elide.core.hibernate.hql.SubCollectionIdentifierQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.SubCollectionPageTotalsQueryBuilder;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
@@ -32,14 +36,22 @@ import org.hibernate.ObjectNotFoundException;
 import org.hibernate.ScrollMode;
 import org.hibernate.Session;
 import org.hibernate.collection.internal.AbstractPersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
 
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import javax.persistence.PersistenceException;
 
@@ -48,11 +60,15 @@ import javax.persistence.PersistenceException;
  */
 @Slf4j
 public class HibernateTransaction implements DataStoreTransaction {
-
     private final Session session;
     private final SessionWrapper sessionWrapper;
+    private final HQLTransactionHelper helper;
     private final LinkedHashSet<Runnable> deferredTasks = new LinkedHashSet<>();
     private final boolean isScrollEnabled;
+    private final Set<Class<?>> writtenTypes = new HashSet<>();
+    private Optional<PageTotalsCache> pageTotalsCache = Optional.empty();
+    private long pageTotalsVersion;
+    private boolean sparseFieldsProjection = false;
 
     /**
      * Constructor.
@@ -69,16 +85,48 @@ public class HibernateTransaction implements DataStoreTransaction {
             session.setHibernateFlushMode(FlushMode.COMMIT);
         }
         this.sessionWrapper = new SessionWrapper(session);
+        this.helper = new HQLTransactionHelper(sessionWrapper, query -> ((QueryWrapper) query).getQuery().list(),
+                val -> val instanceof AbstractPersistentCollection);
         this.isScrollEnabled = isScrollEnabled;
     }
 
+    /**
+     * Serves page totals from a cache shared by the transactions of a store, rather than counting them for every
+     * page.  Totals are evicted when this transaction commits writes to the counted types, but writes made by other
+     * processes are only reflected once the totals expire.  It must be set when the transaction begins, since totals
+     * counted by this transaction are not cached if their types were written since.
+     *
+     * @param pageTotalsCache The cache
+     * @return this transaction
+     */
+    public HibernateTransaction withPageTotalsCache(PageTotalsCache pageTotalsCache) {
+        this.pageTotalsCache = Optional.of(pageTotalsCache);
+        this.pageTotalsVersion = pageTotalsCache.getVersion();
+        return this;
+    }
+
+    /**
+     * Fetches the lazy to-one relationships of loaded collections only when the client reads them, as named by the
+     * sparse fieldsets and the include parameter of the request.  Relationships which are not fetched are loaded on
+     * access instead, so it should only be enabled when permission checks and computed attributes do not read
+     * relationships outside the requested fields.
+     *
+     * @return this transaction
+     */
+    public HibernateTransaction withSparseFieldsProjection() {
+        this.sparseFieldsProjection = true;
+        return this;
+    }
+
     @Override
     public void delete(Object object, RequestScope scope) {
+        writtenTypes.add(object.getClass());
         deferredTasks.add(() -> session.delete(object));
     }
 
     @Override
     public void save(Object object, RequestScope scope) {
+        writtenTypes.add(object.getClass());
         deferredTasks.add(() -> session.saveOrUpdate(object));
     }
 
@@ -106,6 +154,8 @@ public class HibernateTransaction implements DataStoreTransaction {
         try {
             this.flush(scope);
             this.session.getTransaction().commit();
+            pageTotalsCache.ifPresent(cache -> writtenTypes.forEach(cache::invalidate));
+            writtenTypes.clear();
         } catch (PersistenceException e) {
             throw new TransactionException(e);
         }
@@ -113,6 +163,7 @@ public class HibernateTransaction implements DataStoreTransaction {
 
     @Override
     public void createObject(Object entity, RequestScope scope) {
+        writtenTypes.add(entity.getClass());
         deferredTasks.add(() -> session.persist(entity));
     }
 
@@ -150,6 +201,7 @@ public class HibernateTransaction implements DataStoreTransaction {
 
             QueryWrapper query =
                     (QueryWrapper) new RootCollectionFetchQueryBuilder(entityClass, dictionary, sessionWrapper)
+                    .withQueryCache(HQLQueryCache.getSharedInstance())
                     .withPossibleFilterExpression(Optional.of(joinedExpression))
                     .build();
 
@@ -159,6 +211,12 @@ public class HibernateTransaction implements DataStoreTransaction {
         }
     }
 
+    @Override
+    public boolean supportsKeysetPagination(Class<?> entityClass) {
+        //The query builders translate keyset cursors into predicates on the sort keys.
+        return true;
+    }
+
     @Override
     public Iterable<Object> loadObjects(
             Class<?> entityClass,
@@ -167,14 +225,18 @@ public class HibernateTransaction implements DataStoreTransaction {
             Optional<Pagination> pagination,
             RequestScope scope) {
 
-        pagination.ifPresent(p -> {
-            if (p.isGenerateTotals()) {
-                p.setPageTotals(getTotalRecords(entityClass, filterExpression, scope.getDictionary()));
-            }
-        });
+        //Scrolled pages are not read before they are returned, so their totals are counted up front.
+        Optional<Pagination> totals = pagination.filter(Pagination::isGenerateTotals);
+        if (isScrollEnabled) {
+            totals.ifPresent(p -> p.setPageTotals(getTotalRecords(entityClass, filterExpression,
+                    scope.getDictionary())));
+        }
 
         final QueryWrapper query =
                 (QueryWrapper) new RootCollectionFetchQueryBuilder(entityClass, scope.getDictionary(), sessionWrapper)
+                        .withQueryCache(HQLQueryCache.getSharedInstance())
+                        .withPossibleSparseFields(
+                                HQLTransactionHelper.getSparseFields(sparseFieldsProjection, entityClass, scope))
                         .withPossibleFilterExpression(filterExpression)
                         .withPossibleSorting(sorting)
                         .withPossiblePagination(pagination)
@@ -184,7 +246,11 @@ public class HibernateTransaction implements DataStoreTransaction {
         if (isScrollEnabled) {
             return new ScrollableIterator<>(query.getQuery().scroll());
         }
-        return (Iterable) query.getQuery().list();
+
+        List<?> results = query.getQuery().list();
+        totals.ifPresent(p -> p.setPageTotals(HQLTransactionHelper.getTotalsFromPage(p, results)
+                .orElseGet(() -> getTotalRecords(entityClass, filterExpression, scope.getDictionary()))));
+        return (Iterable) results;
     }
 
     @Override
@@ -221,11 +287,13 @@ public class HibernateTransaction implements DataStoreTransaction {
                         entity,
                         filteredVal);
 
-                pagination.ifPresent(p -> {
-                    if (p.isGenerateTotals()) {
-                        p.setPageTotals(getTotalRecords(relationship, filterExpression, dictionary));
-                    }
-                });
+                //Filters over to-many relationships may repeat members in a page, which then cannot be counted.
+                Optional<Pagination> totals = pagination.filter(Pagination::isGenerateTotals);
+                boolean countable = !HQLTransactionHelper.joinsToMany(dictionary, filterExpression);
+                if (!countable) {
+                    totals.ifPresent(p -> p.setPageTotals(getTotalRecords(relationship, filterExpression,
+                            dictionary)));
+                }
 
                 final QueryWrapper query = (QueryWrapper)
                         new SubCollectionFetchQueryBuilder(relationship, dictionary, sessionWrapper)
@@ -235,13 +303,88 @@ public class HibernateTransaction implements DataStoreTransaction {
                                 .build();
 
                 if (query != null) {
-                    return query.getQuery().list();
+                    List<?> results = query.getQuery().list();
+                    if (countable) {
+                        totals.ifPresent(p -> p.setPageTotals(HQLTransactionHelper.getTotalsFromPage(p, results)
+                                .orElseGet(() -> getTotalRecords(relationship, filterExpression, dictionary))));
+                    }
+                    return results;
                 }
             }
         }
         return val;
     }
 
+    @Override
+    public Map<Object, Object> getRelations(
+            DataStoreTransaction relationTx,
+            Collection<?> entities,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            Optional<Sorting> sorting,
+            RequestScope scope) {
+
+        return helper.getRelations(entities, relationName, filterExpression, sorting, scope,
+                (entity, val) -> ((AbstractPersistentCollection) val).wasInitialized(),
+                entity -> getRelation(relationTx, entity, relationName, filterExpression, sorting,
+                        Optional.empty(), scope));
+    }
+
+    @Override
+    public Map<Object, Collection<String>> getRelationsIdentifiers(
+            DataStoreTransaction relationTx,
+            Collection<?> entities,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            RequestScope scope) {
+
+        return helper.getRelationsIdentifiers(entities, relationName, filterExpression, scope,
+                (entity, val) -> ((AbstractPersistentCollection) val).wasInitialized(),
+                entity -> getRelationIdentifiers(relationTx, entity, relationName, filterExpression, scope));
+    }
+
+    @Override
+    public Collection<String> getRelationIdentifiers(
+            DataStoreTransaction relationTx,
+            Object entity,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            RequestScope scope) {
+
+        EntityDictionary dictionary = scope.getDictionary();
+        Object val = com.yahoo.elide.core.PersistentResource.getValue(entity, relationName, scope);
+
+        //Collections which are already initialized and need no filtering are read as they are.
+        if (val instanceof AbstractPersistentCollection
+                && (filterExpression.isPresent() || !((AbstractPersistentCollection) val).wasInitialized())) {
+            RelationshipImpl relationship = new RelationshipImpl(
+                    dictionary.lookupEntityClass(entity.getClass()),
+                    dictionary.getParameterizedType(entity, relationName),
+                    relationName,
+                    entity,
+                    (Collection<?>) val);
+
+            final QueryWrapper query = (QueryWrapper)
+                    new SubCollectionIdentifierQueryBuilder(relationship, dictionary, sessionWrapper)
+                            .withPossibleFilterExpression(filterExpression)
+                            .build();
+
+            List<String> identifiers = new ArrayList<>();
+            for (Object identifier : query.getQuery().list()) {
+                identifiers.add(String.valueOf(identifier));
+            }
+            return identifiers;
+        }
+
+        //The identifier of a lazy object is read from its proxy without loading it.
+        if (val instanceof HibernateProxy && !filterExpression.isPresent()) {
+            return Collections.singletonList(
+                    String.valueOf(((HibernateProxy) val).getHibernateLazyInitializer().getIdentifier()));
+        }
+        return DataStoreTransaction.super.getRelationIdentifiers(relationTx, entity, relationName, filterExpression,
+                scope);
+    }
+
     /**
      * Returns the total record count for a root entity and an optional filter expression.
      * @param entityClass The entity type to count
@@ -255,12 +398,19 @@ public class HibernateTransaction implements DataStoreTransaction {
                                      EntityDictionary dictionary) {
 
 
-        QueryWrapper query = (QueryWrapper)
-                new RootCollectionPageTotalsQueryBuilder(entityClass, dictionary, sessionWrapper)
-                .withPossibleFilterExpression(filterExpression)
-                .build();
+        Supplier<Long> count = () -> {
+            QueryWrapper query = (QueryWrapper)
+                    new RootCollectionPageTotalsQueryBuilder(entityClass, dictionary, sessionWrapper)
+                    .withQueryCache(HQLQueryCache.getSharedInstance())
+                    .withPossibleFilterExpression(filterExpression)
+                    .build();
 
-        return (Long) query.getQuery().uniqueResult();
+            return (Long) query.getQuery().uniqueResult();
+        };
+
+        return pageTotalsCache
+                .map(cache -> cache.getTotals(entityClass, filterExpression, pageTotalsVersion, count))
+                .orElseGet(count);
     }
 
     /**
@@ -275,12 +425,19 @@ public class HibernateTransaction implements DataStoreTransaction {
                                      Optional<FilterExpression> filterExpression,
                                      EntityDictionary dictionary) {
 
-        QueryWrapper query = (QueryWrapper)
-                new SubCollectionPageTotalsQueryBuilder(relationship, dictionary, sessionWrapper)
-                .withPossibleFilterExpression(filterExpression)
-                .build();
+        Supplier<Long> count = () -> {
+            QueryWrapper query = (QueryWrapper)
+                    new SubCollectionPageTotalsQueryBuilder(relationship, dictionary, sessionWrapper)
+                    .withPossibleFilterExpression(filterExpression)
+                    .build();
+
+            return (Long) query.getQuery().uniqueResult();
+        };
 
-        return (Long) query.getQuery().uniqueResult();
+        return pageTotalsCache
+                .map(cache -> cache.getTotals(relationship, dictionary, filterExpression, pageTotalsVersion,
+                        count))
+                .orElseGet(count);
     }
 
     @Override
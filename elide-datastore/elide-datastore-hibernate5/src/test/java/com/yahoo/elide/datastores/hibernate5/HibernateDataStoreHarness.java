@@ -61,6 +61,7 @@ public class HibernateDataStoreHarness implements DataStoreTestHarness {
         store = new AbstractHibernateStore.Builder(metadataImplementor.buildSessionFactory())
                 .withScrollEnabled(true)
                 .withScrollMode(ScrollMode.FORWARD_ONLY)
+                .withReadOnlyTransactions(true)
                 .build();
     }
 
@@ -103,6 +103,7 @@ public class HibernateEntityManagerDataStoreHarness implements DataStoreTestHarn
         store = new AbstractHibernateStore.Builder(emf)
                 .withScrollEnabled(true)
                 .withScrollMode(ScrollMode.FORWARD_ONLY)
+                .withReadOnlyTransactions(true)
                 .build();
     }
 
@@ -8,23 +8,45 @@ package com.yahoo.elide.datastores.inmemory;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.yahoo.elide.core.DataStoreTransaction;
+import com.yahoo.elide.core.DataStoreTransaction.FeatureSupport;
 import com.yahoo.elide.core.EntityDictionary;
+import com.yahoo.elide.core.Path;
+import com.yahoo.elide.core.datastore.inmemory.HashMapDataStore;
+import com.yahoo.elide.core.datastore.inmemory.HashMapJournal;
+import com.yahoo.elide.core.exceptions.TransactionException;
+import com.yahoo.elide.core.filter.FilterPredicate;
+import com.yahoo.elide.core.filter.Operator;
+import com.yahoo.elide.core.filter.expression.AndFilterExpression;
+import com.yahoo.elide.core.filter.expression.FilterExpression;
+import com.yahoo.elide.core.filter.expression.NotFilterExpression;
+import com.yahoo.elide.core.filter.expression.OrFilterExpression;
+import com.yahoo.elide.core.sort.Sorting;
+import com.yahoo.elide.example.beans.CountingBean;
 import com.yahoo.elide.example.beans.ExcludedBean;
 import com.yahoo.elide.example.beans.FirstBean;
+import com.yahoo.elide.example.beans.IndexedBean;
 import com.yahoo.elide.example.beans.NonEntity;
 import com.yahoo.elide.example.beans.SecondBean;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.collections4.IterableUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -107,4 +129,418 @@ public class HashMapDataStoreTest {
 
         assertEquals(ImmutableSet.of("number one", "number two"), names);
     }
+
+    @Test
+    public void testReadersSeeSnapshotFromTransactionStart() throws Exception {
+        FirstBean object = new FirstBean();
+        object.name = "Test";
+
+        try (DataStoreTransaction reader = inMemoryDataStore.beginTransaction()) {
+            try (DataStoreTransaction writer = inMemoryDataStore.beginTransaction()) {
+                writer.createObject(object, null);
+                writer.commit(null);
+            }
+
+            assertFalse(reader.loadObjects(FirstBean.class,
+                    Optional.empty(), Optional.empty(), Optional.empty(), null).iterator().hasNext());
+            assertNull(reader.loadObject(FirstBean.class, object.id, Optional.empty(), null));
+        }
+
+        try (DataStoreTransaction reader = inMemoryDataStore.beginTransaction()) {
+            assertEquals(object, reader.loadObject(FirstBean.class, object.id, Optional.empty(), null));
+        }
+    }
+
+    @Test
+    public void testFailedCommitPublishesNothing() throws Exception {
+        SecondBean existing = new SecondBean();
+        existing.id = 1;
+
+        try (DataStoreTransaction t = inMemoryDataStore.beginTransaction()) {
+            t.createObject(existing, null);
+            t.commit(null);
+        }
+
+        FirstBean first = new FirstBean();
+        first.name = "Test";
+        SecondBean duplicate = new SecondBean();
+        duplicate.id = 1;
+
+        try (DataStoreTransaction t = inMemoryDataStore.beginTransaction()) {
+            t.createObject(first, null);
+            t.createObject(duplicate, null);
+            assertThrows(TransactionException.class, () -> t.commit(null));
+        }
+
+        try (DataStoreTransaction t = inMemoryDataStore.beginTransaction()) {
+            assertFalse(t.loadObjects(FirstBean.class,
+                    Optional.empty(), Optional.empty(), Optional.empty(), null).iterator().hasNext());
+            assertEquals(existing, t.loadObject(SecondBean.class, 1, Optional.empty(), null));
+        }
+    }
+
+    @Test
+    public void testIndexedFiltering() throws Exception {
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        HashMapDataStore store = populateIndexedStore(dictionary);
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            FilterExpression young = predicate(dictionary, "age", Operator.LT, 30);
+            assertEquals(FeatureSupport.PARTIAL, t.supportsFiltering(IndexedBean.class, young));
+            assertEquals(Arrays.asList(1L, 4L, 6L), loadIds(t, young, null));
+
+            FilterExpression prefix = predicate(dictionary, "name", Operator.PREFIX, "al");
+            assertEquals(FeatureSupport.PARTIAL, t.supportsFiltering(IndexedBean.class, prefix));
+            assertEquals(Arrays.asList(1L, 5L), loadIds(t, prefix, null));
+
+            FilterExpression noAge = predicate(dictionary, "age", Operator.ISNULL);
+            FilterExpression inNames = predicate(dictionary, "name", Operator.IN, "bob", "carl");
+            OrFilterExpression either = new OrFilterExpression(noAge, inNames);
+            assertEquals(FeatureSupport.PARTIAL, t.supportsFiltering(IndexedBean.class, either));
+            assertEquals(Arrays.asList(2L, 3L, 5L), loadIds(t, either, null));
+
+            FilterExpression second = predicate(dictionary, "second.id", Operator.IN, "1");
+            assertEquals(FeatureSupport.PARTIAL, t.supportsFiltering(IndexedBean.class, second));
+            assertEquals(Arrays.asList(1L, 2L), loadIds(t, second, null));
+
+            FilterExpression nickname = predicate(dictionary, "nickname", Operator.IN, "al");
+            AndFilterExpression partial = new AndFilterExpression(young, nickname);
+            assertEquals(FeatureSupport.PARTIAL, t.supportsFiltering(IndexedBean.class, partial));
+            //Only the indexed operand is evaluated by the store.
+            assertEquals(Arrays.asList(1L, 4L, 6L), loadIds(t, partial, null));
+
+            assertEquals(FeatureSupport.NONE, t.supportsFiltering(IndexedBean.class, nickname));
+            assertEquals(FeatureSupport.NONE,
+                    t.supportsFiltering(IndexedBean.class, new NotFilterExpression(young)));
+            assertEquals(FeatureSupport.NONE, t.supportsFiltering(IndexedBean.class,
+                    predicate(dictionary, "name", Operator.IN_INSENSITIVE, "AL")));
+        }
+    }
+
+    @Test
+    public void testIndexedSorting() throws Exception {
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        HashMapDataStore store = populateIndexedStore(dictionary);
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            Sorting byAge = new Sorting(ImmutableMap.of("age", Sorting.SortOrder.asc));
+            Sorting byAgeDesc = new Sorting(ImmutableMap.of("age", Sorting.SortOrder.desc));
+            assertTrue(t.supportsSorting(IndexedBean.class, byAge));
+            assertFalse(t.supportsSorting(IndexedBean.class,
+                    new Sorting(ImmutableMap.of("nickname", Sorting.SortOrder.asc))));
+
+            assertEquals(Arrays.asList(3L, 5L, 4L, 1L, 6L, 2L), loadIds(t, null, byAge));
+            assertEquals(Arrays.asList(2L, 1L, 6L, 4L, 3L, 5L), loadIds(t, null, byAgeDesc));
+
+            FilterExpression old = predicate(dictionary, "age", Operator.GE, 25);
+            assertEquals(Arrays.asList(2L, 1L, 6L, 4L), loadIds(t, old, byAgeDesc));
+        }
+    }
+
+    @Test
+    public void testIndexesFollowCommits() throws Exception {
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        HashMapDataStore store = populateIndexedStore(dictionary);
+        FilterExpression young = predicate(dictionary, "age", Operator.LT, 30);
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            IndexedBean first = (IndexedBean) t.loadObject(IndexedBean.class, 1L, Optional.empty(), null);
+            IndexedBean second = (IndexedBean) t.loadObject(IndexedBean.class, 2L, Optional.empty(), null);
+            IndexedBean fourth = (IndexedBean) t.loadObject(IndexedBean.class, 4L, Optional.empty(), null);
+            first.age = 60;
+            second.age = 10;
+            t.save(first, null);
+            t.save(second, null);
+            t.delete(fourth, null);
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertEquals(Arrays.asList(2L, 6L), loadIds(t, young, null));
+        }
+
+        store.cleanseTestData();
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertEquals(new ArrayList<>(), loadIds(t, young, null));
+        }
+    }
+
+    @Test
+    public void testRowsChangedInPlaceAreWrittenBackOnCommit() throws Exception {
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        HashMapDataStore store = populateIndexedStore(dictionary);
+        FilterExpression young = predicate(dictionary, "age", Operator.LT, 30);
+
+        //The transaction changes the stored row, but never commits.
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            IndexedBean second = (IndexedBean) t.loadObject(IndexedBean.class, 2L, Optional.empty(), null);
+            second.age = 10;
+            t.setAttribute(second, "age", 10, null);
+            assertEquals(Arrays.asList(1L, 2L, 4L, 6L), loadIds(t, young, null));
+
+            //Other transactions match the row by its committed key, so the rows selected are filtered again.
+            try (DataStoreTransaction other = store.beginTransaction()) {
+                assertEquals(FeatureSupport.PARTIAL, other.supportsFiltering(IndexedBean.class, young));
+                assertEquals(Arrays.asList(1L, 4L, 6L), loadIds(other, young, null));
+            }
+        }
+
+        //Nothing is written back for a transaction which does not commit.
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertEquals(Arrays.asList(1L, 4L, 6L), loadIds(t, young, null));
+        }
+
+        //Rows changed in place are written back by a commit although they were not saved.
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            IndexedBean dana = (IndexedBean) t.loadObject(IndexedBean.class, 4L, Optional.empty(), null);
+            dana.age = 50;
+            t.setAttribute(dana, "age", 50, null);
+            t.commit(null);
+        }
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            assertEquals(Arrays.asList(1L, 6L), loadIds(t, young, null));
+        }
+    }
+
+    @Test
+    public void testRowsModifiedInPlaceAreFilteredByCurrentKeys() throws Exception {
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        HashMapDataStore store = populateIndexedStore(dictionary);
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            IndexedBean carl = (IndexedBean) t.loadObject(IndexedBean.class, 3L, Optional.empty(), null);
+            carl.name = "zoe";
+            carl.age = 33;
+            t.setAttribute(carl, "name", "zoe", null);
+            t.setAttribute(carl, "age", 33, null);
+
+            FilterExpression zoe = predicate(dictionary, "name", Operator.IN, "zoe");
+            assertEquals(Arrays.asList(3L), loadIds(t, zoe, null));
+
+            FilterExpression thirties = new AndFilterExpression(
+                    predicate(dictionary, "age", Operator.GE, 30),
+                    predicate(dictionary, "name", Operator.PREFIX, "z"));
+            assertEquals(Arrays.asList(3L), loadIds(t, thirties, null));
+        }
+    }
+
+    private static HashMapDataStore populateIndexedStore(EntityDictionary dictionary) throws Exception {
+        HashMapDataStore store = new HashMapDataStore(IndexedBean.class.getPackage());
+        store.populateEntityDictionary(dictionary);
+
+        SecondBean one = new SecondBean();
+        one.id = 1;
+        SecondBean two = new SecondBean();
+        two.id = 2;
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.createObject(one, null);
+            t.createObject(two, null);
+            t.createObject(new IndexedBean(1, "alice", 28, one), null);
+            t.createObject(new IndexedBean(2, "bob", 40, one), null);
+            t.createObject(new IndexedBean(3, "carl", null, two), null);
+            t.createObject(new IndexedBean(4, "dana", 25, two), null);
+            t.createObject(new IndexedBean(5, "alex", null, null), null);
+            t.createObject(new IndexedBean(6, "erin", 28, null), null);
+            t.commit(null);
+        }
+        return store;
+    }
+
+    private static FilterExpression predicate(EntityDictionary dictionary, String field,
+                                              Operator operator, Object... values) {
+        return new FilterPredicate(new Path(IndexedBean.class, dictionary, field), operator, Arrays.asList(values));
+    }
+
+    private static List<Long> loadIds(DataStoreTransaction t, FilterExpression filter, Sorting sorting) {
+        List<Long> ids = new ArrayList<>();
+        for (Object bean : t.loadObjects(IndexedBean.class,
+                Optional.ofNullable(filter), Optional.ofNullable(sorting), Optional.empty(), null)) {
+            ids.add(((IndexedBean) bean).id);
+        }
+        return ids;
+    }
+
+    @Test
+    public void testJournalRecovery(@TempDir java.nio.file.Path directory) throws Exception {
+        HashMapJournal journal = new HashMapJournal(directory);
+        HashMapDataStore store = new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), journal);
+        store.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+
+        SecondBean one = new SecondBean();
+        one.id = 1;
+        one.age = 7;
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.createObject(one, null);
+            t.createObject(new IndexedBean(1, "alice", 28, one), null);
+            t.createObject(new IndexedBean(2, "bob", null, null), null);
+            t.createObject(new IndexedBean(3, "carl", 35, one), null);
+            t.commit(null);
+        }
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            IndexedBean bob = (IndexedBean) t.loadObject(IndexedBean.class, 2L, Optional.empty(), null);
+            IndexedBean carl = (IndexedBean) t.loadObject(IndexedBean.class, 3L, Optional.empty(), null);
+            bob.age = 50;
+            t.save(bob, null);
+            t.delete(carl, null);
+            t.commit(null);
+        }
+        assertEquals(2, journal.getCommitCount());
+        assertTrue(journal.getLogSize() > 0);
+        journal.close();
+
+        HashMapJournal recoveredJournal = new HashMapJournal(directory);
+        EntityDictionary dictionary = new EntityDictionary(new HashMap<>());
+        HashMapDataStore recovered =
+                new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), recoveredJournal);
+        recovered.populateEntityDictionary(dictionary);
+        assertEquals(6, recoveredJournal.getRecoveredOperations());
+
+        try (DataStoreTransaction t = recovered.beginTransaction()) {
+            assertEquals(Arrays.asList(1L, 2L), loadIds(t, null, null));
+
+            IndexedBean alice = (IndexedBean) t.loadObject(IndexedBean.class, 1L, Optional.empty(), null);
+            assertEquals("alice", alice.name);
+            assertEquals(28, alice.age);
+            assertEquals(7, alice.second.age);
+            assertEquals(alice.second, t.loadObject(SecondBean.class, 1, Optional.empty(), null));
+
+            assertEquals(Arrays.asList(2L), loadIds(t, predicate(dictionary, "age", Operator.GT, 30), null));
+        }
+        recoveredJournal.close();
+    }
+
+    @Test
+    public void testJournalCompaction(@TempDir java.nio.file.Path directory) throws Exception {
+        HashMapJournal journal = new HashMapJournal(directory, 1);
+        HashMapDataStore store = new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), journal);
+        store.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+
+        for (long id = 1; id <= 3; id++) {
+            try (DataStoreTransaction t = store.beginTransaction()) {
+                t.createObject(new IndexedBean(id, "bean" + id, (int) id, null), null);
+                t.commit(null);
+            }
+        }
+        assertEquals(0, journal.getLogSize());
+
+        //Closing the journal waits for the compaction running in the background.
+        journal.close();
+        assertEquals(1, Files.list(directory).filter(file -> file.toString().contains("snapshot-")).count());
+
+        HashMapJournal recoveredJournal = new HashMapJournal(directory, 1);
+        HashMapDataStore recovered =
+                new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), recoveredJournal);
+        recovered.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+        assertEquals(0, recoveredJournal.getRecoveredOperations());
+
+        try (DataStoreTransaction t = recovered.beginTransaction()) {
+            assertEquals(Arrays.asList(1L, 2L, 3L), loadIds(t, null, null));
+        }
+        recoveredJournal.close();
+    }
+
+    @Test
+    public void testJournalRecoveryIgnoresTornEntry(@TempDir java.nio.file.Path directory) throws Exception {
+        HashMapJournal journal = new HashMapJournal(directory);
+        HashMapDataStore store = new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), journal);
+        store.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+        for (long id = 1; id <= 2; id++) {
+            try (DataStoreTransaction t = store.beginTransaction()) {
+                t.createObject(new IndexedBean(id, "bean" + id, (int) id, null), null);
+                t.commit(null);
+            }
+        }
+        journal.close();
+
+        //A crash while appending the third commit leaves part of its entry at the end of the log.
+        java.nio.file.Path log = directory.resolve("log-0.json");
+        Files.write(log, "{\"sequence\":3,\"operations\":[{\"op\":\"put\",\"type\"".getBytes(),
+                StandardOpenOption.APPEND);
+
+        HashMapJournal recoveredJournal = new HashMapJournal(directory);
+        HashMapDataStore recovered =
+                new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), recoveredJournal);
+        recovered.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+        assertEquals(2, recoveredJournal.getRecoveredOperations());
+
+        //Commits after the torn entry are recovered as well.
+        try (DataStoreTransaction t = recovered.beginTransaction()) {
+            assertEquals(Arrays.asList(1L, 2L), loadIds(t, null, null));
+            t.createObject(new IndexedBean(3, "bean3", 3, null), null);
+            t.commit(null);
+        }
+        recoveredJournal.close();
+
+        HashMapJournal reopenedJournal = new HashMapJournal(directory);
+        HashMapDataStore reopened =
+                new HashMapDataStore(ImmutableSet.of(IndexedBean.class.getPackage()), reopenedJournal);
+        reopened.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+        try (DataStoreTransaction t = reopened.beginTransaction()) {
+            assertEquals(Arrays.asList(1L, 2L, 3L), loadIds(t, null, null));
+        }
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void testBulkInsertComparesEachRowOnce() throws Exception {
+        HashMapDataStore store = new HashMapDataStore(CountingBean.class.getPackage());
+        store.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+
+        int batch = 5000;
+        for (int round = 0; round < 2; round++) {
+            CountingBean.EQUALS_CALLS.set(0);
+            try (DataStoreTransaction t = store.beginTransaction()) {
+                for (int i = 0; i < batch; i++) {
+                    t.createObject(new CountingBean(), null);
+                }
+                t.commit(null);
+            }
+
+            //Duplicate detection must not compare a new row against every stored row.
+            assertTrue(CountingBean.EQUALS_CALLS.get() <= batch);
+        }
+
+        Set<Long> ids = new HashSet<>();
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.loadObjects(CountingBean.class, Optional.empty(), Optional.empty(), Optional.empty(), null)
+                    .forEach(bean -> ids.add(((CountingBean) bean).id));
+
+            CountingBean stored = (CountingBean) t.loadObject(CountingBean.class, 1L, Optional.empty(), null);
+            assertThrows(TransactionException.class, () -> t.createObject(stored, null));
+        }
+        assertEquals(2 * batch, ids.size());
+        assertEquals(2L * batch, ids.stream().mapToLong(Long::longValue).max().getAsLong());
+    }
+
+    @Test
+    public void testGeneratedIdsSkipAssignedIds() throws Exception {
+        HashMapDataStore store = new HashMapDataStore(FirstBean.class.getPackage());
+        store.populateEntityDictionary(new EntityDictionary(new HashMap<>()));
+
+        FirstBean generated = new FirstBean();
+        FirstBean named = new FirstBean();
+        named.id = "named";
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.createObject(generated, null);
+            t.commit(null);
+        }
+        assertEquals("1", generated.id);
+
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            FirstBean assigned = new FirstBean();
+            assigned.id = "10";
+            t.save(assigned, null);
+            t.save(named, null);
+            t.commit(null);
+        }
+
+        FirstBean next = new FirstBean();
+        try (DataStoreTransaction t = store.beginTransaction()) {
+            t.createObject(next, null);
+            t.commit(null);
+        }
+        assertEquals("11", next.id);
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.example.beans;
+
+import com.yahoo.elide.annotation.Include;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+/**
+ * Test bean which counts how often it is compared for equality.
+ */
+@Entity
+@Include
+public class CountingBean {
+    public static final AtomicLong EQUALS_CALLS = new AtomicLong();
+
+    @Id
+    @GeneratedValue
+    public Long id;
+
+    public String name;
+
+    @Override
+    public boolean equals(Object other) {
+        EQUALS_CALLS.incrementAndGet();
+        return other instanceof CountingBean && id != null && id.equals(((CountingBean) other).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
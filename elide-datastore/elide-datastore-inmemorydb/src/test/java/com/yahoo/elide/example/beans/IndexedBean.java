@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.example.beans;
+
+import com.yahoo.elide.annotation.Include;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * Test bean with secondary indexes.
+ */
+@Entity
+@Include
+@Table(indexes = {
+        @Index(columnList = "name"),
+        @Index(columnList = "age"),
+        @Index(columnList = "second")
+})
+public class IndexedBean {
+    @Id
+    public long id;
+
+    public String name;
+
+    public Integer age;
+
+    public String nickname;
+
+    @ManyToOne
+    public SecondBean second;
+
+    public IndexedBean() {
+    }
+
+    public IndexedBean(long id, String name, Integer age, SecondBean second) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.second = second;
+    }
+}
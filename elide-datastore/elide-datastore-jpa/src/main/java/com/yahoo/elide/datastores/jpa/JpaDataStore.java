@@ -18,6 +18,28 @@ import javax.persistence.metamodel.EntityType;
 
 /**
  * Implementation for JPA EntityManager data store.
+ * <p>
+ * Reads such as GET requests and GraphQL queries use the read transaction supplier.  Supplying read-only transactions,
+ * for example {@code new NonJtaTransaction(entityManager).withReadOnly()}, skips flushing and dirty checking them.
+ * <p>
+ * Large reads can stream their results rather than load them into a list.  Streaming is enabled by supplying read
+ * transactions created with a fetch size, for example
+ * {@code new NonJtaTransaction(entityManager, fetchSize)}.  It only avoids the intermediate result list: the
+ * streamed entities stay managed by the entity manager and are kept until the response is built, so it does not
+ * bound the memory of a request.  A streamed result can only be iterated once, and iterating it again throws an
+ * {@link IllegalStateException}.
+ * <p>
+ * Paging through a collection counts its records for every page when page totals are requested.  Transactions
+ * supplied with a shared cache, for example {@code new NonJtaTransaction(entityManager).withPageTotalsCache(cache)},
+ * count them once until the totals expire.
+ * <p>
+ * Writes are replayed in the order they were made when a transaction is flushed.  Large writes can be replayed in
+ * bulk, grouped by operation and entity type, sent in JDBC batches and flushed every few entities, by
+ * supplying write transactions such as {@code new NonJtaTransaction(entityManager).withBulkWrites(batchSize)}.
+ * <p>
+ * Collections are loaded with their to-one relationships fetch joined.  Transactions created with
+ * {@code withSparseFieldsProjection()} leave out the lazy relationships which the sparse fieldsets of a request
+ * exclude.
  */
 public class JpaDataStore implements JPQLDataStore {
     protected final EntityManagerSupplier entityManagerSupplier;
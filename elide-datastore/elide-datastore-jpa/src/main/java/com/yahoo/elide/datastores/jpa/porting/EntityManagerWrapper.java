@@ -8,6 +8,7 @@ package com.yahoo.elide.datastores.jpa.porting;
 import com.yahoo.elide.core.hibernate.Query;
 import com.yahoo.elide.core.hibernate.Session;
 
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.persistence.EntityManager;
@@ -18,8 +19,16 @@ import javax.persistence.EntityManager;
  */
 @Slf4j
 public class EntityManagerWrapper implements Session {
+    /* Hibernate keeps no snapshots of entities read by queries with this hint.  Other providers ignore it. */
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
     private EntityManager entityManager;
 
+    /**
+     * Whether created queries are hinted to return read-only entities.
+     */
+    @Setter private boolean readOnly;
+
     public EntityManagerWrapper(EntityManager entityManager) {
         this.entityManager = entityManager;
     }
@@ -31,6 +40,10 @@ public class EntityManagerWrapper implements Session {
     @Override
     public Query createQuery(String queryText) {
         logQuery(queryText);
-        return new QueryWrapper(entityManager.createQuery(queryText));
+        javax.persistence.Query query = entityManager.createQuery(queryText);
+        if (readOnly) {
+            query.setHint(READ_ONLY_HINT, true);
+        }
+        return new QueryWrapper(query);
     }
 }
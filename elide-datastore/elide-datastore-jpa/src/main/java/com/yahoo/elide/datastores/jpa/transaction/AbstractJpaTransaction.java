@@ -15,10 +15,14 @@ import com.yahoo.elide.core.filter.Operator;
 import com.yahoo.elide.core.filter.expression.AndFilterExpression;
 import com.yahoo.elide.core.filter.expression.FilterExpression;
 import com.yahoo.elide.core.hibernate.hql.AbstractHQLQueryBuilder;
+import com.yahoo.elide.core.hibernate.hql.HQLQueryCache;
+import com.yahoo.elide.core.hibernate.hql.HQLTransactionHelper;
+import com.yahoo.elide.core.hibernate.hql.PageTotalsCache;
 import com.yahoo.elide.core.hibernate.hql.RelationshipImpl;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionFetchQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.RootCollectionPageTotalsQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.SubCollectionFetchQueryBuilder;
+import com.yahoo.elide.core.hibernate.hql.SubCollectionIdentifierQueryBuilder;
 import com.yahoo.elide.core.hibernate.hql.SubCollectionPageTotalsQueryBuilder;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.core.sort.Sorting;
@@ -31,15 +35,21 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
 import javax.persistence.NoResultException;
+import javax.persistence.PersistenceUnitUtil;
 import javax.validation.ConstraintViolationException;
 
 /**
@@ -50,27 +60,118 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
     private static final Predicate<Collection<?>> IS_PERSISTENT_COLLECTION =
             new PersistentCollectionChecker();
 
+    /* Fetch size hints understood by Hibernate and EclipseLink. */
+    private static final String HIBERNATE_FETCH_SIZE = "org.hibernate.fetchSize";
+    private static final String ECLIPSELINK_FETCH_SIZE = "eclipselink.jdbc.fetch-size";
+    private static final String HIBERNATE_FLUSH_MODE = "org.hibernate.flushMode";
+
     protected final EntityManager em;
     private final EntityManagerWrapper emWrapper;
-    private final LinkedHashSet<Runnable> deferredTasks = new LinkedHashSet<>();
+    private final HQLTransactionHelper helper;
+    private final DeferredWrites deferredWrites;
+    private final int streamFetchSize;
+    private final List<StreamingIterable<?>> openStreams = new ArrayList<>();
+    private final Set<Class<?>> writtenTypes = new HashSet<>();
+    private Optional<PageTotalsCache> pageTotalsCache = Optional.empty();
+    private long pageTotalsVersion;
+    private int bulkWriteSize = 0;
+    private boolean sparseFieldsProjection = false;
 
     protected AbstractJpaTransaction(EntityManager em) {
+        this(em, 0);
+    }
+
+    /**
+     * Constructor.
+     * <p>
+     * When streaming is enabled, collections are returned as lazily iterated results backed by
+     * {@link javax.persistence.Query#getResultStream()} rather than as lists.  Rows are fetched from the database
+     * as they are consumed.  The returned entities stay managed, since they are still used to build the response, so
+     * streaming only saves the list itself.  The results can only be iterated once.
+     *
+     * @param em The entity manager
+     * @param streamFetchSize The JDBC fetch size of streamed queries, or 0 to disable streaming
+     */
+    protected AbstractJpaTransaction(EntityManager em, int streamFetchSize) {
         this.em = em;
         this.emWrapper = new EntityManagerWrapper(em);
+        this.helper = new HQLTransactionHelper(emWrapper, query -> ((QueryWrapper) query).getQuery().getResultList(),
+                val -> val instanceof Collection && IS_PERSISTENT_COLLECTION.test((Collection<?>) val));
+        this.deferredWrites = new DeferredWrites(em);
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * Serves page totals from a cache shared by the transactions of a store, rather than counting them for every
+     * page.  Totals are evicted when this transaction commits writes to the counted types, but writes made by other
+     * processes are only reflected once the totals expire.  It must be set when the transaction begins, since totals
+     * counted by this transaction are not cached if their types were written since.
+     *
+     * @param pageTotalsCache The cache
+     * @return this transaction
+     */
+    public AbstractJpaTransaction withPageTotalsCache(PageTotalsCache pageTotalsCache) {
+        this.pageTotalsCache = Optional.of(pageTotalsCache);
+        this.pageTotalsVersion = pageTotalsCache.getVersion();
+        return this;
+    }
+
+    /**
+     * Replays the writes of a flush in bulk.  The writes are grouped by operation and entity type, except where that
+     * would reorder writes of associated types, and sent in JDBC batches when the persistence provider is Hibernate.
+     * The persistence context is flushed every few writes, so the statements of large writes such as imports are
+     * sent as they are batched rather than all at commit.  It is not cleared, since the written entities are still
+     * used to build the response and by the triggers run on commit.  Hibernate does not batch the inserts of entities
+     * with identity generated identifiers.
+     *
+     * @param bulkWriteSize The JDBC batch size, and the number of writes after which the persistence context is
+     *                      flushed
+     * @return this transaction
+     */
+    public AbstractJpaTransaction withBulkWrites(int bulkWriteSize) {
+        this.bulkWriteSize = bulkWriteSize;
+        return this;
+    }
+
+    /**
+     * Fetches the lazy to-one relationships of loaded collections only when the client reads them, as named by the
+     * sparse fieldsets and the include parameter of the request.  Relationships which are not fetched are loaded on
+     * access instead, so it should only be enabled when permission checks and computed attributes do not read
+     * relationships outside the requested fields.
+     *
+     * @return this transaction
+     */
+    public AbstractJpaTransaction withSparseFieldsProjection() {
+        this.sparseFieldsProjection = true;
+        return this;
+    }
+
+    /**
+     * Reads without tracking changes to the loaded entities, for transactions which do not write such as those
+     * begun by {@link com.yahoo.elide.datastores.jpa.JpaDataStore#beginReadTransaction()}.  The persistence context is
+     * never flushed, and queries are hinted to return read-only entities, for which Hibernate keeps no snapshots for
+     * dirty checking.  Providers other than Hibernate ignore the Hibernate flush mode and hints, so they still flush
+     * on commit.
+     *
+     * @return this transaction
+     */
+    public AbstractJpaTransaction withReadOnly() {
+        em.setFlushMode(FlushModeType.COMMIT);
+        em.setProperty(HIBERNATE_FLUSH_MODE, "MANUAL");
+        emWrapper.setReadOnly(true);
+        return this;
     }
 
     @Override
     public void delete(Object object, RequestScope scope) {
-        deferredTasks.add(() -> em.remove(object));
+        writtenTypes.add(object.getClass());
+        deferredWrites.add(DeferredWrites.Operation.REMOVE, object);
     }
 
     @Override
     public void save(Object object, RequestScope scope) {
-        deferredTasks.add(() -> {
-            if (!em.contains(object)) {
-                em.merge(object);
-            }
-        });
+        writtenTypes.add(object.getClass());
+        deferredWrites.add(DeferredWrites.Operation.MERGE, object);
     }
 
     @Override
@@ -79,8 +180,17 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
             return;
         }
         try {
-            deferredTasks.forEach(Runnable::run);
-            deferredTasks.clear();
+            if (bulkWriteSize > 0) {
+                Map<String, Integer> writes = replayInBulk();
+                if (!writes.isEmpty()) {
+                    log.debug("Flushed writes {} in JDBC batches of {}", writes, bulkWriteSize);
+                }
+            } else {
+                Map<String, Integer> writes = deferredWrites.replay();
+                if (!writes.isEmpty()) {
+                    log.debug("Flushed writes {}", writes);
+                }
+            }
             FlushModeType flushMode = em.getFlushMode();
             if (flushMode == FlushModeType.AUTO && isOpen()) {
                 em.flush();
@@ -100,6 +210,19 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
         }
     }
 
+    /**
+     * Replays the deferred writes in bulk, with the JDBC batch size of a Hibernate session set to the bulk write
+     * size until they are flushed.
+     *
+     * @return The number of writes of each operation and entity type
+     */
+    private Map<String, Integer> replayInBulk() {
+        if (!HibernateJdbcBatching.isHibernate(em)) {
+            return deferredWrites.replay(bulkWriteSize);
+        }
+        return HibernateJdbcBatching.withJdbcBatchSize(em, bulkWriteSize, () -> deferredWrites.replay(bulkWriteSize));
+    }
+
     @Override
     public abstract boolean isOpen();
 
@@ -108,29 +231,37 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
         flush(scope);
     }
 
+    /**
+     * Evicts the page totals of the types this transaction wrote.  Subclasses call it once the underlying
+     * transaction has committed, since totals counted before then do not include its writes.
+     */
+    protected void evictPageTotals() {
+        pageTotalsCache.ifPresent(cache -> writtenTypes.forEach(cache::invalidate));
+        writtenTypes.clear();
+    }
+
     @Override
     public void rollback() {
-        deferredTasks.clear();
+        deferredWrites.clear();
+        writtenTypes.clear();
     }
 
     @Override
     public void close() throws IOException {
+        openStreams.forEach(StreamingIterable::close);
+        openStreams.clear();
         if (isOpen()) {
             rollback();
         }
-        if (deferredTasks.size() > 0) {
+        if (!deferredWrites.isEmpty()) {
             throw new IOException("Transaction not closed");
         }
     }
 
     @Override
     public void createObject(Object entity, RequestScope scope) {
-
-         deferredTasks.add(() -> {
-            if (!em.contains(entity)) {
-                em.persist(entity);
-            }
-         });
+        writtenTypes.add(entity.getClass());
+        deferredWrites.add(DeferredWrites.Operation.PERSIST, entity);
     }
 
     /**
@@ -167,6 +298,7 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
 
             QueryWrapper query =
                     (QueryWrapper) new RootCollectionFetchQueryBuilder(entityClass, dictionary, emWrapper)
+                            .withQueryCache(HQLQueryCache.getSharedInstance())
                             .withPossibleFilterExpression(Optional.of(joinedExpression))
                             .build();
 
@@ -176,6 +308,12 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
         }
     }
 
+    @Override
+    public boolean supportsKeysetPagination(Class<?> entityClass) {
+        //The query builders translate keyset cursors into predicates on the sort keys.
+        return true;
+    }
+
     @Override
     public Iterable<Object> loadObjects(
             Class<?> entityClass,
@@ -184,20 +322,29 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
             Optional<Pagination> pagination,
             RequestScope scope) {
 
-        pagination.ifPresent(p -> {
-            if (p.isGenerateTotals()) {
-                p.setPageTotals(getTotalRecords(entityClass, filterExpression, scope.getDictionary()));
-            }
-        });
+        //Streamed pages are not read before they are returned, so their totals are counted up front.
+        Optional<Pagination> totals = pagination.filter(Pagination::isGenerateTotals);
+        if (streamFetchSize > 0) {
+            totals.ifPresent(p -> p.setPageTotals(getTotalRecords(entityClass, filterExpression,
+                    scope.getDictionary())));
+        }
 
         QueryWrapper query =
                 (QueryWrapper) new RootCollectionFetchQueryBuilder(entityClass, scope.getDictionary(), emWrapper)
+                        .withQueryCache(HQLQueryCache.getSharedInstance())
+                        .withPossibleSparseFields(
+                                HQLTransactionHelper.getSparseFields(sparseFieldsProjection, entityClass, scope))
                         .withPossibleFilterExpression(filterExpression)
                         .withPossibleSorting(sorting)
                         .withPossiblePagination(pagination)
                         .build();
 
-        return query.getQuery().getResultList();
+        Iterable<Object> results = getResults(query);
+        if (streamFetchSize <= 0) {
+            totals.ifPresent(p -> p.setPageTotals(HQLTransactionHelper.getTotalsFromPage(p, results)
+                    .orElseGet(() -> getTotalRecords(entityClass, filterExpression, scope.getDictionary()))));
+        }
+        return results;
     }
 
     @Override
@@ -234,11 +381,14 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
                         entity,
                         filteredVal);
 
-                pagination.ifPresent(p -> {
-                    if (p.isGenerateTotals()) {
-                        p.setPageTotals(getTotalRecords(relationship, filterExpression, dictionary));
-                    }
-                });
+                //Filters over to-many relationships may repeat members in a page, which then cannot be counted.
+                Optional<Pagination> totals = pagination.filter(Pagination::isGenerateTotals);
+                boolean countable = streamFetchSize <= 0
+                        && !HQLTransactionHelper.joinsToMany(dictionary, filterExpression);
+                if (!countable) {
+                    totals.ifPresent(p -> p.setPageTotals(getTotalRecords(relationship, filterExpression,
+                            dictionary)));
+                }
 
                 QueryWrapper query = (QueryWrapper)
                         new SubCollectionFetchQueryBuilder(relationship, dictionary, emWrapper)
@@ -248,13 +398,116 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
                                 .build();
 
                 if (query != null) {
-                    return query.getQuery().getResultList();
+                    Iterable<Object> results = getResults(query);
+                    if (countable) {
+                        totals.ifPresent(p -> p.setPageTotals(HQLTransactionHelper.getTotalsFromPage(p, results)
+                                .orElseGet(() -> getTotalRecords(relationship, filterExpression, dictionary))));
+                    }
+                    return results;
                 }
             }
         }
         return val;
     }
 
+    @Override
+    public Map<Object, Object> getRelations(
+            DataStoreTransaction relationTx,
+            Collection<?> entities,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            Optional<Sorting> sorting,
+            RequestScope scope) {
+
+        PersistenceUnitUtil persistenceUnitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        return helper.getRelations(entities, relationName, filterExpression, sorting, scope,
+                (entity, val) -> persistenceUnitUtil.isLoaded(entity, relationName),
+                entity -> getRelation(relationTx, entity, relationName, filterExpression, sorting,
+                        Optional.empty(), scope));
+    }
+
+    @Override
+    public Map<Object, Collection<String>> getRelationsIdentifiers(
+            DataStoreTransaction relationTx,
+            Collection<?> entities,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            RequestScope scope) {
+
+        PersistenceUnitUtil persistenceUnitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        return helper.getRelationsIdentifiers(entities, relationName, filterExpression, scope,
+                (entity, val) -> persistenceUnitUtil.isLoaded(entity, relationName),
+                entity -> getRelationIdentifiers(relationTx, entity, relationName, filterExpression, scope));
+    }
+
+    @Override
+    public Collection<String> getRelationIdentifiers(
+            DataStoreTransaction relationTx,
+            Object entity,
+            String relationName,
+            Optional<FilterExpression> filterExpression,
+            RequestScope scope) {
+
+        EntityDictionary dictionary = scope.getDictionary();
+        PersistenceUnitUtil persistenceUnitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Object val = com.yahoo.elide.core.PersistentResource.getValue(entity, relationName, scope);
+
+        if (val instanceof Collection) {
+            Collection<?> filteredVal = (Collection<?>) val;
+
+            //Collections which are already loaded and need no filtering are read as they are.
+            if (IS_PERSISTENT_COLLECTION.test(filteredVal)
+                    && (filterExpression.isPresent() || !persistenceUnitUtil.isLoaded(entity, relationName))) {
+                RelationshipImpl relationship = new RelationshipImpl(
+                        dictionary.lookupEntityClass(entity.getClass()),
+                        dictionary.getParameterizedType(entity, relationName),
+                        relationName,
+                        entity,
+                        filteredVal);
+
+                QueryWrapper query = (QueryWrapper)
+                        new SubCollectionIdentifierQueryBuilder(relationship, dictionary, emWrapper)
+                                .withPossibleFilterExpression(filterExpression)
+                                .build();
+
+                List<String> identifiers = new ArrayList<>();
+                for (Object identifier : query.getQuery().getResultList()) {
+                    identifiers.add(String.valueOf(identifier));
+                }
+                return identifiers;
+            }
+        } else if (val != null && !filterExpression.isPresent()) {
+
+            //The identifier of a lazy object is read from its proxy without loading it.
+            Object identifier = persistenceUnitUtil.getIdentifier(val);
+            if (identifier != null) {
+                return Collections.singletonList(String.valueOf(identifier));
+            }
+        }
+        return JpaTransaction.super.getRelationIdentifiers(relationTx, entity, relationName, filterExpression,
+                scope);
+    }
+
+    /**
+     * Runs a collection query.  The results are streamed if streaming is enabled, in which case they can only be
+     * iterated once.
+     *
+     * @param query The query
+     * @return The results
+     */
+    private Iterable<Object> getResults(QueryWrapper query) {
+        javax.persistence.Query jpaQuery = query.getQuery();
+        if (streamFetchSize <= 0) {
+            return jpaQuery.getResultList();
+        }
+
+        jpaQuery.setHint(HIBERNATE_FETCH_SIZE, streamFetchSize);
+        jpaQuery.setHint(ECLIPSELINK_FETCH_SIZE, streamFetchSize);
+        StreamingIterable<Object> results = new StreamingIterable<>(jpaQuery.getResultStream());
+        openStreams.add(results);
+        return results;
+    }
+
     /**
      * Returns the total record count for a root entity and an optional filter expression.
      *
@@ -269,12 +522,19 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
                                      EntityDictionary dictionary) {
 
 
-        QueryWrapper query = (QueryWrapper)
-                new RootCollectionPageTotalsQueryBuilder(entityClass, dictionary, emWrapper)
-                        .withPossibleFilterExpression(filterExpression)
-                        .build();
+        Supplier<Long> count = () -> {
+            QueryWrapper query = (QueryWrapper)
+                    new RootCollectionPageTotalsQueryBuilder(entityClass, dictionary, emWrapper)
+                            .withQueryCache(HQLQueryCache.getSharedInstance())
+                            .withPossibleFilterExpression(filterExpression)
+                            .build();
 
-        return (Long) query.getQuery().getSingleResult();
+            return (Long) query.getQuery().getSingleResult();
+        };
+
+        return pageTotalsCache
+                .map(cache -> cache.getTotals(entityClass, filterExpression, pageTotalsVersion, count))
+                .orElseGet(count);
     }
 
     /**
@@ -290,12 +550,19 @@ public abstract class AbstractJpaTransaction implements JpaTransaction {
                                      Optional<FilterExpression> filterExpression,
                                      EntityDictionary dictionary) {
 
-        QueryWrapper query = (QueryWrapper)
-                new SubCollectionPageTotalsQueryBuilder(relationship, dictionary, emWrapper)
-                        .withPossibleFilterExpression(filterExpression)
-                        .build();
+        Supplier<Long> count = () -> {
+            QueryWrapper query = (QueryWrapper)
+                    new SubCollectionPageTotalsQueryBuilder(relationship, dictionary, emWrapper)
+                            .withPossibleFilterExpression(filterExpression)
+                            .build();
+
+            return (Long) query.getQuery().getSingleResult();
+        };
 
-        return (Long) query.getQuery().getSingleResult();
+        return pageTotalsCache
+                .map(cache -> cache.getTotals(relationship, dictionary, filterExpression, pageTotalsVersion,
+                        count))
+                .orElseGet(count);
     }
 
     @Override
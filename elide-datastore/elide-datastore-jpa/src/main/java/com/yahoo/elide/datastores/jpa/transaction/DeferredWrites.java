@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.jpa.transaction;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+
+/**
+ * The writes a transaction queues until it is flushed.
+ * <p>
+ * Writes are replayed in the order they were queued, since later writes may depend on earlier ones, for example
+ * through foreign keys.  Consecutive writes with the same operation and entity type make up runs of identical
+ * statements, which the persistence provider sends together when JDBC batching is enabled.  In bulk mode, writes
+ * are grouped by operation and entity type to make those runs longer, and the persistence context is flushed every
+ * few writes.  It is never cleared, since the written entities are still used to build the response and by the
+ * triggers run on commit.
+ */
+class DeferredWrites {
+    /**
+     * The operation of a write.
+     */
+    enum Operation {
+        PERSIST,
+        MERGE,
+        REMOVE
+    }
+
+    private final EntityManager entityManager;
+    private final List<Pair<Operation, Object>> writes = new ArrayList<>();
+
+    /* The types each entity type is associated with, by entity type */
+    private final Map<Class<?>, Set<Class<?>>> associations = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager The entity manager which writes the entities
+     */
+    DeferredWrites(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    void add(Operation operation, Object entity) {
+        writes.add(Pair.of(operation, entity));
+    }
+
+    boolean isEmpty() {
+        return writes.isEmpty();
+    }
+
+    void clear() {
+        writes.clear();
+    }
+
+    /**
+     * Replays and clears the queued writes, in the order they were queued.
+     *
+     * @return The number of writes of each operation and entity type, in the order they were first replayed
+     */
+    Map<String, Integer> replay() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Pair<Operation, Object> write : writes) {
+            apply(write);
+            counts.merge(getName(write), 1, Integer::sum);
+        }
+
+        writes.clear();
+        return counts;
+    }
+
+    /**
+     * Replays and clears the queued writes grouped by operation and entity type, flushing the persistence context
+     * every few writes.  A write is only moved ahead of the writes queued before it when none of them is of its type
+     * or of a type associated with it, so writes which may depend on each other keep their order.  The persistence
+     * context is only flushed once no entity of a type associated with those written since the last flush remains
+     * to be persisted, since the entities written may reference it.
+     *
+     * @param bulkWriteSize The number of writes after which the persistence context is flushed
+     * @return The number of writes of each operation and entity type, in the order they were first replayed
+     */
+    Map<String, Integer> replay(int bulkWriteSize) {
+        List<List<Pair<Operation, Object>>> groups = getGroups();
+
+        Map<Class<?>, Integer> unpersisted = new HashMap<>();
+        writes.stream()
+                .filter(write -> write.getLeft() == Operation.PERSIST)
+                .forEach(write -> unpersisted.merge(write.getRight().getClass(), 1, Integer::sum));
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Set<Class<?>> sinceFlush = new HashSet<>();
+        int writesSinceFlush = 0;
+        for (List<Pair<Operation, Object>> group : groups) {
+            for (Pair<Operation, Object> write : group) {
+                Class<?> type = write.getRight().getClass();
+                apply(write);
+                counts.merge(getName(write), 1, Integer::sum);
+                if (write.getLeft() == Operation.PERSIST) {
+                    unpersisted.computeIfPresent(type, (key, count) -> count > 1 ? count - 1 : null);
+                }
+                sinceFlush.add(type);
+
+                if (++writesSinceFlush >= bulkWriteSize && sinceFlush.stream().noneMatch(written ->
+                        unpersisted.keySet().stream().anyMatch(pending -> isAssociated(written, pending)))) {
+                    entityManager.flush();
+                    sinceFlush.clear();
+                    writesSinceFlush = 0;
+                }
+            }
+        }
+        if (writesSinceFlush > 0) {
+            entityManager.flush();
+        }
+
+        writes.clear();
+        return counts;
+    }
+
+    private void apply(Pair<Operation, Object> write) {
+        Object entity = write.getRight();
+        switch (write.getLeft()) {
+            case PERSIST:
+                if (!entityManager.contains(entity)) {
+                    entityManager.persist(entity);
+                }
+                break;
+            case MERGE:
+                if (!entityManager.contains(entity)) {
+                    entityManager.merge(entity);
+                }
+                break;
+            default:
+                entityManager.remove(entity);
+                break;
+        }
+    }
+
+    /**
+     * Groups the queued writes by operation and entity type.  Each write joins the latest group of its operation
+     * and type, unless a later group is of its type or of an associated type.
+     *
+     * @return The groups, in the order they were first queued
+     */
+    private List<List<Pair<Operation, Object>>> getGroups() {
+        List<List<Pair<Operation, Object>>> groups = new ArrayList<>();
+        for (Pair<Operation, Object> write : writes) {
+            Class<?> type = write.getRight().getClass();
+            List<Pair<Operation, Object>> target = null;
+            for (int i = groups.size() - 1; i >= 0; i--) {
+                Pair<Operation, Object> first = groups.get(i).get(0);
+                Class<?> groupType = first.getRight().getClass();
+                if (groupType == type && first.getLeft() == write.getLeft()) {
+                    target = groups.get(i);
+                    break;
+                }
+                if (groupType == type || isAssociated(type, groupType)) {
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new ArrayList<>();
+                groups.add(target);
+            }
+            target.add(write);
+        }
+        return groups;
+    }
+
+    private boolean isAssociated(Class<?> left, Class<?> right) {
+        return getAssociations(left).stream().anyMatch(type -> isRelated(type, right))
+                || getAssociations(right).stream().anyMatch(type -> isRelated(type, left));
+    }
+
+    private static boolean isRelated(Class<?> left, Class<?> right) {
+        return left.isAssignableFrom(right) || right.isAssignableFrom(left);
+    }
+
+    /**
+     * Returns the types an entity type is associated with, including through its embedded attributes.  Types
+     * unknown to the persistence unit are treated as associated with every type.
+     *
+     * @param type The entity type
+     * @return The associated types
+     */
+    private Set<Class<?>> getAssociations(Class<?> type) {
+        return associations.computeIfAbsent(type, key -> {
+            Set<Class<?>> types = new HashSet<>();
+            try {
+                addAssociations(entityManager.getMetamodel().managedType(key), types);
+            } catch (IllegalArgumentException e) {
+                types.add(Object.class);
+            }
+            return types;
+        });
+    }
+
+    private static void addAssociations(ManagedType<?> managedType, Set<Class<?>> types) {
+        for (Attribute<?, ?> attribute : managedType.getAttributes()) {
+            if (attribute instanceof PluralAttribute) {
+                addType(((PluralAttribute<?, ?, ?>) attribute).getElementType(), types);
+            } else if (attribute.isAssociation()
+                    || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
+                addType(((SingularAttribute<?, ?>) attribute).getType(), types);
+            }
+        }
+    }
+
+    private static void addType(Type<?> type, Set<Class<?>> types) {
+        if (type.getPersistenceType() == Type.PersistenceType.EMBEDDABLE) {
+            addAssociations((ManagedType<?>) type, types);
+        } else {
+            types.add(type.getJavaType());
+        }
+    }
+
+    private static String getName(Pair<Operation, Object> write) {
+        return write.getLeft() + " " + write.getRight().getClass().getSimpleName();
+    }
+}
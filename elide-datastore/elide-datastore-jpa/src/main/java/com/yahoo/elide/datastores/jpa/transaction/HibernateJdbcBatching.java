@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.jpa.transaction;
+
+import org.hibernate.Session;
+
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Sets the JDBC batch size of a Hibernate session.  It is only loaded when the persistence provider is Hibernate,
+ * since the JPA store does not otherwise depend on Hibernate.
+ */
+class HibernateJdbcBatching {
+    private HibernateJdbcBatching() {
+    }
+
+    /**
+     * Whether an entity manager is backed by a Hibernate session.
+     *
+     * @param entityManager The entity manager
+     * @return true if the persistence provider is Hibernate
+     */
+    static boolean isHibernate(EntityManager entityManager) {
+        Object delegate = entityManager.getDelegate();
+        return delegate != null && delegate.getClass().getName().startsWith("org.hibernate.");
+    }
+
+    /**
+     * Runs work with the JDBC batch size of the session of an entity manager set, and then restores it.
+     *
+     * @param entityManager The entity manager, backed by a Hibernate session
+     * @param jdbcBatchSize The JDBC batch size
+     * @param work The work
+     * @param <T> The result type of the work
+     * @return The result of the work
+     */
+    static <T> T withJdbcBatchSize(EntityManager entityManager, int jdbcBatchSize, Supplier<T> work) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previous = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(jdbcBatchSize);
+        try {
+            return work.get();
+        } finally {
+            session.setJdbcBatchSize(previous);
+        }
+    }
+}
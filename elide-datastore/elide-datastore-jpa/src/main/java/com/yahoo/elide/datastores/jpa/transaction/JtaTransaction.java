@@ -28,7 +28,18 @@ public class JtaTransaction extends AbstractJpaTransaction {
     }
 
     public JtaTransaction(EntityManager entityManager, UserTransaction transaction) {
-        super(entityManager);
+        this(entityManager, transaction, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager The entity manager
+     * @param transaction The user transaction
+     * @param streamFetchSize The JDBC fetch size of streamed queries, or 0 to disable streaming
+     */
+    public JtaTransaction(EntityManager entityManager, UserTransaction transaction, int streamFetchSize) {
+        super(entityManager, streamFetchSize);
         this.transaction = transaction;
     }
 
@@ -60,6 +71,7 @@ public class JtaTransaction extends AbstractJpaTransaction {
             log.error("Fail UserTransaction#commit()", e);
             throw new TransactionException(e);
         }
+        evictPageTotals();
     }
 
     @Override
@@ -21,7 +21,17 @@ public class NonJtaTransaction extends AbstractJpaTransaction {
     private final EntityTransaction transaction;
 
     public NonJtaTransaction(EntityManager entityManager) {
-        super(entityManager);
+        this(entityManager, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param entityManager The entity manager
+     * @param streamFetchSize The JDBC fetch size of streamed queries, or 0 to disable streaming
+     */
+    public NonJtaTransaction(EntityManager entityManager, int streamFetchSize) {
+        super(entityManager, streamFetchSize);
         this.transaction = entityManager.getTransaction();
         entityManager.clear();
     }
@@ -38,6 +48,7 @@ public class NonJtaTransaction extends AbstractJpaTransaction {
         if (transaction.isActive()) {
             super.commit(scope);
             transaction.commit();
+            evictPageTotals();
         }
     }
 
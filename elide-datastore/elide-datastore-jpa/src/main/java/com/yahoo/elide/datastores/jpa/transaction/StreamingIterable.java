@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.jpa.transaction;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Iterates a streamed query result once, fetching rows from the database as they are consumed.
+ * <p>
+ * The result can only be iterated once, since the rows already returned are not kept.  The stream is closed once it
+ * is exhausted, or when the transaction closes.
+ *
+ * @param <T> type of return object
+ */
+class StreamingIterable<T> implements Iterable<T>, Iterator<T>, Closeable {
+    private final Stream<T> stream;
+    private final Iterator<T> rows;
+    private boolean inUse = false;
+    private boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param stream The query result stream
+     */
+    StreamingIterable(Stream<T> stream) {
+        this.stream = stream;
+        this.rows = stream.iterator();
+    }
+
+    /**
+     * Returns the iterator of the result.
+     *
+     * @return The iterator
+     * @throws IllegalStateException if the result has already been iterated
+     */
+    @Override
+    public Iterator<T> iterator() {
+        if (inUse) {
+            throw new IllegalStateException("A streamed query result can only be iterated once");
+        }
+
+        inUse = true;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!rows.hasNext()) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return rows.next();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            stream.close();
+        }
+    }
+}
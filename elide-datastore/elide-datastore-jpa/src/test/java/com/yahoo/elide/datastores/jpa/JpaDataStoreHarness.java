@@ -90,6 +90,7 @@ public class JpaDataStoreHarness implements DataStoreTestHarness {
 
         store = new JpaDataStore(
                 () -> { return emf.createEntityManager(); },
+                (entityManager) -> { return new NonJtaTransaction(entityManager).withReadOnly(); },
                 (entityManager) -> { return new NonJtaTransaction(entityManager); }
         );
     }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.jpa.transaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yahoo.elide.datastores.jpa.transaction.DeferredWrites.Operation;
+
+import example.Author;
+import example.Book;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.Type;
+
+public class DeferredWritesTest {
+
+    @Test
+    public void testReplaysWritesInOrder() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Book book1 = new Book();
+        Book book2 = new Book();
+        Author author = new Author();
+
+        DeferredWrites writes = new DeferredWrites(entityManager);
+        writes.add(Operation.PERSIST, book1);
+        writes.add(Operation.PERSIST, author);
+        writes.add(Operation.PERSIST, book2);
+        writes.replay();
+
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(book1);
+        inOrder.verify(entityManager).persist(author);
+        inOrder.verify(entityManager).persist(book2);
+        verify(entityManager, never()).flush();
+        verify(entityManager, never()).clear();
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    public void testCountsWritesByOperationAndType() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Book book1 = new Book();
+        Book book2 = new Book();
+        Book book3 = new Book();
+        Author author = new Author();
+        Author removed = new Author();
+
+        DeferredWrites writes = new DeferredWrites(entityManager);
+        writes.add(Operation.PERSIST, book1);
+        writes.add(Operation.PERSIST, author);
+        writes.add(Operation.REMOVE, removed);
+        writes.add(Operation.PERSIST, book2);
+        writes.add(Operation.MERGE, book3);
+        Map<String, Integer> counts = writes.replay();
+
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(book1);
+        inOrder.verify(entityManager).persist(author);
+        inOrder.verify(entityManager).remove(removed);
+        inOrder.verify(entityManager).persist(book2);
+        inOrder.verify(entityManager).merge(book3);
+        assertTrue(writes.isEmpty());
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("PERSIST Book", 2);
+        expected.put("PERSIST Author", 1);
+        expected.put("REMOVE Author", 1);
+        expected.put("MERGE Book", 1);
+        assertEquals(expected, counts);
+    }
+
+    @Test
+    public void testBulkWritesAreGroupedAndFlushedPeriodically() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Metamodel metamodel = mock(Metamodel.class);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        doReturn(mock(ManagedType.class)).when(metamodel).managedType(any());
+
+        Book book1 = new Book();
+        Book book2 = new Book();
+        Book book3 = new Book();
+        Author author = new Author();
+
+        DeferredWrites writes = new DeferredWrites(entityManager);
+        writes.add(Operation.PERSIST, book1);
+        writes.add(Operation.PERSIST, author);
+        writes.add(Operation.PERSIST, book2);
+        writes.add(Operation.MERGE, book3);
+        Map<String, Integer> counts = writes.replay(2);
+
+        //Books and authors are not associated here, so the books are persisted together.
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(book1);
+        inOrder.verify(entityManager).persist(book2);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(entityManager).persist(author);
+        inOrder.verify(entityManager).merge(book3);
+        inOrder.verify(entityManager).flush();
+        verify(entityManager, times(2)).flush();
+        //The written entities stay managed for the response and the commit triggers.
+        verify(entityManager, never()).clear();
+        assertTrue(writes.isEmpty());
+
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("PERSIST Book", 2);
+        expected.put("PERSIST Author", 1);
+        expected.put("MERGE Book", 1);
+        assertEquals(expected, counts);
+    }
+
+    @Test
+    public void testBulkWritesKeepTheOrderOfAssociatedTypes() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Metamodel metamodel = mock(Metamodel.class);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+
+        Type<?> authorType = mock(Type.class);
+        when(authorType.getPersistenceType()).thenReturn(Type.PersistenceType.ENTITY);
+        doReturn(Author.class).when(authorType).getJavaType();
+        PluralAttribute<?, ?, ?> authors = mock(PluralAttribute.class);
+        doReturn(authorType).when(authors).getElementType();
+        ManagedType<?> bookType = mock(ManagedType.class);
+        doReturn(Collections.singleton(authors)).when(bookType).getAttributes();
+        doReturn(bookType).when(metamodel).managedType(Book.class);
+        doReturn(mock(ManagedType.class)).when(metamodel).managedType(Author.class);
+
+        Book book1 = new Book();
+        Book book2 = new Book();
+        Author author = new Author();
+        Author removed = new Author();
+
+        DeferredWrites writes = new DeferredWrites(entityManager);
+        writes.add(Operation.PERSIST, book1);
+        writes.add(Operation.PERSIST, author);
+        writes.add(Operation.PERSIST, book2);
+        writes.add(Operation.REMOVE, removed);
+        writes.replay(10);
+
+        //A book may reference the author persisted before it.
+        InOrder inOrder = inOrder(entityManager);
+        inOrder.verify(entityManager).persist(book1);
+        inOrder.verify(entityManager).persist(author);
+        inOrder.verify(entityManager).persist(book2);
+        inOrder.verify(entityManager).remove(removed);
+        inOrder.verify(entityManager).flush();
+        verify(entityManager, never()).clear();
+    }
+}
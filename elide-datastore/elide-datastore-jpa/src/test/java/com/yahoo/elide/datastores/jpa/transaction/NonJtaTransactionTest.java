@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.jpa.transaction;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yahoo.elide.core.hibernate.hql.PageTotalsCache;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.FlushModeType;
+
+public class NonJtaTransactionTest {
+
+    @Test
+    public void testPageTotalsAreEvictedOnceCommitted() {
+        EntityManager entityManager = mock(EntityManager.class);
+        EntityTransaction transaction = mock(EntityTransaction.class);
+        PageTotalsCache cache = mock(PageTotalsCache.class);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(entityManager.getFlushMode()).thenReturn(FlushModeType.COMMIT);
+        when(transaction.isActive()).thenReturn(true);
+
+        NonJtaTransaction tx = new NonJtaTransaction(entityManager);
+        tx.withPageTotalsCache(cache);
+        tx.save("row", null);
+
+        //Readers which count before the database commit would otherwise cache totals without the write.
+        tx.flush(null);
+        verify(cache, never()).invalidate(String.class);
+
+        tx.commit(null);
+        InOrder inOrder = inOrder(transaction, cache);
+        inOrder.verify(transaction).commit();
+        inOrder.verify(cache).invalidate(String.class);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.datastores.jpa.transaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+public class StreamingIterableTest {
+
+    @Test
+    public void testIteratesOnceAndCloses() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> stream = Stream.of(1, 2, 3, 4, 5).onClose(() -> closed.set(true));
+
+        StreamingIterable<Integer> results = new StreamingIterable<>(stream);
+        List<Integer> rows = new ArrayList<>();
+        results.forEach(rows::add);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), rows);
+        assertTrue(closed.get());
+        assertThrows(IllegalStateException.class, results::iterator);
+    }
+
+    @Test
+    public void testCloseBeforeExhausted() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> stream = Stream.of(1, 2, 3).onClose(() -> closed.set(true));
+
+        StreamingIterable<Integer> results = new StreamingIterable<>(stream);
+        assertEquals(1, results.iterator().next());
+        results.close();
+
+        assertTrue(closed.get());
+        assertFalse(results.hasNext());
+    }
+}
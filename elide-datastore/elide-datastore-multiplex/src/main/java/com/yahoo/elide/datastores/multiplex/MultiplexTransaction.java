@@ -233,6 +233,11 @@ public abstract class MultiplexTransaction implements DataStoreTransaction {
         return getTransaction(entityClass).supportsPagination(entityClass);
     }
 
+    @Override
+    public boolean supportsKeysetPagination(Class<?> entityClass) {
+        return getTransaction(entityClass).supportsKeysetPagination(entityClass);
+    }
+
     private Serializable extractId(FilterExpression filterExpression,
                                    String idFieldName,
                                    Class<?> relationClass) {
@@ -190,7 +190,7 @@ public class PersistentResourceFetcher implements DataFetcher<Object> {
                 entityClass, /* Empty list of IDs */ new ArrayList<>(), filter, sorting, pagination, requestScope
         ));
 
-        return new ConnectionContainer(records, pagination, typeName);
+        return new ConnectionContainer(records, pagination, typeName, sorting);
     }
 
     /**
@@ -231,7 +231,7 @@ public class PersistentResourceFetcher implements DataFetcher<Object> {
                     filter, sorting, pagination);
         }
 
-        return new ConnectionContainer(relations, pagination, typeName);
+        return new ConnectionContainer(relations, pagination, typeName, sorting);
     }
 
     private ConnectionContainer upsertObjects(Environment context) {
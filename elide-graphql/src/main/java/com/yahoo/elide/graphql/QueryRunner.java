@@ -25,6 +25,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.apache.commons.lang3.tuple.Pair;
 import org.owasp.encoder.Encode;
 
@@ -32,6 +33,9 @@ import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
 import graphql.GraphQLError;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.parser.Parser;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
@@ -140,7 +144,10 @@ public class QueryRunner {
     private ElideResponse executeGraphQLRequest(ObjectMapper mapper, Object principal,
                                                 String graphQLDocument, JsonNode jsonDocument) {
         boolean isVerbose = false;
-        try (DataStoreTransaction tx = elide.getDataStore().beginTransaction()) {
+        String operationName = getOperationName(jsonDocument);
+        boolean isMutation = jsonDocument.has(QUERY) && isMutation(jsonDocument.get(QUERY).asText(), operationName);
+
+        try (DataStoreTransaction tx = beginTransaction(isMutation)) {
             final User user = tx.accessUser(principal);
             GraphQLRequestScope requestScope = new GraphQLRequestScope(tx, user, elide.getElideSettings());
             isVerbose = requestScope.getPermissionExecutor().isVerbose();
@@ -162,8 +169,8 @@ public class QueryRunner {
                     .context(requestScope)
                     .query(query);
 
-            if (jsonDocument.has(OPERATION_NAME) && !jsonDocument.get(OPERATION_NAME).isNull()) {
-                executionInput.operationName(jsonDocument.get(OPERATION_NAME).asText());
+            if (operationName != null) {
+                executionInput.operationName(operationName);
             }
 
             if (jsonDocument.has(VARIABLES) && !jsonDocument.get(VARIABLES).isNull()) {
@@ -176,7 +183,7 @@ public class QueryRunner {
             tx.preCommit();
             requestScope.runQueuedPreSecurityTriggers();
             requestScope.getPermissionExecutor().executeCommitChecks();
-            if (query.trim().startsWith(MUTATION)) {
+            if (isMutation) {
                 if (!result.getErrors().isEmpty()) {
                     HashMap<String, Object> abortedResponseObject = new HashMap<String, Object>() {
                         {
@@ -259,6 +266,42 @@ public class QueryRunner {
         }
     }
 
+    private static String getOperationName(JsonNode jsonDocument) {
+        if (jsonDocument.has(OPERATION_NAME) && !jsonDocument.get(OPERATION_NAME).isNull()) {
+            return jsonDocument.get(OPERATION_NAME).asText();
+        }
+        return null;
+    }
+
+    private DataStoreTransaction beginTransaction(boolean isMutation) {
+        return isMutation ? elide.getDataStore().beginTransaction() : elide.getDataStore().beginReadTransaction();
+    }
+
+    /**
+     * Determines whether the operation a GraphQL document executes is a mutation.  Queries run in a read
+     * transaction of the data store.
+     * @param query The GraphQL document
+     * @param operationName The name of the operation to execute, or null if the document has a single operation
+     * @return true if the operation is a mutation
+     */
+    static boolean isMutation(String query, String operationName) {
+        Document document;
+        try {
+            document = new Parser().parseDocument(query);
+        } catch (ParseCancellationException e) {
+            // Documents which do not parse fail to execute, so only the shape of the error response depends on this
+            return query.trim().startsWith(MUTATION);
+        }
+
+        return document.getDefinitions().stream()
+                .filter(OperationDefinition.class::isInstance)
+                .map(OperationDefinition.class::cast)
+                .filter(operation -> operationName == null || operationName.equals(operation.getName()))
+                .findFirst()
+                .map(operation -> operation.getOperation() == OperationDefinition.Operation.MUTATION)
+                .orElse(false);
+    }
+
     private ElideResponse buildErrorResponse(HttpStatusException error, boolean isVerbose) {
         ObjectMapper mapper = elide.getMapper().getObjectMapper();
         JsonNode errorNode;
@@ -8,6 +8,7 @@ package com.yahoo.elide.graphql.containers;
 import com.yahoo.elide.core.PersistentResource;
 import com.yahoo.elide.core.exceptions.BadRequestException;
 import com.yahoo.elide.core.pagination.Pagination;
+import com.yahoo.elide.core.sort.Sorting;
 import com.yahoo.elide.graphql.Environment;
 import com.yahoo.elide.graphql.PersistentResourceFetcher;
 
@@ -27,10 +28,18 @@ public class ConnectionContainer implements GraphQLContainer {
     @Getter private final Optional<Pagination> pagination;
     // Refers to the type of persistentResources
     @Getter private final String typeName;
+    // The sorting of persistentResources, which keyset cursors are read from
+    @Getter private final Optional<Sorting> sorting;
 
     public static final String EDGES_KEYWORD = "edges";
     public static final String PAGE_INFO_KEYWORD = "pageInfo";
 
+    public ConnectionContainer(Set<PersistentResource> persistentResources,
+                               Optional<Pagination> pagination,
+                               String typeName) {
+        this(persistentResources, pagination, typeName, Optional.empty());
+    }
+
     @Override
     public Object processFetch(Environment context, PersistentResourceFetcher fetcher) {
         String fieldName = context.field.getName();
@@ -7,6 +7,7 @@ package com.yahoo.elide.graphql.containers;
 
 import com.yahoo.elide.core.PersistentResource;
 import com.yahoo.elide.core.exceptions.BadRequestException;
+import com.yahoo.elide.core.pagination.KeysetCursor;
 import com.yahoo.elide.core.pagination.Pagination;
 import com.yahoo.elide.graphql.Environment;
 import com.yahoo.elide.graphql.PersistentResourceFetcher;
@@ -48,12 +49,25 @@ public class PageInfoContainer implements GraphQLContainer {
             switch (fieldName) {
                 case PAGE_INFO_HAS_NEXT_PAGE_KEYWORD: {
                     int numResults = ids.size();
+                    if (pageValue.isKeyset()) {
+                        //The position of a keyset page is unknown, but a full page may be followed by more records.
+                        return pageValue.getNextAfter() != null;
+                    }
                     int nextOffset = numResults + pageValue.getOffset();
                     return nextOffset < pageValue.getPageTotals();
                 }
                 case PAGE_INFO_START_CURSOR_KEYWORD:
-                    return pageValue.getOffset();
+                    return pageValue.isKeyset() ? pageValue.getAfter() : pageValue.getOffset();
                 case PAGE_INFO_END_CURSOR_KEYWORD:
+                    if (pageValue.getNextAfter() != null) {
+                        return pageValue.getNextAfter();
+                    }
+                    if (pageValue.isKeyset()) {
+                        return connectionContainer.getPersistentResources().stream()
+                                .reduce((first, second) -> second)
+                                .map(last -> KeysetCursor.of(last, connectionContainer.getSorting()))
+                                .orElse(pageValue.getAfter());
+                    }
                     return pageValue.getOffset() + ids.size();
                 case PAGE_INFO_TOTAL_RECORDS_KEYWORD:
                     return pageValue.getPageTotals();
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020, Yahoo Inc.
+ * Licensed under the Apache License, Version 2.0
+ * See LICENSE file in project root for terms.
+ */
+package com.yahoo.elide.graphql;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class QueryRunnerTest {
+    private static final String DOCUMENT = "query listBooks { book { edges { node { id } } } } "
+            + "mutation addBook { book(op: UPSERT, data: {title: \"A\"}) { edges { node { id } } } }";
+
+    @Test
+    public void testQueriesAreNotMutations() {
+        assertFalse(QueryRunner.isMutation("{ book { edges { node { id } } } }", null));
+        assertFalse(QueryRunner.isMutation("  query { book { edges { node { id } } } }", null));
+        assertFalse(QueryRunner.isMutation(DOCUMENT, "listBooks"));
+    }
+
+    @Test
+    public void testMutations() {
+        assertTrue(QueryRunner.isMutation("# Adds a book\nmutation { book(op: UPSERT, data: {title: \"A\"}) "
+                + "{ edges { node { id } } } }", null));
+        assertTrue(QueryRunner.isMutation(DOCUMENT, "addBook"));
+    }
+
+    @Test
+    public void testUnparsableDocuments() {
+        assertTrue(QueryRunner.isMutation("mutation { book(", null));
+        assertFalse(QueryRunner.isMutation("{ book(", null));
+    }
+}
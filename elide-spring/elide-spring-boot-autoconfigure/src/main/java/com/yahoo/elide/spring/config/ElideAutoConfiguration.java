@@ -58,6 +58,7 @@ public class ElideAutoConfiguration {
                 .withSubqueryFilterDialect(new RSQLFilterDialect(dictionary))
                 .withAuditLogger(new Slf4jLogger())
                 .withEncodeErrorResponses(true)
+                .withSerializeResponsesToBytes(settings.isSerializeResponsesToBytes())
                 .withISO8601Dates("yyyy-MM-dd'T'HH:mm'Z'", TimeZone.getTimeZone("UTC"));
 
         return new Elide(builder.build());
@@ -92,14 +93,21 @@ public class ElideAutoConfiguration {
     /**
      * Creates the DataStore Elide.  Override to use a different store.
      * @param entityManagerFactory The JPA factory which creates entity managers.
+     * @param settings Elide configuration settings.
      * @return An instance of a JPA DataStore.
      */
     @Bean
     @ConditionalOnMissingBean
-    public DataStore buildDataStore(EntityManagerFactory entityManagerFactory) throws ClassNotFoundException {
+    public DataStore buildDataStore(EntityManagerFactory entityManagerFactory, ElideConfigProperties settings)
+            throws ClassNotFoundException {
+
+        JpaDataStore.JpaTransactionSupplier readTransactionSupplier = settings.isReadOnlyTransactions()
+                ? (em -> { return new NonJtaTransaction(em).withReadOnly(); })
+                : (em -> { return new NonJtaTransaction(em); });
 
         return new JpaDataStore(
                 () -> { return entityManagerFactory.createEntityManager(); },
+                    readTransactionSupplier,
                     (em -> { return new NonJtaTransaction(em); }));
     }
 
@@ -40,4 +40,15 @@ public class ElideConfigProperties {
      * The maximum pagination size a client can request.
      */
     private int maxPageSize = 10000;
+
+    /**
+     * Whether JSON-API GET responses are serialized to UTF-8 bytes rather than to a string.
+     */
+    private boolean serializeResponsesToBytes = false;
+
+    /**
+     * Whether GET requests and GraphQL queries run in read-only JPA transactions, which are never flushed.  Entities
+     * changed while reading, for example by lifecycle hooks, are not written when it is enabled.
+     */
+    private boolean readOnlyTransactions = false;
 }
@@ -24,6 +24,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -56,11 +57,15 @@ public class JsonApiController {
     }
 
     @GetMapping(value = "/**", produces = JSON_API_CONTENT_TYPE)
-    public ResponseEntity<String> elideGet(@RequestParam Map<String, String> allRequestParams,
-                                           HttpServletRequest request, Principal authentication) {
+    public ResponseEntity<?> elideGet(@RequestParam Map<String, String> allRequestParams,
+                                      HttpServletRequest request, Principal authentication) {
         String pathname = getJsonApiPath(request, settings.getJsonApi().getPath());
 
         ElideResponse response = elide.get(pathname, new MultivaluedHashMap<>(allRequestParams), authentication);
+        if (response.hasBodyBytes()) {
+            StreamingResponseBody body = response::writeBody;
+            return ResponseEntity.status(response.getResponseCode()).body(body);
+        }
         return ResponseEntity.status(response.getResponseCode()).body(response.getBody());
     }
 
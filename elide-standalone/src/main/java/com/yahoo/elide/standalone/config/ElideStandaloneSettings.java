@@ -65,8 +65,12 @@ public interface ElideStandaloneSettings {
     default ElideSettings getElideSettings(ServiceLocator injector) {
         EntityManagerFactory entityManagerFactory = Util.getEntityManagerFactory(getModelPackageName(),
                 getDatabaseProperties());
+        JpaDataStore.JpaTransactionSupplier readTransactionSupplier = enableReadOnlyTransactions()
+                ? (em -> { return new NonJtaTransaction(em).withReadOnly(); })
+                : (em -> { return new NonJtaTransaction(em); });
         DataStore dataStore = new JpaDataStore(
                 () -> { return entityManagerFactory.createEntityManager(); },
+                readTransactionSupplier,
                 (em -> { return new NonJtaTransaction(em); }));
 
         EntityDictionary dictionary = new EntityDictionary(getCheckMappings(),
@@ -180,6 +184,16 @@ public interface ElideStandaloneSettings {
         return true;
     }
 
+    /**
+     * Whether GET requests and GraphQL queries run in read-only JPA transactions, which are never flushed. Entities
+     * changed while reading, for example by lifecycle hooks, are not written when enabled.
+     *
+     * @return Default: False
+     */
+    default boolean enableReadOnlyTransactions() {
+        return false;
+    }
+
     /**
      * Whether Dates should be ISO8601 strings (true) or epochs (false).
      * @return